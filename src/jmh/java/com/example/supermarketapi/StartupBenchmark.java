@@ -0,0 +1,57 @@
+package com.example.supermarketapi;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Time to first request: boot the application on an ephemeral port and time until GET /items has answered 200.
+// Each fork is a fresh JVM and runs a single measured start, so every sample is a cold start (no warmed-up JIT or
+// loaded classes). "fast" applies the startup switches of the prod profile that do not depend on MySQL.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(10)
+public class StartupBenchmark {
+
+    @Param({"default", "fast"})
+    private String startup;
+
+    private final HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+    @Benchmark
+    public int timeToFirstRequest() throws IOException, InterruptedException {
+        List<String> args = new ArrayList<>(List.of(
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:startup_benchmark;MODE=MySQL;DB_CLOSE_DELAY=-1",
+                "--app.access-log.enabled=false",
+                "--logging.level.root=WARN"));
+        if (startup.equals("fast")) {
+            args.add("--spring.main.lazy-initialization=true");
+            args.add("--spring.data.jpa.repositories.bootstrap-mode=deferred");
+            args.add("--springfox.documentation.enabled=false");
+        }
+
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(SupermarketApiApplication.class)
+                .profiles("h2")
+                .run(args.toArray(new String[0]))) {
+            String port = context.getEnvironment().getProperty("local.server.port");
+            HttpResponse<Void> response = client.send(HttpRequest.newBuilder(
+                    URI.create("http://localhost:" + port + "/items")).build(), HttpResponse.BodyHandlers.discarding());
+            if (response.statusCode() != 200) {
+                throw new IllegalStateException("First request answered " + response.statusCode());
+            }
+            return response.statusCode();
+        }
+    }
+}
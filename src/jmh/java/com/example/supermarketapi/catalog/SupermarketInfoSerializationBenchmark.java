@@ -0,0 +1,76 @@
+package com.example.supermarketapi.catalog;
+
+import com.example.supermarketapi.dto.ItemResponseDTO;
+import com.example.supermarketapi.dto.SupermarketInfoDTO;
+import com.example.supermarketapi.model.enums.ItemType;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.module.afterburner.AfterburnerModule;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.util.unit.DataSize;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// CPU cost of a GET /supermarkets/{id} body: plain reflective Jackson, the application's Afterburner mapper with a
+// prepared writer, and CatalogueResponseCache serving a miss (serialize and gzip) and a hit (cached bytes).
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SupermarketInfoSerializationBenchmark {
+
+    private static final String STORE = "store-1";
+    private static final ItemType[] ITEM_TYPES = ItemType.values();
+
+    @Param({"50", "1000"})
+    private int items;
+
+    private SupermarketInfoDTO info;
+    private ObjectMapper reflectiveMapper;
+    private ObjectWriter afterburnerWriter;
+    private CatalogueResponseCache cache;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        List<ItemResponseDTO> listings = new ArrayList<>(items);
+        for (int i = 0; i < items; i++) {
+            listings.add(new ItemResponseDTO("item-" + i, "Item number " + i, 50L + random.nextInt(5_000),
+                    ITEM_TYPES[i % ITEM_TYPES.length], STORE));
+        }
+        info = new SupermarketInfoDTO("Benchmark Market", "1 Benchmark Street", "0881234567", "08:00-22:00",
+                listings);
+
+        reflectiveMapper = new ObjectMapper();
+        ObjectMapper afterburnerMapper = new ObjectMapper().registerModule(new AfterburnerModule());
+        afterburnerWriter = afterburnerMapper.writerFor(SupermarketInfoDTO.class);
+        cache = new CatalogueResponseCache(afterburnerMapper, DataSize.ofKilobytes(2));
+    }
+
+    @Benchmark
+    public byte[] reflective() throws JsonProcessingException {
+        return reflectiveMapper.writeValueAsBytes(info);
+    }
+
+    @Benchmark
+    public byte[] afterburner() throws JsonProcessingException {
+        return afterburnerWriter.writeValueAsBytes(info);
+    }
+
+    @Benchmark
+    public CachedResponse cacheMiss() {
+        cache.invalidate(STORE);
+        return cache.getSupermarketInfo(STORE, () -> info);
+    }
+
+    @Benchmark
+    public CachedResponse cacheHit() {
+        return cache.getSupermarketInfo(STORE, () -> info);
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.supermarketapi.mapper;
+
+import com.example.supermarketapi.dto.PurchaseDTO;
+import com.example.supermarketapi.model.Purchase;
+import com.example.supermarketapi.model.PurchaseRequest;
+import com.example.supermarketapi.model.enums.PaymentType;
+import org.mapstruct.factory.Mappers;
+import org.modelmapper.Converter;
+import org.modelmapper.ModelMapper;
+import org.modelmapper.convention.MatchingStrategies;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Generated PurchaseMapper against the ModelMapper it replaced, on the PATCH /purchases/{id} merge of a request
+// into a purchase (ModelMapper cannot build the immutable response DTOs, so the DTO mapping is MapStruct only).
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PurchaseMappingBenchmark {
+
+    private PurchaseMapper purchaseMapper;
+    private ModelMapper modelMapper;
+    private PurchaseRequest request;
+    private Purchase purchase;
+    private List<Purchase> purchases;
+
+    @Setup
+    public void setUp() {
+        purchaseMapper = Mappers.getMapper(PurchaseMapper.class);
+
+        // Configured for the same result as mergePurchase: exact names only, nulls skipped, type parsed
+        modelMapper = new ModelMapper();
+        modelMapper.getConfiguration().setMatchingStrategy(MatchingStrategies.STRICT).setSkipNullEnabled(true);
+        Converter<String, PaymentType> toPaymentType = context -> context.getSource() == null
+                ? null : PaymentType.valueOf(context.getSource().toUpperCase());
+        modelMapper.typeMap(PurchaseRequest.class, Purchase.class).addMappings(mapping -> mapping
+                .using(toPaymentType).map(PurchaseRequest::getType, Purchase::setPaymentType));
+
+        request = new PurchaseRequest();
+        request.setSupermarketId("store-1");
+        request.setItemIDs(List.of("item-1", "item-2", "item-3"));
+        request.setType("cash");
+        request.setCashAmount(2_000L);
+
+        purchase = purchase(0);
+        purchases = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            purchases.add(purchase(i));
+        }
+    }
+
+    @Benchmark
+    public Purchase mapStructMerge() {
+        purchaseMapper.mergePurchase(request, purchase);
+        return purchase;
+    }
+
+    @Benchmark
+    public Purchase modelMapperMerge() {
+        modelMapper.map(request, purchase);
+        return purchase;
+    }
+
+    @Benchmark
+    public List<PurchaseDTO> mapStructHundredDTOs() {
+        return purchaseMapper.toPurchaseDTOs(purchases);
+    }
+
+    private static Purchase purchase(int i) {
+        Purchase purchase = new Purchase();
+        purchase.setId("purchase-" + i);
+        purchase.setSupermarketId("store-" + i % 10);
+        purchase.setItemIDs(List.of("item-" + i));
+        purchase.setPaymentType(PaymentType.CARD);
+        purchase.setPrice(1_000L + i);
+        purchase.setChangeAmount(0L);
+        purchase.setTimeOfPayment(LocalDate.of(2026, 1, 1).plusDays(i % 28));
+        return purchase;
+    }
+}
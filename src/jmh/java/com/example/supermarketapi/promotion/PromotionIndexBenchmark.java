@@ -0,0 +1,99 @@
+package com.example.supermarketapi.promotion;
+
+import com.example.supermarketapi.catalog.AssortmentSnapshot;
+import com.example.supermarketapi.model.Item;
+import com.example.supermarketapi.model.Promotion;
+import com.example.supermarketapi.model.SupermarketItem;
+import com.example.supermarketapi.model.enums.ItemType;
+import com.example.supermarketapi.model.enums.PromotionType;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Checkout pricing cost of promotions: 100-line baskets against 10k active promotions spread over 50 stores.
+// Most promotions are multi-buys on single items, the rest percent-offs and basket thresholds.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PromotionIndexBenchmark {
+
+    private static final int ASSORTMENT_SIZE = 5_000;
+    private static final int STORES = 50;
+    private static final ItemType[] ITEM_TYPES = ItemType.values();
+
+    @Param("10000")
+    private int promotions;
+
+    @Param("100")
+    private int basketLines;
+
+    private final Random random = new Random(42);
+
+    private PromotionIndex index;
+    private AssortmentSnapshot assortment;
+    private int[][] baskets;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        List<SupermarketItem> listings = new ArrayList<>(ASSORTMENT_SIZE);
+        for (int i = 0; i < ASSORTMENT_SIZE; i++) {
+            Item item = new Item();
+            item.setId("item-" + i);
+            item.setName("Item " + i);
+            item.setPrice(50L + random.nextInt(5_000));
+            item.setType(ITEM_TYPES[i % ITEM_TYPES.length]);
+            listings.add(new SupermarketItem(store(0), item));
+        }
+        assortment = AssortmentSnapshot.of(store(0), listings);
+
+        List<Promotion> active = new ArrayList<>(promotions);
+        for (int i = 0; i < promotions; i++) {
+            Promotion promotion = new Promotion();
+            promotion.setName("Promotion " + i);
+            // One in ten runs in every store
+            promotion.setSupermarketId(i % 10 == 0 ? null : store(random.nextInt(STORES)));
+            int kind = random.nextInt(100);
+            if (kind < 90) {
+                promotion.setType(PromotionType.MULTI_BUY);
+                promotion.setItemId("item-" + random.nextInt(ASSORTMENT_SIZE));
+                promotion.setBuyQuantity(2 + random.nextInt(3));
+                promotion.setPayQuantity(1);
+            } else if (kind < 95) {
+                promotion.setType(PromotionType.PERCENT_OFF_TYPE);
+                promotion.setItemType(ITEM_TYPES[random.nextInt(ITEM_TYPES.length)]);
+                promotion.setPercentOff(1 + random.nextInt(30));
+            } else {
+                promotion.setType(PromotionType.BASKET_THRESHOLD);
+                promotion.setThresholdAmount(1_000L + random.nextInt(100_000));
+                promotion.setDiscountAmount(100L + random.nextInt(2_000));
+            }
+            active.add(promotion);
+        }
+        index = PromotionIndex.compile(active, System.currentTimeMillis());
+
+        // Baskets repeat items so multi-buys trigger
+        baskets = new int[64][basketLines];
+        for (int[] basket : baskets) {
+            for (int line = 0; line < basketLines; line++) {
+                basket[line] = random.nextInt(ASSORTMENT_SIZE / 10);
+            }
+        }
+    }
+
+    @Benchmark
+    public long evaluateBasket() {
+        int[] basket = baskets[next++ & baskets.length - 1];
+        return index.evaluate(assortment.getSupermarketId(), assortment, basket, basket.length);
+    }
+
+    private static String store(int i) {
+        return "store-" + i;
+    }
+}
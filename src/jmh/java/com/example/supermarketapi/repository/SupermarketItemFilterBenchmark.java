@@ -0,0 +1,107 @@
+package com.example.supermarketapi.repository;
+
+import com.example.supermarketapi.SupermarketApiApplication;
+import com.example.supermarketapi.model.SupermarketItem;
+import com.example.supermarketapi.model.enums.ItemType;
+import com.example.supermarketapi.model.money.Money;
+import com.example.supermarketapi.service.SupermarketService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// "All DRINKS in supermarket X between 1.00 and 5.00, cheapest first" through the Specification path of
+// GET /supermarkets/{id}/items, against 1M items listed across 1000 stores in H2 (MySQL mode). The setup fails
+// unless the plan of the equivalent SQL is a range scan on idx_supermarket_item_store_price.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SupermarketItemFilterBenchmark {
+
+    private static final int STORES = 1_000;
+    private static final int BATCH = 10_000;
+    private static final ItemType[] ITEM_TYPES = ItemType.values();
+
+    @Param("1000000")
+    private int items;
+
+    private final Random random = new Random(42);
+
+    private ConfigurableApplicationContext context;
+    private SupermarketService supermarketService;
+    private PageRequest firstPage;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(SupermarketApiApplication.class)
+                .profiles("h2")
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=jdbc:h2:mem:filter_benchmark;MODE=MySQL;DB_CLOSE_DELAY=-1",
+                        "--app.access-log.enabled=false",
+                        "--logging.level.root=WARN");
+        supermarketService = context.getBean(SupermarketService.class);
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        firstPage = PageRequest.of(0, 50, Sort.by("price"));
+
+        List<Object[]> stores = new ArrayList<>(STORES);
+        for (int i = 0; i < STORES; i++) {
+            stores.add(new Object[]{store(i), "Store " + i, i + " Benchmark Street", "0881234567", "08:00-22:00"});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO supermarket (id, name, address, phone_number, work_hours)"
+                + " VALUES (?, ?, ?, ?, ?)", stores);
+
+        // Tables are built from the entities, so the indexes are the ones declared in @Table
+        List<Object[]> itemRows = new ArrayList<>(BATCH);
+        List<Object[]> listingRows = new ArrayList<>(BATCH);
+        for (int i = 0; i < items; i++) {
+            long price = 50 + random.nextInt(4_950);
+            itemRows.add(new Object[]{"item-" + i, "Item " + i, Money.toDecimal(price),
+                    ITEM_TYPES[random.nextInt(ITEM_TYPES.length)].ordinal()});
+            listingRows.add(new Object[]{store(i % STORES), "item-" + i, Money.toDecimal(price), false, true});
+            if (itemRows.size() == BATCH || i == items - 1) {
+                jdbcTemplate.batchUpdate("INSERT INTO item (id, name, price, type) VALUES (?, ?, ?, ?)", itemRows);
+                jdbcTemplate.batchUpdate("INSERT INTO supermarket_item (supermarket_id, item_id, price, own_price,"
+                        + " active) VALUES (?, ?, ?, ?, ?)", listingRows);
+                itemRows.clear();
+                listingRows.clear();
+            }
+        }
+        jdbcTemplate.execute("ANALYZE");
+
+        String plan = jdbcTemplate.queryForObject("EXPLAIN SELECT l.item_id, l.price, i.name, i.type"
+                + " FROM supermarket_item l JOIN item i ON i.id = l.item_id"
+                + " WHERE l.supermarket_id = 'store-1' AND l.active = TRUE AND l.price >= 1.00 AND l.price <= 5.00"
+                + " AND i.type = " + ItemType.DRINKS.ordinal() + " ORDER BY l.price LIMIT 50", String.class);
+        if (!plan.toLowerCase(Locale.ROOT).contains("idx_supermarket_item_store_price")) {
+            throw new IllegalStateException("Filter query does not use idx_supermarket_item_store_price:\n" + plan);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Page<SupermarketItem> drinksBetweenOneAndFive() {
+        return supermarketService.getSupermarketItems(store(random.nextInt(STORES)), ItemType.DRINKS, 100L, 500L,
+                firstPage);
+    }
+
+    private static String store(int i) {
+        return "store-" + i;
+    }
+}
@@ -0,0 +1,200 @@
+package com.example.supermarketapi.accesslog;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.Instant;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+// Structured (one JSON object per line) access and audit log, written to the "access" logger by a single writer
+// thread. Request threads claim a preallocated slot of a ring buffer with one CAS and fill it in place; when the
+// writer falls behind, entries are dropped and counted rather than blocking the request.
+@Component
+public class AccessLog {
+
+    private static final Logger log = LoggerFactory.getLogger("access");
+    private static final Logger status = LoggerFactory.getLogger(AccessLog.class);
+
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private final AccessLogEntry[] ring;
+    private final int mask;
+
+    // Next sequence a request thread can claim, and the next one the writer will read
+    private final AtomicLong claimed = new AtomicLong();
+    private volatile long consumed;
+
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder written = new LongAdder();
+
+    private final StringBuilder line = new StringBuilder(512);
+    private Thread writer;
+    private volatile boolean running;
+
+    public AccessLog(@Value("${app.access-log.buffer-size:8192}") int bufferSize) {
+        if (bufferSize <= 0 || Integer.bitCount(bufferSize) != 1) {
+            throw new IllegalArgumentException("app.access-log.buffer-size must be a power of two: " + bufferSize);
+        }
+        ring = new AccessLogEntry[bufferSize];
+        for (int i = 0; i < bufferSize; i++) {
+            ring[i] = new AccessLogEntry();
+        }
+        mask = bufferSize - 1;
+    }
+
+    // Records an entity the current request changed, for its audit line
+    public static void recordMutation(String entity, String id, String operation) {
+        RequestAudit.record(entity, id, operation);
+    }
+
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    public long getWritten() {
+        return written.sum();
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        writer = new Thread(this::drainLoop, "access-log-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    // Lets the writer flush what was logged before shutdown
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        LockSupport.unpark(writer);
+        writer.join(TimeUnit.SECONDS.toMillis(5));
+    }
+
+    // A slot to fill and publish, or null when the ring is full
+    AccessLogEntry claim() {
+        while (true) {
+            long sequence = claimed.get();
+            if (sequence - consumed >= ring.length) {
+                dropped.increment();
+                return null;
+            }
+            if (claimed.compareAndSet(sequence, sequence + 1)) {
+                AccessLogEntry entry = ring[(int) sequence & mask];
+                entry.claimedSequence = sequence;
+                return entry;
+            }
+        }
+    }
+
+    void publish(AccessLogEntry entry) {
+        entry.published = entry.claimedSequence;
+    }
+
+    private void drainLoop() {
+        long lastDropped = 0;
+        while (running || claimed.get() != consumed) {
+            if (!drain()) {
+                long droppedNow = dropped.sum();
+                if (droppedNow != lastDropped) {
+                    status.warn("Access log buffer full, {} entries dropped so far", droppedNow);
+                    lastDropped = droppedNow;
+                }
+                if (!running && claimed.get() != consumed) {
+                    // A claimed slot that is never published (its thread died mid-request) must not block shutdown
+                    break;
+                }
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+            }
+        }
+    }
+
+    // Writes every published entry in order; false if there was none
+    private boolean drain() {
+        boolean any = false;
+        long sequence = consumed;
+        AccessLogEntry entry = ring[(int) sequence & mask];
+        while (entry.published == sequence) {
+            try {
+                log.info(format(entry));
+                written.increment();
+            } catch (RuntimeException e) {
+                status.warn("Could not write access log entry", e);
+            } finally {
+                entry.clear();
+                consumed = ++sequence;
+            }
+            any = true;
+            entry = ring[(int) sequence & mask];
+        }
+        return any;
+    }
+
+    private String format(AccessLogEntry entry) {
+        StringBuilder json = line;
+        json.setLength(0);
+        json.append("{\"ts\":\"");
+        DateTimeFormatter.ISO_INSTANT.formatTo(Instant.ofEpochMilli(entry.timestampMillis), json);
+        json.append("\",\"type\":\"").append(entry.audit ? "audit" : "access").append('"');
+        appendString(json, "requestId", entry.requestId);
+        appendString(json, "method", entry.method);
+        appendString(json, "route", entry.route);
+        json.append(",\"status\":").append(entry.status)
+                .append(",\"latencyMicros\":").append(entry.latencyMicros)
+                .append(",\"sqlCount\":").append(entry.sqlCount);
+        if (entry.requestBytes >= 0) {
+            json.append(",\"requestBytes\":").append(entry.requestBytes);
+        }
+        if (entry.responseBytes >= 0) {
+            json.append(",\"responseBytes\":").append(entry.responseBytes);
+        }
+        if (entry.audit) {
+            json.append(",\"mutations\":[");
+            for (int i = 0; i < entry.mutationCount; i++) {
+                json.append(i == 0 ? "{" : ",{");
+                appendValue(json.append("\"entity\":"), entry.mutationEntities[i]);
+                appendValue(json.append(",\"id\":"), entry.mutationIds[i]);
+                appendValue(json.append(",\"op\":"), entry.mutationOperations[i]);
+                json.append('}');
+            }
+            json.append(']');
+            if (entry.mutationsTruncated > 0) {
+                json.append(",\"mutationsTruncated\":").append(entry.mutationsTruncated);
+            }
+        }
+        return json.append('}').toString();
+    }
+
+    private static void appendString(StringBuilder json, String name, String value) {
+        if (value != null) {
+            appendValue(json.append(",\"").append(name).append("\":"), value);
+        }
+    }
+
+    private static void appendValue(StringBuilder json, String value) {
+        if (value == null) {
+            json.append("null");
+            return;
+        }
+        json.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                json.append('\\').append(c);
+            } else if (c < 0x20) {
+                json.append(String.format("\\u%04x", (int) c));
+            } else {
+                json.append(c);
+            }
+        }
+        json.append('"');
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.supermarketapi.accesslog;
+
+// One preallocated slot of the access log ring. Request threads fill it in place, so logging a request copies a
+// few fields and references instead of building a message.
+final class AccessLogEntry {
+
+    static final int MAX_MUTATIONS = 32;
+
+    // Sequence the slot was last published under; the writer only reads the slot once it equals its cursor
+    volatile long published = -1;
+
+    // Sequence of the claim being filled, published once the slot is complete
+    long claimedSequence;
+
+    long timestampMillis;
+    boolean audit;
+    String requestId;
+    String method;
+    String route;
+    int status;
+    long latencyMicros;
+    long sqlCount;
+    long requestBytes;
+    long responseBytes;
+
+    int mutationCount;
+    // Mutations beyond MAX_MUTATIONS (e.g. of a large batch) are only counted
+    int mutationsTruncated;
+    final String[] mutationEntities = new String[MAX_MUTATIONS];
+    final String[] mutationIds = new String[MAX_MUTATIONS];
+    final String[] mutationOperations = new String[MAX_MUTATIONS];
+
+    // Drops the references once written so the ring does not keep request strings alive
+    void clear() {
+        requestId = null;
+        method = null;
+        route = null;
+        for (int i = 0; i < mutationCount; i++) {
+            mutationEntities[i] = null;
+            mutationIds[i] = null;
+            mutationOperations[i] = null;
+        }
+        mutationCount = 0;
+        mutationsTruncated = 0;
+    }
+}
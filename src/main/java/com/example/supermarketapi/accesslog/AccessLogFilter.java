@@ -0,0 +1,100 @@
+package com.example.supermarketapi.accesslog;
+
+import com.example.supermarketapi.profiling.RequestIdFilter;
+import com.example.supermarketapi.profiling.SqlStatementCounter;
+import com.example.supermarketapi.ratelimit.RateLimitFilter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Feeds the access log. Writes are always logged, with the entities they mutated (audit); reads are sampled at
+// read-sample-rate, plus every read that failed with a 5xx or took longer than slow-threshold. Runs right after
+// the request id filter so rate-limited requests are logged too.
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+public class AccessLogFilter extends OncePerRequestFilter {
+
+    private final AccessLog accessLog;
+    private final boolean enabled;
+    private final double readSampleRate;
+    private final long slowThresholdNanos;
+
+    public AccessLogFilter(AccessLog accessLog,
+                           @Value("${app.access-log.enabled:true}") boolean enabled,
+                           @Value("${app.access-log.read-sample-rate:0.01}") double readSampleRate,
+                           @Value("${app.access-log.slow-threshold:500ms}") Duration slowThreshold) {
+        this.accessLog = accessLog;
+        this.enabled = enabled;
+        this.readSampleRate = readSampleRate;
+        this.slowThresholdNanos = slowThreshold.toNanos();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        boolean write = isWrite(request);
+        boolean sampled = write || ThreadLocalRandom.current().nextDouble() < readSampleRate;
+        // Only requests known up front to be logged pay for counting the response bytes
+        CountingResponseWrapper counting = sampled ? new CountingResponseWrapper(response) : null;
+        RequestAudit audit = write ? RequestAudit.begin() : null;
+        long sqlAtStart = SqlStatementCounter.count();
+        long start = System.nanoTime();
+        try {
+            filterChain.doFilter(request, counting != null ? counting : response);
+        } finally {
+            long latencyNanos = System.nanoTime() - start;
+            int status = response.getStatus();
+            if (sampled || status >= 500 || latencyNanos >= slowThresholdNanos) {
+                AccessLogEntry entry = accessLog.claim();
+                if (entry != null) {
+                    entry.timestampMillis = System.currentTimeMillis();
+                    entry.audit = write;
+                    entry.requestId = RequestIdFilter.current();
+                    entry.method = request.getMethod();
+                    entry.route = route(request);
+                    entry.status = status;
+                    entry.latencyMicros = TimeUnit.NANOSECONDS.toMicros(latencyNanos);
+                    entry.sqlCount = SqlStatementCounter.count() - sqlAtStart;
+                    entry.requestBytes = request.getContentLengthLong();
+                    entry.responseBytes = counting != null ? counting.getBytesWritten() : -1;
+                    if (audit != null) {
+                        audit.copyTo(entry);
+                    }
+                    accessLog.publish(entry);
+                }
+            }
+            if (audit != null) {
+                audit.end();
+            }
+        }
+    }
+
+    // The matched mapping (e.g. /items/{itemId}) keeps ids out of the route; unmatched requests keep their path
+    private static String route(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return pattern instanceof String ? (String) pattern : request.getRequestURI();
+    }
+
+    private static boolean isWrite(HttpServletRequest request) {
+        String method = request.getMethod();
+        return !"GET".equals(method) && !"HEAD".equals(method) && !"OPTIONS".equals(method)
+                && !RateLimitFilter.isReadOnlyPost(request);
+    }
+}
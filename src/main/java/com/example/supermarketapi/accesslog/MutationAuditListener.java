@@ -0,0 +1,17 @@
+package com.example.supermarketapi.accesslog;
+
+import com.example.supermarketapi.event.CatalogueChangeRecordedEvent;
+import com.example.supermarketapi.model.CatalogueChange;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+// Every catalogue write is recorded in the change log, so its rows name the entities a request mutated
+@Component
+public class MutationAuditListener {
+
+    @EventListener
+    public void onCatalogueChangeRecorded(CatalogueChangeRecordedEvent event) {
+        CatalogueChange change = event.getChange();
+        AccessLog.recordMutation(change.getEntityType().name(), change.getEntityId(), change.getOperation().name());
+    }
+}
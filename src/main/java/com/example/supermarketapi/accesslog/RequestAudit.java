@@ -0,0 +1,56 @@
+package com.example.supermarketapi.accesslog;
+
+// Entities mutated while serving the current request, collected for its audit log line. Reused per thread; outside
+// of a logged request (background jobs, unsampled reads) recording is a no-op.
+final class RequestAudit {
+
+    private static final ThreadLocal<RequestAudit> CURRENT = ThreadLocal.withInitial(RequestAudit::new);
+
+    private boolean active;
+    private int count;
+    private int truncated;
+    private final String[] entities = new String[AccessLogEntry.MAX_MUTATIONS];
+    private final String[] ids = new String[AccessLogEntry.MAX_MUTATIONS];
+    private final String[] operations = new String[AccessLogEntry.MAX_MUTATIONS];
+
+    static RequestAudit begin() {
+        RequestAudit audit = CURRENT.get();
+        audit.active = true;
+        audit.count = 0;
+        audit.truncated = 0;
+        return audit;
+    }
+
+    static void record(String entity, String id, String operation) {
+        RequestAudit audit = CURRENT.get();
+        if (!audit.active) {
+            return;
+        }
+        if (audit.count == audit.entities.length) {
+            audit.truncated++;
+            return;
+        }
+        audit.entities[audit.count] = entity;
+        audit.ids[audit.count] = id;
+        audit.operations[audit.count] = operation;
+        audit.count++;
+    }
+
+    void copyTo(AccessLogEntry entry) {
+        System.arraycopy(entities, 0, entry.mutationEntities, 0, count);
+        System.arraycopy(ids, 0, entry.mutationIds, 0, count);
+        System.arraycopy(operations, 0, entry.mutationOperations, 0, count);
+        entry.mutationCount = count;
+        entry.mutationsTruncated = truncated;
+    }
+
+    void end() {
+        for (int i = 0; i < count; i++) {
+            entities[i] = null;
+            ids[i] = null;
+            operations[i] = null;
+        }
+        count = 0;
+        active = false;
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.supermarketapi.archive;
+
+import com.example.supermarketapi.model.Purchase;
+import com.example.supermarketapi.model.PurchaseHistoryCursor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.*;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+// Archived purchases, one PurchaseArchiveFile per dropped partition. The directory must be storage every API node
+// reads (e.g. a network file system mounted at the same path): the node that archives a month drops its partition
+// for all of them. Reads only open the files whose date range overlaps the query.
+@Component
+public class PurchaseArchive {
+
+    private static final String SUFFIX = ".purchases.gz";
+
+    private final Path directory;
+
+    // Headers are read once per file
+    private final Map<Path, PurchaseArchiveFile.Header> headers = new ConcurrentHashMap<>();
+
+    public PurchaseArchive(@Value("${app.purchases.archive.dir:archive/purchases}") String directory) {
+        this.directory = Paths.get(directory);
+    }
+
+    // The first limit archived purchases after the cursor that were paid between from and to (both inclusive),
+    // optionally of one supermarket, in history order. Files are streamed and only the best limit rows are kept.
+    public List<Purchase> find(LocalDate from, LocalDate to, String supermarketId, PurchaseHistoryCursor after,
+                               int limit) {
+        TreeSet<Purchase> page = new TreeSet<>(PurchaseHistoryCursor.ORDER);
+        if (limit <= 0 || !Files.isDirectory(directory)) {
+            return new ArrayList<>(page);
+        }
+        LocalDate firstDay = after.getTimeOfPayment().isAfter(from) ? after.getTimeOfPayment() : from;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + SUFFIX)) {
+            for (Path file : files) {
+                if (!header(file).overlaps(firstDay, to)) {
+                    continue;
+                }
+                PurchaseArchiveFile.read(file, purchase -> {
+                    LocalDate paidOn = purchase.getTimeOfPayment();
+                    if (paidOn.isBefore(from) || paidOn.isAfter(to) || !after.isBefore(purchase)
+                            || supermarketId != null && !supermarketId.equals(purchase.getSupermarketId())) {
+                        return;
+                    }
+                    if (page.size() < limit) {
+                        page.add(purchase);
+                    } else if (PurchaseHistoryCursor.ORDER.compare(purchase, page.last()) < 0) {
+                        page.pollLast();
+                        page.add(purchase);
+                    }
+                });
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read the purchase archive", e);
+        }
+        return new ArrayList<>(page);
+    }
+
+    // Writes the rows handed to the consumer as the archive of one partition, replacing an earlier attempt.
+    // The file only appears under its final name once it is complete and on disk.
+    public long write(String partitionName, LocalDate from, LocalDate to, Consumer<Consumer<Purchase>> rows)
+            throws IOException {
+        Files.createDirectories(directory);
+        Path target = directory.resolve(partitionName + SUFFIX);
+        Path temp = directory.resolve(partitionName + SUFFIX + ".tmp");
+        long count;
+        try (PurchaseArchiveFile.Writer writer = new PurchaseArchiveFile.Writer(temp, from, to)) {
+            try {
+                rows.accept(purchase -> {
+                    try {
+                        writer.add(purchase);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            writer.finish();
+            count = writer.getRows();
+        }
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        headers.remove(target);
+        return count;
+    }
+
+    private PurchaseArchiveFile.Header header(Path file) throws IOException {
+        PurchaseArchiveFile.Header header = headers.get(file);
+        if (header == null) {
+            header = PurchaseArchiveFile.readHeader(file);
+            headers.put(file, header);
+        }
+        return header;
+    }
+}
@@ -0,0 +1,247 @@
+package com.example.supermarketapi.archive;
+
+import com.example.supermarketapi.model.Purchase;
+import com.example.supermarketapi.model.enums.PaymentType;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+// Gzip-compressed columnar file holding the purchases of one archived partition.
+// Layout: magic, covered date range [from, to), then row groups of up to ROW_GROUP_SIZE rows terminated by an
+// empty group. Within a group each column is stored contiguously; supermarket and item ids are dictionary-encoded.
+final class PurchaseArchiveFile {
+
+    private static final int MAGIC_V1 = 0x53504131;  // "SPA1", before purchases had a discount column
+    private static final int MAGIC = 0x53504132;  // "SPA2"
+    private static final int ROW_GROUP_SIZE = 8192;
+    private static final long NO_CASH = Long.MIN_VALUE;
+    private static final PaymentType[] PAYMENT_TYPES = PaymentType.values();
+
+    private PurchaseArchiveFile() {
+    }
+
+    // Date range covered by a file, from inclusive and to exclusive; null means unbounded
+    static final class Header {
+
+        private final LocalDate from;
+        private final LocalDate to;
+        private final boolean hasDiscounts;
+
+        private Header(LocalDate from, LocalDate to, boolean hasDiscounts) {
+            this.from = from;
+            this.to = to;
+            this.hasDiscounts = hasDiscounts;
+        }
+
+        boolean overlaps(LocalDate firstDay, LocalDate lastDay) {
+            return (from == null || !lastDay.isBefore(from)) && (to == null || firstDay.isBefore(to));
+        }
+    }
+
+    static Header readHeader(Path file) throws IOException {
+        try (DataInputStream in = open(file)) {
+            return readHeader(in, file);
+        }
+    }
+
+    static void read(Path file, Consumer<Purchase> consumer) throws IOException {
+        try (DataInputStream in = open(file)) {
+            Header header = readHeader(in, file);
+            for (int rows = in.readInt(); rows > 0; rows = in.readInt()) {
+                readGroup(in, rows, header.hasDiscounts, consumer);
+            }
+        }
+    }
+
+    static final class Writer implements Closeable {
+
+        private final FileOutputStream file;
+        private final GZIPOutputStream gzip;
+        private final DataOutputStream out;
+        private final List<Purchase> group = new ArrayList<>(ROW_GROUP_SIZE);
+        private long rows;
+
+        Writer(Path path, LocalDate from, LocalDate to) throws IOException {
+            this.file = new FileOutputStream(path.toFile());
+            this.gzip = new GZIPOutputStream(file, 64 * 1024);
+            this.out = new DataOutputStream(new BufferedOutputStream(gzip, 64 * 1024));
+            out.writeInt(MAGIC);
+            out.writeLong(from == null ? Long.MIN_VALUE : from.toEpochDay());
+            out.writeLong(to == null ? Long.MAX_VALUE : to.toEpochDay());
+        }
+
+        void add(Purchase purchase) throws IOException {
+            group.add(purchase);
+            rows++;
+            if (group.size() == ROW_GROUP_SIZE) {
+                writeGroup(out, group);
+                group.clear();
+            }
+        }
+
+        long getRows() {
+            return rows;
+        }
+
+        // Writes the last group and the terminator, then forces the file to disk
+        void finish() throws IOException {
+            if (!group.isEmpty()) {
+                writeGroup(out, group);
+                group.clear();
+            }
+            out.writeInt(0);
+            out.flush();
+            gzip.finish();
+            file.getFD().sync();
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+    }
+
+    private static void writeGroup(DataOutputStream out, List<Purchase> group) throws IOException {
+        out.writeInt(group.size());
+        for (Purchase purchase : group) {
+            out.writeUTF(purchase.getId());
+        }
+
+        Map<String, Integer> supermarkets = new LinkedHashMap<>();
+        for (Purchase purchase : group) {
+            if (purchase.getSupermarketId() != null) {
+                supermarkets.putIfAbsent(purchase.getSupermarketId(), supermarkets.size());
+            }
+        }
+        writeDictionary(out, supermarkets);
+        for (Purchase purchase : group) {
+            out.writeInt(purchase.getSupermarketId() == null ? -1 : supermarkets.get(purchase.getSupermarketId()));
+        }
+
+        for (Purchase purchase : group) {
+            out.writeInt((int) purchase.getTimeOfPayment().toEpochDay());
+        }
+        for (Purchase purchase : group) {
+            out.writeLong(purchase.getPrice());
+        }
+        for (Purchase purchase : group) {
+            out.writeLong(purchase.getDiscountAmount() == null ? 0 : purchase.getDiscountAmount());
+        }
+        for (Purchase purchase : group) {
+            out.writeLong(purchase.getChangeAmount());
+        }
+        for (Purchase purchase : group) {
+            out.writeLong(purchase.getCashAmount() == null ? NO_CASH : purchase.getCashAmount());
+        }
+        for (Purchase purchase : group) {
+            out.writeByte(purchase.getPaymentType() == null ? -1 : purchase.getPaymentType().ordinal());
+        }
+
+        Map<String, Integer> items = new LinkedHashMap<>();
+        for (Purchase purchase : group) {
+            for (String itemId : itemIdsOf(purchase)) {
+                items.putIfAbsent(itemId, items.size());
+            }
+        }
+        writeDictionary(out, items);
+        for (Purchase purchase : group) {
+            List<String> itemIds = itemIdsOf(purchase);
+            out.writeInt(itemIds.size());
+            for (String itemId : itemIds) {
+                out.writeInt(items.get(itemId));
+            }
+        }
+    }
+
+    private static void readGroup(DataInputStream in, int rows, boolean hasDiscounts, Consumer<Purchase> consumer)
+            throws IOException {
+        Purchase[] purchases = new Purchase[rows];
+        for (int i = 0; i < rows; i++) {
+            purchases[i] = new Purchase();
+            purchases[i].setId(in.readUTF());
+        }
+
+        String[] supermarkets = readDictionary(in);
+        for (Purchase purchase : purchases) {
+            int index = in.readInt();
+            purchase.setSupermarketId(index < 0 ? null : supermarkets[index]);
+        }
+
+        for (Purchase purchase : purchases) {
+            purchase.setTimeOfPayment(LocalDate.ofEpochDay(in.readInt()));
+        }
+        for (Purchase purchase : purchases) {
+            purchase.setPrice(in.readLong());
+        }
+        for (Purchase purchase : purchases) {
+            purchase.setDiscountAmount(hasDiscounts ? in.readLong() : 0L);
+        }
+        for (Purchase purchase : purchases) {
+            purchase.setChangeAmount(in.readLong());
+        }
+        for (Purchase purchase : purchases) {
+            long cash = in.readLong();
+            purchase.setCashAmount(cash == NO_CASH ? null : cash);
+        }
+        for (Purchase purchase : purchases) {
+            byte type = in.readByte();
+            purchase.setPaymentType(type < 0 ? null : PAYMENT_TYPES[type]);
+        }
+
+        String[] items = readDictionary(in);
+        for (Purchase purchase : purchases) {
+            int count = in.readInt();
+            List<String> itemIds = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                itemIds.add(items[in.readInt()]);
+            }
+            purchase.setItemIDs(itemIds);
+        }
+
+        for (Purchase purchase : purchases) {
+            consumer.accept(purchase);
+        }
+    }
+
+    private static void writeDictionary(DataOutputStream out, Map<String, Integer> dictionary) throws IOException {
+        out.writeInt(dictionary.size());
+        for (String value : dictionary.keySet()) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String[] readDictionary(DataInputStream in) throws IOException {
+        String[] values = new String[in.readInt()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = in.readUTF();
+        }
+        return values;
+    }
+
+    private static List<String> itemIdsOf(Purchase purchase) {
+        return purchase.getItemIDs() == null ? Collections.emptyList() : purchase.getItemIDs();
+    }
+
+    private static DataInputStream open(Path file) throws IOException {
+        return new DataInputStream(new BufferedInputStream(
+                new GZIPInputStream(Files.newInputStream(file, StandardOpenOption.READ), 64 * 1024), 64 * 1024));
+    }
+
+    private static Header readHeader(DataInputStream in, Path file) throws IOException {
+        int magic = in.readInt();
+        if (magic != MAGIC && magic != MAGIC_V1) {
+            throw new IOException(file + " is not a purchase archive");
+        }
+        long from = in.readLong();
+        long to = in.readLong();
+        return new Header(from == Long.MIN_VALUE ? null : LocalDate.ofEpochDay(from),
+                to == Long.MAX_VALUE ? null : LocalDate.ofEpochDay(to), magic == MAGIC);
+    }
+}
@@ -0,0 +1,238 @@
+package com.example.supermarketapi.archive;
+
+import com.example.supermarketapi.model.Purchase;
+import com.example.supermarketapi.model.StringListAttributeConverter;
+import com.example.supermarketapi.model.enums.PaymentType;
+import com.example.supermarketapi.model.money.Money;
+import com.example.supermarketapi.shard.ShardRouter;
+import com.example.supermarketapi.shard.ShardRouting;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+// Daily job over the monthly partitions of purchase (V7, MySQL only): splits partitions for the coming months
+// off p_future, then archives every month older than the hot window to PurchaseArchive and drops its partition,
+// so the hot table holds a bounded number of months. Runs on every purchase shard, on one node at a time.
+// Whichever node archives a month drops it for every node, so archiving only runs when the archive directory is
+// declared shared (app.purchases.archive.shared-storage); otherwise months stay in their partitions.
+@Component
+@ConditionalOnProperty(name = "app.purchases.partitioning.enabled", havingValue = "true")
+public class PurchasePartitionMaintenance {
+
+    private static final Logger log = LoggerFactory.getLogger(PurchasePartitionMaintenance.class);
+
+    private static final String FUTURE_PARTITION = "p_future";
+    private static final Pattern PARTITION_NAME = Pattern.compile("p[_a-z0-9]+");
+    private static final Pattern MONTH_PARTITION_NAME = Pattern.compile("p\\d{6}");
+    private static final DateTimeFormatter MONTH_NAME = DateTimeFormatter.ofPattern("'p'yyyyMM");
+    private static final String LOCK_NAME = "purchase_partition_maintenance";
+
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+    private final JdbcTemplate streamingJdbcTemplate;
+    private final PurchaseArchive purchaseArchive;
+    private final ShardRouter shardRouter;
+    private final StringListAttributeConverter itemIdsConverter = new StringListAttributeConverter();
+    private final int hotMonths;
+    private final int monthsAhead;
+    private final boolean sharedArchive;
+
+    public PurchasePartitionMaintenance(DataSource dataSource, PurchaseArchive purchaseArchive, ShardRouter shardRouter,
+                                        @Value("${app.purchases.partitioning.hot-months:12}") int hotMonths,
+                                        @Value("${app.purchases.partitioning.months-ahead:3}") int monthsAhead,
+                                        @Value("${app.purchases.archive.shared-storage:false}") boolean sharedArchive) {
+        this.dataSource = dataSource;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        // Connector/J streams the result set row by row instead of buffering the whole partition
+        this.streamingJdbcTemplate = new JdbcTemplate(dataSource);
+        this.streamingJdbcTemplate.setFetchSize(Integer.MIN_VALUE);
+        this.purchaseArchive = purchaseArchive;
+        this.shardRouter = shardRouter;
+        this.hotMonths = hotMonths;
+        this.monthsAhead = monthsAhead;
+        this.sharedArchive = sharedArchive;
+    }
+
+    @Scheduled(cron = "${app.purchases.partitioning.cron:0 15 3 * * *}")
+    public void maintain() {
+        for (String shard : shardRouter.getShards()) {
+            ShardRouting.runOnShard(shard, () -> maintainIfLeader(shard));
+        }
+    }
+
+    // Every node runs the schedule; a MySQL named lock lets only one of them work on a shard at a time. The lock
+    // belongs to the session holding it, so it is released with that connection even if the node dies.
+    private void maintainIfLeader(String shard) {
+        try (Connection lockSession = dataSource.getConnection()) {
+            if (!tryLock(lockSession)) {
+                log.info("Partition maintenance is running on another node for {}, skipping", shard);
+                return;
+            }
+            try {
+                maintain(shard);
+            } finally {
+                try (PreparedStatement release = lockSession.prepareStatement("SELECT RELEASE_LOCK(?)")) {
+                    release.setString(1, LOCK_NAME);
+                    release.execute();
+                }
+            }
+        } catch (SQLException e) {
+            log.error("Could not take the partition maintenance lock on {}", shard, e);
+        }
+    }
+
+    private static boolean tryLock(Connection session) throws SQLException {
+        try (PreparedStatement lock = session.prepareStatement("SELECT GET_LOCK(?, 0)")) {
+            lock.setString(1, LOCK_NAME);
+            try (ResultSet result = lock.executeQuery()) {
+                // 1 when taken, 0 when another session holds it, NULL on error
+                return result.next() && result.getInt(1) == 1;
+            }
+        }
+    }
+
+    private void maintain(String shard) {
+        LocalDate thisMonth = LocalDate.now().withDayOfMonth(1);
+        List<Partition> partitions = listPartitions();
+        if (partitions.isEmpty()) {
+            log.warn("purchase is not partitioned on {}, skipping partition maintenance", shard);
+            return;
+        }
+        addMonthsUntil(shard, partitions, thisMonth.plusMonths(monthsAhead + 1L));
+        if (!sharedArchive) {
+            // An archive on this node's disk would hide the dropped months from the history reads of the others
+            log.warn("app.purchases.archive.shared-storage is not set, keeping old purchase partitions on {}", shard);
+            return;
+        }
+        archiveBefore(shard, listPartitions(), thisMonth.minusMonths(hotMonths));
+    }
+
+    private void addMonthsUntil(String shard, List<Partition> partitions, LocalDate until) {
+        LocalDate covered = null;
+        boolean hasFuture = false;
+        for (Partition partition : partitions) {
+            if (partition.upperBound == null) {
+                hasFuture = FUTURE_PARTITION.equals(partition.name);
+            } else {
+                covered = partition.upperBound;
+            }
+        }
+        if (!hasFuture || covered == null) {
+            log.warn("purchase has no {} partition to split new months from on {}", FUTURE_PARTITION, shard);
+            return;
+        }
+        while (covered.isBefore(until)) {
+            LocalDate next = covered.plusMonths(1);
+            try {
+                // p_future is empty while we stay ahead of the calendar, so reorganizing it moves no rows
+                jdbcTemplate.execute("ALTER TABLE purchase REORGANIZE PARTITION " + FUTURE_PARTITION + " INTO ("
+                        + "PARTITION " + covered.format(MONTH_NAME) + " VALUES LESS THAN ('" + next + "'), "
+                        + "PARTITION " + FUTURE_PARTITION + " VALUES LESS THAN (MAXVALUE))");
+            } catch (Exception e) {
+                // Months are split off in order, the next run continues from this one; archiving still runs
+                log.error("Could not add purchase partition {} on {}", covered.format(MONTH_NAME), shard, e);
+                return;
+            }
+            log.info("Added purchase partition {} on {}", covered.format(MONTH_NAME), shard);
+            covered = next;
+        }
+    }
+
+    private void archiveBefore(String shard, List<Partition> partitions, LocalDate cutoff) {
+        for (Partition partition : partitions) {
+            if (partition.upperBound == null || partition.upperBound.isAfter(cutoff)) {
+                continue;
+            }
+            try {
+                // Every shard has the same partition names
+                long rows = purchaseArchive.write(shard + "-" + partition.name, partition.lowerBound,
+                        partition.upperBound, sink -> streamPartition(partition.name, sink));
+                // Dropping is instant and frees the space, unlike a DELETE of the same rows
+                jdbcTemplate.execute("ALTER TABLE purchase DROP PARTITION " + partition.name);
+                log.info("Archived {} purchases from partition {} on {} and dropped it", rows, partition.name, shard);
+            } catch (Exception e) {
+                // The partition is kept, the next run archives it again and replaces the partial file
+                log.error("Could not archive purchase partition {} on {}", partition.name, shard, e);
+                return;
+            }
+        }
+    }
+
+    private void streamPartition(String partitionName, Consumer<Purchase> sink) {
+        streamingJdbcTemplate.query("SELECT id, supermarket_id, time_of_payment, price, discount_amount, change_amount,"
+                + " cash_amount, payment_type, item_ids FROM purchase PARTITION (" + partitionName + ")", resultSet -> {
+            Purchase purchase = new Purchase();
+            purchase.setId(resultSet.getString("id"));
+            purchase.setSupermarketId(resultSet.getString("supermarket_id"));
+            purchase.setTimeOfPayment(resultSet.getDate("time_of_payment").toLocalDate());
+            purchase.setPrice(Money.toCents(resultSet.getBigDecimal("price")));
+            purchase.setDiscountAmount(Money.toCents(resultSet.getBigDecimal("discount_amount")));
+            purchase.setChangeAmount(Money.toCents(resultSet.getBigDecimal("change_amount")));
+            BigDecimal cashAmount = resultSet.getBigDecimal("cash_amount");
+            purchase.setCashAmount(cashAmount == null ? null : Money.toCents(cashAmount));
+            String paymentType = resultSet.getString("payment_type");
+            purchase.setPaymentType(paymentType == null ? null : PaymentType.valueOf(paymentType));
+            purchase.setItemIDs(itemIdsConverter.convertToEntityAttribute(resultSet.getString("item_ids")));
+            sink.accept(purchase);
+        });
+    }
+
+    private List<Partition> listPartitions() {
+        List<Partition> partitions = new ArrayList<>();
+        jdbcTemplate.query("SELECT PARTITION_NAME, PARTITION_DESCRIPTION FROM information_schema.PARTITIONS"
+                + " WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'purchase' AND PARTITION_NAME IS NOT NULL"
+                + " ORDER BY PARTITION_ORDINAL_POSITION", resultSet -> {
+            String name = resultSet.getString("PARTITION_NAME");
+            if (!PARTITION_NAME.matcher(name).matches()) {
+                throw new IllegalStateException("Unexpected purchase partition " + name);
+            }
+            // RANGE COLUMNS bounds are reported quoted, e.g. '2026-02-01', or as MAXVALUE
+            String description = resultSet.getString("PARTITION_DESCRIPTION").replace("'", "");
+            LocalDate upperBound = "MAXVALUE".equalsIgnoreCase(description) ? null : LocalDate.parse(description);
+            // Once older partitions are dropped the first one is a month partition, its name gives its start
+            LocalDate lowerBound = partitions.isEmpty() ? monthStart(name)
+                    : partitions.get(partitions.size() - 1).upperBound;
+            partitions.add(new Partition(name, lowerBound, upperBound));
+        });
+        return partitions;
+    }
+
+    // First day of the month of a pYYYYMM partition, null for p_history (which has no lower bound)
+    static LocalDate monthStart(String partitionName) {
+        return MONTH_PARTITION_NAME.matcher(partitionName).matches()
+                ? YearMonth.parse(partitionName, MONTH_NAME).atDay(1) : null;
+    }
+
+    private static final class Partition {
+
+        private final String name;
+        // Inclusive, null for p_history
+        private final LocalDate lowerBound;
+        // Exclusive, null for MAXVALUE
+        private final LocalDate upperBound;
+
+        private Partition(String name, LocalDate lowerBound, LocalDate upperBound) {
+            this.name = name;
+            this.lowerBound = lowerBound;
+            this.upperBound = upperBound;
+        }
+    }
+}
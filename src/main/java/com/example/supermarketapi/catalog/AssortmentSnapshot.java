@@ -0,0 +1,100 @@
+package com.example.supermarketapi.catalog;
+
+import com.example.supermarketapi.model.SupermarketItem;
+import com.example.supermarketapi.model.enums.ItemType;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+// Immutable, column-oriented view of one supermarket's assortment used on the checkout path.
+// Item ids are sorted so a lookup is a binary search that returns an int slot into the primitive columns,
+// and none of the accessors allocate.
+public final class AssortmentSnapshot {
+
+    private static final ItemType[] ITEM_TYPES = ItemType.values();
+
+    private final String supermarketId;
+    private final String[] itemIds;
+    private final long[] priceCents;
+    private final byte[] types;
+
+    private AssortmentSnapshot(String supermarketId, String[] itemIds, long[] priceCents, byte[] types) {
+        this.supermarketId = supermarketId;
+        this.itemIds = itemIds;
+        this.priceCents = priceCents;
+        this.types = types;
+    }
+
+    // Built from the supermarket's active listings, priced at their shelf prices
+    public static AssortmentSnapshot of(String supermarketId, Collection<SupermarketItem> listings) {
+        List<SupermarketItem> sorted = new ArrayList<>(listings);
+        sorted.sort(Comparator.comparing(SupermarketItem::getItemId));
+
+        int size = sorted.size();
+        String[] itemIds = new String[size];
+        long[] priceCents = new long[size];
+        byte[] types = new byte[size];
+        for (int i = 0; i < size; i++) {
+            SupermarketItem listing = sorted.get(i);
+            itemIds[i] = listing.getItemId();
+            priceCents[i] = priceOf(listing);
+            types[i] = typeOf(listing);
+        }
+        return new AssortmentSnapshot(supermarketId, itemIds, priceCents, types);
+    }
+
+    public String getSupermarketId() {
+        return supermarketId;
+    }
+
+    public int size() {
+        return itemIds.length;
+    }
+
+    // Slot of the item in this snapshot, or a negative value when the supermarket does not sell it
+    public int indexOf(String itemId) {
+        return Arrays.binarySearch(itemIds, itemId);
+    }
+
+    public boolean contains(String itemId) {
+        return indexOf(itemId) >= 0;
+    }
+
+    public String itemId(int index) {
+        return itemIds[index];
+    }
+
+    public long priceCents(int index) {
+        return priceCents[index];
+    }
+
+    public ItemType type(int index) {
+        byte ordinal = types[index];
+        return ordinal < 0 ? null : ITEM_TYPES[ordinal];
+    }
+
+    // Copy of this snapshot with one listing's price and type replaced; the receiver is left untouched
+    public AssortmentSnapshot withListing(SupermarketItem listing) {
+        int index = indexOf(listing.getItemId());
+        if (index < 0) {
+            return this;
+        }
+        long[] newPrices = priceCents.clone();
+        byte[] newTypes = types.clone();
+        newPrices[index] = priceOf(listing);
+        newTypes[index] = typeOf(listing);
+        return new AssortmentSnapshot(supermarketId, itemIds, newPrices, newTypes);
+    }
+
+    private static long priceOf(SupermarketItem listing) {
+        return listing.getPrice() == null ? 0L : listing.getPrice();
+    }
+
+    private static byte typeOf(SupermarketItem listing) {
+        ItemType type = listing.getItem().getType();
+        return type == null ? -1 : (byte) type.ordinal();
+    }
+}
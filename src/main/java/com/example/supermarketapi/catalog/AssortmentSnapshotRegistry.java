@@ -0,0 +1,107 @@
+package com.example.supermarketapi.catalog;
+
+import com.example.supermarketapi.datasource.DataSourceRouting;
+import com.example.supermarketapi.event.ItemChangedEvent;
+import com.example.supermarketapi.event.SupermarketChangedEvent;
+import com.example.supermarketapi.event.SupermarketItemsChangedEvent;
+import com.example.supermarketapi.exception.SupermarketNotFoundException;
+import com.example.supermarketapi.model.SupermarketItem;
+import com.example.supermarketapi.repository.SupermarketItemRepository;
+import com.example.supermarketapi.repository.SupermarketRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Holds one AssortmentSnapshot per supermarket. Snapshots are built lazily from the database and
+// replaced wholesale (copy-on-write) when catalogue changes commit, so readers never see a partial update.
+@Component
+public class AssortmentSnapshotRegistry {
+
+    private final SupermarketRepository supermarketRepository;
+    private final SupermarketItemRepository supermarketItemRepository;
+
+    private final Map<String, AssortmentSnapshot> snapshots = new ConcurrentHashMap<>();
+
+    // Bumped on every change so a snapshot loaded concurrently with a change is not cached
+    private final AtomicLong generation = new AtomicLong();
+
+    @Autowired
+    public AssortmentSnapshotRegistry(SupermarketRepository supermarketRepository,
+                                      SupermarketItemRepository supermarketItemRepository) {
+        this.supermarketRepository = supermarketRepository;
+        this.supermarketItemRepository = supermarketItemRepository;
+    }
+
+    public AssortmentSnapshot get(String supermarketId) {
+        AssortmentSnapshot snapshot = snapshots.get(supermarketId);
+        if (snapshot != null) {
+            return snapshot;
+        }
+
+        long loadedAt = generation.get();
+        snapshot = DataSourceRouting.onPrimary(() -> load(supermarketId));
+        if (generation.get() == loadedAt) {
+            snapshots.putIfAbsent(supermarketId, snapshot);
+        }
+        return snapshot;
+    }
+
+    private AssortmentSnapshot load(String supermarketId) {
+        if (!supermarketRepository.existsById(supermarketId)) {
+            throw new SupermarketNotFoundException(supermarketId);
+        }
+        return AssortmentSnapshot.of(supermarketId, supermarketItemRepository.findActive(supermarketId));
+    }
+
+    public void invalidate(String supermarketId) {
+        generation.incrementAndGet();
+        snapshots.remove(supermarketId);
+    }
+
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        snapshots.clear();
+    }
+
+    // Drops every snapshot that contains the item
+    public void invalidateItem(String itemId) {
+        generation.incrementAndGet();
+        snapshots.values().removeIf(snapshot -> snapshot.contains(itemId));
+    }
+
+    // Applied once the change has committed: evicting earlier would let a concurrent miss reload the old rows under
+    // the new generation and cache them until the next change
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onItemChanged(ItemChangedEvent event) {
+        generation.incrementAndGet();
+        // Only the supermarkets listing the item hold it
+        for (SupermarketItem listing : event.getListings()) {
+            AssortmentSnapshot snapshot = snapshots.get(listing.getSupermarketId());
+            if (snapshot == null || !snapshot.contains(event.getItemId())) {
+                continue;
+            }
+            if (event.isDeleted() || !listing.isActive()) {
+                snapshots.remove(snapshot.getSupermarketId(), snapshot);
+            } else if (!snapshots.replace(snapshot.getSupermarketId(), snapshot, snapshot.withListing(listing))) {
+                // Lost a race with another change, let the next reader rebuild from the database
+                snapshots.remove(snapshot.getSupermarketId());
+            }
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSupermarketItemsChanged(SupermarketItemsChangedEvent event) {
+        invalidate(event.getSupermarketId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSupermarketChanged(SupermarketChangedEvent event) {
+        if (event.isDeleted()) {
+            invalidate(event.getSupermarketId());
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.supermarketapi.catalog;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.zip.GZIPOutputStream;
+
+// Serialized JSON body plus its gzip encoding, both produced once when the body is cached
+public final class CachedResponse {
+
+    private final byte[] body;
+
+    // Null when the body is below the compression threshold
+    private final byte[] gzipBody;
+
+    // Sorted ids of the items the body contains, used to find bodies affected by an item change
+    private final String[] itemIds;
+
+    CachedResponse(byte[] body, int compressionThreshold, String[] itemIds) {
+        this.body = body;
+        this.gzipBody = body.length >= compressionThreshold ? gzip(body) : null;
+        this.itemIds = itemIds;
+        Arrays.sort(this.itemIds);
+    }
+
+    public byte[] getBody() {
+        return body;
+    }
+
+    public byte[] getGzipBody() {
+        return gzipBody;
+    }
+
+    boolean containsItem(String itemId) {
+        return Arrays.binarySearch(itemIds, itemId) >= 0;
+    }
+
+    private static byte[] gzip(byte[] body) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(body.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out, 8192)) {
+            gzip.write(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.supermarketapi.catalog;
+
+import com.example.supermarketapi.concurrent.SingleFlight;
+import com.example.supermarketapi.datasource.DataSourceRouting;
+import com.example.supermarketapi.dto.ItemResponseDTO;
+import com.example.supermarketapi.dto.SupermarketInfoDTO;
+import com.example.supermarketapi.event.ItemChangedEvent;
+import com.example.supermarketapi.event.SupermarketChangedEvent;
+import com.example.supermarketapi.event.SupermarketItemsChangedEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.unit.DataSize;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+// Serialized (and pre-compressed) JSON bodies of catalogue responses. A body is built once per change of the
+// underlying supermarket and then written straight to the response, so hot reads skip the database, Jackson
+// and gzip.
+@Component
+public class CatalogueResponseCache {
+
+    private static final int DEFAULT_BUFFER_SIZE = 8 * 1024;
+
+    // Serializer resolved once instead of on every write
+    private final ObjectWriter supermarketInfoWriter;
+
+    private final int compressionThreshold;
+
+    private final Map<String, CachedResponse> supermarketInfo = new ConcurrentHashMap<>();
+
+    // Last body size per supermarket, used to pre-size the output buffer of the next serialization
+    private final Map<String, Integer> sizeHints = new ConcurrentHashMap<>();
+
+    // Bumped on every change so a body serialized concurrently with a change is not cached
+    private final AtomicLong generation = new AtomicLong();
+
+    // A burst of misses for the same supermarket loads and serializes it once
+    private final SingleFlight<String, CachedResponse> supermarketInfoLoads = new SingleFlight<>("supermarketInfo");
+
+    @Autowired
+    public CatalogueResponseCache(ObjectMapper objectMapper,
+                                  @Value("${server.compression.min-response-size:2KB}") DataSize compressionThreshold) {
+        this.supermarketInfoWriter = objectMapper.writerFor(SupermarketInfoDTO.class);
+        this.compressionThreshold = (int) compressionThreshold.toBytes();
+    }
+
+    public CachedResponse getSupermarketInfo(String supermarketId, Supplier<SupermarketInfoDTO> loader) {
+        CachedResponse cached = supermarketInfo.get(supermarketId);
+        if (cached != null) {
+            return cached;
+        }
+
+        return supermarketInfoLoads.load(supermarketId, () -> {
+            long loadedAt = generation.get();
+            // Filled from the primary so a lagging replica is never cached
+            SupermarketInfoDTO info = DataSourceRouting.onPrimary(loader);
+            String[] itemIds = info.getItems().stream().map(ItemResponseDTO::getId).toArray(String[]::new);
+            CachedResponse response = new CachedResponse(serialize(supermarketId, info), compressionThreshold, itemIds);
+            if (generation.get() == loadedAt) {
+                supermarketInfo.put(supermarketId, response);
+            }
+            return response;
+        });
+    }
+
+    public void invalidate(String supermarketId) {
+        generation.incrementAndGet();
+        supermarketInfo.remove(supermarketId);
+        supermarketInfoLoads.forget(supermarketId);
+    }
+
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        supermarketInfo.clear();
+        supermarketInfoLoads.forgetAll();
+    }
+
+    // Drops every cached response that lists the item; a running load may be reading it too
+    public void invalidateItem(String itemId) {
+        generation.incrementAndGet();
+        supermarketInfo.values().removeIf(response -> response.containsItem(itemId));
+        supermarketInfoLoads.forgetAll();
+    }
+
+    @PostConstruct
+    public void registerMetrics() {
+        supermarketInfoLoads.registerMBean();
+    }
+
+    @PreDestroy
+    public void unregisterMetrics() {
+        supermarketInfoLoads.unregisterMBean();
+    }
+
+    // Evicted once the change has committed; evicting inside the transaction would let a concurrent miss serialize
+    // the old rows and cache them until the next change
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onItemChanged(ItemChangedEvent event) {
+        invalidateItem(event.getItemId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSupermarketItemsChanged(SupermarketItemsChangedEvent event) {
+        invalidate(event.getSupermarketId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSupermarketChanged(SupermarketChangedEvent event) {
+        invalidate(event.getSupermarketId());
+        if (event.isDeleted()) {
+            sizeHints.remove(event.getSupermarketId());
+        }
+    }
+
+    private byte[] serialize(String supermarketId, SupermarketInfoDTO info) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(sizeHints.getOrDefault(supermarketId, DEFAULT_BUFFER_SIZE));
+        try {
+            supermarketInfoWriter.writeValue(out, info);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        byte[] body = out.toByteArray();
+        sizeHints.put(supermarketId, body.length);
+        return body;
+    }
+}
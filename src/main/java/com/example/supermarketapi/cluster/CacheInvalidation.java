@@ -0,0 +1,70 @@
+package com.example.supermarketapi.cluster;
+
+import com.example.supermarketapi.model.CatalogueChange;
+import com.example.supermarketapi.model.enums.CatalogueEntityType;
+import com.example.supermarketapi.model.enums.ChangeOperation;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.io.*;
+
+// Message exchanged between nodes when a catalogue entity changes. The version is the seq of the change in
+// catalogue_change, which is global across nodes, so receivers can drop messages older than what they applied.
+@Getter
+@AllArgsConstructor
+public class CacheInvalidation {
+
+    private static final byte FORMAT = 1;
+
+    // Node that made the change, null when the message was read back from the database
+    private final String originNodeId;
+    private final long version;
+    private final CatalogueEntityType entityType;
+    private final String entityId;
+    private final String supermarketId;
+    private final ChangeOperation operation;
+
+    public static CacheInvalidation of(String originNodeId, CatalogueChange change) {
+        return new CacheInvalidation(originNodeId, change.getSeq(), change.getEntityType(), change.getEntityId(),
+                change.getSupermarketId(), change.getOperation());
+    }
+
+    // A change scoped to a supermarket (a listing) is its own key: it also evicts that supermarket's copies, so a
+    // newer unscoped change of the same item must not make it look stale
+    public String entityKey() {
+        return supermarketId == null ? entityType.name() + ':' + entityId
+                : entityType.name() + ':' + entityId + '@' + supermarketId;
+    }
+
+    byte[] encode() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(FORMAT);
+            out.writeUTF(originNodeId == null ? "" : originNodeId);
+            out.writeLong(version);
+            out.writeByte(entityType.ordinal());
+            out.writeByte(operation.ordinal());
+            out.writeUTF(entityId);
+            out.writeUTF(supermarketId == null ? "" : supermarketId);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    static CacheInvalidation decode(byte[] data, int offset, int length) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(data, offset, length));
+        byte format = in.readByte();
+        if (format != FORMAT) {
+            throw new IOException("Unsupported invalidation format " + format);
+        }
+        String originNodeId = in.readUTF();
+        long version = in.readLong();
+        CatalogueEntityType entityType = CatalogueEntityType.values()[in.readByte()];
+        ChangeOperation operation = ChangeOperation.values()[in.readByte()];
+        String entityId = in.readUTF();
+        String supermarketId = in.readUTF();
+        return new CacheInvalidation(originNodeId.isEmpty() ? null : originNodeId, version, entityType, entityId,
+                supermarketId.isEmpty() ? null : supermarketId, operation);
+    }
+}
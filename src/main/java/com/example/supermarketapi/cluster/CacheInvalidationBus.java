@@ -0,0 +1,108 @@
+package com.example.supermarketapi.cluster;
+
+import com.example.supermarketapi.catalog.AssortmentSnapshotRegistry;
+import com.example.supermarketapi.catalog.CatalogueResponseCache;
+import com.example.supermarketapi.event.CatalogueChangeRecordedEvent;
+import com.example.supermarketapi.model.enums.CatalogueEntityType;
+import com.example.supermarketapi.model.enums.ChangeOperation;
+import com.example.supermarketapi.search.ItemSearchIndex;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+// Keeps the in-process catalogue caches of several API nodes coherent. Committed local changes are announced
+// through the configured transport; invalidations from peers evict the response cache and assortment snapshots
+// and re-read the item into the search index.
+@Component
+@ConditionalOnExpression("'${app.cache-bus.transport:none}' != 'none'")
+public class CacheInvalidationBus {
+
+    private final InvalidationTransport transport;
+    private final CatalogueResponseCache catalogueResponseCache;
+    private final AssortmentSnapshotRegistry assortmentSnapshotRegistry;
+    private final ItemSearchIndex itemSearchIndex;
+
+    private final String nodeId = UUID.randomUUID().toString();
+
+    // entity key (per supermarket for listing changes) -> highest change seq applied on this node, bounded by
+    // evicting the least recently touched
+    private final Map<String, Long> appliedVersions;
+
+    @Autowired
+    public CacheInvalidationBus(InvalidationTransport transport, CatalogueResponseCache catalogueResponseCache,
+                                AssortmentSnapshotRegistry assortmentSnapshotRegistry, ItemSearchIndex itemSearchIndex,
+                                @Value("${app.cache-bus.tracked-versions:100000}") int trackedVersions) {
+        this.transport = transport;
+        this.catalogueResponseCache = catalogueResponseCache;
+        this.assortmentSnapshotRegistry = assortmentSnapshotRegistry;
+        this.itemSearchIndex = itemSearchIndex;
+        this.appliedVersions = new LinkedHashMap<>(1024, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+                return size() > trackedVersions;
+            }
+        };
+    }
+
+    @PostConstruct
+    public void start() {
+        transport.start(this::onRemoteInvalidation);
+    }
+
+    @PreDestroy
+    public void stop() {
+        transport.stop();
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    // Local caches were already updated by the catalogue events, peers are told once the change is committed
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onChangeRecorded(CatalogueChangeRecordedEvent event) {
+        CacheInvalidation invalidation = CacheInvalidation.of(nodeId, event.getChange());
+        markApplied(invalidation);
+        transport.send(invalidation);
+    }
+
+    void onRemoteInvalidation(CacheInvalidation invalidation) {
+        if (nodeId.equals(invalidation.getOriginNodeId()) || !markApplied(invalidation)) {
+            return;
+        }
+        if (invalidation.getEntityType() == CatalogueEntityType.ITEM) {
+            catalogueResponseCache.invalidateItem(invalidation.getEntityId());
+            assortmentSnapshotRegistry.invalidateItem(invalidation.getEntityId());
+            itemSearchIndex.reload(invalidation.getEntityId());
+        }
+        // Also covers an item newly listed by a supermarket whose cached copies do not list it yet
+        if (invalidation.getSupermarketId() != null) {
+            catalogueResponseCache.invalidate(invalidation.getSupermarketId());
+            assortmentSnapshotRegistry.invalidate(invalidation.getSupermarketId());
+        }
+        if (invalidation.getEntityType() == CatalogueEntityType.SUPERMARKET
+                && invalidation.getOperation() == ChangeOperation.DELETE) {
+            itemSearchIndex.removeSupermarket(invalidation.getEntityId());
+        }
+    }
+
+    // False when a newer (or the same) change of the entity was already applied, so late duplicates are dropped
+    private boolean markApplied(CacheInvalidation invalidation) {
+        synchronized (appliedVersions) {
+            Long applied = appliedVersions.get(invalidation.entityKey());
+            if (applied != null && applied >= invalidation.getVersion()) {
+                return false;
+            }
+            appliedVersions.put(invalidation.entityKey(), invalidation.getVersion());
+            return true;
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.supermarketapi.cluster;
+
+import com.example.supermarketapi.datasource.DataSourceRouting;
+import com.example.supermarketapi.model.CatalogueChange;
+import com.example.supermarketapi.repository.CatalogueChangeRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+// Polls the catalogue_change log for changes made on other nodes. Every catalogue write is @Transactional and
+// records its catalogue_change row from a listener inside that transaction, so a row exists exactly when its change
+// committed and the log doubles as the outbox; nothing has to be sent. For networks without multicast.
+@Component
+@ConditionalOnProperty(name = "app.cache-bus.transport", havingValue = "db")
+public class DatabasePollingInvalidationTransport implements InvalidationTransport {
+
+    private static final Logger log = LoggerFactory.getLogger(DatabasePollingInvalidationTransport.class);
+
+    private final CatalogueChangeRepository changeRepository;
+    private final Duration pollInterval;
+    private final Duration settleWindow;
+    private final int batchSize;
+
+    private ScheduledExecutorService poller;
+    private volatile long cursor;
+
+    public DatabasePollingInvalidationTransport(CatalogueChangeRepository changeRepository,
+                                                @Value("${app.cache-bus.poll-interval:1s}") Duration pollInterval,
+                                                @Value("${app.catalogue-changes.settle-window:2s}") Duration settleWindow,
+                                                @Value("${app.cache-bus.batch-size:500}") int batchSize) {
+        this.changeRepository = changeRepository;
+        this.pollInterval = pollInterval;
+        this.settleWindow = settleWindow;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public synchronized void start(Consumer<CacheInvalidation> receiver) {
+        // A starting node has nothing cached, so only changes from now on matter
+        cursor = DataSourceRouting.onPrimary(changeRepository::findTopByOrderBySeqDesc)
+                .map(CatalogueChange::getSeq).orElse(0L);
+        poller = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "cache-bus-poller");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalMillis = pollInterval.toMillis();
+        poller.scheduleWithFixedDelay(() -> poll(receiver), intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void send(CacheInvalidation invalidation) {
+        // The change log row is the message
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (poller != null) {
+            poller.shutdownNow();
+        }
+    }
+
+    private void poll(Consumer<CacheInvalidation> receiver) {
+        try {
+            // Read from the primary, a lagging replica could hide rows the cursor would then move past
+            List<CatalogueChange> changes = DataSourceRouting.onPrimary(
+                    () -> changeRepository.findBySeqGreaterThanOrderBySeq(cursor, PageRequest.of(0, batchSize)));
+            // The cursor only moves past settled rows, so a lower seq committed late is still picked up as long
+            // as it commits within the settle window of its insert; rows seen again on the next poll are dropped by
+            // the bus as already applied
+            Instant settledBefore = Instant.now().minus(settleWindow);
+            boolean settled = true;
+            for (CatalogueChange change : changes) {
+                receiver.accept(CacheInvalidation.of(null, change));
+                settled = settled && !change.getChangedAt().isAfter(settledBefore);
+                if (settled) {
+                    cursor = change.getSeq();
+                }
+            }
+        } catch (RuntimeException e) {
+            // Keep the schedule alive, the next poll retries from the same cursor
+            log.warn("Polling catalogue changes failed", e);
+        }
+    }
+}
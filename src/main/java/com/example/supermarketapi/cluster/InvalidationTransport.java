@@ -0,0 +1,15 @@
+package com.example.supermarketapi.cluster;
+
+import java.util.function.Consumer;
+
+// Carries cache invalidations between the API nodes, selected with app.cache-bus.transport
+public interface InvalidationTransport {
+
+    // Begin delivering invalidations from peer nodes to the receiver
+    void start(Consumer<CacheInvalidation> receiver);
+
+    // Announce a change committed on this node
+    void send(CacheInvalidation invalidation);
+
+    void stop();
+}
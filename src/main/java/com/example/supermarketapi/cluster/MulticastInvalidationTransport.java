@@ -0,0 +1,92 @@
+package com.example.supermarketapi.cluster;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.InetAddress;
+import java.net.MulticastSocket;
+import java.net.UnknownHostException;
+import java.util.function.Consumer;
+
+// One UDP datagram per change to a multicast group joined by every node. Delivery is best effort:
+// a lost datagram leaves the peer's copy stale until its next change, use the db transport where that matters.
+@Component
+@ConditionalOnProperty(name = "app.cache-bus.transport", havingValue = "multicast")
+public class MulticastInvalidationTransport implements InvalidationTransport {
+
+    private static final Logger log = LoggerFactory.getLogger(MulticastInvalidationTransport.class);
+
+    private static final int MAX_DATAGRAM_SIZE = 2048;
+
+    private final InetAddress group;
+    private final int port;
+    private final int timeToLive;
+
+    private volatile MulticastSocket socket;
+    private Thread receiverThread;
+
+    public MulticastInvalidationTransport(@Value("${app.cache-bus.multicast.group:239.255.42.99}") String group,
+                                          @Value("${app.cache-bus.multicast.port:45588}") int port,
+                                          @Value("${app.cache-bus.multicast.ttl:1}") int timeToLive)
+            throws UnknownHostException {
+        this.group = InetAddress.getByName(group);
+        this.port = port;
+        this.timeToLive = timeToLive;
+    }
+
+    @Override
+    public synchronized void start(Consumer<CacheInvalidation> receiver) {
+        try {
+            // Binding with SO_REUSEADDR (the default for MulticastSocket) lets several nodes share a host
+            socket = new MulticastSocket(port);
+            socket.setTimeToLive(timeToLive);
+            socket.joinGroup(group);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not join multicast group " + group + ":" + port, e);
+        }
+        MulticastSocket listening = socket;
+        receiverThread = new Thread(() -> receive(listening, receiver), "cache-bus-multicast");
+        receiverThread.setDaemon(true);
+        receiverThread.start();
+    }
+
+    @Override
+    public void send(CacheInvalidation invalidation) {
+        byte[] data = invalidation.encode();
+        try {
+            socket.send(new DatagramPacket(data, data.length, group, port));
+        } catch (IOException e) {
+            log.warn("Could not multicast invalidation of {}", invalidation.entityKey(), e);
+        }
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (socket != null) {
+            socket.close();
+        }
+    }
+
+    private void receive(MulticastSocket listening, Consumer<CacheInvalidation> receiver) {
+        byte[] buffer = new byte[MAX_DATAGRAM_SIZE];
+        DatagramPacket packet = new DatagramPacket(buffer, buffer.length);
+        while (!listening.isClosed()) {
+            try {
+                packet.setLength(buffer.length);
+                listening.receive(packet);
+                receiver.accept(CacheInvalidation.decode(packet.getData(), packet.getOffset(), packet.getLength()));
+            } catch (IOException e) {
+                if (!listening.isClosed()) {
+                    log.warn("Dropped malformed invalidation datagram", e);
+                }
+            } catch (RuntimeException e) {
+                log.warn("Could not apply invalidation", e);
+            }
+        }
+    }
+}
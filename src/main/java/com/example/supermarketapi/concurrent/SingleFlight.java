@@ -0,0 +1,122 @@
+package com.example.supermarketapi.concurrent;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+// Coalesces concurrent loads of the same key: the first caller runs the loader, callers arriving while it runs
+// wait for and share its result (or its exception). Nothing is kept once the load finishes, this is not a cache.
+public class SingleFlight<K, V> implements SingleFlightMXBean {
+
+    private static final Logger log = LoggerFactory.getLogger(SingleFlight.class);
+
+    private final String name;
+    private final Map<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+
+    private ObjectName objectName;
+
+    public SingleFlight(String name) {
+        this.name = name;
+    }
+
+    public V load(K key, Supplier<V> loader) {
+        CompletableFuture<V> flight = new CompletableFuture<>();
+        CompletableFuture<V> running = inFlight.putIfAbsent(key, flight);
+        if (running != null) {
+            coalesced.increment();
+            return await(running);
+        }
+
+        loads.increment();
+        try {
+            V value = loader.get();
+            flight.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    // Callers arriving after a write must not join a load that started before it; the running load still
+    // finishes for its current waiters
+    public void forget(K key) {
+        inFlight.remove(key);
+    }
+
+    public void forgetAll() {
+        inFlight.clear();
+    }
+
+    @Override
+    public long getLoads() {
+        return loads.sum();
+    }
+
+    @Override
+    public long getCoalesced() {
+        return coalesced.sum();
+    }
+
+    @Override
+    public int getInFlight() {
+        return inFlight.size();
+    }
+
+    public void registerMBean() {
+        try {
+            ObjectName candidate = new ObjectName("com.example.supermarketapi:type=SingleFlight,name=" + name);
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            if (server.isRegistered(candidate)) {
+                // Another application context in this JVM (tests) registered it first
+                log.debug("Single flight MBean {} is already registered", candidate);
+                return;
+            }
+            server.registerMBean(this, candidate);
+            objectName = candidate;
+        } catch (JMException e) {
+            log.warn("Could not register single flight MBean {}", name, e);
+        }
+    }
+
+    public void unregisterMBean() {
+        if (objectName == null) {
+            return;
+        }
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+        } catch (JMException e) {
+            log.debug("Could not unregister single flight MBean {}", objectName, e);
+        }
+        objectName = null;
+    }
+
+    private static <V> V await(CompletableFuture<V> flight) {
+        try {
+            return flight.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+    }
+}
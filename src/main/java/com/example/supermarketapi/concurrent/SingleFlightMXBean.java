@@ -0,0 +1,14 @@
+package com.example.supermarketapi.concurrent;
+
+// JMX view of a SingleFlight, registered as com.example.supermarketapi:type=SingleFlight,name=<name>
+public interface SingleFlightMXBean {
+
+    // Loads actually run
+    long getLoads();
+
+    // Calls that waited for another caller's load instead of running their own
+    long getCoalesced();
+
+    // Keys with a load running right now
+    int getInFlight();
+}
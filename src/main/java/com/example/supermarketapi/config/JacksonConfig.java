@@ -0,0 +1,17 @@
+package com.example.supermarketapi.config;
+
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.module.afterburner.AfterburnerModule;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class JacksonConfig {
+
+    // Replaces reflective property access with generated bytecode; Spring Boot registers Module beans
+    // with the auto-configured ObjectMapper
+    @Bean
+    public Module afterburnerModule() {
+        return new AfterburnerModule();
+    }
+}
@@ -2,6 +2,7 @@ package com.example.supermarketapi.config;
 
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
 import springfox.documentation.builders.PathSelectors;
 import springfox.documentation.builders.RequestHandlerSelectors;
 import springfox.documentation.spi.DocumentationType;
@@ -9,6 +10,7 @@ import springfox.documentation.spring.web.plugins.Docket;
 import springfox.documentation.oas.annotations.EnableOpenApi;
 
 @Configuration
+@Profile("!prod")
 @EnableOpenApi
 public class SwaggerConfig {
 
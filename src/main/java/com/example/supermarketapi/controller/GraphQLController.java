@@ -0,0 +1,46 @@
+package com.example.supermarketapi.controller;
+
+import com.example.supermarketapi.exception.InvalidDataException;
+import com.example.supermarketapi.graphql.CatalogueDataLoaders;
+import graphql.ExecutionInput;
+import graphql.GraphQL;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+@RestController
+public class GraphQLController {
+
+    private final GraphQL graphQL;
+    private final CatalogueDataLoaders catalogueDataLoaders;
+
+    @Autowired
+    public GraphQLController(GraphQL graphQL, CatalogueDataLoaders catalogueDataLoaders) {
+        this.graphQL = graphQL;
+        this.catalogueDataLoaders = catalogueDataLoaders;
+    }
+
+    // POST method to run a GraphQL query ({"query": ..., "operationName": ..., "variables": {...}});
+    // query errors are reported in the body's "errors", as GraphQL clients expect, not as HTTP statuses
+    @PostMapping("/graphql")
+    @SuppressWarnings("unchecked")
+    public ResponseEntity<Map<String, Object>> execute(@RequestBody Map<String, Object> request) {
+        Object query = request.get("query");
+        if (!(query instanceof String) || ((String) query).isBlank()) {
+            throw new InvalidDataException("query is required!");
+        }
+        Object variables = request.get("variables");
+        ExecutionInput input = ExecutionInput.newExecutionInput()
+                .query((String) query)
+                .operationName((String) request.get("operationName"))
+                .variables(variables instanceof Map ? (Map<String, Object>) variables : Map.of())
+                .dataLoaderRegistry(catalogueDataLoaders.newRegistry())
+                .build();
+        return new ResponseEntity<>(graphQL.execute(input).toSpecification(), HttpStatus.OK);
+    }
+}
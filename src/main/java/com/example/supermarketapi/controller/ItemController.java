@@ -1,15 +1,25 @@
 package com.example.supermarketapi.controller;
 
+import com.example.supermarketapi.dto.BatchResultDTO;
+import com.example.supermarketapi.dto.ChangeFeedDTO;
+import com.example.supermarketapi.dto.ItemResponseDTO;
 import com.example.supermarketapi.exception.InvalidDataException;
+import com.example.supermarketapi.mapper.CatalogueMapper;
 import com.example.supermarketapi.model.Item;
 import com.example.supermarketapi.model.enums.ItemType;
+import com.example.supermarketapi.model.money.Money;
+import com.example.supermarketapi.service.CatalogueChangeService;
 import com.example.supermarketapi.service.ItemService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.web.PageableDefault;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import javax.validation.Valid;
+import java.math.BigDecimal;
 import java.util.Arrays;
 import java.util.List;
 
@@ -17,23 +27,31 @@ import java.util.List;
 @RequestMapping(value = "/items")
 public class ItemController {
 
+    // Most entries accepted by one batch request
+    static final int MAX_BATCH_SIZE = 1000;
+
     private final ItemService itemService;
+    private final CatalogueChangeService catalogueChangeService;
+    private final CatalogueMapper catalogueMapper;
 
     @Autowired
-    public ItemController(ItemService itemService) {
+    public ItemController(ItemService itemService, CatalogueChangeService catalogueChangeService,
+                          CatalogueMapper catalogueMapper) {
         this.itemService = itemService;
+        this.catalogueChangeService = catalogueChangeService;
+        this.catalogueMapper = catalogueMapper;
     }
 
     // POST method to create an item, now accepting a request body
     @PostMapping
-    public ResponseEntity<Item> createItem(@RequestBody @Valid Item item) {
+    public ResponseEntity<ItemResponseDTO> createItem(@RequestBody @Valid Item item) {
 
         // Validate the data from the request body
         if (item.getName().length() > 64) {
             throw new InvalidDataException("name exceeds max length of 64!");
         }
 
-        if (item.getPrice() < 0.01 || item.getPrice() > 9999.99) {
+        if (item.getPrice() < Item.MIN_PRICE || item.getPrice() > Item.MAX_PRICE) {
             throw new InvalidDataException("price should be between 0.01 and 9999.99!");
         }
 
@@ -44,64 +62,126 @@ public class ItemController {
         }
 
         Item savedItem = itemService.createItem(item);
-        return new ResponseEntity<>(savedItem, HttpStatus.CREATED);
+        return new ResponseEntity<>(catalogueMapper.toItemResponse(savedItem), HttpStatus.CREATED);
     }
 
     // GET method to return all items
     @GetMapping
-    public ResponseEntity<List<Item>> getAllItems() {
+    public ResponseEntity<List<ItemResponseDTO>> getAllItems() {
         List<Item> items = itemService.getAllItems();  // Assume the service method returns all items
-        return new ResponseEntity<>(items, HttpStatus.OK);
+        return new ResponseEntity<>(catalogueMapper.toItemResponses(items), HttpStatus.OK);
+    }
+
+    // GET method to search items by name, optionally filtered by type, price range and supermarket (whose shelf
+    // prices the range then applies to). Without q, the cheapest items passing the filters are returned.
+    @GetMapping("/search")
+    public ResponseEntity<List<ItemResponseDTO>> searchItems(@RequestParam(required = false) String q,
+                                                  @RequestParam(required = false) ItemType type,
+                                                  @RequestParam(required = false) BigDecimal minPrice,
+                                                  @RequestParam(required = false) BigDecimal maxPrice,
+                                                  @RequestParam(required = false) String supermarketId,
+                                                  @RequestParam(defaultValue = "50") int limit) {
+        if (limit < 1 || limit > 1000) {
+            throw new InvalidDataException("limit should be between 1 and 1000!");
+        }
+        List<Item> items = itemService.searchItems(q, type, Money.toCentsOrNull(minPrice), Money.toCentsOrNull(maxPrice),
+                supermarketId, limit);
+        return new ResponseEntity<>(catalogueMapper.toItemResponses(items), HttpStatus.OK);
+    }
+
+    // GET method to return a page of items filtered by supermarket, type and price range
+    @GetMapping("/filter")
+    public ResponseEntity<Page<ItemResponseDTO>> filterItems(@RequestParam(required = false) String supermarketId,
+                                                  @RequestParam(required = false) ItemType type,
+                                                  @RequestParam(required = false) BigDecimal minPrice,
+                                                  @RequestParam(required = false) BigDecimal maxPrice,
+                                                  @PageableDefault(size = 50, sort = "price") Pageable pageable) {
+        Page<Item> items = itemService.filterItems(supermarketId, type, Money.toCentsOrNull(minPrice),
+                Money.toCentsOrNull(maxPrice), pageable);
+        return new ResponseEntity<>(items.map(catalogueMapper::toItemResponse), HttpStatus.OK);
+    }
+
+    // GET method to return the item changes (upserts and tombstones) recorded after the given sequence
+    @GetMapping("/changes")
+    public ResponseEntity<ChangeFeedDTO<ItemResponseDTO>> getItemChanges(@RequestParam(defaultValue = "0") long since,
+                                                                      @RequestParam(defaultValue = "500") int limit) {
+        if (since < 0) {
+            throw new InvalidDataException("since can not be negative!");
+        }
+        if (limit < 1 || limit > 1000) {
+            throw new InvalidDataException("limit should be between 1 and 1000!");
+        }
+        return new ResponseEntity<>(catalogueChangeService.getItemChanges(since, limit), HttpStatus.OK);
     }
 
     // GET method to return a specific item by itemId
     @GetMapping("/{itemId}")
-    public ResponseEntity<Item> getItemById(@PathVariable String itemId) {
+    public ResponseEntity<ItemResponseDTO> getItemById(@PathVariable String itemId) {
         Item item = itemService.getItemById(itemId);  // Assume the service method returns an item by ID
         if (item == null) {
             return new ResponseEntity<>(HttpStatus.NOT_FOUND);  // Return 404 if item is not found
         }
-        return new ResponseEntity<>(item, HttpStatus.OK);
+        return new ResponseEntity<>(catalogueMapper.toItemResponse(item), HttpStatus.OK);
+    }
+
+    // POST method to return many items by ID in one call; results (or per-item errors) come back in request order
+    @PostMapping("/batch-get")
+    public ResponseEntity<List<BatchResultDTO<ItemResponseDTO>>> getItems(@RequestBody List<String> itemIds) {
+        validateBatchSize(itemIds);
+        return new ResponseEntity<>(itemService.getItems(itemIds), HttpStatus.OK);
+    }
+
+    // PATCH method to partially update many items, each carrying its ID, in one transaction
+    @PatchMapping("/batch")
+    public ResponseEntity<List<BatchResultDTO<ItemResponseDTO>>> partialUpdateItems(@RequestBody List<Item> items) {
+        validateBatchSize(items);
+        return new ResponseEntity<>(itemService.partialUpdateItems(items), HttpStatus.OK);
+    }
+
+    // DELETE method to delete many items by ID in one transaction
+    @DeleteMapping("/batch")
+    public ResponseEntity<List<BatchResultDTO<Void>>> deleteItems(@RequestBody List<String> itemIds) {
+        validateBatchSize(itemIds);
+        return new ResponseEntity<>(itemService.deleteItems(itemIds), HttpStatus.OK);
     }
 
     // DELETE method to delete an item by its ID
     @DeleteMapping("/{itemId}")
     public ResponseEntity<String> deleteItem(@PathVariable String itemId) {
-        boolean itemExists = itemService.deleteItem(itemId);  // Service method to delete item
-        if (!itemExists) {
-            return new ResponseEntity<>("Item not found with ID: " + itemId, HttpStatus.NOT_FOUND);  // Return clear message if item not found
-        }
+        itemService.deleteItem(itemId);  // Service method to delete item, it throws (404) if there is no such item
         return new ResponseEntity<>("Item successfully deleted", HttpStatus.NO_CONTENT);
     }
 
     // PUT method to update all fields of an item
     @PutMapping("/{itemId}")
-    public ResponseEntity<Item> updateItem(@PathVariable String itemId, @RequestBody Item item) {
-        Item updatedItem = itemService.updateItem(itemId, item);  // Service method to update the item
-        if (updatedItem == null) {
-            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);  // If update fails, return 500
-        }
+    public ResponseEntity<ItemResponseDTO> updateItem(@PathVariable String itemId, @RequestBody Item item) {
         // Validate the fields in the request body
         validateItemFields(item);
 
-        // Update the item using the service layer
-        updatedItem = itemService.updateItem(itemId, item);
+        // Update the item using the service layer, it throws if there is no such item
+        Item updatedItem = itemService.updateItem(itemId, item);
 
         // Return response based on update result
         if (updatedItem == null) {
             return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);  // If update fails, return 500
         }
-        return new ResponseEntity<>(updatedItem, HttpStatus.OK);  // Return updated item
+        return new ResponseEntity<>(catalogueMapper.toItemResponse(updatedItem), HttpStatus.OK);  // Return updated item
     }
 
     // PATCH method to update selected fields of an item (partial update)
     @PatchMapping("/{itemId}")
-    public ResponseEntity<Item> partialUpdateItem(@PathVariable String itemId, @RequestBody Item item) {
+    public ResponseEntity<ItemResponseDTO> partialUpdateItem(@PathVariable String itemId, @RequestBody Item item) {
         Item partiallyUpdatedItem = itemService.partialUpdateItem(itemId, item);  // Service method for partial update
         if (partiallyUpdatedItem == null) {
             return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);  // If update fails, return 500
         }
-        return new ResponseEntity<>(partiallyUpdatedItem, HttpStatus.OK);  // Return partially updated item
+        return new ResponseEntity<>(catalogueMapper.toItemResponse(partiallyUpdatedItem), HttpStatus.OK);  // Return partially updated item
+    }
+
+    static void validateBatchSize(List<?> entries) {
+        if (entries == null || entries.isEmpty() || entries.size() > MAX_BATCH_SIZE) {
+            throw new InvalidDataException("batch size should be between 1 and " + MAX_BATCH_SIZE + "!");
+        }
     }
 
     // Utility method to validate item fields
@@ -109,11 +189,12 @@ public class ItemController {
         if (item.getName() == null || item.getName().length() > 64) {
             throw new InvalidDataException("Name is required and must be less than 64 characters!");
         }
-        if (item.getPrice() == null || item.getPrice() < 0.01 || item.getPrice() > 9999.99) {
+        if (item.getPrice() == null || item.getPrice() < Item.MIN_PRICE || item.getPrice() > Item.MAX_PRICE) {
             throw new InvalidDataException("Price is required and must be between 0.01 and 9999.99!");
         }
 
-        boolean isValidType = Arrays.stream(ItemType.values()).anyMatch(type -> type.name().equals(item.getType().name()));
+        boolean isValidType = item.getType() != null
+                && Arrays.stream(ItemType.values()).anyMatch(type -> type.name().equals(item.getType().name()));
         if (!isValidType) {
             throw new InvalidDataException("Invalid product type! Valid types are: FOOD, TECHNOLOGY, HOUSEHOLD, DRINKS.");
         }
@@ -0,0 +1,109 @@
+package com.example.supermarketapi.controller;
+
+import com.example.supermarketapi.dto.ProfileSummaryDTO;
+import com.example.supermarketapi.dto.RecordingStatusDTO;
+import com.example.supermarketapi.exception.AdminAccessDeniedException;
+import com.example.supermarketapi.exception.InvalidDataException;
+import com.example.supermarketapi.exception.ResourceNotFoundException;
+import com.example.supermarketapi.profiling.FlightRecorderService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.time.Duration;
+
+// Admin endpoints to profile the running service with Java Flight Recorder. They answer 404 unless
+// app.admin.token is set, and 403 without a matching X-Admin-Token header.
+@RestController
+@RequestMapping(value = "/admin/profiling")
+public class ProfilingController {
+
+    private static final String ADMIN_TOKEN_HEADER = "X-Admin-Token";
+    private static final int MAX_SUMMARY_ENTRIES = 200;
+
+    private final FlightRecorderService flightRecorderService;
+    private final byte[] adminToken;
+
+    @Autowired
+    public ProfilingController(FlightRecorderService flightRecorderService,
+                               @Value("${app.admin.token:}") String adminToken) {
+        this.flightRecorderService = flightRecorderService;
+        this.adminToken = adminToken.getBytes(StandardCharsets.UTF_8);
+    }
+
+    // POST method to start a recording, e.g. ?duration=PT2M; capped at app.profiling.max-duration
+    @PostMapping("/start")
+    public ResponseEntity<RecordingStatusDTO> start(
+            @RequestHeader(value = ADMIN_TOKEN_HEADER, required = false) String token,
+            @RequestParam(required = false) Duration duration) {
+        authorize(token);
+        if (duration != null && (duration.isNegative() || duration.isZero())) {
+            throw new InvalidDataException("duration must be positive!");
+        }
+        boolean started = flightRecorderService.start(duration);
+        HttpStatus status = started ? HttpStatus.ACCEPTED : HttpStatus.CONFLICT;
+        return new ResponseEntity<>(flightRecorderService.status(), status);
+    }
+
+    // POST method to stop the running recording before its duration has elapsed
+    @PostMapping("/stop")
+    public ResponseEntity<RecordingStatusDTO> stop(
+            @RequestHeader(value = ADMIN_TOKEN_HEADER, required = false) String token) {
+        authorize(token);
+        boolean stopped = flightRecorderService.stop();
+        return new ResponseEntity<>(flightRecorderService.status(), stopped ? HttpStatus.OK : HttpStatus.CONFLICT);
+    }
+
+    @GetMapping
+    public ResponseEntity<RecordingStatusDTO> status(
+            @RequestHeader(value = ADMIN_TOKEN_HEADER, required = false) String token) {
+        authorize(token);
+        return new ResponseEntity<>(flightRecorderService.status(), HttpStatus.OK);
+    }
+
+    // GET method to download the last finished recording, for JDK Mission Control or the jfr tool
+    @GetMapping("/recording")
+    public ResponseEntity<Resource> download(
+            @RequestHeader(value = ADMIN_TOKEN_HEADER, required = false) String token) {
+        authorize(token);
+        Path file = flightRecorderService.lastRecording()
+                .orElseThrow(() -> new ResourceNotFoundException("No finished recording"));
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_OCTET_STREAM);
+        headers.setContentDisposition(ContentDisposition.attachment().filename(file.getFileName().toString()).build());
+        return new ResponseEntity<>(new FileSystemResource(file), headers, HttpStatus.OK);
+    }
+
+    // GET method for the hot methods and allocations of the last finished recording
+    @GetMapping("/summary")
+    public ResponseEntity<ProfileSummaryDTO> summary(
+            @RequestHeader(value = ADMIN_TOKEN_HEADER, required = false) String token,
+            @RequestParam(defaultValue = "20") int top) {
+        authorize(token);
+        if (top <= 0 || top > MAX_SUMMARY_ENTRIES) {
+            throw new InvalidDataException("top must be between 1 and " + MAX_SUMMARY_ENTRIES + "!");
+        }
+        ProfileSummaryDTO summary = flightRecorderService.summarize(top)
+                .orElseThrow(() -> new ResourceNotFoundException("No finished recording"));
+        return new ResponseEntity<>(summary, HttpStatus.OK);
+    }
+
+    private void authorize(String token) {
+        if (adminToken.length == 0) {
+            throw new ResourceNotFoundException("Profiling is disabled");
+        }
+        if (token == null || !MessageDigest.isEqual(adminToken, token.getBytes(StandardCharsets.UTF_8))) {
+            throw new AdminAccessDeniedException();
+        }
+    }
+}
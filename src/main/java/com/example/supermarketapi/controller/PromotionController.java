@@ -0,0 +1,99 @@
+package com.example.supermarketapi.controller;
+
+import com.example.supermarketapi.exception.InvalidDataException;
+import com.example.supermarketapi.model.Promotion;
+import com.example.supermarketapi.service.PromotionService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import javax.validation.Valid;
+import java.util.List;
+
+@RestController
+@RequestMapping(value = "/promotions")
+public class PromotionController {
+
+    private final PromotionService promotionService;
+
+    @Autowired
+    public PromotionController(PromotionService promotionService) {
+        this.promotionService = promotionService;
+    }
+
+    // Create a promotion with JSON body; it applies to the next checkout
+    @PostMapping
+    public ResponseEntity<Promotion> createPromotion(@RequestBody @Valid Promotion promotion) {
+        validatePromotion(promotion);
+        return new ResponseEntity<>(promotionService.createPromotion(promotion), HttpStatus.CREATED);
+    }
+
+    @GetMapping
+    public ResponseEntity<List<Promotion>> getAll() {
+        return new ResponseEntity<>(promotionService.getAll(), HttpStatus.OK);
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<Promotion> getById(@PathVariable String id) {
+        return new ResponseEntity<>(promotionService.getById(id), HttpStatus.OK);
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> deletePromotion(@PathVariable String id) {
+        promotionService.deletePromotion(id);
+        return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+    }
+
+    // Each type needs its own fields, and only those
+    private static void validatePromotion(Promotion promotion) {
+        promotion.setId(null);
+        switch (promotion.getType()) {
+            case MULTI_BUY:
+                if (promotion.getItemId() == null || promotion.getBuyQuantity() == null
+                        || promotion.getPayQuantity() == null) {
+                    throw new InvalidDataException("A multi-buy needs itemId, buyQuantity and payQuantity!");
+                }
+                if (promotion.getPayQuantity() < 0 || promotion.getPayQuantity() >= promotion.getBuyQuantity()) {
+                    throw new InvalidDataException("payQuantity must be between 0 and buyQuantity - 1!");
+                }
+                requireUnset(promotion.getItemType() == null && promotion.getPercentOff() == null
+                        && promotion.getThresholdAmount() == null && promotion.getDiscountAmount() == null);
+                break;
+            case PERCENT_OFF_TYPE:
+                if (promotion.getItemType() == null || promotion.getPercentOff() == null) {
+                    throw new InvalidDataException("A percent-off needs itemType and percentOff!");
+                }
+                if (promotion.getPercentOff() < 1 || promotion.getPercentOff() > 100) {
+                    throw new InvalidDataException("percentOff must be between 1 and 100!");
+                }
+                requireUnset(promotion.getItemId() == null && promotion.getBuyQuantity() == null
+                        && promotion.getPayQuantity() == null && promotion.getThresholdAmount() == null
+                        && promotion.getDiscountAmount() == null);
+                break;
+            case BASKET_THRESHOLD:
+                if (promotion.getThresholdAmount() == null || promotion.getDiscountAmount() == null) {
+                    throw new InvalidDataException("A basket threshold needs thresholdAmount and discountAmount!");
+                }
+                if (promotion.getDiscountAmount() <= 0 || promotion.getThresholdAmount() < 0) {
+                    throw new InvalidDataException("discountAmount must be positive and thresholdAmount not negative!");
+                }
+                requireUnset(promotion.getItemId() == null && promotion.getItemType() == null
+                        && promotion.getBuyQuantity() == null && promotion.getPayQuantity() == null
+                        && promotion.getPercentOff() == null);
+                break;
+            default:
+                throw new InvalidDataException("Unknown promotion type!");
+        }
+        if (promotion.getStartsAt() != null && promotion.getEndsAt() != null
+                && !promotion.getEndsAt().isAfter(promotion.getStartsAt())) {
+            throw new InvalidDataException("endsAt must be after startsAt!");
+        }
+    }
+
+    private static void requireUnset(boolean unset) {
+        if (!unset) {
+            throw new InvalidDataException("Only the fields of the promotion's type may be set!");
+        }
+    }
+}
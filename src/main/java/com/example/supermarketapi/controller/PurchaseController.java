@@ -1,39 +1,43 @@
 package com.example.supermarketapi.controller;
 
 import com.example.supermarketapi.dto.PurchaseDTO;
+import com.example.supermarketapi.dto.PurchaseHistoryDTO;
 import com.example.supermarketapi.exception.InvalidDataException;
-import com.example.supermarketapi.exception.ResourceNotFoundException;
+import com.example.supermarketapi.exception.PurchaseNotFoundException;
+import com.example.supermarketapi.mapper.PurchaseMapper;
 import com.example.supermarketapi.model.Purchase;
+import com.example.supermarketapi.model.PurchaseHistoryCursor;
 import com.example.supermarketapi.model.PurchaseRequest;
 import com.example.supermarketapi.model.enums.PaymentType;
 import com.example.supermarketapi.service.PurchaseService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import javax.validation.Valid;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping(value = "/purchases")
 public class PurchaseController {
 
     private final PurchaseService purchaseService;
+    private final PurchaseMapper purchaseMapper;
 
     @Autowired
-    public PurchaseController(PurchaseService purchaseService) {
+    public PurchaseController(PurchaseService purchaseService, PurchaseMapper purchaseMapper) {
         this.purchaseService = purchaseService;
+        this.purchaseMapper = purchaseMapper;
     }
 
     @PostMapping
     public ResponseEntity<PurchaseDTO> buyItemsFromSupermarket(@RequestBody @Valid PurchaseRequest request) {
-        PaymentType paymentType;
-        try {
-            paymentType = PaymentType.valueOf(request.getType().toUpperCase());
-        } catch (IllegalArgumentException e) {
+        PaymentType paymentType = purchaseMapper.toPaymentType(request.getType());
+        if (paymentType == null) {
             throw new InvalidDataException("Invalid type of payment! Valid values are CARD and CASH");
         }
 
@@ -42,102 +46,83 @@ public class PurchaseController {
         }
 
         Purchase purchase = purchaseService.makePurchase(request.getSupermarketId(), request.getItemIDs(), paymentType, request.getCashAmount());
-        PurchaseDTO purchaseDTO = new PurchaseDTO(purchase.getPrice(), purchase.getChangeAmount(), purchase.getTimeOfPayment());
-        return new ResponseEntity<>(purchaseDTO, HttpStatus.CREATED);
+        return new ResponseEntity<>(purchaseMapper.toPurchaseDTO(purchase), HttpStatus.CREATED);
     }
 
     @GetMapping
     public ResponseEntity<List<PurchaseDTO>> getAll() {
-        List<PurchaseDTO> response = purchaseService.getAll().stream()
-                .map(purchase -> new PurchaseDTO(purchase.getPrice(), purchase.getChangeAmount(), purchase.getTimeOfPayment()))
-                .collect(Collectors.toList());
+        List<PurchaseDTO> response = purchaseMapper.toPurchaseDTOs(purchaseService.getAll());
         return new ResponseEntity<>(response, HttpStatus.OK);
     }
 
+    // Purchases paid in a date range, including months that were archived out of the database, a page at a time
+    @GetMapping("/history")
+    public ResponseEntity<PurchaseHistoryDTO> getPurchaseHistory(@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                                 @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                                                 @RequestParam(required = false) String supermarketId,
+                                                                 @RequestParam(required = false) String after,
+                                                                 @RequestParam(defaultValue = "500") int limit) {
+        if (to.isBefore(from)) {
+            throw new InvalidDataException("to must not be before from!");
+        }
+        if (limit < 1 || limit > 1000) {
+            throw new InvalidDataException("limit should be between 1 and 1000!");
+        }
+        PurchaseHistoryCursor cursor = null;
+        if (after != null) {
+            cursor = PurchaseHistoryCursor.parse(after);
+            if (cursor == null) {
+                throw new InvalidDataException("after is not a cursor returned by this endpoint!");
+            }
+        }
+        // One extra row tells whether there is another page
+        List<Purchase> page = purchaseService.getHistory(from, to, supermarketId, cursor, limit + 1);
+        boolean hasMore = page.size() > limit;
+        if (hasMore) {
+            page = page.subList(0, limit);
+        }
+        String nextCursor = hasMore ? PurchaseHistoryCursor.after(page.get(page.size() - 1)).toString() : null;
+        return new ResponseEntity<>(new PurchaseHistoryDTO(purchaseMapper.toPurchaseDTOs(page), nextCursor, hasMore),
+                HttpStatus.OK);
+    }
+
     // Get a specific purchase by ID
     @GetMapping("/{id}")
-    public ResponseEntity<PurchaseDTO> getPurchaseById(@PathVariable Long id) {
+    public ResponseEntity<PurchaseDTO> getPurchaseById(@PathVariable String id) {
         Optional<Purchase> purchaseOptional = purchaseService.getById(id);
         if (purchaseOptional.isEmpty()) {
-            throw new ResourceNotFoundException("Purchase not found with id: " + id);
+            throw new PurchaseNotFoundException(id);
         }
-        Purchase purchase = purchaseOptional.get();
-        PurchaseDTO purchaseDTO = new PurchaseDTO(purchase.getPrice(), purchase.getChangeAmount(), purchase.getTimeOfPayment());
-        return new ResponseEntity<>(purchaseDTO, HttpStatus.OK);
+        return new ResponseEntity<>(purchaseMapper.toPurchaseDTO(purchaseOptional.get()), HttpStatus.OK);
     }
 
     // Partial update (PATCH) a specific purchase
     @PatchMapping("/{id}")
-    public ResponseEntity<PurchaseDTO> partialUpdatePurchase(@PathVariable Long id, @RequestBody PurchaseRequest request) {
-        // Fetch the existing purchase by its ID
-        Optional<Purchase> purchaseOptional = purchaseService.getById(id);
-        if (purchaseOptional.isEmpty()) {
-            throw new ResourceNotFoundException("Purchase not found with id: " + id);
-        }
-
-        Purchase purchase = purchaseOptional.get();
-
-        // Only update fields that are not null in the request
-        if (request.getSupermarketId() != null) purchase.setSupermarketId(request.getSupermarketId());
-        if (request.getItemIDs() != null) purchase.setItemIDs(request.getItemIDs());
-        if (request.getType() != null) {
-            try {
-                PaymentType paymentType = PaymentType.valueOf(request.getType().toUpperCase());
-                purchase.setPaymentType(paymentType);
-            } catch (IllegalArgumentException e) {
-                throw new InvalidDataException("Invalid type of payment! Valid values are CARD and CASH");
-            }
-        }
-        if (request.getCashAmount() != null) purchase.setCashAmount(request.getCashAmount());
+    public ResponseEntity<PurchaseDTO> partialUpdatePurchase(@PathVariable String id, @RequestBody PurchaseRequest request) {
+        // Only update fields that are not null in the request, the service saves the purchase on its shard
+        Purchase purchase = purchaseService.update(id, existing -> purchaseMapper.mergePurchase(request, existing));
 
-        // Save the updated purchase
-        purchaseService.update(purchase);
-
-        // Convert the updated Purchase entity to a PurchaseDTO
-        PurchaseDTO purchaseDTO = new PurchaseDTO(
-                purchase.getPrice(),
-                purchase.getChangeAmount(),
-                purchase.getTimeOfPayment()
-        );
-
-        // Return the PurchaseDTO in the response
-        return new ResponseEntity<>(purchaseDTO, HttpStatus.OK);
+        // Return the updated Purchase entity as a PurchaseDTO
+        return new ResponseEntity<>(purchaseMapper.toPurchaseDTO(purchase), HttpStatus.OK);
     }
 
     // Full update (PUT) a specific purchase
     @PutMapping("/{id}")
-    public ResponseEntity<PurchaseDTO> fullUpdatePurchase(@PathVariable Long id, @RequestBody PurchaseRequest request) {
-        Optional<Purchase> purchaseOptional = purchaseService.getById(id);
-        if (purchaseOptional.isEmpty()) {
-            throw new ResourceNotFoundException("Purchase not found with id: " + id);
-        }
-
-        Purchase purchase = purchaseOptional.get();
+    public ResponseEntity<PurchaseDTO> fullUpdatePurchase(@PathVariable String id, @RequestBody PurchaseRequest request) {
         // Replace all fields with the request
-        purchase.setSupermarketId(request.getSupermarketId());
-        purchase.setItemIDs(request.getItemIDs());
-        try {
-            PaymentType paymentType = PaymentType.valueOf(request.getType().toUpperCase());
-            purchase.setPaymentType(paymentType);
-        } catch (IllegalArgumentException e) {
-            throw new InvalidDataException("Invalid type of payment! Valid values are CARD and CASH");
-        }
-        purchase.setCashAmount(request.getCashAmount());
-
-        purchaseService.update(purchase);  // Assuming update saves the changes to the database
-        PurchaseDTO purchaseDTO = new PurchaseDTO(purchase.getPrice(), purchase.getChangeAmount(), purchase.getTimeOfPayment());
-        return new ResponseEntity<>(purchaseDTO, HttpStatus.OK);
+        Purchase purchase = purchaseService.update(id, existing -> {
+            if (request.getType() == null) {
+                throw new InvalidDataException("Invalid type of payment! Valid values are CARD and CASH");
+            }
+            purchaseMapper.replacePurchase(request, existing);
+        });
+        return new ResponseEntity<>(purchaseMapper.toPurchaseDTO(purchase), HttpStatus.OK);
     }
 
     // Delete a specific purchase
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> deletePurchase(@PathVariable Long id) {
-        Optional<Purchase> purchaseOptional = purchaseService.getById(id);
-        if (purchaseOptional.isEmpty()) {
-            throw new ResourceNotFoundException("Purchase not found with id: " + id);
-        }
-
-        // Call the service to delete the purchase by ID
+    public ResponseEntity<Void> deletePurchase(@PathVariable String id) {
+        // Call the service to delete the purchase by ID, it throws if there is no such purchase
         purchaseService.delete(id);
 
         // Return a response with no content (HTTP 204)
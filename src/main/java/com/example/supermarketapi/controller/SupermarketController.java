@@ -1,19 +1,38 @@
 package com.example.supermarketapi.controller;
 
+import com.example.supermarketapi.catalog.CachedResponse;
+import com.example.supermarketapi.catalog.CatalogueResponseCache;
 import com.example.supermarketapi.dto.AddItemsToSupermarketResponseDTO;
-import com.example.supermarketapi.dto.SupermarketInfoDTO;
+import com.example.supermarketapi.dto.BatchResultDTO;
+import com.example.supermarketapi.dto.ChangeFeedDTO;
+import com.example.supermarketapi.dto.ItemResponseDTO;
+import com.example.supermarketapi.dto.SupermarketResponseDTO;
 import com.example.supermarketapi.exception.InvalidDataException;
+import com.example.supermarketapi.mapper.CatalogueMapper;
+import com.example.supermarketapi.model.Item;
 import com.example.supermarketapi.model.Supermarket;
+import com.example.supermarketapi.model.SupermarketItem;
+import com.example.supermarketapi.model.enums.ItemType;
+import com.example.supermarketapi.model.money.Money;
+import com.example.supermarketapi.push.AssortmentChangeBroadcaster;
+import com.example.supermarketapi.service.CatalogueChangeService;
 import com.example.supermarketapi.service.SupermarketService;
 import com.example.supermarketapi.validation.WorkingTimeValidator;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.web.PageableDefault;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import javax.validation.Valid;
 import javax.validation.constraints.NotEmpty;
 import javax.validation.constraints.NotNull;
+import java.math.BigDecimal;
 import java.util.*;
 import java.util.List;
 
@@ -22,15 +41,25 @@ import java.util.List;
 public class SupermarketController {
 
     private final SupermarketService supermarketService;
+    private final CatalogueChangeService catalogueChangeService;
+    private final CatalogueResponseCache catalogueResponseCache;
+    private final AssortmentChangeBroadcaster assortmentChangeBroadcaster;
+    private final CatalogueMapper catalogueMapper;
 
     @Autowired
-    public SupermarketController(SupermarketService supermarketService) {
+    public SupermarketController(SupermarketService supermarketService, CatalogueChangeService catalogueChangeService,
+                                 CatalogueResponseCache catalogueResponseCache,
+                                 AssortmentChangeBroadcaster assortmentChangeBroadcaster, CatalogueMapper catalogueMapper) {
         this.supermarketService = supermarketService;
+        this.catalogueChangeService = catalogueChangeService;
+        this.catalogueResponseCache = catalogueResponseCache;
+        this.assortmentChangeBroadcaster = assortmentChangeBroadcaster;
+        this.catalogueMapper = catalogueMapper;
     }
 
     // Create supermarket with JSON body
     @PostMapping
-    public ResponseEntity<Supermarket> createSupermarket(@RequestBody @Valid Supermarket supermarket) {
+    public ResponseEntity<SupermarketResponseDTO> createSupermarket(@RequestBody @Valid Supermarket supermarket) {
         // Validate the data from the request body
         if(supermarket.getAddress().length() > 128){
             throw new InvalidDataException("Address exceeds max length of 128!");
@@ -49,7 +78,7 @@ public class SupermarketController {
         }
 
         Supermarket savedSupermarket = supermarketService.createSupermarket(supermarket);
-        return new ResponseEntity<>(savedSupermarket, HttpStatus.CREATED);
+        return new ResponseEntity<>(catalogueMapper.toSupermarketResponse(savedSupermarket), HttpStatus.CREATED);
     }
 
     // Add items to a supermarket
@@ -63,20 +92,83 @@ public class SupermarketController {
 
     // Get a supermarket by ID
     @GetMapping("/{supermarketId}")
-    public ResponseEntity<SupermarketInfoDTO> getSupermarket(@PathVariable String supermarketId) {
-        return new ResponseEntity<>(supermarketService.getSupermarketInfo(supermarketId), HttpStatus.OK);
+    public ResponseEntity<byte[]> getSupermarket(@PathVariable String supermarketId,
+                                                 @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        // Served from pre-serialized JSON, the service is only called when the cached body was invalidated
+        CachedResponse response = catalogueResponseCache.getSupermarketInfo(supermarketId,
+                () -> supermarketService.getSupermarketInfo(supermarketId));
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .varyBy(HttpHeaders.ACCEPT_ENCODING);
+        // Already-encoded bodies are left alone by the server's own compression
+        if (response.getGzipBody() != null && acceptsGzip(acceptEncoding)) {
+            return builder.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(response.getGzipBody());
+        }
+        return builder.body(response.getBody());
+    }
+
+    // Get many supermarkets by ID in one call; results (or per-supermarket errors) come back in request order
+    @PostMapping("/batch-get")
+    public ResponseEntity<List<BatchResultDTO<SupermarketResponseDTO>>> getSupermarkets(@RequestBody List<String> supermarketIds) {
+        ItemController.validateBatchSize(supermarketIds);
+        return new ResponseEntity<>(supermarketService.getSupermarkets(supermarketIds), HttpStatus.OK);
+    }
+
+    // Get a page of a supermarket's items, optionally filtered by type and price range
+    @GetMapping("/{supermarketId}/items")
+    public ResponseEntity<Page<ItemResponseDTO>> getSupermarketItems(@PathVariable String supermarketId,
+                                                                     @RequestParam(required = false) ItemType type,
+                                                                     @RequestParam(required = false) BigDecimal minPrice,
+                                                                     @RequestParam(required = false) BigDecimal maxPrice,
+                                                                     @PageableDefault(size = 50, sort = "price") Pageable pageable) {
+        Page<SupermarketItem> items = supermarketService.getSupermarketItems(supermarketId, type,
+                Money.toCentsOrNull(minPrice), Money.toCentsOrNull(maxPrice), pageable);
+        return new ResponseEntity<>(items.map(catalogueMapper::toListingResponse), HttpStatus.OK);
+    }
+
+    // Set the supermarket's own shelf price for an item and/or take it off (or back on) the shelves
+    @PatchMapping("/{supermarketId}/items/{itemId}")
+    public ResponseEntity<ItemResponseDTO> updateSupermarketItem(@PathVariable String supermarketId,
+                                                                 @PathVariable String itemId,
+                                                                 @RequestParam(required = false) BigDecimal price,
+                                                                 @RequestParam(required = false) Boolean active) {
+        Long priceCents = Money.toCentsOrNull(price);
+        if (priceCents != null && (priceCents < Item.MIN_PRICE || priceCents > Item.MAX_PRICE)) {
+            throw new InvalidDataException("price should be between 0.01 and 9999.99!");
+        }
+        SupermarketItem listing = supermarketService.updateSupermarketItem(supermarketId, itemId, priceCents, active);
+        return new ResponseEntity<>(catalogueMapper.toListingResponse(listing), HttpStatus.OK);
+    }
+
+    // Subscribe to a supermarket's price and assortment changes as server-sent events
+    @GetMapping(value = "/{supermarketId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> subscribeToChanges(@PathVariable String supermarketId) {
+        supermarketService.getSupermarket(supermarketId);  // Throws if the supermarket does not exist
+        SseEmitter emitter = assortmentChangeBroadcaster.subscribe(supermarketId);
+        if (emitter == null) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "5").build();
+        }
+        // Stops reverse proxies from buffering the stream
+        return ResponseEntity.ok().header("X-Accel-Buffering", "no").body(emitter);
+    }
+
+    // Get the supermarket changes (upserts and tombstones) recorded after the given sequence
+    @GetMapping("/changes")
+    public ResponseEntity<ChangeFeedDTO<SupermarketResponseDTO>> getSupermarketChanges(@RequestParam(defaultValue = "0") long since,
+                                                                                    @RequestParam(defaultValue = "500") int limit) {
+        if (since < 0) {
+            throw new InvalidDataException("since can not be negative!");
+        }
+        if (limit < 1 || limit > 1000) {
+            throw new InvalidDataException("limit should be between 1 and 1000!");
+        }
+        return new ResponseEntity<>(catalogueChangeService.getSupermarketChanges(since, limit), HttpStatus.OK);
     }
 
     // Update all fields of a supermarket
     @PutMapping("/{supermarketId}")
-    public ResponseEntity<Supermarket> updateSupermarket(@PathVariable String supermarketId,
+    public ResponseEntity<SupermarketResponseDTO> updateSupermarket(@PathVariable String supermarketId,
                                                          @RequestBody @Valid Supermarket supermarket) {
-        // Ensure the supermarket exists before attempting to update
-        Supermarket existingSupermarket = supermarketService.getSupermarket(supermarketId);
-        if (existingSupermarket == null) {
-            throw new InvalidDataException("Supermarket with given ID does not exist.");
-        }
-
         // Validate the data from the request body
         if(supermarket.getAddress().length() > 128){
             throw new InvalidDataException("Address exceeds max length of 128!");
@@ -94,75 +186,62 @@ public class SupermarketController {
             throw new InvalidDataException("Working hours are invalid!");
         }
 
-        // If the supermarket is valid, update and save it
-        existingSupermarket.setName(supermarket.getName());
-        existingSupermarket.setAddress(supermarket.getAddress());
-        existingSupermarket.setPhoneNumber(supermarket.getPhoneNumber());
-        existingSupermarket.setWorkHours(supermarket.getWorkHours());
-
-        Supermarket updatedSupermarket = supermarketService.createSupermarket(existingSupermarket);
-        return new ResponseEntity<>(updatedSupermarket, HttpStatus.OK);
+        // A single UPDATE, it throws if the supermarket does not exist or the name is taken
+        Supermarket updatedSupermarket = supermarketService.updateSupermarket(supermarketId, supermarket);
+        return new ResponseEntity<>(catalogueMapper.toSupermarketResponse(updatedSupermarket), HttpStatus.OK);
     }
 
     // Partial update of a supermarket's fields (name, address, phone number, working hours)
     @PatchMapping("/{supermarketId}")
-    public ResponseEntity<Supermarket> partialUpdateSupermarket(@PathVariable String supermarketId,
+    public ResponseEntity<SupermarketResponseDTO> partialUpdateSupermarket(@PathVariable String supermarketId,
                                                                 @RequestBody Supermarket supermarket) {
-        // Ensure the supermarket exists before attempting to update
-        Supermarket existingSupermarket = supermarketService.getSupermarket(supermarketId);
-        if (existingSupermarket == null) {
-            throw new InvalidDataException("Supermarket with given ID does not exist.");
-        }
-
-        // Validate fields and update only the provided ones
-        if (supermarket.getName() != null) {
-            if(supermarket.getName().length() > 64){
-                throw new InvalidDataException("Name exceeds max length of 64!");
-            }
-            existingSupermarket.setName(supermarket.getName());
+        // Validate the provided fields, the service updates only those
+        if (supermarket.getName() != null && supermarket.getName().length() > 64) {
+            throw new InvalidDataException("Name exceeds max length of 64!");
         }
 
-        if (supermarket.getAddress() != null) {
-            if(supermarket.getAddress().length() > 128){
-                throw new InvalidDataException("Address exceeds max length of 128!");
-            }
-            existingSupermarket.setAddress(supermarket.getAddress());
+        if (supermarket.getAddress() != null && supermarket.getAddress().length() > 128) {
+            throw new InvalidDataException("Address exceeds max length of 128!");
         }
 
-        if (supermarket.getPhoneNumber() != null) {
-            if(!supermarket.getPhoneNumber().matches("08[7-9][0-9]{7}")){
-                throw new InvalidDataException("Phone number is invalid!");
-            }
-            existingSupermarket.setPhoneNumber(supermarket.getPhoneNumber());
+        if (supermarket.getPhoneNumber() != null && !supermarket.getPhoneNumber().matches("08[7-9][0-9]{7}")) {
+            throw new InvalidDataException("Phone number is invalid!");
         }
 
-        if (supermarket.getWorkHours() != null) {
-            if(!WorkingTimeValidator.isValid(supermarket.getWorkHours())){
-                throw new InvalidDataException("Working hours are invalid!");
-            }
-            existingSupermarket.setWorkHours(supermarket.getWorkHours());
+        if (supermarket.getWorkHours() != null && !WorkingTimeValidator.isValid(supermarket.getWorkHours())) {
+            throw new InvalidDataException("Working hours are invalid!");
         }
 
-        Supermarket updatedSupermarket = supermarketService.createSupermarket(existingSupermarket);
-        return new ResponseEntity<>(updatedSupermarket, HttpStatus.OK);
+        Supermarket updatedSupermarket = supermarketService.partialUpdateSupermarket(supermarketId, supermarket);
+        return new ResponseEntity<>(catalogueMapper.toSupermarketResponse(updatedSupermarket), HttpStatus.OK);
     }
 
     // Delete a supermarket by ID
     @DeleteMapping("/{supermarketId}")
     public ResponseEntity<String> deleteSupermarket(@PathVariable String supermarketId) {
-        Supermarket existingSupermarket = supermarketService.getSupermarket(supermarketId);
-        if (existingSupermarket == null) {
-            throw new InvalidDataException("Supermarket with given ID does not exist.");
-        }
-
+        // It throws if the supermarket does not exist
         supermarketService.deleteSupermarket(supermarketId);
         return new ResponseEntity<>("Supermarket successfully deleted", HttpStatus.NO_CONTENT);
     }
 
     // Get all supermarkets
     @GetMapping
-    public ResponseEntity<List<Supermarket>> getAllSupermarkets() {
-        List<Supermarket> supermarkets = supermarketService.getAllSupermarkets();
+    public ResponseEntity<List<SupermarketResponseDTO>> getAllSupermarkets() {
+        List<SupermarketResponseDTO> supermarkets =
+                catalogueMapper.toSupermarketResponses(supermarketService.getAllSupermarkets());
         return new ResponseEntity<>(supermarkets, HttpStatus.OK);
     }
+
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if (parts[0].trim().equalsIgnoreCase("gzip")) {
+                return parts.length == 1 || !parts[1].replace(" ", "").matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
 }
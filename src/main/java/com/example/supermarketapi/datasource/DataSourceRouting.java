@@ -0,0 +1,46 @@
+package com.example.supermarketapi.datasource;
+
+import java.util.function.Supplier;
+
+// Per-thread hint for ReadWriteRoutingDataSource: while pinned, read-only transactions also use the primary.
+// Cache fills pin themselves so a lagging replica is never cached; without replica routing this is a no-op.
+public final class DataSourceRouting {
+
+    private static final ThreadLocal<int[]> PRIMARY_PINS = ThreadLocal.withInitial(() -> new int[1]);
+
+    private DataSourceRouting() {
+    }
+
+    public static boolean isPinnedToPrimary() {
+        return PRIMARY_PINS.get()[0] > 0;
+    }
+
+    public static <T> T onPrimary(Supplier<T> action) {
+        pin();
+        try {
+            return action.get();
+        } finally {
+            unpin();
+        }
+    }
+
+    public static void runOnPrimary(Runnable action) {
+        pin();
+        try {
+            action.run();
+        } finally {
+            unpin();
+        }
+    }
+
+    static void pin() {
+        PRIMARY_PINS.get()[0]++;
+    }
+
+    static void unpin() {
+        int[] pins = PRIMARY_PINS.get();
+        if (--pins[0] <= 0) {
+            PRIMARY_PINS.remove();
+        }
+    }
+}
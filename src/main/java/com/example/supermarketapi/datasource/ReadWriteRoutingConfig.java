@@ -0,0 +1,54 @@
+package com.example.supermarketapi.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+// Replaces the auto-configured pool with a primary pool plus replica pools behind a read/write routing
+// data source. Off unless app.datasource.replicas.enabled=true; Flyway and all writes use the primary.
+@Configuration
+@ConditionalOnProperty(name = "app.datasource.replicas.enabled", havingValue = "true")
+public class ReadWriteRoutingConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        primary.setPoolName("primary");
+        primary.setRegisterMbeans(true);
+        return primary;
+    }
+
+    @Bean
+    public ReplicaDataSources replicaDataSources(
+            @Value("${app.datasource.replicas.urls}") String[] urls,
+            @Value("${app.datasource.replicas.username:${spring.datasource.username:}}") String username,
+            @Value("${app.datasource.replicas.password:${spring.datasource.password:}}") String password,
+            @Value("${app.datasource.replicas.maximum-pool-size:10}") int maximumPoolSize) {
+        return new ReplicaDataSources(urls, username, password, maximumPoolSize);
+    }
+
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor(HikariDataSource primaryDataSource, ReplicaDataSources replicaDataSources,
+                                               @Value("${app.datasource.replicas.max-lag:3s}") Duration maxLag,
+                                               @Value("${app.datasource.replicas.lag-check-enabled:true}") boolean enabled) {
+        return new ReplicaLagMonitor(primaryDataSource, replicaDataSources.getPools(), maxLag, enabled);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryDataSource, ReplicaDataSources replicaDataSources,
+                                 ReplicaLagMonitor replicaLagMonitor) {
+        return new LazyConnectionDataSourceProxy(
+                new ReadWriteRoutingDataSource(primaryDataSource, replicaDataSources.getPools(), replicaLagMonitor));
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.supermarketapi.datasource;
+
+import com.example.supermarketapi.ratelimit.RateLimitFilter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// After a client's successful write, pins that client's requests to the primary for the stickiness window,
+// so it reads its own write even if the replicas have not caught up. Clients are keyed like the rate limiter.
+@Component
+@ConditionalOnProperty(name = "app.datasource.replicas.enabled", havingValue = "true")
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    private final RateLimitFilter rateLimitFilter;
+    private final long stickinessNanos;
+    private final int maxClients;
+
+    // client key -> System.nanoTime() until which its reads stay on the primary
+    private final Map<String, Long> pinnedUntil = new ConcurrentHashMap<>();
+
+    public ReadYourWritesFilter(RateLimitFilter rateLimitFilter,
+                                @Value("${app.datasource.replicas.stickiness:5s}") Duration stickiness,
+                                @Value("${app.rate-limit.max-clients:100000}") int maxClients) {
+        this.rateLimitFilter = rateLimitFilter;
+        this.stickinessNanos = stickiness.toNanos();
+        this.maxClients = maxClients;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String clientKey = rateLimitFilter.clientKey(request);
+        long now = System.nanoTime();
+        Long until = pinnedUntil.get(clientKey);
+        boolean pinned = until != null && until - now > 0;
+        if (until != null && !pinned) {
+            pinnedUntil.remove(clientKey, until);
+        }
+
+        if (pinned) {
+            DataSourceRouting.pin();
+        }
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            if (pinned) {
+                DataSourceRouting.unpin();
+            }
+        }
+
+        if (isWrite(request) && response.getStatus() < 400) {
+            if (pinnedUntil.size() >= maxClients) {
+                long sweepAt = System.nanoTime();
+                pinnedUntil.values().removeIf(deadline -> deadline - sweepAt <= 0);
+            }
+            pinnedUntil.put(clientKey, System.nanoTime() + stickinessNanos);
+        }
+    }
+
+    private static boolean isWrite(HttpServletRequest request) {
+        String method = request.getMethod();
+        return !"GET".equals(method) && !"HEAD".equals(method) && !"OPTIONS".equals(method)
+                && !RateLimitFilter.isReadOnlyPost(request);
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.supermarketapi.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import javax.sql.DataSource;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// The replica pools, kept out of the DataSource beans so only the routing data source is injectable
+public class ReplicaDataSources implements AutoCloseable {
+
+    private final Map<String, HikariDataSource> pools = new LinkedHashMap<>();
+
+    public ReplicaDataSources(String[] urls, String username, String password, int maximumPoolSize) {
+        for (int i = 0; i < urls.length; i++) {
+            HikariDataSource pool = new HikariDataSource();
+            // Own pool name and MBean per replica, next to the primary's
+            pool.setPoolName("replica-" + (i + 1));
+            pool.setRegisterMbeans(true);
+            pool.setJdbcUrl(urls[i].trim());
+            pool.setUsername(username);
+            pool.setPassword(password);
+            pool.setMaximumPoolSize(maximumPoolSize);
+            pool.setReadOnly(true);
+            pools.put(pool.getPoolName(), pool);
+        }
+    }
+
+    public Map<String, DataSource> getPools() {
+        return Collections.unmodifiableMap(pools);
+    }
+
+    @Override
+    public void close() {
+        pools.values().forEach(HikariDataSource::close);
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.supermarketapi.datasource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Heartbeat-based replication lag check: the primary's replica_heartbeat row is stamped on every check and each
+// replica is usable while the stamp it sees is younger than max-lag. max-lag must exceed the check interval.
+// A replica that cannot be queried is treated as lagging.
+public class ReplicaLagMonitor {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaLagMonitor.class);
+
+    private final JdbcTemplate primary;
+    private final Map<String, JdbcTemplate> replicas = new LinkedHashMap<>();
+    private final Duration maxLag;
+    private final boolean enabled;
+
+    private final Set<String> usable = ConcurrentHashMap.newKeySet();
+
+    public ReplicaLagMonitor(DataSource primary, Map<String, DataSource> replicas, Duration maxLag, boolean enabled) {
+        this.primary = new JdbcTemplate(primary);
+        replicas.forEach((key, dataSource) -> this.replicas.put(key, new JdbcTemplate(dataSource)));
+        this.maxLag = maxLag;
+        this.enabled = enabled;
+        // Replicas start out usable when lag checks are off, and unusable until the first check otherwise
+        if (!enabled) {
+            usable.addAll(replicas.keySet());
+        }
+    }
+
+    public boolean isUsable(String replicaKey) {
+        return usable.contains(replicaKey);
+    }
+
+    @Scheduled(fixedDelayString = "${app.datasource.replicas.lag-check-interval:1000}")
+    public void check() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            primary.update("UPDATE replica_heartbeat SET beat_at = ? WHERE id = 1", Timestamp.from(Instant.now()));
+        } catch (DataAccessException e) {
+            log.warn("Could not stamp the replication heartbeat", e);
+        }
+        Instant now = Instant.now();
+        replicas.forEach((key, replica) -> {
+            try {
+                Timestamp beatAt = replica.queryForObject("SELECT beat_at FROM replica_heartbeat WHERE id = 1",
+                        Timestamp.class);
+                boolean current = beatAt != null && Duration.between(beatAt.toInstant(), now).compareTo(maxLag) <= 0;
+                if (current ? usable.add(key) : usable.remove(key)) {
+                    log.info("Replica {} is now {}", key, current ? "in rotation" : "lagging, reads go to the primary");
+                }
+            } catch (DataAccessException e) {
+                if (usable.remove(key)) {
+                    log.warn("Replica {} is unreachable, reads go elsewhere", key, e);
+                }
+            }
+        });
+    }
+}
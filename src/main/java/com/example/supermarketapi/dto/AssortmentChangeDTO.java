@@ -0,0 +1,16 @@
+package com.example.supermarketapi.dto;
+
+import com.example.supermarketapi.model.enums.ChangeOperation;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class AssortmentChangeDTO {
+
+    private final String itemId;
+    private final ChangeOperation operation;
+
+    // Current state of the item, null when it was removed from the supermarket
+    private final ItemResponseDTO item;
+}
@@ -0,0 +1,33 @@
+package com.example.supermarketapi.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+
+// Outcome of one entry of a batch request, returned in request order
+@Getter
+@AllArgsConstructor
+public class BatchResultDTO<T> {
+
+    private final String id;
+
+    // HTTP status the entry would have had as a single request
+    private final int status;
+
+    // The resulting entity, null on errors and deletes
+    private final T data;
+
+    private final String error;
+
+    public static <T> BatchResultDTO<T> ok(String id, T data) {
+        return new BatchResultDTO<>(id, HttpStatus.OK.value(), data, null);
+    }
+
+    public static <T> BatchResultDTO<T> deleted(String id) {
+        return new BatchResultDTO<>(id, HttpStatus.NO_CONTENT.value(), null, null);
+    }
+
+    public static <T> BatchResultDTO<T> error(String id, HttpStatus status, String error) {
+        return new BatchResultDTO<>(id, status.value(), null, error);
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.supermarketapi.dto;
+
+import com.example.supermarketapi.model.enums.ChangeOperation;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class ChangeDTO<T> {
+
+    private final long seq;
+    private final String id;
+    private final ChangeOperation operation;
+
+    // Current state of the entity, null for a tombstone
+    private final T data;
+}
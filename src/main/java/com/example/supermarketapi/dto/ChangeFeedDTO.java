@@ -0,0 +1,17 @@
+package com.example.supermarketapi.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+@Getter
+@AllArgsConstructor
+public class ChangeFeedDTO<T> {
+
+    private final List<ChangeDTO<T>> changes;
+
+    // Pass back as since= on the next call
+    private final long nextSince;
+    private final boolean hasMore;
+}
@@ -1,15 +1,18 @@
 package com.example.supermarketapi.dto;
 
 import com.example.supermarketapi.model.enums.ItemType;
+import com.example.supermarketapi.model.money.JsonMoney;
+import lombok.AllArgsConstructor;
 import lombok.Getter;
-import lombok.Setter;
 
 @Getter
-@Setter
+@AllArgsConstructor
 public class ItemResponseDTO {
 
-    private String name;
-    private Double price;
-    private ItemType type;
-
+    private final String id;
+    private final String name;
+    @JsonMoney
+    private final Long price;
+    private final ItemType type;
+    private final String supermarketId;
 }
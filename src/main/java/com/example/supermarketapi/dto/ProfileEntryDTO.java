@@ -0,0 +1,17 @@
+package com.example.supermarketapi.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// One line of a profile: a method or class and its samples or bytes
+@Getter
+@AllArgsConstructor
+public class ProfileEntryDTO {
+
+    private final String name;
+
+    private final long value;
+
+    // Share of the profile's total, 0-100
+    private final double percent;
+}
@@ -0,0 +1,32 @@
+package com.example.supermarketapi.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.Instant;
+import java.util.List;
+
+// Hot methods and allocations of a finished flight recording, for a first look without JDK Mission Control
+@Getter
+@AllArgsConstructor
+public class ProfileSummaryDTO {
+
+    private final Instant startedAt;
+
+    private final long durationMillis;
+
+    private final long executionSamples;
+
+    // Top frames of the execution samples
+    private final List<ProfileEntryDTO> hotMethods;
+
+    // Top frames within the application's own packages, where the time is spent from its point of view
+    private final List<ProfileEntryDTO> hotApplicationMethods;
+
+    // Sampled allocation weight in bytes, by allocated class and by allocating method
+    private final long allocatedBytes;
+
+    private final List<ProfileEntryDTO> allocationsByClass;
+
+    private final List<ProfileEntryDTO> allocationSites;
+}
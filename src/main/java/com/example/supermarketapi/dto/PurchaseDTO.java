@@ -1,22 +1,27 @@
 package com.example.supermarketapi.dto;
 
+import com.example.supermarketapi.model.money.JsonMoney;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
-import lombok.Setter;
 
 import javax.validation.constraints.NotNull;
 import java.time.LocalDate;
 
 @Getter
-@Setter
 @AllArgsConstructor
 public class PurchaseDTO {
     @NotNull
-    private Double price;
+    @JsonMoney
+    private final Long price;
 
     @NotNull
-    private Double change;
+    @JsonMoney
+    private final Long discount;
 
     @NotNull
-    private LocalDate timeOfPayment;
+    @JsonMoney
+    private final Long change;
+
+    @NotNull
+    private final LocalDate timeOfPayment;
 }
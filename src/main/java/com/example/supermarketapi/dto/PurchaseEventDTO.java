@@ -0,0 +1,27 @@
+package com.example.supermarketapi.dto;
+
+import com.example.supermarketapi.model.enums.PaymentType;
+import com.example.supermarketapi.model.money.JsonMoney;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDate;
+import java.util.List;
+
+// Payload of the PurchaseCompleted outbox message sent to downstream systems
+@Getter
+@AllArgsConstructor
+public class PurchaseEventDTO {
+
+    private final String id;
+    private final String supermarketId;
+    private final List<String> itemIds;
+    @JsonMoney
+    private final Long price;
+    @JsonMoney
+    private final Long discount;
+    @JsonMoney
+    private final Long change;
+    private final PaymentType paymentType;
+    private final LocalDate timeOfPayment;
+}
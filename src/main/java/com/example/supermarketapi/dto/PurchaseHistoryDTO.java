@@ -0,0 +1,17 @@
+package com.example.supermarketapi.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+@Getter
+@AllArgsConstructor
+public class PurchaseHistoryDTO {
+
+    private final List<PurchaseDTO> purchases;
+
+    // Pass back as after= on the next call, null when this page is the last
+    private final String nextCursor;
+    private final boolean hasMore;
+}
@@ -0,0 +1,23 @@
+package com.example.supermarketapi.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.Instant;
+
+// State of the on-demand flight recording
+@Getter
+@AllArgsConstructor
+public class RecordingStatusDTO {
+
+    private final boolean running;
+
+    // Start of the running or last finished recording, null if there has been none
+    private final Instant startedAt;
+
+    // The recording stops by itself after this many seconds
+    private final long maxDurationSeconds;
+
+    // Size of the last finished recording, 0 if none can be downloaded
+    private final long recordingBytes;
+}
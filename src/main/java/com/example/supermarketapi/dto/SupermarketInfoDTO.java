@@ -1,18 +1,17 @@
 package com.example.supermarketapi.dto;
 
-import com.example.supermarketapi.model.Item;
+import lombok.AllArgsConstructor;
 import lombok.Getter;
-import lombok.Setter;
 
 import java.util.List;
 
 @Getter
-@Setter
+@AllArgsConstructor
 public class SupermarketInfoDTO {
 
-    private String name;
-    private String address;
-    private String phoneNumber;
-    private String workHours;
-    private List<Item> items;
+    private final String name;
+    private final String address;
+    private final String phoneNumber;
+    private final String workHours;
+    private final List<ItemResponseDTO> items;
 }
@@ -0,0 +1,16 @@
+package com.example.supermarketapi.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// Supermarket without its item collection, so serializing it never touches the lazy association
+@Getter
+@AllArgsConstructor
+public class SupermarketResponseDTO {
+
+    private final String id;
+    private final String name;
+    private final String address;
+    private final String phoneNumber;
+    private final String workHours;
+}
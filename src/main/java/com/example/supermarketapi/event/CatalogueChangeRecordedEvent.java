@@ -0,0 +1,13 @@
+package com.example.supermarketapi.event;
+
+import com.example.supermarketapi.model.CatalogueChange;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class CatalogueChangeRecordedEvent {
+
+    // Saved change log row, its seq is the version of the change
+    private final CatalogueChange change;
+}
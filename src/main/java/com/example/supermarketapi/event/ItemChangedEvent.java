@@ -0,0 +1,25 @@
+package com.example.supermarketapi.event;
+
+import com.example.supermarketapi.model.Item;
+import com.example.supermarketapi.model.SupermarketItem;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+@Getter
+@AllArgsConstructor
+public class ItemChangedEvent {
+
+    private final String itemId;
+
+    // The supermarkets' listings of the item after the change (before it, for a deletion)
+    private final List<SupermarketItem> listings;
+
+    // State of the item after the change, null when the item was deleted
+    private final Item item;
+
+    public boolean isDeleted() {
+        return item == null;
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.supermarketapi.event;
+
+import com.example.supermarketapi.model.Supermarket;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class SupermarketChangedEvent {
+
+    private final String supermarketId;
+
+    // State of the supermarket after the change, null when the supermarket was deleted
+    private final Supermarket supermarket;
+
+    public boolean isDeleted() {
+        return supermarket == null;
+    }
+}
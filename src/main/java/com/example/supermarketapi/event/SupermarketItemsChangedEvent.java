@@ -0,0 +1,17 @@
+package com.example.supermarketapi.event;
+
+import com.example.supermarketapi.model.SupermarketItem;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+@Getter
+@AllArgsConstructor
+public class SupermarketItemsChangedEvent {
+
+    private final String supermarketId;
+
+    // Listings added, repriced or (de)activated, with their items loaded
+    private final List<SupermarketItem> listings;
+}
@@ -0,0 +1,9 @@
+package com.example.supermarketapi.exception;
+
+// Mapped to 403: an admin endpoint was called without the configured admin token
+public class AdminAccessDeniedException extends RuntimeException {
+
+    public AdminAccessDeniedException() {
+        super("A valid X-Admin-Token header is required!", null, false, false);
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.supermarketapi.exception;
+
+public class ItemNotFoundException extends ResourceNotFoundException {
+    public ItemNotFoundException(String id) {
+        super("Item not found with ID: " + id);
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.supermarketapi.exception;
+
+public class PromotionNotFoundException extends ResourceNotFoundException {
+    public PromotionNotFoundException(String id) {
+        super("Promotion not found with ID: " + id);
+    }
+}
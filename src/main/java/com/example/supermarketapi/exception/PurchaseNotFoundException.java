@@ -0,0 +1,7 @@
+package com.example.supermarketapi.exception;
+
+public class PurchaseNotFoundException extends ResourceNotFoundException {
+    public PurchaseNotFoundException(String id) {
+        super("Purchase not found with id: " + id);
+    }
+}
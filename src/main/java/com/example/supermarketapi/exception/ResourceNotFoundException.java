@@ -1,12 +1,14 @@
 package com.example.supermarketapi.exception;
 
+// Mapped to 404. Not-found is an expected outcome of a lookup, not a bug, so no stack trace is captured: the
+// message says everything and filling the trace would cost more than the query that found nothing.
 public class ResourceNotFoundException extends RuntimeException {
 
     public ResourceNotFoundException(String message) {
-        super(message);
+        super(message, null, false, false);
     }
 
     public ResourceNotFoundException(String message, Throwable cause) {
-        super(message, cause);
+        super(message, cause, false, false);
     }
 }
@@ -0,0 +1,97 @@
+package com.example.supermarketapi.graphql;
+
+import com.example.supermarketapi.dto.ItemResponseDTO;
+import com.example.supermarketapi.dto.SupermarketResponseDTO;
+import com.example.supermarketapi.exception.InvalidDataException;
+import com.example.supermarketapi.graphql.CatalogueDataLoaders.ListingsKey;
+import com.example.supermarketapi.graphql.CatalogueDataLoaders.PurchasesKey;
+import com.example.supermarketapi.model.Purchase;
+import com.example.supermarketapi.model.enums.ItemType;
+import com.example.supermarketapi.model.money.Money;
+import graphql.schema.DataFetcher;
+import graphql.schema.DataFetchingEnvironment;
+import graphql.schema.idl.RuntimeWiring;
+import org.dataloader.DataLoader;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+// Resolvers of schema.graphqls. Every field that leaves its parent goes through a batch loader, never straight
+// to a service, so sibling fields across the whole result are loaded together.
+final class CatalogueDataFetchers {
+
+    // Most ids or list entries one argument may ask for
+    static final int MAX_LIST_SIZE = 100;
+
+    private CatalogueDataFetchers() {
+    }
+
+    static RuntimeWiring wiring() {
+        return RuntimeWiring.newRuntimeWiring()
+                .type("Query", type -> type
+                        .dataFetcher("supermarket", env -> supermarkets(env).load(env.getArgument("id")))
+                        .dataFetcher("supermarkets", env -> supermarkets(env).loadMany(ids(env)))
+                        .dataFetcher("item", env -> items(env).load(env.getArgument("id")))
+                        .dataFetcher("items", env -> items(env).loadMany(ids(env))))
+                .type("Supermarket", type -> type
+                        .dataFetcher("items", supermarketItems())
+                        .dataFetcher("recentPurchases", recentPurchases()))
+                .type("Item", type -> type
+                        .dataFetcher("price", env -> Money.toDecimal(env.<ItemResponseDTO>getSource().getPrice())))
+                .type("Purchase", type -> type
+                        .dataFetcher("price", env -> Money.toDecimal(env.<Purchase>getSource().getPrice()))
+                        .dataFetcher("discount", env -> Money.toDecimal(env.<Purchase>getSource().getDiscountAmount()))
+                        .dataFetcher("change", env -> Money.toDecimal(env.<Purchase>getSource().getChangeAmount()))
+                        .dataFetcher("timeOfPayment", env -> env.<Purchase>getSource().getTimeOfPayment().toString())
+                        .dataFetcher("items", env -> items(env).loadMany(env.<Purchase>getSource().getItemIDs())))
+                .build();
+    }
+
+    private static DataFetcher<?> supermarketItems() {
+        return env -> {
+            String type = env.getArgument("type");
+            ListingsKey key = new ListingsKey(env.<SupermarketResponseDTO>getSource().getId(),
+                    type == null ? null : ItemType.valueOf(type),
+                    cents(env.getArgument("minPrice")), cents(env.getArgument("maxPrice")), first(env));
+            DataLoader<ListingsKey, List<ItemResponseDTO>> loader =
+                    env.getDataLoader(CatalogueDataLoaders.SUPERMARKET_ITEMS);
+            return loader.load(key);
+        };
+    }
+
+    private static DataFetcher<?> recentPurchases() {
+        return env -> {
+            PurchasesKey key = new PurchasesKey(env.<SupermarketResponseDTO>getSource().getId(), first(env));
+            DataLoader<PurchasesKey, List<Purchase>> loader = env.getDataLoader(CatalogueDataLoaders.RECENT_PURCHASES);
+            return loader.load(key);
+        };
+    }
+
+    private static DataLoader<String, SupermarketResponseDTO> supermarkets(DataFetchingEnvironment env) {
+        return env.getDataLoader(CatalogueDataLoaders.SUPERMARKETS);
+    }
+
+    private static DataLoader<String, ItemResponseDTO> items(DataFetchingEnvironment env) {
+        return env.getDataLoader(CatalogueDataLoaders.ITEMS);
+    }
+
+    private static List<String> ids(DataFetchingEnvironment env) {
+        List<String> ids = env.getArgument("ids");
+        if (ids.size() > MAX_LIST_SIZE) {
+            throw new InvalidDataException("ids should have at most " + MAX_LIST_SIZE + " entries!");
+        }
+        return ids;
+    }
+
+    private static int first(DataFetchingEnvironment env) {
+        Integer first = env.getArgument("first");
+        if (first == null || first < 1 || first > MAX_LIST_SIZE) {
+            throw new InvalidDataException("first should be between 1 and " + MAX_LIST_SIZE + "!");
+        }
+        return first;
+    }
+
+    private static Long cents(Double amount) {
+        return amount == null ? null : Money.toCents(BigDecimal.valueOf(amount));
+    }
+}
@@ -0,0 +1,139 @@
+package com.example.supermarketapi.graphql;
+
+import com.example.supermarketapi.dto.BatchResultDTO;
+import com.example.supermarketapi.dto.ItemResponseDTO;
+import com.example.supermarketapi.dto.SupermarketResponseDTO;
+import com.example.supermarketapi.model.Purchase;
+import com.example.supermarketapi.model.enums.ItemType;
+import com.example.supermarketapi.service.ItemService;
+import com.example.supermarketapi.service.PurchaseService;
+import com.example.supermarketapi.service.SupermarketService;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import org.dataloader.BatchLoader;
+import org.dataloader.DataLoader;
+import org.dataloader.DataLoaderRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+
+// Batch loaders of the GraphQL endpoint. A registry is created per request, so its caches never outlive the
+// request and never serve one client's data to another. The loaders run on the request thread (the futures are
+// already complete), which keeps the replica and shard routing of the request in effect.
+@Component
+public class CatalogueDataLoaders {
+
+    public static final String SUPERMARKETS = "supermarkets";
+    public static final String ITEMS = "items";
+    public static final String SUPERMARKET_ITEMS = "supermarketItems";
+    public static final String RECENT_PURCHASES = "recentPurchases";
+
+    private final SupermarketService supermarketService;
+    private final ItemService itemService;
+    private final PurchaseService purchaseService;
+
+    @Autowired
+    public CatalogueDataLoaders(SupermarketService supermarketService, ItemService itemService,
+                                PurchaseService purchaseService) {
+        this.supermarketService = supermarketService;
+        this.itemService = itemService;
+        this.purchaseService = purchaseService;
+    }
+
+    public DataLoaderRegistry newRegistry() {
+        DataLoaderRegistry registry = new DataLoaderRegistry();
+        registry.register(SUPERMARKETS, DataLoader.newDataLoader(this::loadSupermarkets));
+        registry.register(ITEMS, DataLoader.newDataLoader(this::loadItems));
+        registry.register(SUPERMARKET_ITEMS, DataLoader.newDataLoader(this::loadSupermarketItems));
+        registry.register(RECENT_PURCHASES, DataLoader.newDataLoader(this::loadRecentPurchases));
+        return registry;
+    }
+
+    private CompletableFuture<List<SupermarketResponseDTO>> loadSupermarkets(List<String> supermarketIds) {
+        return CompletableFuture.completedFuture(dataOf(supermarketService.getSupermarkets(supermarketIds)));
+    }
+
+    private CompletableFuture<List<ItemResponseDTO>> loadItems(List<String> itemIds) {
+        return CompletableFuture.completedFuture(dataOf(itemService.getItems(itemIds)));
+    }
+
+    // Keys sharing the same filters are loaded with one statement
+    private CompletableFuture<List<List<ItemResponseDTO>>> loadSupermarketItems(List<ListingsKey> keys) {
+        Map<ListingsKey, List<String>> supermarketIdsByFilter = new LinkedHashMap<>();
+        for (ListingsKey key : keys) {
+            supermarketIdsByFilter.computeIfAbsent(key.withoutSupermarket(), filter -> new ArrayList<>())
+                    .add(key.getSupermarketId());
+        }
+        Map<ListingsKey, List<ItemResponseDTO>> loaded = new HashMap<>();
+        supermarketIdsByFilter.forEach((filter, supermarketIds) -> supermarketService
+                .getSupermarketItems(supermarketIds, filter.getType(), filter.getMinPrice(), filter.getMaxPrice(),
+                        filter.getFirst())
+                .forEach((supermarketId, items) -> loaded.put(filter.forSupermarket(supermarketId), items)));
+
+        List<List<ItemResponseDTO>> results = new ArrayList<>(keys.size());
+        for (ListingsKey key : keys) {
+            results.add(loaded.getOrDefault(key, List.of()));
+        }
+        return CompletableFuture.completedFuture(results);
+    }
+
+    private CompletableFuture<List<List<Purchase>>> loadRecentPurchases(List<PurchasesKey> keys) {
+        Map<Integer, List<String>> supermarketIdsByFirst = new LinkedHashMap<>();
+        for (PurchasesKey key : keys) {
+            supermarketIdsByFirst.computeIfAbsent(key.getFirst(), first -> new ArrayList<>())
+                    .add(key.getSupermarketId());
+        }
+        Map<PurchasesKey, List<Purchase>> loaded = new HashMap<>();
+        supermarketIdsByFirst.forEach((first, supermarketIds) -> purchaseService
+                .getRecentPurchases(supermarketIds, first)
+                .forEach((supermarketId, purchases) -> loaded.put(new PurchasesKey(supermarketId, first), purchases)));
+
+        List<List<Purchase>> results = new ArrayList<>(keys.size());
+        for (PurchasesKey key : keys) {
+            results.add(loaded.getOrDefault(key, List.of()));
+        }
+        return CompletableFuture.completedFuture(results);
+    }
+
+    // Missing ids resolve to null, as the schema allows
+    private static <T> List<T> dataOf(List<BatchResultDTO<T>> results) {
+        List<T> data = new ArrayList<>(results.size());
+        for (BatchResultDTO<T> result : results) {
+            data.add(result.getData());
+        }
+        return data;
+    }
+
+    // A supermarket's listings under one set of Supermarket.items arguments
+    @Getter
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    public static final class ListingsKey {
+
+        private final String supermarketId;
+        private final ItemType type;
+        private final Long minPrice;
+        private final Long maxPrice;
+        private final int first;
+
+        private ListingsKey withoutSupermarket() {
+            return forSupermarket(null);
+        }
+
+        private ListingsKey forSupermarket(String supermarketId) {
+            return new ListingsKey(supermarketId, type, minPrice, maxPrice, first);
+        }
+    }
+
+    @Getter
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    public static final class PurchasesKey {
+
+        private final String supermarketId;
+        private final int first;
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.supermarketapi.graphql;
+
+import graphql.GraphQL;
+import graphql.analysis.FieldComplexityCalculator;
+import graphql.analysis.MaxQueryComplexityInstrumentation;
+import graphql.analysis.MaxQueryDepthInstrumentation;
+import graphql.execution.instrumentation.ChainedInstrumentation;
+import graphql.execution.instrumentation.dataloader.DataLoaderDispatcherInstrumentation;
+import graphql.schema.GraphQLSchema;
+import graphql.schema.idl.SchemaGenerator;
+import graphql.schema.idl.SchemaParser;
+import graphql.schema.idl.TypeDefinitionRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+@Configuration
+public class GraphQLConfig {
+
+    @Bean
+    public GraphQL graphQL(@Value("classpath:graphql/schema.graphqls") Resource schema,
+                           @Value("${app.graphql.max-depth:6}") int maxDepth,
+                           @Value("${app.graphql.max-complexity:5000}") int maxComplexity) throws IOException {
+        TypeDefinitionRegistry types;
+        try (Reader reader = new InputStreamReader(schema.getInputStream(), StandardCharsets.UTF_8)) {
+            types = new SchemaParser().parse(reader);
+        }
+        GraphQLSchema executableSchema = new SchemaGenerator().makeExecutableSchema(types,
+                CatalogueDataFetchers.wiring());
+
+        // Queries over the limits are rejected before any resolver runs
+        return GraphQL.newGraphQL(executableSchema)
+                .instrumentation(new ChainedInstrumentation(List.of(
+                        new DataLoaderDispatcherInstrumentation(),
+                        new MaxQueryDepthInstrumentation(maxDepth),
+                        new MaxQueryComplexityInstrumentation(maxComplexity, fanOutComplexity()))))
+                .build();
+    }
+
+    // A field costs one plus its children, multiplied by the entries a list argument (first or ids) asks for,
+    // so "100 supermarkets x 100 purchases x their items" is priced as the rows it would read
+    static FieldComplexityCalculator fanOutComplexity() {
+        return (environment, childComplexity) -> {
+            Map<String, Object> arguments = environment.getArguments();
+            long fanOut = 1;
+            if (arguments.get("first") instanceof Integer) {
+                fanOut = Math.max(1, (Integer) arguments.get("first"));
+            } else if (arguments.get("ids") instanceof List) {
+                fanOut = Math.max(1, ((List<?>) arguments.get("ids")).size());
+            }
+            return (int) Math.min(Integer.MAX_VALUE, fanOut * (1L + childComplexity));
+        };
+    }
+}
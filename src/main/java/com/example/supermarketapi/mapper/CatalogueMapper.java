@@ -0,0 +1,53 @@
+package com.example.supermarketapi.mapper;
+
+import com.example.supermarketapi.dto.ItemResponseDTO;
+import com.example.supermarketapi.dto.SupermarketInfoDTO;
+import com.example.supermarketapi.dto.SupermarketResponseDTO;
+import com.example.supermarketapi.model.Item;
+import com.example.supermarketapi.model.Supermarket;
+import com.example.supermarketapi.model.SupermarketItem;
+import org.mapstruct.BeanMapping;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.MappingTarget;
+import org.mapstruct.NullValuePropertyMappingStrategy;
+
+import java.util.Collection;
+import java.util.List;
+
+@Mapper(config = MappingConfig.class)
+public interface CatalogueMapper {
+
+    // The item at its list price, outside of any supermarket
+    @Mapping(target = "supermarketId", ignore = true)
+    ItemResponseDTO toItemResponse(Item item);
+
+    List<ItemResponseDTO> toItemResponses(Collection<Item> items);
+
+    // The item as listed by one supermarket, at the supermarket's shelf price
+    @Mapping(target = "id", source = "item.id")
+    @Mapping(target = "price", source = "listing.price")
+    @Mapping(target = "supermarketId", source = "listing.supermarketId")
+    ItemResponseDTO toItemResponse(Item item, SupermarketItem listing);
+
+    default ItemResponseDTO toListingResponse(SupermarketItem listing) {
+        return toItemResponse(listing.getItem(), listing);
+    }
+
+    SupermarketResponseDTO toSupermarketResponse(Supermarket supermarket);
+
+    List<SupermarketResponseDTO> toSupermarketResponses(Collection<Supermarket> supermarkets);
+
+    @Mapping(target = "items", source = "items")
+    SupermarketInfoDTO toSupermarketInfo(Supermarket supermarket, List<ItemResponseDTO> items);
+
+    // Copies the non-null fields of a partial item onto an existing one
+    @BeanMapping(nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE)
+    @Mapping(target = "id", ignore = true)
+    void mergeItem(Item changes, @MappingTarget Item item);
+
+    // Copies the non-null fields of a partial supermarket onto an existing one
+    @BeanMapping(nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE)
+    @Mapping(target = "id", ignore = true)
+    void mergeSupermarket(Supermarket changes, @MappingTarget Supermarket supermarket);
+}
@@ -0,0 +1,9 @@
+package com.example.supermarketapi.mapper;
+
+import org.mapstruct.MapperConfig;
+import org.mapstruct.ReportingPolicy;
+
+// Shared settings for the generated mappers: Spring beans, and an unmapped target property fails the build
+@MapperConfig(componentModel = "spring", unmappedTargetPolicy = ReportingPolicy.ERROR)
+public interface MappingConfig {
+}
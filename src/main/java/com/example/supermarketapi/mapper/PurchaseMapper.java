@@ -0,0 +1,61 @@
+package com.example.supermarketapi.mapper;
+
+import com.example.supermarketapi.dto.PurchaseDTO;
+import com.example.supermarketapi.dto.PurchaseEventDTO;
+import com.example.supermarketapi.exception.InvalidDataException;
+import com.example.supermarketapi.model.Purchase;
+import com.example.supermarketapi.model.PurchaseRequest;
+import com.example.supermarketapi.model.enums.PaymentType;
+import org.mapstruct.BeanMapping;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.MappingTarget;
+import org.mapstruct.NullValuePropertyMappingStrategy;
+
+import java.util.Collection;
+import java.util.List;
+
+@Mapper(config = MappingConfig.class)
+public interface PurchaseMapper {
+
+    @Mapping(target = "change", source = "changeAmount")
+    @Mapping(target = "discount", source = "discountAmount")
+    PurchaseDTO toPurchaseDTO(Purchase purchase);
+
+    List<PurchaseDTO> toPurchaseDTOs(Collection<Purchase> purchases);
+
+    @Mapping(target = "itemIds", source = "itemIDs")
+    @Mapping(target = "change", source = "changeAmount")
+    @Mapping(target = "discount", source = "discountAmount")
+    PurchaseEventDTO toPurchaseEvent(Purchase purchase);
+
+    // Full update: every request field replaces the stored one, including nulls
+    @Mapping(target = "paymentType", source = "type")
+    @Mapping(target = "id", ignore = true)
+    @Mapping(target = "price", ignore = true)
+    @Mapping(target = "discountAmount", ignore = true)
+    @Mapping(target = "changeAmount", ignore = true)
+    @Mapping(target = "timeOfPayment", ignore = true)
+    void replacePurchase(PurchaseRequest request, @MappingTarget Purchase purchase);
+
+    // Partial update: only the fields present in the request are copied
+    @BeanMapping(nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE)
+    @Mapping(target = "paymentType", source = "type")
+    @Mapping(target = "id", ignore = true)
+    @Mapping(target = "price", ignore = true)
+    @Mapping(target = "discountAmount", ignore = true)
+    @Mapping(target = "changeAmount", ignore = true)
+    @Mapping(target = "timeOfPayment", ignore = true)
+    void mergePurchase(PurchaseRequest request, @MappingTarget Purchase purchase);
+
+    default PaymentType toPaymentType(String type) {
+        if (type == null) {
+            return null;
+        }
+        try {
+            return PaymentType.valueOf(type.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new InvalidDataException("Invalid type of payment! Valid values are CARD and CASH");
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.supermarketapi.model;
+
+import com.example.supermarketapi.model.enums.CatalogueEntityType;
+import com.example.supermarketapi.model.enums.ChangeOperation;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.time.Instant;
+
+// One row of the catalogue change log. The auto-increment seq is the cursor clients sync from;
+// only the id of the changed entity is kept, the current state is read when the feed is served.
+@Entity
+@Table(indexes = @Index(name = "idx_catalogue_change_type_seq", columnList = "entity_type, seq"))
+@Getter
+@NoArgsConstructor
+public class CatalogueChange {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long seq;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private CatalogueEntityType entityType;
+
+    @Column(nullable = false)
+    private String entityId;
+
+    // Supermarket the change affects, used by peer nodes to evict their cached copies
+    private String supermarketId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private ChangeOperation operation;
+
+    // Set when the change is recorded inside the writing transaction, which commits some time later
+    @Column(nullable = false)
+    private Instant changedAt;
+
+    public CatalogueChange(CatalogueEntityType entityType, String entityId, String supermarketId,
+                           ChangeOperation operation) {
+        this.entityType = entityType;
+        this.entityId = entityId;
+        this.supermarketId = supermarketId;
+        this.operation = operation;
+        this.changedAt = Instant.now();
+    }
+}
@@ -1,32 +1,41 @@
 package com.example.supermarketapi.model;
 
 import com.example.supermarketapi.model.enums.ItemType;
+import com.example.supermarketapi.model.money.JsonMoney;
+import com.example.supermarketapi.model.money.MoneyAttributeConverter;
 import com.sun.istack.NotNull;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.ToString;
 
-import javax.persistence.Entity;
-import javax.persistence.Enumerated;
+import javax.persistence.*;
 import javax.validation.constraints.*;
 
 @Entity
+@Table(indexes = @Index(name = "idx_item_type_price", columnList = "type, price"))
 @Getter
 @Setter
 @ToString
 public class Item extends BaseEntity {
 
+    // Price bounds in cents (0.01 - 9999.99)
+    public static final long MIN_PRICE = 1;
+    public static final long MAX_PRICE = 999_999;
+
     @NotBlank(message = "name can not be blank")
     @Size(max = 64)
     private String name;
 
+    // List price, the shelf price of supermarkets that did not set their own (see SupermarketItem)
     @NotNull
-    @DecimalMin(value = "0.01", message = "price cant be less than 0.01")
-    @DecimalMax(value = "9999.99", message = "price cant be more than 9999.99")
-    private Double price;
+    @Min(value = MIN_PRICE, message = "price cant be less than 0.01")
+    @Max(value = MAX_PRICE, message = "price cant be more than 9999.99")
+    @Convert(converter = MoneyAttributeConverter.class)
+    @Column(precision = 6, scale = 2)
+    @JsonMoney
+    private Long price;
 
     @NotNull
     @Enumerated
     private ItemType type;
-
 }
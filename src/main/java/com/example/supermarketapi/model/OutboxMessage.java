@@ -0,0 +1,51 @@
+package com.example.supermarketapi.model;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.time.Instant;
+import java.util.UUID;
+
+// Message waiting to be relayed to downstream systems, written in the same transaction as the change it describes
+// and deleted once delivered
+@Entity
+@Getter
+@NoArgsConstructor
+public class OutboxMessage {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Identity of the message for consumers, generated here rather than by the database: the AUTO_INCREMENT id can
+    // be handed out again once relayed rows are deleted (e.g. after a restore or a rebuilt table)
+    @Column(nullable = false, length = 36)
+    private String messageId;
+
+    @Column(nullable = false, length = 64)
+    private String aggregateType;
+
+    @Column(nullable = false)
+    private String aggregateId;
+
+    @Column(nullable = false, length = 64)
+    private String eventType;
+
+    // JSON document
+    @Lob
+    @Column(nullable = false)
+    private String payload;
+
+    @Column(nullable = false)
+    private Instant createdAt;
+
+    public OutboxMessage(String aggregateType, String aggregateId, String eventType, String payload) {
+        this.messageId = UUID.randomUUID().toString();
+        this.aggregateType = aggregateType;
+        this.aggregateId = aggregateId;
+        this.eventType = eventType;
+        this.payload = payload;
+        this.createdAt = Instant.now();
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.supermarketapi.model;
+
+import com.example.supermarketapi.model.enums.ItemType;
+import com.example.supermarketapi.model.enums.PromotionType;
+import com.example.supermarketapi.model.money.JsonMoney;
+import com.example.supermarketapi.model.money.MoneyAttributeConverter;
+import lombok.Getter;
+import lombok.Setter;
+
+import javax.persistence.*;
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+import java.time.Instant;
+
+// A checkout promotion. Only the fields of its type are set: itemId, buyQuantity and payQuantity for MULTI_BUY,
+// itemType and percentOff for PERCENT_OFF_TYPE, thresholdAmount and discountAmount for BASKET_THRESHOLD.
+@Entity
+@Getter
+@Setter
+public class Promotion extends BaseEntity {
+
+    @NotBlank(message = "name can not be blank")
+    @Size(max = 128)
+    private String name;
+
+    @NotNull
+    @Enumerated(EnumType.STRING)
+    private PromotionType type;
+
+    // Store the promotion runs in, null for every store
+    private String supermarketId;
+
+    private String itemId;
+
+    @Enumerated(EnumType.STRING)
+    private ItemType itemType;
+
+    private Integer buyQuantity;
+
+    private Integer payQuantity;
+
+    private Integer percentOff;
+
+    // Amounts are in cents
+    @Convert(converter = MoneyAttributeConverter.class)
+    @Column(precision = 12, scale = 2)
+    @JsonMoney
+    private Long thresholdAmount;
+
+    @Convert(converter = MoneyAttributeConverter.class)
+    @Column(precision = 12, scale = 2)
+    @JsonMoney
+    private Long discountAmount;
+
+    // Active from startsAt (inclusive) until endsAt (exclusive); null bounds are open
+    private Instant startsAt;
+
+    private Instant endsAt;
+}
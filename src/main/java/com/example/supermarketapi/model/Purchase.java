@@ -1,6 +1,8 @@
 package com.example.supermarketapi.model;
 
 import com.example.supermarketapi.model.enums.PaymentType;
+import com.example.supermarketapi.model.money.JsonMoney;
+import com.example.supermarketapi.model.money.MoneyAttributeConverter;
 import lombok.Getter;
 import lombok.Setter;
 
@@ -9,16 +11,32 @@ import javax.validation.constraints.NotNull;
 import java.time.LocalDate;
 import java.util.List;
 
+// Range-partitioned by time_of_payment month in MySQL (V7); closed months are archived by PurchasePartitionMaintenance
 @Entity
+@Table(indexes = @Index(name = "idx_purchase_supermarket_time", columnList = "supermarket_id, time_of_payment"))
 @Getter
 @Setter
 public class Purchase extends BaseEntity {
 
+    // Amounts are in cents
     @NotNull
-    private Double price;
+    @Convert(converter = MoneyAttributeConverter.class)
+    @Column(precision = 12, scale = 2)
+    @JsonMoney
+    private Long price;
 
+    // Taken off the basket by promotions, already deducted from price
     @NotNull
-    private Double changeAmount;
+    @Convert(converter = MoneyAttributeConverter.class)
+    @Column(precision = 12, scale = 2)
+    @JsonMoney
+    private Long discountAmount = 0L;
+
+    @NotNull
+    @Convert(converter = MoneyAttributeConverter.class)
+    @Column(precision = 12, scale = 2)
+    @JsonMoney
+    private Long changeAmount;
 
     @NotNull
     private LocalDate timeOfPayment;
@@ -26,8 +44,9 @@ public class Purchase extends BaseEntity {
     // Add supermarketId to the Purchase entity
     private String supermarketId;
 
-    // Add itemIDs (assuming it's a list of String for simplicity)
-    @ElementCollection
+    // Kept inline rather than in a collection table so a purchase lives in a single (partitioned) row
+    @Convert(converter = StringListAttributeConverter.class)
+    @Column(name = "item_ids", length = 65535)
     private List<String> itemIDs;
 
     // Add paymentType as an enum
@@ -35,6 +54,9 @@ public class Purchase extends BaseEntity {
     private PaymentType paymentType;
 
     // Add cashAmount (only needed if paymentType is CASH)
-    private Double cashAmount;
+    @Convert(converter = MoneyAttributeConverter.class)
+    @Column(precision = 12, scale = 2)
+    @JsonMoney
+    private Long cashAmount;
 
 }
@@ -0,0 +1,62 @@
+package com.example.supermarketapi.model;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Comparator;
+
+// Position in the purchase history, which is ordered by (time_of_payment, id). Pages continue strictly after it.
+// Passed to clients as "<date>,<id>".
+public final class PurchaseHistoryCursor {
+
+    public static final Comparator<Purchase> ORDER =
+            Comparator.comparing(Purchase::getTimeOfPayment).thenComparing(Purchase::getId);
+
+    private final LocalDate timeOfPayment;
+    private final String id;
+
+    public PurchaseHistoryCursor(LocalDate timeOfPayment, String id) {
+        this.timeOfPayment = timeOfPayment;
+        this.id = id;
+    }
+
+    // Before every purchase paid on or after the given day, ids are never empty
+    public static PurchaseHistoryCursor startOf(LocalDate day) {
+        return new PurchaseHistoryCursor(day, "");
+    }
+
+    public static PurchaseHistoryCursor after(Purchase purchase) {
+        return new PurchaseHistoryCursor(purchase.getTimeOfPayment(), purchase.getId());
+    }
+
+    // Null when the value is not a cursor this class produced
+    public static PurchaseHistoryCursor parse(String value) {
+        int separator = value.indexOf(',');
+        if (separator < 0 || separator == value.length() - 1) {
+            return null;
+        }
+        try {
+            return new PurchaseHistoryCursor(LocalDate.parse(value.substring(0, separator)),
+                    value.substring(separator + 1));
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    public LocalDate getTimeOfPayment() {
+        return timeOfPayment;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public boolean isBefore(Purchase purchase) {
+        int byDate = purchase.getTimeOfPayment().compareTo(timeOfPayment);
+        return byDate > 0 || byDate == 0 && purchase.getId().compareTo(id) > 0;
+    }
+
+    @Override
+    public String toString() {
+        return timeOfPayment + "," + id;
+    }
+}
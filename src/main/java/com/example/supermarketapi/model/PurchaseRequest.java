@@ -1,5 +1,7 @@
 package com.example.supermarketapi.model;
 
+import com.example.supermarketapi.model.money.JsonMoney;
+
 import java.util.List;
 
 public class PurchaseRequest {
@@ -7,7 +9,9 @@ public class PurchaseRequest {
     private String supermarketId;
     private List<String> itemIDs;
     private String type;
-    private Double cashAmount;
+    // Cash handed over, in cents
+    @JsonMoney
+    private Long cashAmount;
 
     // Getter and Setter methods for all fields
     public String getSupermarketId() {
@@ -34,11 +38,11 @@ public class PurchaseRequest {
         this.type = type;
     }
 
-    public Double getCashAmount() {
+    public Long getCashAmount() {
         return cashAmount;
     }
 
-    public void setCashAmount(Double cashAmount) {
+    public void setCashAmount(Long cashAmount) {
         this.cashAmount = cashAmount;
     }
 }
@@ -0,0 +1,31 @@
+package com.example.supermarketapi.model;
+
+import javax.persistence.AttributeConverter;
+import javax.persistence.Converter;
+import java.util.ArrayList;
+import java.util.List;
+
+// Stores a list of ids as one comma-separated column; ids are generated hex UUIDs and never contain a comma
+@Converter
+public class StringListAttributeConverter implements AttributeConverter<List<String>, String> {
+
+    @Override
+    public String convertToDatabaseColumn(List<String> values) {
+        return values == null ? null : String.join(",", values);
+    }
+
+    @Override
+    public List<String> convertToEntityAttribute(String column) {
+        List<String> values = new ArrayList<>();
+        if (column == null || column.isEmpty()) {
+            return values;
+        }
+        int start = 0;
+        for (int comma = column.indexOf(','); comma >= 0; comma = column.indexOf(',', start)) {
+            values.add(column.substring(start, comma));
+            start = comma + 1;
+        }
+        values.add(column.substring(start));
+        return values;
+    }
+}
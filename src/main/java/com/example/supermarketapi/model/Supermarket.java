@@ -6,8 +6,6 @@ import lombok.Setter;
 import javax.persistence.*;
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.Size;
-import java.util.HashSet;
-import java.util.Set;
 
 @Entity
 @Getter
@@ -25,11 +23,4 @@ public class Supermarket extends BaseEntity {
 
     private String workHours;
 
-    @OneToMany(
-            cascade = CascadeType.ALL,
-            orphanRemoval = true
-    )
-    @JoinColumn(name = "supermarket_id")
-    private Set<Item> items = new HashSet<>();
-
 }
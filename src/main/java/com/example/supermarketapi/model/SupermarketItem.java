@@ -0,0 +1,76 @@
+package com.example.supermarketapi.model;
+
+import com.example.supermarketapi.model.money.MoneyAttributeConverter;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.data.domain.Persistable;
+
+import javax.persistence.*;
+import javax.validation.constraints.NotNull;
+
+// One item in one supermarket's assortment. An item is stored once and listed by every supermarket that sells it;
+// the shelf price follows the item's list price until the supermarket sets its own.
+@Entity
+@Table(name = "supermarket_item", indexes = {
+        // Covers assortment pages and price filters of a supermarket without reading the listing rows
+        @Index(name = "idx_supermarket_item_store_price", columnList = "supermarket_id, active, price, item_id"),
+        // The supermarkets listing an item, for item changes
+        @Index(name = "idx_supermarket_item_item", columnList = "item_id, supermarket_id")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+public class SupermarketItem implements Persistable<SupermarketItemId> {
+
+    @EmbeddedId
+    private SupermarketItemId id;
+
+    @MapsId("itemId")
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "item_id")
+    private Item item;
+
+    // Shelf price in cents
+    @NotNull
+    @Convert(converter = MoneyAttributeConverter.class)
+    @Column(precision = 6, scale = 2)
+    private Long price;
+
+    // The supermarket set its own price, so list price changes of the item leave it alone
+    private boolean ownPrice;
+
+    private boolean active = true;
+
+    // Listings have assigned ids, without this save() would select each one before inserting it
+    @Transient
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private boolean fresh = true;
+
+    public SupermarketItem(String supermarketId, Item item) {
+        this.id = new SupermarketItemId(supermarketId, item.getId());
+        this.item = item;
+        this.price = item.getPrice();
+    }
+
+    public String getSupermarketId() {
+        return id.getSupermarketId();
+    }
+
+    public String getItemId() {
+        return id.getItemId();
+    }
+
+    @Override
+    public boolean isNew() {
+        return fresh;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markPersisted() {
+        fresh = false;
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.supermarketapi.model;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.Column;
+import javax.persistence.Embeddable;
+import java.io.Serializable;
+
+// Composite key of SupermarketItem, supermarket first so one store's listings are contiguous in the primary key
+@Embeddable
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode
+public class SupermarketItemId implements Serializable {
+
+    @Column(name = "supermarket_id")
+    private String supermarketId;
+
+    @Column(name = "item_id")
+    private String itemId;
+}
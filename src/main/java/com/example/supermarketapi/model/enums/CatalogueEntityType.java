@@ -0,0 +1,5 @@
+package com.example.supermarketapi.model.enums;
+
+public enum CatalogueEntityType {
+    ITEM, SUPERMARKET
+}
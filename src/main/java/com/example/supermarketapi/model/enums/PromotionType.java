@@ -0,0 +1,10 @@
+package com.example.supermarketapi.model.enums;
+
+public enum PromotionType {
+    // Buy buyQuantity of an item, pay for payQuantity
+    MULTI_BUY,
+    // percentOff off every item of an ItemType
+    PERCENT_OFF_TYPE,
+    // discountAmount off a basket worth at least thresholdAmount
+    BASKET_THRESHOLD
+}
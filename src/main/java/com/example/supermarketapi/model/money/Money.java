@@ -0,0 +1,43 @@
+package com.example.supermarketapi.model.money;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+// Money amounts are held as long minor units (cents) so sums are exact and never box on the checkout path.
+// BigDecimal only appears at the edges: JSON and the DECIMAL database column.
+public final class Money {
+
+    public static final int SCALE = 2;
+
+    private Money() {
+    }
+
+    public static long toCents(BigDecimal amount) {
+        return amount.setScale(SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    public static Long toCentsOrNull(BigDecimal amount) {
+        return amount == null ? null : toCents(amount);
+    }
+
+    public static BigDecimal toDecimal(long cents) {
+        return BigDecimal.valueOf(cents, SCALE);
+    }
+
+    // Overflow fails loudly instead of wrapping around
+    public static long add(long cents, long moreCents) {
+        return Math.addExact(cents, moreCents);
+    }
+
+    public static long subtract(long cents, long lessCents) {
+        return Math.subtractExact(cents, lessCents);
+    }
+
+    public static long sum(long[] amounts) {
+        long total = 0;
+        for (long amount : amounts) {
+            total = Math.addExact(total, amount);
+        }
+        return total;
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.supermarketapi.model.money;
+
+import javax.persistence.AttributeConverter;
+import javax.persistence.Converter;
+import java.math.BigDecimal;
+
+// Maps a cents amount to a DECIMAL(p, 2) column
+@Converter
+public class MoneyAttributeConverter implements AttributeConverter<Long, BigDecimal> {
+
+    @Override
+    public BigDecimal convertToDatabaseColumn(Long cents) {
+        return cents == null ? null : Money.toDecimal(cents);
+    }
+
+    @Override
+    public Long convertToEntityAttribute(BigDecimal amount) {
+        return amount == null ? null : Money.toCents(amount);
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.supermarketapi.model.money;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+
+// Reads a decimal amount such as 19.99 (as a number or a string) into cents
+public class MoneyJsonDeserializer extends JsonDeserializer<Long> {
+
+    @Override
+    public Long deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+        if (parser.hasToken(JsonToken.VALUE_STRING)) {
+            String text = parser.getText().trim();
+            try {
+                return Money.toCents(new BigDecimal(text));
+            } catch (NumberFormatException | ArithmeticException e) {
+                throw context.weirdStringException(text, Long.class, "not a valid money amount");
+            }
+        }
+        return Money.toCents(parser.getDecimalValue());
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.supermarketapi.model.money;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+
+import java.io.IOException;
+
+// Writes a cents amount as a plain decimal number, e.g. 1999 -> 19.99
+public class MoneyJsonSerializer extends JsonSerializer<Long> {
+
+    @Override
+    public void serialize(Long cents, JsonGenerator generator, SerializerProvider provider) throws IOException {
+        generator.writeNumber(Money.toDecimal(cents));
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.supermarketapi.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+// Appends one JSON line per message and forces the batch to disk before it counts as delivered
+@Component
+@ConditionalOnProperty(name = "app.outbox.sink", havingValue = "file")
+public class FileOutboxSink implements OutboxSink {
+
+    private final ObjectWriter writer;
+    private final Path file;
+
+    public FileOutboxSink(ObjectMapper objectMapper, @Value("${app.outbox.file.path:outbox/purchases.jsonl}") String path) {
+        this.writer = objectMapper.writerFor(OutboxEnvelope.class);
+        this.file = Paths.get(path);
+    }
+
+    @Override
+    public synchronized void publish(List<OutboxEnvelope> batch) throws IOException {
+        ByteArrayOutputStream lines = new ByteArrayOutputStream(batch.size() * 256);
+        for (OutboxEnvelope envelope : batch) {
+            writer.writeValue(lines, envelope);
+            lines.write('\n');
+        }
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND)) {
+            ByteBuffer buffer = ByteBuffer.wrap(lines.toByteArray());
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+        }
+    }
+}
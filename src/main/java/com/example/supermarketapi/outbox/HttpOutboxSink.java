@@ -0,0 +1,46 @@
+package com.example.supermarketapi.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+
+// POSTs each batch as a JSON array; any non-2xx answer fails the batch so it is retried
+@Component
+@ConditionalOnProperty(name = "app.outbox.sink", havingValue = "http")
+public class HttpOutboxSink implements OutboxSink {
+
+    private final ObjectMapper objectMapper;
+    private final URI endpoint;
+    private final Duration timeout;
+    private final HttpClient client;
+
+    public HttpOutboxSink(ObjectMapper objectMapper, @Value("${app.outbox.http.url}") URI endpoint,
+                          @Value("${app.outbox.http.timeout:5s}") Duration timeout) {
+        this.objectMapper = objectMapper;
+        this.endpoint = endpoint;
+        this.timeout = timeout;
+        this.client = HttpClient.newBuilder().connectTimeout(timeout).build();
+    }
+
+    @Override
+    public void publish(List<OutboxEnvelope> batch) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(endpoint)
+                .timeout(timeout)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(batch)))
+                .build();
+        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() / 100 != 2) {
+            throw new IOException("Outbox endpoint " + endpoint + " answered " + response.statusCode());
+        }
+    }
+}
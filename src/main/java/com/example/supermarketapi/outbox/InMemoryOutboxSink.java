@@ -0,0 +1,26 @@
+package com.example.supermarketapi.outbox;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+// Keeps delivered messages in memory, for tests
+@Component
+@ConditionalOnProperty(name = "app.outbox.sink", havingValue = "memory")
+public class InMemoryOutboxSink implements OutboxSink {
+
+    private final Queue<OutboxEnvelope> delivered = new ConcurrentLinkedQueue<>();
+
+    @Override
+    public void publish(List<OutboxEnvelope> batch) {
+        delivered.addAll(batch);
+    }
+
+    public List<OutboxEnvelope> getDelivered() {
+        return new ArrayList<>(delivered);
+    }
+}
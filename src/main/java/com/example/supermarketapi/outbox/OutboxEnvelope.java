@@ -0,0 +1,37 @@
+package com.example.supermarketapi.outbox;
+
+import com.example.supermarketapi.model.OutboxMessage;
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import lombok.Getter;
+
+import java.time.Instant;
+
+// Wire format of a relayed message. Delivery is at-least-once: consumers should drop duplicates by messageId, which
+// is a UUID fixed when the message was written and kept across retries. shard and id only locate the outbox row,
+// and an id can be reused once its row is gone.
+@Getter
+public class OutboxEnvelope {
+
+    private final String messageId;
+    private final String shard;
+    private final long id;
+    private final String aggregateType;
+    private final String aggregateId;
+    private final String eventType;
+    private final Instant createdAt;
+
+    // Already JSON, written as is
+    @JsonRawValue
+    private final String payload;
+
+    public OutboxEnvelope(String shard, OutboxMessage message) {
+        this.messageId = message.getMessageId();
+        this.shard = shard;
+        this.id = message.getId();
+        this.aggregateType = message.getAggregateType();
+        this.aggregateId = message.getAggregateId();
+        this.eventType = message.getEventType();
+        this.createdAt = message.getCreatedAt();
+        this.payload = message.getPayload();
+    }
+}
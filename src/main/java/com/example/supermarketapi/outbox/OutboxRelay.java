@@ -0,0 +1,92 @@
+package com.example.supermarketapi.outbox;
+
+import com.example.supermarketapi.model.OutboxMessage;
+import com.example.supermarketapi.repository.OutboxMessageRepository;
+import com.example.supermarketapi.shard.ShardRouter;
+import com.example.supermarketapi.shard.ShardRouting;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Moves outbox messages to the configured sink. Each batch is locked (SKIP LOCKED), published and deleted in one
+// transaction: a failure before commit leaves the rows for the next run, so delivery is at-least-once.
+// Delivered rows are deleted rather than flagged, which keeps the table, and every poll, small.
+// Purchases write to the outbox of their shard, so every shard is drained in turn.
+@Component
+@ConditionalOnExpression("'${app.outbox.sink:none}' != 'none'")
+public class OutboxRelay {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxRelay.class);
+
+    private final OutboxMessageRepository outboxMessageRepository;
+    private final OutboxSink sink;
+    private final ShardRouter shardRouter;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final int maxBatchesPerRun;
+
+    public OutboxRelay(OutboxMessageRepository outboxMessageRepository, OutboxSink sink, ShardRouter shardRouter,
+                       PlatformTransactionManager transactionManager,
+                       @Value("${app.outbox.batch-size:200}") int batchSize,
+                       @Value("${app.outbox.max-batches-per-run:50}") int maxBatchesPerRun) {
+        this.outboxMessageRepository = outboxMessageRepository;
+        this.sink = sink;
+        this.shardRouter = shardRouter;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.maxBatchesPerRun = maxBatchesPerRun;
+    }
+
+    @Scheduled(fixedDelayString = "${app.outbox.poll-interval:1000}")
+    public void relay() {
+        for (String shard : shardRouter.getShards()) {
+            ShardRouting.runOnShard(shard, () -> relayShard(shard));
+        }
+    }
+
+    private void relayShard(String shard) {
+        try {
+            for (int i = 0; i < maxBatchesPerRun; i++) {
+                Integer relayed = transactionTemplate.execute(status -> relayBatch(shard));
+                if (relayed == null || relayed < batchSize) {
+                    return;
+                }
+            }
+        } catch (RuntimeException e) {
+            // The batch stays in the outbox and is retried on the next run
+            log.warn("Relaying outbox messages of {} failed", shard, e);
+        }
+    }
+
+    private int relayBatch(String shard) {
+        List<OutboxMessage> messages = outboxMessageRepository.findAllByOrderByIdAsc(PageRequest.of(0, batchSize));
+        if (messages.isEmpty()) {
+            return 0;
+        }
+        List<OutboxEnvelope> batch = new ArrayList<>(messages.size());
+        for (OutboxMessage message : messages) {
+            batch.add(new OutboxEnvelope(shard, message));
+        }
+        try {
+            sink.publish(batch);
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            throw new IllegalStateException("Outbox sink rejected " + batch.size() + " messages", e);
+        }
+        outboxMessageRepository.deleteAllInBatch(messages);
+        return messages.size();
+    }
+}
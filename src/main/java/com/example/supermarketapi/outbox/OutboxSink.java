@@ -0,0 +1,10 @@
+package com.example.supermarketapi.outbox;
+
+import java.util.List;
+
+// Destination of relayed outbox messages, selected with app.outbox.sink.
+// Returning normally means the whole batch was delivered; throwing leaves it in the outbox for the next run.
+public interface OutboxSink {
+
+    void publish(List<OutboxEnvelope> batch) throws Exception;
+}
@@ -0,0 +1,22 @@
+package com.example.supermarketapi.profiling;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.example.supermarketapi.Checkout")
+@Label("Checkout")
+@Description("PurchaseService.makePurchase, from pricing the basket to the purchase and outbox commit")
+public class CheckoutEvent extends ProfiledEvent {
+
+    @Label("Supermarket Id")
+    String supermarketId;
+
+    @Label("Item Count")
+    int itemCount;
+
+    public CheckoutEvent(String supermarketId, int itemCount) {
+        this.supermarketId = supermarketId;
+        this.itemCount = itemCount;
+    }
+}
@@ -0,0 +1,255 @@
+package com.example.supermarketapi.profiling;
+
+import com.example.supermarketapi.dto.ProfileEntryDTO;
+import com.example.supermarketapi.dto.ProfileSummaryDTO;
+import com.example.supermarketapi.dto.RecordingStatusDTO;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import jdk.jfr.consumer.RecordedClass;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedMethod;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingFile;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+
+// On-demand Java Flight Recorder recordings of this JVM. At most one recording runs at a time; it stops after
+// max-duration at the latest and only the last finished recording is kept on disk. Nothing is recorded, and the
+// application's events cost an enabled check, until a recording is started.
+@Component
+public class FlightRecorderService {
+
+    private static final String APPLICATION_PACKAGE = "com.example.supermarketapi.";
+
+    private final Path directory;
+    private final Duration maxDuration;
+
+    private Recording recording;
+    private Path recordingFile;
+    private Instant startedAt;
+
+    private Path lastRecordingFile;
+    private Instant lastStartedAt;
+
+    public FlightRecorderService(@Value("${app.profiling.dir}") String directory,
+                                 @Value("${app.profiling.max-duration:10m}") Duration maxDuration) {
+        this.directory = Paths.get(directory);
+        this.maxDuration = maxDuration;
+    }
+
+    // False if a recording is already running
+    public synchronized boolean start(Duration duration) {
+        collectFinished();
+        if (recording != null) {
+            return false;
+        }
+        Path file = directory.resolve("recording-" + System.currentTimeMillis() + ".jfr");
+        Recording newRecording = new Recording(settings());
+        try {
+            Files.createDirectories(directory);
+            newRecording.setName("supermarket-api");
+            newRecording.setToDisk(true);
+            newRecording.setDuration(duration == null || duration.compareTo(maxDuration) > 0 ? maxDuration : duration);
+            // Written there when the recording is stopped or its duration has elapsed
+            newRecording.setDestination(file);
+            newRecording.start();
+        } catch (IOException e) {
+            newRecording.close();
+            throw new UncheckedIOException(e);
+        }
+        recording = newRecording;
+        recordingFile = file;
+        startedAt = Instant.now();
+        return true;
+    }
+
+    // Stops the running recording early; false if none was running
+    public synchronized boolean stop() {
+        if (recording == null) {
+            return false;
+        }
+        if (recording.getState() == RecordingState.RUNNING) {
+            recording.stop();
+        }
+        collectFinished();
+        return true;
+    }
+
+    public synchronized RecordingStatusDTO status() {
+        collectFinished();
+        Path file = lastRecordingFile;
+        long bytes = 0;
+        if (file != null) {
+            try {
+                bytes = Files.size(file);
+            } catch (IOException e) {
+                bytes = 0;
+            }
+        }
+        return new RecordingStatusDTO(recording != null, recording != null ? startedAt : lastStartedAt,
+                maxDuration.getSeconds(), bytes);
+    }
+
+    // The last finished recording, if any
+    public synchronized Optional<Path> lastRecording() {
+        collectFinished();
+        return Optional.ofNullable(lastRecordingFile).filter(Files::isRegularFile);
+    }
+
+    public Optional<ProfileSummaryDTO> summarize(int top) {
+        Optional<Path> file = lastRecording();
+        if (file.isEmpty()) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(summarize(file.get(), top));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @PreDestroy
+    public synchronized void close() {
+        if (recording != null) {
+            recording.close();
+            recording = null;
+        }
+    }
+
+    // Hands a recording that stopped (by stop() or because its duration elapsed) over as the last recording
+    private void collectFinished() {
+        if (recording == null || recording.getState() == RecordingState.RUNNING
+                || recording.getState() == RecordingState.DELAYED) {
+            return;
+        }
+        recording.close();
+        recording = null;
+        if (lastRecordingFile != null && !lastRecordingFile.equals(recordingFile)) {
+            try {
+                Files.deleteIfExists(lastRecordingFile);
+            } catch (IOException e) {
+                // Left behind, the next cleanup of the directory takes it
+            }
+        }
+        lastRecordingFile = recordingFile;
+        lastStartedAt = startedAt;
+    }
+
+    // The JDK's "profile" preset with denser CPU samples and the application's events switched on; lock, park
+    // and socket thresholds are raised so a busy pool does not flood the recording
+    private static Map<String, String> settings() {
+        Map<String, String> settings;
+        try {
+            settings = new HashMap<>(Configuration.getConfiguration("profile").getSettings());
+        } catch (IOException | ParseException e) {
+            throw new IllegalStateException("JFR profile configuration is not available", e);
+        }
+        settings.put("jdk.ExecutionSample#period", "10 ms");
+        settings.put("jdk.ObjectAllocationInNewTLAB#enabled", "true");
+        settings.put("jdk.ObjectAllocationOutsideTLAB#enabled", "true");
+        settings.put("jdk.JavaMonitorEnter#threshold", "5 ms");
+        settings.put("jdk.ThreadPark#threshold", "5 ms");
+        settings.put("jdk.SocketRead#threshold", "5 ms");
+        settings.put("jdk.SocketWrite#threshold", "5 ms");
+        for (Class<?> event : List.of(CheckoutEvent.class, RestockEvent.class, RepositoryCallEvent.class)) {
+            String name = event.getAnnotation(jdk.jfr.Name.class).value();
+            settings.put(name + "#enabled", "true");
+            settings.put(name + "#threshold", "0 ms");
+            settings.put(name + "#stackTrace", "false");
+        }
+        return settings;
+    }
+
+    static ProfileSummaryDTO summarize(Path file, int top) throws IOException {
+        Map<String, long[]> hotMethods = new HashMap<>();
+        Map<String, long[]> hotApplicationMethods = new HashMap<>();
+        Map<String, long[]> allocationsByClass = new HashMap<>();
+        Map<String, long[]> allocationSites = new HashMap<>();
+        long samples = 0;
+        long allocatedBytes = 0;
+        Instant first = null;
+        Instant last = null;
+
+        try (RecordingFile recordingFile = new RecordingFile(file)) {
+            while (recordingFile.hasMoreEvents()) {
+                RecordedEvent event = recordingFile.readEvent();
+                if (first == null || event.getStartTime().isBefore(first)) {
+                    first = event.getStartTime();
+                }
+                if (last == null || event.getEndTime().isAfter(last)) {
+                    last = event.getEndTime();
+                }
+                switch (event.getEventType().getName()) {
+                    case "jdk.ExecutionSample":
+                        samples++;
+                        add(hotMethods, topFrame(event.getStackTrace(), false), 1);
+                        add(hotApplicationMethods, topFrame(event.getStackTrace(), true), 1);
+                        break;
+                    case "jdk.ObjectAllocationInNewTLAB":
+                    case "jdk.ObjectAllocationOutsideTLAB":
+                        // A new TLAB stands for everything allocated in it until the next one
+                        long bytes = event.hasField("tlabSize") ? event.getLong("tlabSize")
+                                : event.getLong("allocationSize");
+                        RecordedClass objectClass = event.getClass("objectClass");
+                        allocatedBytes += bytes;
+                        add(allocationsByClass, objectClass == null ? null : objectClass.getName(), bytes);
+                        add(allocationSites, topFrame(event.getStackTrace(), false), bytes);
+                        break;
+                    default:
+                        break;
+                }
+            }
+        }
+
+        long durationMillis = first == null ? 0 : Duration.between(first, last).toMillis();
+        return new ProfileSummaryDTO(first, durationMillis, samples,
+                top(hotMethods, samples, top), top(hotApplicationMethods, samples, top),
+                allocatedBytes, top(allocationsByClass, allocatedBytes, top),
+                top(allocationSites, allocatedBytes, top));
+    }
+
+    private static String topFrame(RecordedStackTrace stackTrace, boolean applicationOnly) {
+        if (stackTrace == null) {
+            return null;
+        }
+        for (RecordedFrame frame : stackTrace.getFrames()) {
+            RecordedMethod method = frame.getMethod();
+            String type = method.getType().getName();
+            if (!applicationOnly || type.startsWith(APPLICATION_PACKAGE) && !type.contains("$$")) {
+                return type + "." + method.getName();
+            }
+        }
+        return null;
+    }
+
+    private static void add(Map<String, long[]> totals, String name, long value) {
+        if (name != null) {
+            totals.computeIfAbsent(name, key -> new long[1])[0] += value;
+        }
+    }
+
+    private static List<ProfileEntryDTO> top(Map<String, long[]> totals, long total, int limit) {
+        List<Map.Entry<String, long[]>> entries = new ArrayList<>(totals.entrySet());
+        entries.sort((a, b) -> Long.compare(b.getValue()[0], a.getValue()[0]));
+        List<ProfileEntryDTO> result = new ArrayList<>();
+        for (Map.Entry<String, long[]> entry : entries.subList(0, Math.min(limit, entries.size()))) {
+            long value = entry.getValue()[0];
+            double percent = total == 0 ? 0 : Math.round(value * 10000.0 / total) / 100.0;
+            result.add(new ProfileEntryDTO(entry.getKey(), value, percent));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.supermarketapi.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+
+// Common fields of the application's flight recorder events. While no recording enables them, begin, end and
+// commit are no-ops and start() skips reading the statement counter.
+@Category("Supermarket API")
+public abstract class ProfiledEvent extends Event {
+
+    @Label("Request Id")
+    String requestId;
+
+    @Label("SQL Statements")
+    long sqlCount;
+
+    private transient long sqlAtStart;
+
+    public void start() {
+        if (isEnabled()) {
+            sqlAtStart = SqlStatementCounter.count();
+        }
+        begin();
+    }
+
+    public void finish() {
+        end();
+        if (shouldCommit()) {
+            requestId = RequestIdFilter.current();
+            sqlCount = SqlStatementCounter.count() - sqlAtStart;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.supermarketapi.profiling;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.example.supermarketapi.RepositoryCall")
+@Label("Repository Call")
+@Description("One call to a Spring Data repository method")
+public class RepositoryCallEvent extends ProfiledEvent {
+
+    @Label("Repository")
+    String repository;
+
+    @Label("Method")
+    String method;
+}
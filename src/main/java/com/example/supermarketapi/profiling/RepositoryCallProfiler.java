@@ -0,0 +1,57 @@
+package com.example.supermarketapi.profiling;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.ProxyMethodInvocation;
+import org.springframework.aop.framework.AbstractAdvisingBeanPostProcessor;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.data.repository.Repository;
+import org.springframework.stereotype.Component;
+
+// Emits a RepositoryCallEvent around every Spring Data repository method. The interceptor is added to the
+// repositories' existing proxies, so an idle recorder costs one enabled check per call.
+@Component
+public class RepositoryCallProfiler extends AbstractAdvisingBeanPostProcessor {
+
+    public RepositoryCallProfiler() {
+        this.advisor = new DefaultPointcutAdvisor(new Interceptor());
+        // Outermost, so transaction handling is part of the measured call
+        this.beforeExistingAdvisors = true;
+    }
+
+    // Checked against the proxy's target (SimpleJpaRepository); the default would accept every advised bean
+    @Override
+    protected boolean isEligible(Class<?> targetClass) {
+        return Repository.class.isAssignableFrom(targetClass);
+    }
+
+    private static final class Interceptor implements MethodInterceptor {
+
+        @Override
+        public Object invoke(MethodInvocation invocation) throws Throwable {
+            RepositoryCallEvent event = new RepositoryCallEvent();
+            if (!event.isEnabled()) {
+                return invocation.proceed();
+            }
+            event.repository = repositoryName(invocation);
+            event.method = invocation.getMethod().getName();
+            event.start();
+            try {
+                return invocation.proceed();
+            } finally {
+                event.finish();
+            }
+        }
+
+        // The repository interface (e.g. ItemRepository) rather than the one declaring the method (CrudRepository)
+        private static String repositoryName(MethodInvocation invocation) {
+            if (invocation instanceof ProxyMethodInvocation) {
+                Class<?>[] interfaces = ((ProxyMethodInvocation) invocation).getProxy().getClass().getInterfaces();
+                if (interfaces.length > 0) {
+                    return interfaces[0].getSimpleName();
+                }
+            }
+            return invocation.getMethod().getDeclaringClass().getSimpleName();
+        }
+    }
+}
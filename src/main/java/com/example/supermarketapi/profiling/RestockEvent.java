@@ -0,0 +1,22 @@
+package com.example.supermarketapi.profiling;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.example.supermarketapi.Restock")
+@Label("Restock")
+@Description("SupermarketService.addItems, listing a batch of items in a supermarket")
+public class RestockEvent extends ProfiledEvent {
+
+    @Label("Supermarket Id")
+    String supermarketId;
+
+    @Label("Item Count")
+    int itemCount;
+
+    public RestockEvent(String supermarketId, int itemCount) {
+        this.supermarketId = supermarketId;
+        this.itemCount = itemCount;
+    }
+}
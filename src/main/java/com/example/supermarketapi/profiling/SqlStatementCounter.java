@@ -0,0 +1,22 @@
+package com.example.supermarketapi.profiling;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+// Counts the SQL statements Hibernate prepares on each thread, so profiling events can report the statements a
+// call issued. Registered through hibernate.session_factory.statement_inspector; statements run on other threads
+// (e.g. a scatter-gather across purchase shards) are counted on those threads.
+public class SqlStatementCounter implements StatementInspector {
+
+    private static final ThreadLocal<long[]> COUNT = ThreadLocal.withInitial(() -> new long[1]);
+
+    @Override
+    public String inspect(String sql) {
+        COUNT.get()[0]++;
+        return sql;
+    }
+
+    // Statements prepared on the current thread so far; take the difference of two readings
+    public static long count() {
+        return COUNT.get()[0];
+    }
+}
@@ -0,0 +1,250 @@
+package com.example.supermarketapi.promotion;
+
+import com.example.supermarketapi.catalog.AssortmentSnapshot;
+import com.example.supermarketapi.model.Promotion;
+import com.example.supermarketapi.model.enums.ItemType;
+
+import java.util.*;
+
+// Immutable index of the promotions active at one instant, compiled for the checkout path. Multi-buys are looked up
+// by item id, percent-offs are reduced to the best percentage per store and ItemType, and basket thresholds to a
+// sorted array with the best discount reachable at each threshold. Evaluating a basket is linear in its lines and
+// never touches the database.
+public final class PromotionIndex {
+
+    private static final int ITEM_TYPES = ItemType.values().length;
+    private static final MultiBuy[] NO_MULTI_BUYS = new MultiBuy[0];
+
+    public static final PromotionIndex EMPTY = compile(Collections.emptyList(), 0L);
+
+    // Every known promotion, active or not, so the index can be recompiled when a time window opens or closes
+    private final Rule[] rules;
+    private final long validUntilMillis;
+
+    private final Map<String, MultiBuy[]> multiBuysByItem;
+    // Rules of single stores by supermarket id; everyStore holds the ones without a store
+    private final Map<String, StoreRules> storeRules;
+    private final StoreRules everyStore;
+    private final int activeCount;
+
+    private PromotionIndex(Rule[] rules, long validUntilMillis, Map<String, MultiBuy[]> multiBuysByItem,
+                           Map<String, StoreRules> storeRules, StoreRules everyStore, int activeCount) {
+        this.rules = rules;
+        this.validUntilMillis = validUntilMillis;
+        this.multiBuysByItem = multiBuysByItem;
+        this.storeRules = storeRules;
+        this.everyStore = everyStore;
+        this.activeCount = activeCount;
+    }
+
+    public static PromotionIndex compile(Collection<Promotion> promotions, long nowMillis) {
+        Rule[] rules = new Rule[promotions.size()];
+        int i = 0;
+        for (Promotion promotion : promotions) {
+            rules[i++] = new Rule(promotion);
+        }
+        return compile(rules, nowMillis);
+    }
+
+    // The same promotions at a later instant
+    public PromotionIndex recompile(long nowMillis) {
+        return compile(rules, nowMillis);
+    }
+
+    // The index must be recompiled from this instant on, when the next promotion starts or ends
+    public long getValidUntilMillis() {
+        return validUntilMillis;
+    }
+
+    public int getActiveCount() {
+        return activeCount;
+    }
+
+    // Discount in cents for a basket whose lines are slots of the supermarket's assortment (one slot per unit, a
+    // slot may repeat). Per item the better of its multi-buy and its type's percent-off applies, they do not stack;
+    // a basket threshold then applies to what is left.
+    public long evaluate(String supermarketId, AssortmentSnapshot assortment, int[] slots, int lineCount) {
+        if (activeCount == 0 || lineCount == 0) {
+            return 0;
+        }
+
+        // Count the units of each distinct slot with a small open-addressing table
+        int mask = Integer.highestOneBit(lineCount * 2 - 1 | 1) * 2 - 1;
+        int[] table = new int[mask + 1];
+        int[] groupSlots = new int[lineCount];
+        int[] quantities = new int[lineCount];
+        int groups = 0;
+        for (int line = 0; line < lineCount; line++) {
+            int slot = slots[line];
+            int hash = slot * 0x9E3779B9;
+            int bucket = (hash ^ hash >>> 16) & mask;
+            while (table[bucket] != 0 && groupSlots[table[bucket] - 1] != slot) {
+                bucket = bucket + 1 & mask;
+            }
+            if (table[bucket] == 0) {
+                groupSlots[groups] = slot;
+                table[bucket] = ++groups;
+            }
+            quantities[table[bucket] - 1]++;
+        }
+
+        StoreRules store = storeRules.get(supermarketId);
+        long subtotal = 0;
+        long itemDiscounts = 0;
+        for (int group = 0; group < groups; group++) {
+            int slot = groupSlots[group];
+            int quantity = quantities[group];
+            long price = assortment.priceCents(slot);
+            long lineTotal = Math.multiplyExact(price, quantity);
+            subtotal = Math.addExact(subtotal, lineTotal);
+
+            long best = 0;
+            for (MultiBuy multiBuy : multiBuysByItem.getOrDefault(assortment.itemId(slot), NO_MULTI_BUYS)) {
+                if (multiBuy.appliesTo(supermarketId)) {
+                    best = Math.max(best, multiBuy.discount(price, quantity));
+                }
+            }
+            ItemType type = assortment.type(slot);
+            if (type != null) {
+                int percent = Math.max(everyStore.percentOff[type.ordinal()],
+                        store == null ? 0 : store.percentOff[type.ordinal()]);
+                best = Math.max(best, lineTotal * percent / 100);
+            }
+            itemDiscounts += best;
+        }
+
+        long remaining = subtotal - itemDiscounts;
+        long basketDiscount = Math.max(everyStore.thresholdDiscount(remaining),
+                store == null ? 0 : store.thresholdDiscount(remaining));
+        return itemDiscounts + Math.min(basketDiscount, remaining);
+    }
+
+    private static PromotionIndex compile(Rule[] rules, long nowMillis) {
+        long validUntil = Long.MAX_VALUE;
+        Map<String, List<MultiBuy>> multiBuys = new HashMap<>();
+        Map<String, StoreRules.Builder> stores = new HashMap<>();
+        StoreRules.Builder everyStore = new StoreRules.Builder();
+        int active = 0;
+
+        for (Rule rule : rules) {
+            if (rule.startsAtMillis > nowMillis) {
+                validUntil = Math.min(validUntil, rule.startsAtMillis);
+                continue;
+            }
+            if (rule.endsAtMillis <= nowMillis) {
+                continue;
+            }
+            validUntil = Math.min(validUntil, rule.endsAtMillis);
+            active++;
+
+            Promotion promotion = rule.promotion;
+            StoreRules.Builder store = promotion.getSupermarketId() == null ? everyStore
+                    : stores.computeIfAbsent(promotion.getSupermarketId(), key -> new StoreRules.Builder());
+            switch (promotion.getType()) {
+                case MULTI_BUY:
+                    multiBuys.computeIfAbsent(promotion.getItemId(), key -> new ArrayList<>())
+                            .add(new MultiBuy(promotion));
+                    break;
+                case PERCENT_OFF_TYPE:
+                    store.addPercentOff(promotion.getItemType(), promotion.getPercentOff());
+                    break;
+                case BASKET_THRESHOLD:
+                    store.addThreshold(promotion.getThresholdAmount(), promotion.getDiscountAmount());
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        Map<String, MultiBuy[]> multiBuysByItem = new HashMap<>(multiBuys.size() * 2);
+        multiBuys.forEach((itemId, list) -> multiBuysByItem.put(itemId, list.toArray(NO_MULTI_BUYS)));
+        Map<String, StoreRules> storeRules = new HashMap<>(stores.size() * 2);
+        stores.forEach((supermarketId, builder) -> storeRules.put(supermarketId, builder.build()));
+        return new PromotionIndex(rules, validUntil, multiBuysByItem, storeRules, everyStore.build(), active);
+    }
+
+    private static final class Rule {
+
+        private final Promotion promotion;
+        private final long startsAtMillis;
+        private final long endsAtMillis;
+
+        private Rule(Promotion promotion) {
+            this.promotion = promotion;
+            this.startsAtMillis = promotion.getStartsAt() == null
+                    ? Long.MIN_VALUE : promotion.getStartsAt().toEpochMilli();
+            this.endsAtMillis = promotion.getEndsAt() == null ? Long.MAX_VALUE : promotion.getEndsAt().toEpochMilli();
+        }
+    }
+
+    private static final class MultiBuy {
+
+        // Null for every store
+        private final String supermarketId;
+        private final int buyQuantity;
+        private final int freeQuantity;
+
+        private MultiBuy(Promotion promotion) {
+            this.supermarketId = promotion.getSupermarketId();
+            this.buyQuantity = promotion.getBuyQuantity();
+            this.freeQuantity = promotion.getBuyQuantity() - promotion.getPayQuantity();
+        }
+
+        private boolean appliesTo(String supermarketId) {
+            return this.supermarketId == null || this.supermarketId.equals(supermarketId);
+        }
+
+        private long discount(long price, int quantity) {
+            return (long) (quantity / buyQuantity) * freeQuantity * price;
+        }
+    }
+
+    private static final class StoreRules {
+
+        // Best percentage per ItemType ordinal
+        private final int[] percentOff;
+        // Ascending thresholds, each with the best discount of any threshold up to it
+        private final long[] thresholds;
+        private final long[] bestDiscounts;
+
+        private StoreRules(int[] percentOff, long[] thresholds, long[] bestDiscounts) {
+            this.percentOff = percentOff;
+            this.thresholds = thresholds;
+            this.bestDiscounts = bestDiscounts;
+        }
+
+        private long thresholdDiscount(long basket) {
+            int index = Arrays.binarySearch(thresholds, basket);
+            // Exact hit, or the last threshold below the basket
+            int reached = index >= 0 ? index : -index - 2;
+            return reached < 0 ? 0 : bestDiscounts[reached];
+        }
+
+        private static final class Builder {
+
+            private final int[] percentOff = new int[ITEM_TYPES];
+            private final TreeMap<Long, Long> thresholds = new TreeMap<>();
+
+            private void addPercentOff(ItemType type, int percent) {
+                percentOff[type.ordinal()] = Math.max(percentOff[type.ordinal()], percent);
+            }
+
+            private void addThreshold(long threshold, long discount) {
+                thresholds.merge(threshold, discount, Math::max);
+            }
+
+            private StoreRules build() {
+                long[] sortedThresholds = new long[thresholds.size()];
+                long[] bestDiscounts = new long[thresholds.size()];
+                int i = 0;
+                long best = 0;
+                for (Map.Entry<Long, Long> entry : thresholds.entrySet()) {
+                    best = Math.max(best, entry.getValue());
+                    sortedThresholds[i] = entry.getKey();
+                    bestDiscounts[i++] = best;
+                }
+                return new StoreRules(percentOff.clone(), sortedThresholds, bestDiscounts);
+            }
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.supermarketapi.promotion;
+
+import com.example.supermarketapi.datasource.DataSourceRouting;
+import com.example.supermarketapi.repository.PromotionRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+// Holds the compiled PromotionIndex the checkout path reads. Promotion writes on this node reload it at once,
+// other nodes pick them up on the next refresh; a reload swaps in a whole new index, so a basket is always
+// priced against one consistent set of promotions.
+@Component
+public class PromotionRegistry {
+
+    private final PromotionRepository promotionRepository;
+    private final AtomicReference<PromotionIndex> index = new AtomicReference<>(PromotionIndex.EMPTY);
+
+    @Autowired
+    public PromotionRegistry(PromotionRepository promotionRepository) {
+        this.promotionRepository = promotionRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${app.promotions.refresh-interval:30000}",
+            initialDelayString = "${app.promotions.refresh-interval:30000}")
+    public void reload() {
+        index.set(PromotionIndex.compile(DataSourceRouting.onPrimary(promotionRepository::findAll),
+                System.currentTimeMillis()));
+    }
+
+    // The index for now; once a promotion's window opens or closes it is recompiled from the promotions it
+    // already holds, without a reload
+    public PromotionIndex current() {
+        PromotionIndex current = index.get();
+        long now = System.currentTimeMillis();
+        if (now < current.getValidUntilMillis()) {
+            return current;
+        }
+        PromotionIndex recompiled = current.recompile(now);
+        // A concurrent reload wins, it is newer
+        index.compareAndSet(current, recompiled);
+        return recompiled;
+    }
+}
@@ -0,0 +1,271 @@
+package com.example.supermarketapi.push;
+
+import com.example.supermarketapi.dto.AssortmentChangeDTO;
+import com.example.supermarketapi.event.ItemChangedEvent;
+import com.example.supermarketapi.event.SupermarketChangedEvent;
+import com.example.supermarketapi.event.SupermarketItemsChangedEvent;
+import com.example.supermarketapi.mapper.CatalogueMapper;
+import com.example.supermarketapi.model.SupermarketItem;
+import com.example.supermarketapi.model.enums.ChangeOperation;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongFunction;
+
+// Pushes price and assortment changes to per-supermarket SSE subscribers.
+// Publishers only enqueue: every subscriber has a small buffer keyed by item id, so rapid updates to one item
+// collapse into the latest, and at most one drain task per subscriber writes to its connection on the push pool.
+// A subscriber whose buffer overflows gets a single "resync" event and should catch up through GET /items/changes.
+@Component
+public class AssortmentChangeBroadcaster {
+
+    private final ObjectMapper objectMapper;
+    private final CatalogueMapper catalogueMapper;
+    private final int maxSubscribers;
+    private final int bufferSize;
+    private final long timeoutMillis;
+
+    // supermarketId -> open subscriptions; sets are kept once created so a subscribe never races an empty-set removal
+    private final Map<String, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+
+    private final ScheduledExecutorService pushExecutor;
+    private final LongFunction<SseEmitter> emitterFactory;
+
+    @Autowired
+    public AssortmentChangeBroadcaster(ObjectMapper objectMapper, CatalogueMapper catalogueMapper,
+                                       @Value("${app.push.max-subscribers:10000}") int maxSubscribers,
+                                       @Value("${app.push.buffer-size:256}") int bufferSize,
+                                       @Value("${app.push.threads:8}") int threads,
+                                       @Value("${app.push.timeout:30m}") Duration timeout,
+                                       @Value("${app.push.heartbeat-interval:25s}") Duration heartbeatInterval) {
+        this(objectMapper, catalogueMapper, maxSubscribers, bufferSize, timeout, pushPool(threads), SseEmitter::new);
+        // Keeps idle connections open through proxies and detects clients that went away
+        long heartbeatMillis = heartbeatInterval.toMillis();
+        pushExecutor.scheduleAtFixedRate(this::heartbeat, heartbeatMillis, heartbeatMillis, TimeUnit.MILLISECONDS);
+    }
+
+    // Heartbeats are left to the caller
+    AssortmentChangeBroadcaster(ObjectMapper objectMapper, CatalogueMapper catalogueMapper, int maxSubscribers,
+                                int bufferSize, Duration timeout, ScheduledExecutorService pushExecutor,
+                                LongFunction<SseEmitter> emitterFactory) {
+        this.objectMapper = objectMapper;
+        this.catalogueMapper = catalogueMapper;
+        this.maxSubscribers = maxSubscribers;
+        this.bufferSize = bufferSize;
+        this.timeoutMillis = timeout.toMillis();
+        this.pushExecutor = pushExecutor;
+        this.emitterFactory = emitterFactory;
+    }
+
+    // Null when this node already holds its maximum number of subscribers
+    public SseEmitter subscribe(String supermarketId) {
+        if (subscriberCount.incrementAndGet() > maxSubscribers) {
+            subscriberCount.decrementAndGet();
+            return null;
+        }
+        SseEmitter emitter = emitterFactory.apply(timeoutMillis);
+        Subscriber subscriber = new Subscriber(supermarketId, emitter);
+        emitter.onCompletion(() -> remove(subscriber));
+        emitter.onError(error -> remove(subscriber));
+        emitter.onTimeout(emitter::complete);
+        subscribers.computeIfAbsent(supermarketId, key -> ConcurrentHashMap.newKeySet()).add(subscriber);
+        return emitter;
+    }
+
+    public int getSubscriberCount() {
+        return subscriberCount.get();
+    }
+
+    // Changes are pushed once committed, so a subscriber never sees a change that was rolled back
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onItemChanged(ItemChangedEvent event) {
+        for (SupermarketItem listing : event.getListings()) {
+            publish(listing.getSupermarketId(), event.getItemId(), event.isDeleted() || !listing.isActive()
+                    ? new AssortmentChangeDTO(event.getItemId(), ChangeOperation.DELETE, null)
+                    : new AssortmentChangeDTO(event.getItemId(), ChangeOperation.UPSERT,
+                    catalogueMapper.toItemResponse(event.getItem(), listing)));
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSupermarketItemsChanged(SupermarketItemsChangedEvent event) {
+        for (SupermarketItem listing : event.getListings()) {
+            publish(event.getSupermarketId(), listing.getItemId(), listing.isActive()
+                    ? new AssortmentChangeDTO(listing.getItemId(), ChangeOperation.UPSERT,
+                    catalogueMapper.toListingResponse(listing))
+                    : new AssortmentChangeDTO(listing.getItemId(), ChangeOperation.DELETE, null));
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSupermarketChanged(SupermarketChangedEvent event) {
+        if (!event.isDeleted()) {
+            return;
+        }
+        Set<Subscriber> subscribed = subscribers.get(event.getSupermarketId());
+        if (subscribed != null) {
+            subscribed.forEach(Subscriber::close);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pushExecutor.shutdownNow();
+    }
+
+    private void publish(String supermarketId, String itemId, AssortmentChangeDTO change) {
+        Set<Subscriber> subscribed = subscribers.get(supermarketId);
+        if (subscribed == null || subscribed.isEmpty()) {
+            return;
+        }
+        // Serialized once, every subscriber gets the same string
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(change);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize change of item " + itemId, e);
+        }
+        for (Subscriber subscriber : subscribed) {
+            subscriber.offer(itemId, json);
+        }
+    }
+
+    void heartbeat() {
+        for (Set<Subscriber> subscribed : subscribers.values()) {
+            subscribed.forEach(Subscriber::ping);
+        }
+    }
+
+    private static ScheduledExecutorService pushPool(int threads) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        return Executors.newScheduledThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "sse-push-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private void remove(Subscriber subscriber) {
+        Set<Subscriber> subscribed = subscribers.get(subscriber.supermarketId);
+        if (subscribed != null && subscribed.remove(subscriber)) {
+            subscriberCount.decrementAndGet();
+        }
+    }
+
+    private final class Subscriber implements Runnable {
+
+        private final String supermarketId;
+        private final SseEmitter emitter;
+
+        // itemId -> latest serialized change not yet written, guarded by this
+        private final Map<String, String> pending = new LinkedHashMap<>();
+        private boolean overflowed;
+        private boolean pingDue;
+        private boolean closing;
+
+        // Set while a drain task is queued or running
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+
+        private Subscriber(String supermarketId, SseEmitter emitter) {
+            this.supermarketId = supermarketId;
+            this.emitter = emitter;
+        }
+
+        private void offer(String itemId, String json) {
+            synchronized (this) {
+                if (overflowed) {
+                    return;
+                }
+                if (pending.size() >= bufferSize && !pending.containsKey(itemId)) {
+                    pending.clear();
+                    overflowed = true;
+                } else {
+                    pending.put(itemId, json);
+                }
+            }
+            schedule();
+        }
+
+        private void ping() {
+            synchronized (this) {
+                pingDue = true;
+            }
+            schedule();
+        }
+
+        private void close() {
+            synchronized (this) {
+                closing = true;
+            }
+            schedule();
+        }
+
+        private void schedule() {
+            if (scheduled.compareAndSet(false, true)) {
+                pushExecutor.execute(this);
+            }
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (true) {
+                    List<String> changes;
+                    boolean resync;
+                    boolean ping;
+                    boolean close;
+                    synchronized (this) {
+                        if (pending.isEmpty() && !overflowed && !pingDue && !closing) {
+                            // Cleared under the lock, so an offer that follows schedules a new drain
+                            scheduled.set(false);
+                            return;
+                        }
+                        changes = new ArrayList<>(pending.values());
+                        pending.clear();
+                        resync = overflowed;
+                        ping = pingDue;
+                        close = closing;
+                        overflowed = false;
+                        pingDue = false;
+                    }
+                    if (resync) {
+                        emitter.send(SseEmitter.event().name("resync").data("{}", MediaType.APPLICATION_JSON));
+                    }
+                    for (String change : changes) {
+                        emitter.send(SseEmitter.event().name("change").data(change, MediaType.APPLICATION_JSON));
+                    }
+                    if (ping && changes.isEmpty() && !resync) {
+                        emitter.send(SseEmitter.event().comment("ping"));
+                    }
+                    if (close) {
+                        emitter.send(SseEmitter.event().name("deleted").data("{}", MediaType.APPLICATION_JSON));
+                        emitter.complete();
+                        remove(this);
+                        return;
+                    }
+                }
+            } catch (IOException | IllegalStateException e) {
+                // Client went away or the emitter already completed
+                emitter.completeWithError(e);
+                remove(this);
+            }
+        }
+    }
+}
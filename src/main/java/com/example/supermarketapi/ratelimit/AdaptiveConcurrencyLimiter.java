@@ -0,0 +1,90 @@
+package com.example.supermarketapi.ratelimit;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+// Gradient concurrency limiter. Every window the limit is scaled by minRtt / observedRtt (Little's law:
+// at a fixed throughput, rising latency means requests are queueing), plus a sqrt(limit) headroom so the
+// limit can grow again. Requests over the limit are rejected instead of queued.
+public class AdaptiveConcurrencyLimiter {
+
+    private static final long WINDOW_NANOS = 100_000_000L;
+
+    // Forget the best latency seen every so often so the baseline can follow a slower backend
+    private static final long MIN_RTT_RESET_NANOS = 30_000_000_000L;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double rttTolerance;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile double limit;
+
+    private final LongAdder windowRttSum = new LongAdder();
+    private final LongAdder windowSamples = new LongAdder();
+    private final AtomicLong windowEnd;
+
+    private volatile long minRtt = Long.MAX_VALUE;
+    private volatile long minRttResetAt;
+
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, double rttTolerance, long nowNanos) {
+        this.limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.rttTolerance = rttTolerance;
+        this.windowEnd = new AtomicLong(nowNanos + WINDOW_NANOS);
+        this.minRttResetAt = nowNanos + MIN_RTT_RESET_NANOS;
+    }
+
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= (int) limit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    public void release(long rttNanos, long nowNanos) {
+        inFlight.decrementAndGet();
+        windowRttSum.add(rttNanos);
+        windowSamples.increment();
+
+        long end = windowEnd.get();
+        // Only the thread that closes the window recomputes the limit
+        if (nowNanos >= end && windowEnd.compareAndSet(end, nowNanos + WINDOW_NANOS)) {
+            long samples = windowSamples.sumThenReset();
+            long rttSum = windowRttSum.sumThenReset();
+            if (samples > 0) {
+                updateLimit(rttSum / samples, nowNanos);
+            }
+        }
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    private void updateLimit(long averageRtt, long nowNanos) {
+        if (nowNanos >= minRttResetAt) {
+            minRtt = averageRtt;
+            minRttResetAt = nowNanos + MIN_RTT_RESET_NANOS;
+        } else if (averageRtt < minRtt) {
+            minRtt = averageRtt;
+        }
+
+        double gradient = Math.max(0.5, Math.min(1.0, rttTolerance * minRtt / (double) Math.max(averageRtt, 1)));
+        double newLimit = limit * gradient + Math.sqrt(limit);
+        // Smooth so a single noisy window does not halve the limit
+        newLimit = limit * 0.8 + newLimit * 0.2;
+        limit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+    }
+}
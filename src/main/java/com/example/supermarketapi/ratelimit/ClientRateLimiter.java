@@ -0,0 +1,52 @@
+package com.example.supermarketapi.ratelimit;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Token buckets per client for one route class, in a map bounded to maxClients entries
+public class ClientRateLimiter {
+
+    private final double permitsPerSecond;
+    private final int burst;
+    private final int maxClients;
+
+    private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+
+    public ClientRateLimiter(double permitsPerSecond, int burst, int maxClients) {
+        this.permitsPerSecond = permitsPerSecond;
+        this.burst = burst;
+        this.maxClients = maxClients;
+    }
+
+    public boolean tryAcquire(String clientKey, long nowNanos) {
+        TokenBucket bucket = buckets.get(clientKey);
+        if (bucket == null) {
+            if (buckets.size() >= maxClients) {
+                evict(nowNanos);
+            }
+            bucket = buckets.computeIfAbsent(clientKey, key -> new TokenBucket(permitsPerSecond, burst, nowNanos));
+        }
+        return bucket.tryAcquire(nowNanos);
+    }
+
+    public long nanosUntilAvailable(String clientKey, long nowNanos) {
+        TokenBucket bucket = buckets.get(clientKey);
+        return bucket == null ? 0 : bucket.nanosUntilAvailable(nowNanos);
+    }
+
+    public int size() {
+        return buckets.size();
+    }
+
+    // Drop refilled buckets first; if every client is still throttled, drop arbitrary ones down to 3/4 of the cap
+    private void evict(long nowNanos) {
+        buckets.values().removeIf(bucket -> bucket.isFull(nowNanos));
+        Iterator<String> keys = buckets.keySet().iterator();
+        int target = maxClients * 3 / 4;
+        while (buckets.size() > target && keys.hasNext()) {
+            keys.next();
+            keys.remove();
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.supermarketapi.ratelimit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+// Per-client token buckets with separate read, write and export budgets (429), followed by an adaptive
+// concurrency limit across all non-checkout traffic (503). Checkout bypasses both so abusive reads cannot
+// starve it. Clients are keyed by their API key when it is one of the configured keys, otherwise by their IP, so
+// sending a made-up key per request does not mint a fresh budget.
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final String API_KEY_HEADER = "X-API-Key";
+
+    // POST endpoints that only read; their id lists and queries do not fit a query string
+    private static final Set<String> READ_ONLY_POST_PATHS = Set.of("/graphql", "/items/batch-get",
+            "/supermarkets/batch-get");
+
+    private final boolean enabled;
+    private final Set<String> apiKeys;
+    private final Map<RouteClass, ClientRateLimiter> limiters = new EnumMap<>(RouteClass.class);
+    private final AdaptiveConcurrencyLimiter concurrencyLimiter;
+
+    public RateLimitFilter(@Value("${app.rate-limit.enabled:true}") boolean enabled,
+                           @Value("${app.rate-limit.api-keys:}") List<String> apiKeys,
+                           @Value("${app.rate-limit.max-clients:100000}") int maxClients,
+                           @Value("${app.rate-limit.read.per-second:50}") double readPerSecond,
+                           @Value("${app.rate-limit.read.burst:100}") int readBurst,
+                           @Value("${app.rate-limit.write.per-second:10}") double writePerSecond,
+                           @Value("${app.rate-limit.write.burst:20}") int writeBurst,
+                           @Value("${app.rate-limit.export.per-second:1}") double exportPerSecond,
+                           @Value("${app.rate-limit.export.burst:5}") int exportBurst,
+                           @Value("${app.concurrency-limit.initial:100}") int initialLimit,
+                           @Value("${app.concurrency-limit.min:10}") int minLimit,
+                           @Value("${app.concurrency-limit.max:1000}") int maxLimit,
+                           @Value("${app.concurrency-limit.rtt-tolerance:1.5}") double rttTolerance) {
+        this.enabled = enabled;
+        this.apiKeys = Set.copyOf(apiKeys);
+        limiters.put(RouteClass.READ, new ClientRateLimiter(readPerSecond, readBurst, maxClients));
+        limiters.put(RouteClass.WRITE, new ClientRateLimiter(writePerSecond, writeBurst, maxClients));
+        limiters.put(RouteClass.EXPORT, new ClientRateLimiter(exportPerSecond, exportBurst, maxClients));
+        this.concurrencyLimiter = new AdaptiveConcurrencyLimiter(initialLimit, minLimit, maxLimit, rttTolerance,
+                System.nanoTime());
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        RouteClass routeClass = classify(request);
+        if (routeClass == RouteClass.CHECKOUT) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        long now = System.nanoTime();
+        String clientKey = clientKey(request);
+        ClientRateLimiter limiter = limiters.get(routeClass);
+        if (!limiter.tryAcquire(clientKey, now)) {
+            long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(limiter.nanosUntilAvailable(clientKey, now)));
+            response.setHeader("Retry-After", String.valueOf(retryAfterSeconds));
+            reject(response, HttpStatus.TOO_MANY_REQUESTS, "Rate limit exceeded for " + routeClass.name().toLowerCase() + " requests");
+            return;
+        }
+
+        if (!concurrencyLimiter.tryAcquire()) {
+            response.setHeader("Retry-After", "1");
+            reject(response, HttpStatus.SERVICE_UNAVAILABLE, "Server is overloaded, please retry");
+            return;
+        }
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            long end = System.nanoTime();
+            concurrencyLimiter.release(end - now, end);
+        }
+    }
+
+    static RouteClass classify(HttpServletRequest request) {
+        String method = request.getMethod();
+        String path = request.getRequestURI();
+        if ("POST".equals(method) && "/purchases".equals(path)) {
+            return RouteClass.CHECKOUT;
+        }
+        if (isReadOnlyPost(request)) {
+            // A single GraphQL query can fan out over many supermarkets and their purchases
+            return "/graphql".equals(path) ? RouteClass.EXPORT : RouteClass.READ;
+        }
+        if ("GET".equals(method) || "HEAD".equals(method)) {
+            if ("/items".equals(path) || "/purchases".equals(path) || "/supermarkets".equals(path)) {
+                return RouteClass.EXPORT;
+            }
+            return RouteClass.READ;
+        }
+        return RouteClass.WRITE;
+    }
+
+    // Shared with the read-your-writes filter, these do not pin the client to the primary
+    public static boolean isReadOnlyPost(HttpServletRequest request) {
+        return "POST".equals(request.getMethod()) && READ_ONLY_POST_PATHS.contains(request.getRequestURI());
+    }
+
+    // Client identity shared with the read-your-writes filter; unknown keys count against the caller's IP
+    public String clientKey(HttpServletRequest request) {
+        String apiKey = request.getHeader(API_KEY_HEADER);
+        return apiKey != null && apiKeys.contains(apiKey) ? "key:" + apiKey : "ip:" + request.getRemoteAddr();
+    }
+
+    private static void reject(HttpServletResponse response, HttpStatus status, String message) throws IOException {
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getWriter().write("{\"timestamp\":\"" + LocalDateTime.now() + "\",\"message\":\"" + message + "\"}");
+    }
+}
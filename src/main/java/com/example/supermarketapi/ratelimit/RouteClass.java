@@ -0,0 +1,10 @@
+package com.example.supermarketapi.ratelimit;
+
+public enum RouteClass {
+    // Checkout is never throttled or shed
+    CHECKOUT,
+    // Unbounded listings such as GET /items and GET /purchases
+    EXPORT,
+    READ,
+    WRITE
+}
@@ -0,0 +1,45 @@
+package com.example.supermarketapi.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// Lock-free token bucket in its GCRA form: the whole state is the theoretical arrival time of the next
+// request, kept in a single AtomicLong and advanced with CAS.
+public class TokenBucket {
+
+    // Nanoseconds it takes to refill one token
+    private final long emissionInterval;
+
+    // How far ahead of "now" the arrival time may run, i.e. the burst capacity in nanoseconds
+    private final long burstTolerance;
+
+    private final AtomicLong theoreticalArrival;
+
+    public TokenBucket(double permitsPerSecond, int burst, long nowNanos) {
+        this.emissionInterval = (long) (1_000_000_000L / permitsPerSecond);
+        this.burstTolerance = emissionInterval * Math.max(burst, 1);
+        this.theoreticalArrival = new AtomicLong(nowNanos);
+    }
+
+    public boolean tryAcquire(long nowNanos) {
+        while (true) {
+            long arrival = theoreticalArrival.get();
+            long next = Math.max(arrival, nowNanos) + emissionInterval;
+            if (next - nowNanos > burstTolerance) {
+                return false;
+            }
+            if (theoreticalArrival.compareAndSet(arrival, next)) {
+                return true;
+            }
+        }
+    }
+
+    // Nanoseconds until the next permit becomes available
+    public long nanosUntilAvailable(long nowNanos) {
+        return Math.max(0, theoreticalArrival.get() + emissionInterval - burstTolerance - nowNanos);
+    }
+
+    // A full bucket behaves exactly like a new one, so it can be dropped from a cache without losing state
+    public boolean isFull(long nowNanos) {
+        return theoreticalArrival.get() <= nowNanos;
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.supermarketapi.repository;
+
+import com.example.supermarketapi.model.CatalogueChange;
+import com.example.supermarketapi.model.enums.CatalogueEntityType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface CatalogueChangeRepository extends JpaRepository<CatalogueChange, Long> {
+
+    // Resolves to a range scan on idx_catalogue_change_type_seq
+    List<CatalogueChange> findByEntityTypeAndSeqGreaterThanOrderBySeq(CatalogueEntityType entityType, long since,
+                                                                       Pageable pageable);
+
+    List<CatalogueChange> findBySeqGreaterThanOrderBySeq(long since, Pageable pageable);
+
+    Optional<CatalogueChange> findTopByOrderBySeqDesc();
+}
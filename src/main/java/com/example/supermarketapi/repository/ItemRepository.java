@@ -1,9 +1,24 @@
 package com.example.supermarketapi.repository;
 
 import com.example.supermarketapi.model.Item;
+import com.example.supermarketapi.model.enums.ItemType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
-public interface ItemRepository extends JpaRepository<Item, String> {
+public interface ItemRepository extends JpaRepository<Item, String>, JpaSpecificationExecutor<Item> {
+
+    // Single-statement writes: the affected row count (0 or 1) doubles as the existence check
+    @Modifying
+    @Query("update Item i set i.name = :name, i.price = :price, i.type = :type where i.id = :id")
+    int updateItem(@Param("id") String id, @Param("name") String name, @Param("price") Long price,
+                   @Param("type") ItemType type);
+
+    @Modifying
+    @Query("delete from Item i where i.id = :id")
+    int deleteItemById(@Param("id") String id);
 }
@@ -0,0 +1,48 @@
+package com.example.supermarketapi.repository;
+
+import com.example.supermarketapi.model.Item;
+import com.example.supermarketapi.model.SupermarketItem;
+import com.example.supermarketapi.model.enums.ItemType;
+import org.springframework.data.jpa.domain.Specification;
+
+import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Subquery;
+
+// Filters for item queries, ordered like idx_item_type_price so they resolve to index range scans.
+// A null argument yields a null specification, which Specification.where/and simply skip.
+public final class ItemSpecifications {
+
+    private ItemSpecifications() {
+    }
+
+    public static Specification<Item> filter(String supermarketId, ItemType type, Long minPrice, Long maxPrice) {
+        return Specification.where(hasType(type))
+                .and(priceAtLeast(minPrice))
+                .and(priceAtMost(maxPrice))
+                .and(inSupermarket(supermarketId));
+    }
+
+    // Items the supermarket actively lists, resolved on the primary key of supermarket_item
+    public static Specification<Item> inSupermarket(String supermarketId) {
+        return supermarketId == null ? null : (root, query, cb) -> {
+            Subquery<String> listed = query.subquery(String.class);
+            Root<SupermarketItem> listing = listed.from(SupermarketItem.class);
+            listed.select(listing.get("id").get("itemId"))
+                    .where(cb.equal(listing.get("id").get("supermarketId"), supermarketId),
+                            cb.isTrue(listing.get("active")));
+            return root.get("id").in(listed);
+        };
+    }
+
+    public static Specification<Item> hasType(ItemType type) {
+        return type == null ? null : (root, query, cb) -> cb.equal(root.get("type"), type);
+    }
+
+    public static Specification<Item> priceAtLeast(Long minPrice) {
+        return minPrice == null ? null : (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("price"), minPrice);
+    }
+
+    public static Specification<Item> priceAtMost(Long maxPrice) {
+        return maxPrice == null ? null : (root, query, cb) -> cb.lessThanOrEqualTo(root.get("price"), maxPrice);
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.supermarketapi.repository;
+
+import com.example.supermarketapi.model.OutboxMessage;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.LockModeType;
+import javax.persistence.QueryHint;
+import java.util.List;
+
+@Repository
+public interface OutboxMessageRepository extends JpaRepository<OutboxMessage, Long> {
+
+    // Oldest messages by primary key, locked with FOR UPDATE SKIP LOCKED (lock timeout -2 is Hibernate's
+    // LockOptions.SKIP_LOCKED) so concurrent relays take disjoint batches; dialects without SKIP LOCKED block instead
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "javax.persistence.lock.timeout", value = "-2"))
+    List<OutboxMessage> findAllByOrderByIdAsc(Pageable pageable);
+}
@@ -0,0 +1,9 @@
+package com.example.supermarketapi.repository;
+
+import com.example.supermarketapi.model.Promotion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface PromotionRepository extends JpaRepository<Promotion, String> {
+}
@@ -1,8 +1,49 @@
 package com.example.supermarketapi.repository;
 
 import com.example.supermarketapi.model.Purchase;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
-public interface PurchaseRepository extends JpaRepository<Purchase, Long> {
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+public interface PurchaseRepository extends JpaRepository<Purchase, String> {
     // You can add custom queries here if needed
+
+    // Keyset page of the purchase history after (afterDate, afterId), in (time_of_payment, id) order.
+    // time_of_payment is the partitioning column, so these only touch the months in the range.
+    @Query("select p from Purchase p where p.timeOfPayment between :from and :to"
+            + " and (p.timeOfPayment > :afterDate or (p.timeOfPayment = :afterDate and p.id > :afterId))"
+            + " order by p.timeOfPayment, p.id")
+    List<Purchase> findHistoryPage(@Param("from") LocalDate from, @Param("to") LocalDate to,
+                                   @Param("afterDate") LocalDate afterDate, @Param("afterId") String afterId,
+                                   Pageable pageable);
+
+    @Query("select p from Purchase p where p.supermarketId = :supermarketId and p.timeOfPayment between :from and :to"
+            + " and (p.timeOfPayment > :afterDate or (p.timeOfPayment = :afterDate and p.id > :afterId))"
+            + " order by p.timeOfPayment, p.id")
+    List<Purchase> findSupermarketHistoryPage(@Param("supermarketId") String supermarketId,
+                                              @Param("from") LocalDate from, @Param("to") LocalDate to,
+                                              @Param("afterDate") LocalDate afterDate,
+                                              @Param("afterId") String afterId, Pageable pageable);
+
+    // One statement, the affected row count (0 or 1) doubles as the existence check. Runs in its own (read-write)
+    // transaction on whichever shard it is routed to.
+    @Transactional
+    @Modifying
+    @Query("delete from Purchase p where p.id = :id")
+    int deletePurchaseById(@Param("id") String id);
+
+    // The latest purchases of each supermarket, at most perSupermarket each, in one statement
+    @Query(value = "select * from (select p.*, row_number() over (partition by p.supermarket_id"
+            + " order by p.time_of_payment desc, p.id desc) as recent_rank from purchase p"
+            + " where p.supermarket_id in (:supermarketIds)) ranked where ranked.recent_rank <= :perSupermarket"
+            + " order by ranked.supermarket_id, ranked.recent_rank", nativeQuery = true)
+    List<Purchase> findRecentBySupermarketIds(@Param("supermarketIds") Collection<String> supermarketIds,
+                                              @Param("perSupermarket") int perSupermarket);
 }
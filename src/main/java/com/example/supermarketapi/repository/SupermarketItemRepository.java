@@ -0,0 +1,85 @@
+package com.example.supermarketapi.repository;
+
+import com.example.supermarketapi.model.SupermarketItem;
+import com.example.supermarketapi.model.SupermarketItemId;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface SupermarketItemRepository extends JpaRepository<SupermarketItem, SupermarketItemId>,
+        JpaSpecificationExecutor<SupermarketItem> {
+
+    // Filtered assortment pages, with the items fetched in the same query
+    @Override
+    @EntityGraph(attributePaths = "item")
+    Page<SupermarketItem> findAll(Specification<SupermarketItem> specification, Pageable pageable);
+
+    // Keyset page of a supermarket's active listings after the given item id, read along the primary key
+    @Query("select l from SupermarketItem l join fetch l.item where l.id.supermarketId = :supermarketId"
+            + " and l.active = true and l.id.itemId > :afterItemId order by l.id.itemId")
+    List<SupermarketItem> findActivePage(@Param("supermarketId") String supermarketId,
+                                         @Param("afterItemId") String afterItemId, Pageable pageable);
+
+    @Query("select l from SupermarketItem l join fetch l.item where l.id.supermarketId = :supermarketId"
+            + " and l.active = true")
+    List<SupermarketItem> findActive(@Param("supermarketId") String supermarketId);
+
+    @Query("select l from SupermarketItem l join fetch l.item where l.id.supermarketId = :supermarketId"
+            + " and l.id.itemId in :itemIds")
+    List<SupermarketItem> findListings(@Param("supermarketId") String supermarketId,
+                                       @Param("itemIds") Collection<String> itemIds);
+
+    // The cheapest active listings of each supermarket matching the optional filters, at most perSupermarket
+    // each, in one statement. type is the ItemType ordinal, the prices are shelf prices.
+    @Query(value = "select * from (select l.*, row_number() over (partition by l.supermarket_id"
+            + " order by l.price, l.item_id) as price_rank from supermarket_item l join item i on i.id = l.item_id"
+            + " where l.supermarket_id in (:supermarketIds) and l.active = true"
+            + " and (:type is null or i.type = :type)"
+            + " and (:minPrice is null or l.price >= :minPrice) and (:maxPrice is null or l.price <= :maxPrice))"
+            + " ranked where ranked.price_rank <= :perSupermarket"
+            + " order by ranked.supermarket_id, ranked.price_rank", nativeQuery = true)
+    List<SupermarketItem> findCheapestActive(@Param("supermarketIds") Collection<String> supermarketIds,
+                                             @Param("type") Integer type,
+                                             @Param("minPrice") BigDecimal minPrice,
+                                             @Param("maxPrice") BigDecimal maxPrice,
+                                             @Param("perSupermarket") int perSupermarket);
+
+    // Every supermarket's listing of the item, active or not
+    @Query("select l from SupermarketItem l join fetch l.item where l.id.itemId = :itemId")
+    List<SupermarketItem> findByItem(@Param("itemId") String itemId);
+
+    @Query("select l from SupermarketItem l join fetch l.item where l.id.itemId in :itemIds")
+    List<SupermarketItem> findByItemIn(@Param("itemIds") Collection<String> itemIds);
+
+    // Ids and shelf prices of the active listings, the items are not fetched
+    @Query("select l from SupermarketItem l where l.active = true")
+    List<SupermarketItem> findAllActive();
+
+    @Query("select l from SupermarketItem l where l.id.itemId = :itemId and l.active = true")
+    List<SupermarketItem> findActiveByItem(@Param("itemId") String itemId);
+
+    // Moves the shelf price of every listing that follows the item's list price
+    @Modifying
+    @Query("update SupermarketItem l set l.price = :price where l.id.itemId = :itemId and l.ownPrice = false")
+    int followListPrice(@Param("itemId") String itemId, @Param("price") Long price);
+
+    @Modifying
+    @Query("delete from SupermarketItem l where l.id.itemId = :itemId")
+    int deleteByItem(@Param("itemId") String itemId);
+
+    @Modifying
+    @Query("delete from SupermarketItem l where l.id.itemId in :itemIds")
+    int deleteByItemIn(@Param("itemIds") Collection<String> itemIds);
+
+    @Modifying
+    @Query("delete from SupermarketItem l where l.id.supermarketId = :supermarketId")
+    int deleteBySupermarket(@Param("supermarketId") String supermarketId);
+}
@@ -0,0 +1,38 @@
+package com.example.supermarketapi.repository;
+
+import com.example.supermarketapi.model.SupermarketItem;
+import com.example.supermarketapi.model.enums.ItemType;
+import org.springframework.data.jpa.domain.Specification;
+
+// Filters for a supermarket's active listings, ordered like idx_supermarket_item_store_price.
+// Prices are the supermarket's shelf prices; the type lives on the item.
+public final class SupermarketItemSpecifications {
+
+    private SupermarketItemSpecifications() {
+    }
+
+    public static Specification<SupermarketItem> filter(String supermarketId, ItemType type, Long minPrice,
+                                                        Long maxPrice) {
+        return Specification.where(activeIn(supermarketId))
+                .and(priceAtLeast(minPrice))
+                .and(priceAtMost(maxPrice))
+                .and(hasType(type));
+    }
+
+    public static Specification<SupermarketItem> activeIn(String supermarketId) {
+        return (root, query, cb) -> cb.and(cb.equal(root.get("id").get("supermarketId"), supermarketId),
+                cb.isTrue(root.get("active")));
+    }
+
+    public static Specification<SupermarketItem> hasType(ItemType type) {
+        return type == null ? null : (root, query, cb) -> cb.equal(root.get("item").get("type"), type);
+    }
+
+    public static Specification<SupermarketItem> priceAtLeast(Long minPrice) {
+        return minPrice == null ? null : (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("price"), minPrice);
+    }
+
+    public static Specification<SupermarketItem> priceAtMost(Long maxPrice) {
+        return maxPrice == null ? null : (root, query, cb) -> cb.lessThanOrEqualTo(root.get("price"), maxPrice);
+    }
+}
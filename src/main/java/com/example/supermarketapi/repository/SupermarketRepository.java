@@ -2,6 +2,9 @@ package com.example.supermarketapi.repository;
 
 import com.example.supermarketapi.model.Supermarket;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
@@ -9,4 +12,16 @@ import java.util.Optional;
 @Repository
 public interface SupermarketRepository extends JpaRepository<Supermarket, String> {
     Optional<Supermarket> findSupermarketByName(String name);
+
+    // Single-statement writes: the affected row count (0 or 1) doubles as the existence check. A taken name
+    // fails on uk_supermarket_name instead of being looked up first.
+    @Modifying
+    @Query("update Supermarket s set s.name = :name, s.address = :address, s.phoneNumber = :phoneNumber,"
+            + " s.workHours = :workHours where s.id = :id")
+    int updateSupermarket(@Param("id") String id, @Param("name") String name, @Param("address") String address,
+                          @Param("phoneNumber") String phoneNumber, @Param("workHours") String workHours);
+
+    @Modifying
+    @Query("delete from Supermarket s where s.id = :id")
+    int deleteSupermarketById(@Param("id") String id);
 }
@@ -0,0 +1,335 @@
+package com.example.supermarketapi.search;
+
+import com.example.supermarketapi.datasource.DataSourceRouting;
+import com.example.supermarketapi.event.ItemChangedEvent;
+import com.example.supermarketapi.event.SupermarketChangedEvent;
+import com.example.supermarketapi.event.SupermarketItemsChangedEvent;
+import com.example.supermarketapi.model.Item;
+import com.example.supermarketapi.model.SupermarketItem;
+import com.example.supermarketapi.model.enums.ItemType;
+import com.example.supermarketapi.repository.ItemRepository;
+import com.example.supermarketapi.repository.SupermarketItemRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+// In-memory inverted index over item names, kept in sync with the database through catalogue events.
+// Reads are lock-free; writers are serialized so a document and its postings never diverge.
+@Component
+public class ItemSearchIndex {
+
+    private final ItemRepository itemRepository;
+    private final SupermarketItemRepository supermarketItemRepository;
+
+    // itemId -> indexed copy of the item
+    private final Map<String, IndexedItem> documents = new ConcurrentHashMap<>();
+
+    // token -> ids of the items whose name contains the token, sorted for prefix range lookups
+    private final ConcurrentSkipListMap<String, Set<String>> postings = new ConcurrentSkipListMap<>();
+
+    @Autowired
+    public ItemSearchIndex(ItemRepository itemRepository, SupermarketItemRepository supermarketItemRepository) {
+        this.itemRepository = itemRepository;
+        this.supermarketItemRepository = supermarketItemRepository;
+    }
+
+    // Rebuild the whole index from the database once the application has started
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        documents.clear();
+        postings.clear();
+        Map<String, Map<String, Long>> listedIn = new HashMap<>();
+        for (SupermarketItem listing : DataSourceRouting.onPrimary(supermarketItemRepository::findAllActive)) {
+            listedIn.computeIfAbsent(listing.getItemId(), key -> new HashMap<>())
+                    .put(listing.getSupermarketId(), listing.getPrice());
+        }
+        for (Item item : DataSourceRouting.onPrimary(itemRepository::findAll)) {
+            index(item, listedIn.getOrDefault(item.getId(), Collections.emptyMap()));
+        }
+    }
+
+    // Re-reads one item from the database, for changes made on another node
+    public synchronized void reload(String itemId) {
+        remove(itemId);
+        DataSourceRouting.onPrimary(() -> itemRepository.findById(itemId)).ifPresent(item -> index(item,
+                shelfPrices(DataSourceRouting.onPrimary(() -> supermarketItemRepository.findActiveByItem(itemId)))));
+    }
+
+    // Applied once the change has committed, so a rolled-back write never becomes searchable
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onItemChanged(ItemChangedEvent event) {
+        remove(event.getItemId());
+        if (!event.isDeleted()) {
+            List<SupermarketItem> active = new ArrayList<>();
+            for (SupermarketItem listing : event.getListings()) {
+                if (listing.isActive()) {
+                    active.add(listing);
+                }
+            }
+            index(event.getItem(), shelfPrices(active));
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onSupermarketItemsChanged(SupermarketItemsChangedEvent event) {
+        for (SupermarketItem listing : event.getListings()) {
+            IndexedItem previous = remove(listing.getItemId());
+            Map<String, Long> listedIn = previous == null ? new HashMap<>() : previous.listedIn();
+            if (listing.isActive()) {
+                listedIn.put(event.getSupermarketId(), listing.getPrice());
+            } else {
+                listedIn.remove(event.getSupermarketId());
+            }
+            index(listing.getItem(), listedIn);
+        }
+    }
+
+    // Items outlive a deleted supermarket, only its listings go
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onSupermarketChanged(SupermarketChangedEvent event) {
+        if (event.isDeleted()) {
+            removeSupermarket(event.getSupermarketId());
+        }
+    }
+
+    public synchronized void removeSupermarket(String supermarketId) {
+        for (IndexedItem document : new ArrayList<>(documents.values())) {
+            if (document.listingOf(supermarketId) >= 0) {
+                Map<String, Long> listedIn = document.listedIn();
+                listedIn.remove(supermarketId);
+                documents.put(document.id, document.withListings(listedIn));
+            }
+        }
+    }
+
+    // True when the query has nothing to look up in the index; such requests are filters, answered by the
+    // database through the price indexes rather than by scanning every document here
+    public static boolean isFilterOnly(String query) {
+        return tokenize(query).isEmpty();
+    }
+
+    // Items whose name contains every query token (the last one as a prefix), narrowed by the optional filters.
+    // With a supermarket, the price range applies to its shelf price.
+    public List<Item> search(String query, ItemType type, Long minPrice, Long maxPrice,
+                             String supermarketId, int limit) {
+        List<String> tokens = tokenize(query);
+        if (tokens.isEmpty()) {
+            throw new IllegalArgumentException("Search query has no tokens, filter-only requests go to the database");
+        }
+        List<Item> results = new ArrayList<>();
+        if (limit <= 0) {
+            return results;
+        }
+
+        String prefix = tokens.get(tokens.size() - 1);
+        List<Set<String>> exactSets = new ArrayList<>();
+        for (String token : tokens.subList(0, tokens.size() - 1)) {
+            Set<String> ids = postings.get(token);
+            if (ids == null) {
+                return results;
+            }
+            exactSets.add(ids);
+        }
+
+        if (exactSets.isEmpty()) {
+            // Only a prefix: walk the posting lists of every token in the prefix range
+            Set<String> seen = new HashSet<>();
+            for (Set<String> ids : postings.subMap(prefix, true, prefix + Character.MAX_VALUE, true).values()) {
+                for (String id : ids) {
+                    IndexedItem document = documents.get(id);
+                    if (document != null && seen.add(id)
+                            && document.matches(type, minPrice, maxPrice, supermarketId)
+                            && add(results, document, limit)) {
+                        return results;
+                    }
+                }
+            }
+            return results;
+        }
+
+        // Drive the intersection from the smallest posting list
+        exactSets.sort(Comparator.comparingInt(Set::size));
+        Set<String> smallest = exactSets.get(0);
+        for (String id : smallest) {
+            IndexedItem document = documents.get(id);
+            if (document == null || !document.hasTokenWithPrefix(prefix)
+                    || !document.matches(type, minPrice, maxPrice, supermarketId)) {
+                continue;
+            }
+            boolean inAll = true;
+            for (int i = 1; i < exactSets.size() && inAll; i++) {
+                inAll = exactSets.get(i).contains(id);
+            }
+            if (inAll && add(results, document, limit)) {
+                break;
+            }
+        }
+        return results;
+    }
+
+    public int size() {
+        return documents.size();
+    }
+
+    private boolean add(List<Item> results, IndexedItem document, int limit) {
+        results.add(document.toItem());
+        return results.size() >= limit;
+    }
+
+    private void index(Item item, Map<String, Long> listedIn) {
+        IndexedItem document = new IndexedItem(item, listedIn, tokenize(item.getName()));
+        documents.put(document.id, document);
+        for (String token : document.tokens) {
+            postings.computeIfAbsent(token, key -> ConcurrentHashMap.newKeySet()).add(document.id);
+        }
+    }
+
+    private IndexedItem remove(String itemId) {
+        IndexedItem document = documents.remove(itemId);
+        if (document != null) {
+            for (String token : document.tokens) {
+                Set<String> ids = postings.get(token);
+                if (ids != null) {
+                    ids.remove(itemId);
+                    if (ids.isEmpty()) {
+                        postings.remove(token, ids);
+                    }
+                }
+            }
+        }
+        return document;
+    }
+
+    // supermarketId -> shelf price of the given listings
+    private static Map<String, Long> shelfPrices(Collection<SupermarketItem> listings) {
+        Map<String, Long> listedIn = new HashMap<>();
+        for (SupermarketItem listing : listings) {
+            listedIn.put(listing.getSupermarketId(), listing.getPrice());
+        }
+        return listedIn;
+    }
+
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        String lower = text.toLowerCase(Locale.ROOT);
+        int start = -1;
+        for (int i = 0; i <= lower.length(); i++) {
+            boolean wordChar = i < lower.length() && Character.isLetterOrDigit(lower.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                tokens.add(lower.substring(start, i));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    private static final class IndexedItem {
+
+        private final String id;
+        private final String name;
+        private final Long price;
+        private final ItemType type;
+        // Supermarkets actively listing the item, with their shelf prices at the same positions
+        private final String[] supermarketIds;
+        private final Long[] shelfPrices;
+        private final String[] tokens;
+
+        private IndexedItem(Item item, Map<String, Long> listedIn, List<String> tokens) {
+            this.id = item.getId();
+            this.name = item.getName();
+            this.price = item.getPrice();
+            this.type = item.getType();
+            this.supermarketIds = listedIn.keySet().toArray(new String[0]);
+            this.shelfPrices = shelfPricesOf(supermarketIds, listedIn);
+            this.tokens = new LinkedHashSet<>(tokens).toArray(new String[0]);
+        }
+
+        private IndexedItem(IndexedItem document, Map<String, Long> listedIn) {
+            this.id = document.id;
+            this.name = document.name;
+            this.price = document.price;
+            this.type = document.type;
+            this.supermarketIds = listedIn.keySet().toArray(new String[0]);
+            this.shelfPrices = shelfPricesOf(supermarketIds, listedIn);
+            this.tokens = document.tokens;
+        }
+
+        private static Long[] shelfPricesOf(String[] supermarketIds, Map<String, Long> listedIn) {
+            Long[] shelfPrices = new Long[supermarketIds.length];
+            for (int i = 0; i < supermarketIds.length; i++) {
+                shelfPrices[i] = listedIn.get(supermarketIds[i]);
+            }
+            return shelfPrices;
+        }
+
+        // Same document listed in other supermarkets; the tokens and so the postings do not change
+        private IndexedItem withListings(Map<String, Long> listedIn) {
+            return new IndexedItem(this, listedIn);
+        }
+
+        private Map<String, Long> listedIn() {
+            Map<String, Long> listedIn = new HashMap<>();
+            for (int i = 0; i < supermarketIds.length; i++) {
+                listedIn.put(supermarketIds[i], shelfPrices[i]);
+            }
+            return listedIn;
+        }
+
+        // Position of the supermarket's listing, -1 when it does not list the item
+        private int listingOf(String supermarketId) {
+            for (int i = 0; i < supermarketIds.length; i++) {
+                if (supermarketIds[i].equals(supermarketId)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        private boolean hasTokenWithPrefix(String prefix) {
+            for (String token : tokens) {
+                if (token.startsWith(prefix)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private boolean matches(ItemType type, Long minPrice, Long maxPrice, String supermarketId) {
+            if (type != null && type != this.type) {
+                return false;
+            }
+            Long price = this.price;
+            if (supermarketId != null) {
+                int listing = listingOf(supermarketId);
+                if (listing < 0) {
+                    return false;
+                }
+                price = shelfPrices[listing];
+            }
+            if (minPrice != null && (price == null || price < minPrice)) {
+                return false;
+            }
+            return maxPrice == null || price != null && price <= maxPrice;
+        }
+
+        private Item toItem() {
+            Item item = new Item();
+            item.setId(id);
+            item.setName(name);
+            item.setPrice(price);
+            item.setType(type);
+            return item;
+        }
+    }
+}
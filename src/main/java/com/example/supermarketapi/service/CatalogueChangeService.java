@@ -0,0 +1,14 @@
+package com.example.supermarketapi.service;
+
+import com.example.supermarketapi.dto.ChangeFeedDTO;
+import com.example.supermarketapi.dto.ItemResponseDTO;
+import com.example.supermarketapi.dto.SupermarketResponseDTO;
+
+public interface CatalogueChangeService {
+
+    // Method to get the item upserts and tombstones recorded after the given sequence
+    ChangeFeedDTO<ItemResponseDTO> getItemChanges(long since, int limit);
+
+    // Method to get the supermarket upserts and tombstones recorded after the given sequence
+    ChangeFeedDTO<SupermarketResponseDTO> getSupermarketChanges(long since, int limit);
+}
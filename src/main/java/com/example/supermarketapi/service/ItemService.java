@@ -1,6 +1,11 @@
 package com.example.supermarketapi.service;
 
+import com.example.supermarketapi.dto.BatchResultDTO;
+import com.example.supermarketapi.dto.ItemResponseDTO;
 import com.example.supermarketapi.model.Item;
+import com.example.supermarketapi.model.enums.ItemType;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 
 import java.util.List;
 
@@ -15,6 +20,9 @@ public interface ItemService {
     // Method to get an item by its ID
     public Item getItemById(String itemId);
 
+    // Method to get many items by their IDs, one result per requested ID in request order
+    public List<BatchResultDTO<ItemResponseDTO>> getItems(List<String> itemIds);
+
     // Method to delete an item by its ID
     public boolean deleteItem(String itemId);
 
@@ -23,4 +31,18 @@ public interface ItemService {
 
     // Method to partially update an item (update selected fields)
     public Item partialUpdateItem(String itemId, Item item);
+
+    // Method to partially update many items (each carrying its ID) in one transaction
+    public List<BatchResultDTO<ItemResponseDTO>> partialUpdateItems(List<Item> items);
+
+    // Method to delete many items by their IDs in one transaction
+    public List<BatchResultDTO<Void>> deleteItems(List<String> itemIds);
+
+    // Method to search items by name tokens (last token matched as a prefix) with optional filters
+    public List<Item> searchItems(String query, ItemType type, Long minPrice, Long maxPrice,
+                                  String supermarketId, int limit);
+
+    // Method to get a page of items matching the optional supermarket, type and price range filters
+    public Page<Item> filterItems(String supermarketId, ItemType type, Long minPrice, Long maxPrice,
+                                  Pageable pageable);
 }
@@ -0,0 +1,17 @@
+package com.example.supermarketapi.service;
+
+import com.example.supermarketapi.model.Promotion;
+
+import java.util.List;
+
+public interface PromotionService {
+
+    List<Promotion> getAll();
+
+    Promotion getById(String id);
+
+    // Active at checkout once saved
+    Promotion createPromotion(Promotion promotion);
+
+    void deletePromotion(String id);
+}
@@ -1,20 +1,36 @@
 package com.example.supermarketapi.service;
 
 import com.example.supermarketapi.model.Purchase;
+import com.example.supermarketapi.model.PurchaseHistoryCursor;
 import com.example.supermarketapi.model.enums.PaymentType;
 
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface PurchaseService {
 
-    Purchase makePurchase(String supermarketId, List<String> itemIDs, PaymentType type, Double cashAmount);
+    Purchase makePurchase(String supermarketId, List<String> itemIDs, PaymentType type, Long cashAmount);
 
     List<Purchase> getAll();
 
-    Optional<Purchase> getById(Long id);
+    // Up to limit purchases paid between from and to (both inclusive) after the cursor (null for the first page),
+    // from the hot table and the archive, in (time of payment, id) order
+    List<Purchase> getHistory(LocalDate from, LocalDate to, String supermarketId, PurchaseHistoryCursor after,
+                              int limit);
 
-    Purchase update(Purchase purchase);
+    // The latest purchases of each supermarket (at most perSupermarket each), keyed by supermarket id
+    Map<String, List<Purchase>> getRecentPurchases(Collection<String> supermarketIds, int perSupermarket);
 
-    void delete(Long id);  // Add the delete method signature here
+    Optional<Purchase> getById(String id);
+
+    // Applies the changes to the stored purchase and saves it on its shard. Throws PurchaseNotFoundException when
+    // no shard holds the purchase, and InvalidDataException when the changes move it to another supermarket.
+    Purchase update(String id, Consumer<Purchase> changes);
+
+    // Throws PurchaseNotFoundException when no shard holds the purchase
+    void delete(String id);
 }
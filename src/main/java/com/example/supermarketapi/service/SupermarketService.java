@@ -1,10 +1,19 @@
 package com.example.supermarketapi.service;
 
 import com.example.supermarketapi.dto.AddItemsToSupermarketResponseDTO;
+import com.example.supermarketapi.dto.BatchResultDTO;
+import com.example.supermarketapi.dto.ItemResponseDTO;
 import com.example.supermarketapi.dto.SupermarketInfoDTO;
+import com.example.supermarketapi.dto.SupermarketResponseDTO;
 import com.example.supermarketapi.model.Supermarket;
+import com.example.supermarketapi.model.SupermarketItem;
+import com.example.supermarketapi.model.enums.ItemType;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 public interface SupermarketService {
 
@@ -14,6 +23,18 @@ public interface SupermarketService {
     // Method to add items to a supermarket
     AddItemsToSupermarketResponseDTO addItems(String supermarketId, List<String> itemIDs);
 
+    // Method to set a supermarket's own price for an item and/or (de)activate its listing
+    SupermarketItem updateSupermarketItem(String supermarketId, String itemId, Long price, Boolean active);
+
+    // Method to get a page of a supermarket's listings filtered by type and shelf price range
+    Page<SupermarketItem> getSupermarketItems(String supermarketId, ItemType type, Long minPrice, Long maxPrice,
+                                              Pageable pageable);
+
+    // Method to get the cheapest matching active listings of many supermarkets (at most perSupermarket each),
+    // keyed by supermarket ID
+    Map<String, List<ItemResponseDTO>> getSupermarketItems(Collection<String> supermarketIds, ItemType type,
+                                                           Long minPrice, Long maxPrice, int perSupermarket);
+
     // Method to get supermarket info by ID
     SupermarketInfoDTO getSupermarketInfo(String id);
 
@@ -29,6 +50,9 @@ public interface SupermarketService {
     // Method to get all supermarkets
     List<Supermarket> getAllSupermarkets();
 
+    // Method to get many supermarkets by their IDs, one result per requested ID in request order
+    List<BatchResultDTO<SupermarketResponseDTO>> getSupermarkets(List<String> supermarketIds);
+
     // New method for getting a single supermarket by ID
     Supermarket getSupermarket(String supermarketId);
 }
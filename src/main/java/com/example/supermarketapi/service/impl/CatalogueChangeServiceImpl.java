@@ -0,0 +1,156 @@
+package com.example.supermarketapi.service.impl;
+
+import com.example.supermarketapi.datasource.DataSourceRouting;
+import com.example.supermarketapi.dto.ChangeDTO;
+import com.example.supermarketapi.dto.ChangeFeedDTO;
+import com.example.supermarketapi.dto.ItemResponseDTO;
+import com.example.supermarketapi.dto.SupermarketResponseDTO;
+import com.example.supermarketapi.event.CatalogueChangeRecordedEvent;
+import com.example.supermarketapi.event.ItemChangedEvent;
+import com.example.supermarketapi.event.SupermarketChangedEvent;
+import com.example.supermarketapi.event.SupermarketItemsChangedEvent;
+import com.example.supermarketapi.mapper.CatalogueMapper;
+import com.example.supermarketapi.model.BaseEntity;
+import com.example.supermarketapi.model.CatalogueChange;
+import com.example.supermarketapi.model.SupermarketItem;
+import com.example.supermarketapi.model.enums.CatalogueEntityType;
+import com.example.supermarketapi.model.enums.ChangeOperation;
+import com.example.supermarketapi.repository.CatalogueChangeRepository;
+import com.example.supermarketapi.repository.ItemRepository;
+import com.example.supermarketapi.repository.SupermarketRepository;
+import com.example.supermarketapi.service.CatalogueChangeService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.function.Function;
+
+// Records every catalogue change in the catalogue_change log and serves it back as a paged delta feed.
+// A page is compacted to the latest change per entity, and the current state of every upserted entity
+// is loaded with a single findAllById.
+@Service
+public class CatalogueChangeServiceImpl implements CatalogueChangeService {
+
+    private final CatalogueChangeRepository changeRepository;
+    private final ItemRepository itemRepository;
+    private final SupermarketRepository supermarketRepository;
+    private final CatalogueMapper catalogueMapper;
+    private final ApplicationEventPublisher eventPublisher;
+
+    // Sequence numbers are allocated at insert but become visible at commit, so a slower transaction can
+    // commit a lower seq after a reader has moved past it. Changes younger than this are held back.
+    // changedAt is taken when the row is inserted, not at commit, so this bounds the time from insert to commit
+    // rather than commit order itself: a transaction that holds its seq for longer than the window commits
+    // behind readers that have already moved past it, and they miss that change. Catalogue writes record their
+    // changes at the end of their transaction, which keeps that time well inside the window.
+    private final Duration settleWindow;
+
+    @Autowired
+    public CatalogueChangeServiceImpl(CatalogueChangeRepository changeRepository, ItemRepository itemRepository,
+                                      SupermarketRepository supermarketRepository, CatalogueMapper catalogueMapper,
+                                      ApplicationEventPublisher eventPublisher,
+                                      @Value("${app.catalogue-changes.settle-window:2s}") Duration settleWindow) {
+        this.changeRepository = changeRepository;
+        this.itemRepository = itemRepository;
+        this.supermarketRepository = supermarketRepository;
+        this.catalogueMapper = catalogueMapper;
+        this.eventPublisher = eventPublisher;
+        this.settleWindow = settleWindow;
+    }
+
+    @EventListener
+    public void onItemChanged(ItemChangedEvent event) {
+        // An item is shared by the supermarkets listing it, so the change is not tied to one of them
+        record(new CatalogueChange(CatalogueEntityType.ITEM, event.getItemId(), null,
+                event.isDeleted() ? ChangeOperation.DELETE : ChangeOperation.UPSERT));
+    }
+
+    @EventListener
+    public void onSupermarketItemsChanged(SupermarketItemsChangedEvent event) {
+        // Recorded per item so peer nodes re-read where the item is listed and evict the supermarket's caches
+        for (SupermarketItem listing : event.getListings()) {
+            record(new CatalogueChange(CatalogueEntityType.ITEM, listing.getItemId(), event.getSupermarketId(),
+                    ChangeOperation.UPSERT));
+        }
+    }
+
+    @EventListener
+    public void onSupermarketChanged(SupermarketChangedEvent event) {
+        record(new CatalogueChange(CatalogueEntityType.SUPERMARKET, event.getSupermarketId(), event.getSupermarketId(),
+                event.isDeleted() ? ChangeOperation.DELETE : ChangeOperation.UPSERT));
+    }
+
+    @Override
+    public ChangeFeedDTO<ItemResponseDTO> getItemChanges(long since, int limit) {
+        return getChanges(CatalogueEntityType.ITEM, since, limit, itemRepository, catalogueMapper::toItemResponse);
+    }
+
+    @Override
+    public ChangeFeedDTO<SupermarketResponseDTO> getSupermarketChanges(long since, int limit) {
+        return getChanges(CatalogueEntityType.SUPERMARKET, since, limit, supermarketRepository,
+                catalogueMapper::toSupermarketResponse);
+    }
+
+    private void record(CatalogueChange change) {
+        eventPublisher.publishEvent(new CatalogueChangeRecordedEvent(changeRepository.save(change)));
+    }
+
+    private <E extends BaseEntity, T> ChangeFeedDTO<T> getChanges(CatalogueEntityType entityType, long since, int limit,
+                                                                  JpaRepository<E, String> repository,
+                                                                  Function<E, T> toDto) {
+        // The settle window only covers commit order on the primary, replica lag would add to it
+        List<CatalogueChange> page = DataSourceRouting.onPrimary(() -> changeRepository
+                .findByEntityTypeAndSeqGreaterThanOrderBySeq(entityType, since, PageRequest.of(0, limit + 1)));
+
+        // Stop at the first change that has not settled yet so no lower seq can still appear behind it
+        Instant settledBefore = Instant.now().minus(settleWindow);
+        int end = Math.min(page.size(), limit);
+        boolean hasMore = page.size() > limit;
+        for (int i = 0; i < end; i++) {
+            if (page.get(i).getChangedAt().isAfter(settledBefore)) {
+                end = i;
+                hasMore = false;
+                break;
+            }
+        }
+        long nextSince = end == 0 ? since : page.get(end - 1).getSeq();
+
+        // Latest change per entity, in seq order of that latest change
+        Map<String, CatalogueChange> latest = new LinkedHashMap<>();
+        for (CatalogueChange change : page.subList(0, end)) {
+            latest.remove(change.getEntityId());
+            latest.put(change.getEntityId(), change);
+        }
+
+        List<String> upsertedIds = new ArrayList<>();
+        for (CatalogueChange change : latest.values()) {
+            if (change.getOperation() == ChangeOperation.UPSERT) {
+                upsertedIds.add(change.getEntityId());
+            }
+        }
+        Map<String, E> current = new HashMap<>();
+        for (E entity : repository.findAllById(upsertedIds)) {
+            current.put(entity.getId(), entity);
+        }
+
+        List<ChangeDTO<T>> changes = new ArrayList<>(latest.size());
+        for (CatalogueChange change : latest.values()) {
+            E entity = current.get(change.getEntityId());
+            if (entity == null) {
+                // Deleted in the log, or deleted after this upsert was recorded
+                changes.add(new ChangeDTO<>(change.getSeq(), change.getEntityId(), ChangeOperation.DELETE, null));
+            } else {
+                changes.add(new ChangeDTO<>(change.getSeq(), change.getEntityId(), ChangeOperation.UPSERT,
+                        toDto.apply(entity)));
+            }
+        }
+        return new ChangeFeedDTO<>(changes, nextSince, hasMore);
+    }
+}
@@ -1,27 +1,67 @@
 package com.example.supermarketapi.service.impl;
 
+import com.example.supermarketapi.concurrent.SingleFlight;
+import com.example.supermarketapi.dto.BatchResultDTO;
+import com.example.supermarketapi.dto.ItemResponseDTO;
+import com.example.supermarketapi.event.ItemChangedEvent;
+import com.example.supermarketapi.exception.ItemNotFoundException;
+import com.example.supermarketapi.mapper.CatalogueMapper;
 import com.example.supermarketapi.model.Item;
+import com.example.supermarketapi.model.SupermarketItem;
+import com.example.supermarketapi.model.enums.ItemType;
 import com.example.supermarketapi.repository.ItemRepository;
+import com.example.supermarketapi.repository.ItemSpecifications;
+import com.example.supermarketapi.repository.SupermarketItemRepository;
+import com.example.supermarketapi.repository.SupermarketItemSpecifications;
+import com.example.supermarketapi.search.ItemSearchIndex;
 import com.example.supermarketapi.service.ItemService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
 
-import java.util.List;
-import java.util.Optional;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.*;
 
 @Service
 public class ItemServiceImpl implements ItemService {
 
+    // Ids per findAllById (and per IN list) of a batch request
+    private static final int ID_CHUNK_SIZE = 500;
+
     private ItemRepository itemRepository;
+    private final SupermarketItemRepository supermarketItemRepository;
+    private final ItemSearchIndex itemSearchIndex;
+    private final CatalogueMapper catalogueMapper;
+    private final ApplicationEventPublisher eventPublisher;
+
+    // Concurrent reads of the same item share one query
+    private final SingleFlight<String, Optional<Item>> itemLoads = new SingleFlight<>("item");
 
     @Autowired
-    public ItemServiceImpl(ItemRepository itemRepository) {
+    public ItemServiceImpl(ItemRepository itemRepository, SupermarketItemRepository supermarketItemRepository,
+                           ItemSearchIndex itemSearchIndex, CatalogueMapper catalogueMapper,
+                           ApplicationEventPublisher eventPublisher) {
         this.itemRepository = itemRepository;
+        this.supermarketItemRepository = supermarketItemRepository;
+        this.itemSearchIndex = itemSearchIndex;
+        this.catalogueMapper = catalogueMapper;
+        this.eventPublisher = eventPublisher;
     }
 
     @Override
+    @Transactional
     public Item createItem(Item item) {
-        return itemRepository.save(item);
+        Item savedItem = itemRepository.save(item);
+        eventPublisher.publishEvent(new ItemChangedEvent(savedItem.getId(), List.of(), savedItem));
+        return savedItem;
     }
 
     @Override
@@ -31,49 +71,234 @@ public class ItemServiceImpl implements ItemService {
 
     @Override
     public Item getItemById(String itemId) {
-        Optional<Item> item = itemRepository.findById(itemId);  // Fetches an item by its ID
-        return item.orElseThrow(() -> new RuntimeException("Item not found with ID: " + itemId));
-        // Throws an exception if the item is not found
+        // Fetches an item by its ID, sharing the query with concurrent reads of the same item
+        Optional<Item> item = itemLoads.load(itemId, () -> itemRepository.findById(itemId));
+        return item.orElseThrow(() -> new ItemNotFoundException(itemId));  // 404 if the item is not found
     }
 
     @Override
+    @Transactional(readOnly = true)
+    public List<BatchResultDTO<ItemResponseDTO>> getItems(List<String> itemIds) {
+        Map<String, Item> items = findAllById(itemIds);
+        List<BatchResultDTO<ItemResponseDTO>> results = new ArrayList<>(itemIds.size());
+        for (String itemId : itemIds) {
+            Item item = items.get(itemId);
+            results.add(item == null
+                    ? BatchResultDTO.error(itemId, HttpStatus.NOT_FOUND, "Item not found with ID: " + itemId)
+                    : BatchResultDTO.ok(itemId, catalogueMapper.toItemResponse(item)));
+        }
+        return results;
+    }
+
+    @Override
+    @Transactional
     public boolean deleteItem(String itemId) {
-        Optional<Item> item = itemRepository.findById(itemId);
-        if (!item.isPresent()) {
-            throw new RuntimeException("Item not found with ID: " + itemId);
+        // The listings are read for the change event anyway; the delete count of the item is the existence check
+        List<SupermarketItem> listings = supermarketItemRepository.findByItem(itemId);
+        if (!listings.isEmpty()) {
+            supermarketItemRepository.deleteByItem(itemId);  // Delist it everywhere first
+        }
+        if (itemRepository.deleteItemById(itemId) == 0) {
+            throw new ItemNotFoundException(itemId);
         }
-        itemRepository.deleteById(itemId);  // Delete the item by ID
+        eventPublisher.publishEvent(new ItemChangedEvent(itemId, listings, null));
         return true;  // Return true if deletion was successful
     }
 
     @Override
+    @Transactional
     public Item updateItem(String itemId, Item item) {
-        if (!itemRepository.existsById(itemId)) {
-            throw new RuntimeException("Item not found with ID: " + itemId);
+        // One UPDATE instead of an exists check plus the SELECT of a merge
+        if (itemRepository.updateItem(itemId, item.getName(), item.getPrice(), item.getType()) == 0) {
+            throw new ItemNotFoundException(itemId);
         }
         item.setId(itemId);  // Make sure to retain the existing ID
-        return itemRepository.save(item);  // Save the updated item and return it
+        publishItemChanged(item);
+        return item;
     }
 
     @Override
+    @Transactional
     public Item partialUpdateItem(String itemId, Item item) {
         Optional<Item> existingItemOptional = itemRepository.findById(itemId);
         if (!existingItemOptional.isPresent()) {
-            throw new RuntimeException("Item not found with ID: " + itemId);
+            throw new ItemNotFoundException(itemId);
         }
         Item existingItem = existingItemOptional.get();
 
         // Partially update fields that are not null in the provided item
-        if (item.getName() != null) {
-            existingItem.setName(item.getName());
+        catalogueMapper.mergeItem(item, existingItem);
+
+        Item savedItem = itemRepository.save(existingItem);  // Save the partially updated item and return it
+        publishItemChanged(savedItem);
+        return savedItem;
+    }
+
+    @Override
+    @Transactional
+    public List<BatchResultDTO<ItemResponseDTO>> partialUpdateItems(List<Item> changes) {
+        List<String> itemIds = new ArrayList<>();
+        for (Item change : changes) {
+            itemIds.add(change.getId());
+        }
+        Map<String, Item> items = findAllById(itemIds);
+
+        // Entries apply in request order; the changed items are flushed together as one JDBC batch on commit
+        List<BatchResultDTO<ItemResponseDTO>> results = new ArrayList<>(changes.size());
+        Map<String, Item> updatedItems = new LinkedHashMap<>();
+        for (Item change : changes) {
+            String itemId = change.getId();
+            String invalid = itemId == null ? "id is required!" : validatePartialItem(change);
+            Item existingItem = items.get(itemId);
+            if (invalid != null) {
+                results.add(BatchResultDTO.error(itemId, HttpStatus.BAD_REQUEST, invalid));
+            } else if (existingItem == null) {
+                results.add(BatchResultDTO.error(itemId, HttpStatus.NOT_FOUND, "Item not found with ID: " + itemId));
+            } else {
+                catalogueMapper.mergeItem(change, existingItem);
+                updatedItems.put(itemId, existingItem);
+                results.add(BatchResultDTO.ok(itemId, catalogueMapper.toItemResponse(existingItem)));
+            }
         }
-        if (item.getPrice() != null) {
-            existingItem.setPrice(item.getPrice());
+        if (updatedItems.isEmpty()) {
+            return results;
         }
-        if (item.getType() != null) {
-            existingItem.setType(item.getType());
+
+        // Same as publishItemChanged, but the listings are read for all items at once and repriced as entities
+        // so their updates join the batch
+        Map<String, List<SupermarketItem>> listings = findListingsByItem(updatedItems.keySet());
+        for (Item item : updatedItems.values()) {
+            List<SupermarketItem> itemListings = listings.getOrDefault(item.getId(), List.of());
+            for (SupermarketItem listing : itemListings) {
+                if (!listing.isOwnPrice()) {
+                    listing.setPrice(item.getPrice());
+                }
+            }
+            eventPublisher.publishEvent(new ItemChangedEvent(item.getId(), itemListings, item));
         }
+        return results;
+    }
 
-        return itemRepository.save(existingItem);  // Save the partially updated item and return it
+    @Override
+    @Transactional
+    public List<BatchResultDTO<Void>> deleteItems(List<String> itemIds) {
+        Map<String, Item> items = findAllById(itemIds);
+        Map<String, List<SupermarketItem>> listings = findListingsByItem(items.keySet());
+        // Delist everywhere first, then the items, a statement per chunk rather than per item
+        for (List<String> chunk : chunks(items.keySet())) {
+            supermarketItemRepository.deleteByItemIn(chunk);
+        }
+        for (List<Item> chunk : chunks(items.values())) {
+            itemRepository.deleteInBatch(chunk);
+        }
+
+        List<BatchResultDTO<Void>> results = new ArrayList<>(itemIds.size());
+        Set<String> deletedIds = new HashSet<>();
+        for (String itemId : itemIds) {
+            // A repeated id was already deleted by its first occurrence
+            if (items.containsKey(itemId) && deletedIds.add(itemId)) {
+                eventPublisher.publishEvent(
+                        new ItemChangedEvent(itemId, listings.getOrDefault(itemId, List.of()), null));
+                results.add(BatchResultDTO.deleted(itemId));
+            } else {
+                results.add(BatchResultDTO.error(itemId, HttpStatus.NOT_FOUND, "Item not found with ID: " + itemId));
+            }
+        }
+        return results;
+    }
+
+    @Override
+    public List<Item> searchItems(String query, ItemType type, Long minPrice, Long maxPrice,
+                                  String supermarketId, int limit) {
+        if (!ItemSearchIndex.isFilterOnly(query)) {
+            return itemSearchIndex.search(query, type, minPrice, maxPrice, supermarketId, limit);
+        }
+        if (limit <= 0) {
+            return List.of();
+        }
+        // No name to look up: the cheapest matches through the price indexes, by shelf price within a supermarket
+        PageRequest cheapestFirst = PageRequest.of(0, limit, Sort.by("price"));
+        if (supermarketId == null) {
+            return filterItems(null, type, minPrice, maxPrice, cheapestFirst).getContent();
+        }
+        List<Item> items = new ArrayList<>();
+        for (SupermarketItem listing : supermarketItemRepository.findAll(
+                SupermarketItemSpecifications.filter(supermarketId, type, minPrice, maxPrice), cheapestFirst)) {
+            items.add(listing.getItem());
+        }
+        return items;
+    }
+
+    @Override
+    public Page<Item> filterItems(String supermarketId, ItemType type, Long minPrice, Long maxPrice,
+                                  Pageable pageable) {
+        return itemRepository.findAll(ItemSpecifications.filter(supermarketId, type, minPrice, maxPrice), pageable);
+    }
+
+    // Reads arriving after the commit must not join a load that started before it and may have read the old row.
+    // Forgetting inside the transaction would let a load start in between and be joined after the commit.
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onItemChanged(ItemChangedEvent event) {
+        itemLoads.forget(event.getItemId());
+    }
+
+    @PostConstruct
+    public void registerMetrics() {
+        itemLoads.registerMBean();
+    }
+
+    @PreDestroy
+    public void unregisterMetrics() {
+        itemLoads.unregisterMBean();
+    }
+
+    // Carries the list price over to the listings that follow it, then announces the item with its listings
+    private void publishItemChanged(Item item) {
+        supermarketItemRepository.followListPrice(item.getId(), item.getPrice());
+        List<SupermarketItem> listings = supermarketItemRepository.findByItem(item.getId());
+        eventPublisher.publishEvent(new ItemChangedEvent(item.getId(), listings, item));
+    }
+
+    private Map<String, Item> findAllById(Collection<String> itemIds) {
+        Map<String, Item> items = new HashMap<>();
+        for (List<String> chunk : chunks(itemIds)) {
+            for (Item item : itemRepository.findAllById(chunk)) {
+                items.put(item.getId(), item);
+            }
+        }
+        return items;
+    }
+
+    private Map<String, List<SupermarketItem>> findListingsByItem(Collection<String> itemIds) {
+        Map<String, List<SupermarketItem>> listings = new HashMap<>();
+        for (List<String> chunk : chunks(itemIds)) {
+            for (SupermarketItem listing : supermarketItemRepository.findByItemIn(chunk)) {
+                listings.computeIfAbsent(listing.getItemId(), key -> new ArrayList<>()).add(listing);
+            }
+        }
+        return listings;
+    }
+
+    // Distinct, non-null values split into lists of at most ID_CHUNK_SIZE
+    private static <T> List<List<T>> chunks(Collection<T> values) {
+        List<T> distinct = new ArrayList<>(new LinkedHashSet<>(values));
+        distinct.remove(null);
+        List<List<T>> chunks = new ArrayList<>();
+        for (int from = 0; from < distinct.size(); from += ID_CHUNK_SIZE) {
+            chunks.add(distinct.subList(from, Math.min(from + ID_CHUNK_SIZE, distinct.size())));
+        }
+        return chunks;
+    }
+
+    // Checks the fields a partial update sets, null when they are valid
+    private static String validatePartialItem(Item changes) {
+        if (changes.getName() != null && (changes.getName().isBlank() || changes.getName().length() > 64)) {
+            return "name can not be blank or longer than 64 characters!";
+        }
+        if (changes.getPrice() != null
+                && (changes.getPrice() < Item.MIN_PRICE || changes.getPrice() > Item.MAX_PRICE)) {
+            return "price should be between 0.01 and 9999.99!";
+        }
+        return null;
     }
 }
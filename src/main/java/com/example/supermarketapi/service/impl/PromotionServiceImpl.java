@@ -0,0 +1,72 @@
+package com.example.supermarketapi.service.impl;
+
+import com.example.supermarketapi.accesslog.AccessLog;
+import com.example.supermarketapi.exception.InvalidDataException;
+import com.example.supermarketapi.exception.PromotionNotFoundException;
+import com.example.supermarketapi.exception.SupermarketNotFoundException;
+import com.example.supermarketapi.model.Promotion;
+import com.example.supermarketapi.model.enums.ChangeOperation;
+import com.example.supermarketapi.promotion.PromotionRegistry;
+import com.example.supermarketapi.repository.ItemRepository;
+import com.example.supermarketapi.repository.PromotionRepository;
+import com.example.supermarketapi.repository.SupermarketRepository;
+import com.example.supermarketapi.service.PromotionService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+@Service
+public class PromotionServiceImpl implements PromotionService {
+
+    // Promotions are not in the catalogue change log, so their writes are audited here
+    private static final String AUDIT_ENTITY = "PROMOTION";
+
+    private final PromotionRepository promotionRepository;
+    private final ItemRepository itemRepository;
+    private final SupermarketRepository supermarketRepository;
+    private final PromotionRegistry promotionRegistry;
+
+    @Autowired
+    public PromotionServiceImpl(PromotionRepository promotionRepository, ItemRepository itemRepository,
+                                SupermarketRepository supermarketRepository, PromotionRegistry promotionRegistry) {
+        this.promotionRepository = promotionRepository;
+        this.itemRepository = itemRepository;
+        this.supermarketRepository = supermarketRepository;
+        this.promotionRegistry = promotionRegistry;
+    }
+
+    @Override
+    public List<Promotion> getAll() {
+        return promotionRepository.findAll();
+    }
+
+    @Override
+    public Promotion getById(String id) {
+        return promotionRepository.findById(id).orElseThrow(() -> new PromotionNotFoundException(id));
+    }
+
+    @Override
+    public Promotion createPromotion(Promotion promotion) {
+        if (promotion.getSupermarketId() != null && !supermarketRepository.existsById(promotion.getSupermarketId())) {
+            throw new SupermarketNotFoundException(promotion.getSupermarketId());
+        }
+        if (promotion.getItemId() != null && !itemRepository.existsById(promotion.getItemId())) {
+            throw new InvalidDataException("Item " + promotion.getItemId() + " does not exist!");
+        }
+        Promotion savedPromotion = promotionRepository.save(promotion);
+        promotionRegistry.reload();
+        AccessLog.recordMutation(AUDIT_ENTITY, savedPromotion.getId(), ChangeOperation.UPSERT.name());
+        return savedPromotion;
+    }
+
+    @Override
+    public void deletePromotion(String id) {
+        if (!promotionRepository.existsById(id)) {
+            throw new PromotionNotFoundException(id);
+        }
+        promotionRepository.deleteById(id);
+        promotionRegistry.reload();
+        AccessLog.recordMutation(AUDIT_ENTITY, id, ChangeOperation.DELETE.name());
+    }
+}
@@ -1,71 +1,234 @@
 package com.example.supermarketapi.service.impl;
 
-import com.example.supermarketapi.exception.ResourceNotFoundException;
+import com.example.supermarketapi.accesslog.AccessLog;
+import com.example.supermarketapi.archive.PurchaseArchive;
+import com.example.supermarketapi.catalog.AssortmentSnapshot;
+import com.example.supermarketapi.catalog.AssortmentSnapshotRegistry;
+import com.example.supermarketapi.dto.PurchaseEventDTO;
+import com.example.supermarketapi.exception.InvalidDataException;
+import com.example.supermarketapi.exception.PurchaseNotFoundException;
+import com.example.supermarketapi.mapper.PurchaseMapper;
+import com.example.supermarketapi.model.OutboxMessage;
 import com.example.supermarketapi.model.Purchase;
+import com.example.supermarketapi.model.PurchaseHistoryCursor;
+import com.example.supermarketapi.model.enums.ChangeOperation;
 import com.example.supermarketapi.model.enums.PaymentType;
+import com.example.supermarketapi.model.money.Money;
+import com.example.supermarketapi.profiling.CheckoutEvent;
+import com.example.supermarketapi.promotion.PromotionRegistry;
+import com.example.supermarketapi.repository.OutboxMessageRepository;
 import com.example.supermarketapi.repository.PurchaseRepository;
 import com.example.supermarketapi.service.PurchaseService;
+import com.example.supermarketapi.shard.ShardRouter;
+import com.example.supermarketapi.shard.ShardRouting;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDate;
-import java.util.List;
-import java.util.Optional;
+import java.util.*;
+import java.util.function.Consumer;
 
 @Service
 public class PurchaseServiceImpl implements PurchaseService {
 
+    // Purchases are not in the catalogue change log, so their writes are audited here
+    private static final String AUDIT_ENTITY = "PURCHASE";
+
     private final PurchaseRepository purchaseRepository;
+    private final OutboxMessageRepository outboxMessageRepository;
+    private final AssortmentSnapshotRegistry assortmentSnapshots;
+    private final PurchaseMapper purchaseMapper;
+    private final ObjectMapper objectMapper;
+    private final PurchaseArchive purchaseArchive;
+    private final ShardRouter shardRouter;
+    private final PromotionRegistry promotionRegistry;
+    private final TransactionTemplate transactionTemplate;
 
     @Autowired
-    public PurchaseServiceImpl(PurchaseRepository purchaseRepository) {
+    public PurchaseServiceImpl(PurchaseRepository purchaseRepository, OutboxMessageRepository outboxMessageRepository,
+                               AssortmentSnapshotRegistry assortmentSnapshots, PurchaseMapper purchaseMapper,
+                               ObjectMapper objectMapper, PurchaseArchive purchaseArchive, ShardRouter shardRouter,
+                               PromotionRegistry promotionRegistry, PlatformTransactionManager transactionManager) {
         this.purchaseRepository = purchaseRepository;
+        this.outboxMessageRepository = outboxMessageRepository;
+        this.assortmentSnapshots = assortmentSnapshots;
+        this.purchaseMapper = purchaseMapper;
+        this.objectMapper = objectMapper;
+        this.purchaseArchive = purchaseArchive;
+        this.shardRouter = shardRouter;
+        this.promotionRegistry = promotionRegistry;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
 
     @Override
-    public Purchase makePurchase(String supermarketId, List<String> itemIDs, PaymentType type, Double cashAmount) {
+    public Purchase makePurchase(String supermarketId, List<String> itemIDs, PaymentType type, Long cashAmount) {
+        CheckoutEvent event = new CheckoutEvent(supermarketId, itemIDs == null ? 0 : itemIDs.size());
+        event.start();
+        try {
+            return checkout(supermarketId, itemIDs, type, cashAmount);
+        } finally {
+            event.finish();
+        }
+    }
+
+    private Purchase checkout(String supermarketId, List<String> itemIDs, PaymentType type, Long cashAmount) {
+        if (itemIDs == null || itemIDs.isEmpty()) {
+            throw new InvalidDataException("A purchase must contain at least one item!");
+        }
+
+        // Price the basket from the supermarket's in-memory assortment instead of loading Item entities
+        AssortmentSnapshot assortment = assortmentSnapshots.get(supermarketId);
+        int[] slots = new int[itemIDs.size()];
+        long priceCents = 0;
+        for (int i = 0; i < slots.length; i++) {
+            String itemId = itemIDs.get(i);
+            int index = assortment.indexOf(itemId);
+            if (index < 0) {
+                throw new InvalidDataException("Item " + itemId + " is not sold in supermarket " + supermarketId);
+            }
+            slots[i] = index;
+            priceCents = Money.add(priceCents, assortment.priceCents(index));
+        }
+        // Promotions come from the same kind of in-memory index, so discounts cost no queries either
+        long discountCents = promotionRegistry.current().evaluate(supermarketId, assortment, slots, slots.length);
+        priceCents = Money.subtract(priceCents, discountCents);
+
         Purchase purchase = new Purchase();
         purchase.setSupermarketId(supermarketId);  // Set supermarketId
         purchase.setItemIDs(itemIDs);  // Set itemIDs
         purchase.setPaymentType(type);  // Set payment type (CASH or CARD)
         purchase.setCashAmount(cashAmount);  // Set cashAmount
 
-        // For simplicity, assume the price and change calculation logic is implemented
-        double price = 100.0; // Example static price
-        double change = 0.0;
+        long change = 0;
 
         if (type == PaymentType.CASH && cashAmount != null) {
-            change = cashAmount - price;
+            change = Money.subtract(cashAmount, priceCents);
         }
 
-        purchase.setPrice(price);
+        purchase.setPrice(priceCents);
+        purchase.setDiscountAmount(discountCents);
         purchase.setChangeAmount(change);
         purchase.setTimeOfPayment(LocalDate.now());
 
-        // Save the purchase to the database
-        return purchaseRepository.save(purchase);
+        // Save the purchase on its supermarket's shard, downstream systems are notified through that shard's outbox
+        // in the same transaction
+        Purchase completed = shardRouter.onSupermarketShard(supermarketId, () -> transactionTemplate.execute(status -> {
+            Purchase savedPurchase = purchaseRepository.save(purchase);
+            outboxMessageRepository.save(new OutboxMessage("Purchase", savedPurchase.getId(), "PurchaseCompleted",
+                    toJson(purchaseMapper.toPurchaseEvent(savedPurchase))));
+            return savedPurchase;
+        }));
+        AccessLog.recordMutation(AUDIT_ENTITY, completed.getId(), ChangeOperation.UPSERT.name());
+        return completed;
     }
 
     @Override
     public List<Purchase> getAll() {
-        return purchaseRepository.findAll();
+        return shardRouter.scatterGather(purchaseRepository::findAll);
     }
 
     @Override
-    public Optional<Purchase> getById(Long id) {
-        return purchaseRepository.findById(id);
+    public List<Purchase> getHistory(LocalDate from, LocalDate to, String supermarketId, PurchaseHistoryCursor after,
+                                     int limit) {
+        PurchaseHistoryCursor cursor = after == null ? PurchaseHistoryCursor.startOf(from) : after;
+        // Every shard and the archive return their own first limit rows, the page is the first limit of all of them
+        Pageable firstRows = PageRequest.of(0, limit);
+        List<Purchase> hot;
+        if (supermarketId == null) {
+            hot = shardRouter.scatterGather(() -> purchaseRepository.findHistoryPage(from, to,
+                    cursor.getTimeOfPayment(), cursor.getId(), firstRows));
+        } else {
+            hot = shardRouter.onSupermarketShard(supermarketId, () -> purchaseRepository.findSupermarketHistoryPage(
+                    supermarketId, from, to, cursor.getTimeOfPayment(), cursor.getId(), firstRows));
+        }
+
+        // A partition whose drop failed after archiving is in both places, keep one copy of each purchase
+        TreeSet<Purchase> history = new TreeSet<>(PurchaseHistoryCursor.ORDER);
+        history.addAll(hot);
+        history.addAll(purchaseArchive.find(from, to, supermarketId, cursor, limit));
+        List<Purchase> page = new ArrayList<>(limit);
+        for (Purchase purchase : history) {
+            if (page.size() == limit) {
+                break;
+            }
+            page.add(purchase);
+        }
+        return page;
     }
 
     @Override
-    public Purchase update(Purchase purchase) {
-        return purchaseRepository.save(purchase);  // Update the purchase in the database
+    public Map<String, List<Purchase>> getRecentPurchases(Collection<String> supermarketIds, int perSupermarket) {
+        // One statement per shard that holds any of the supermarkets
+        Map<String, List<String>> supermarketIdsByShard = new LinkedHashMap<>();
+        for (String supermarketId : new LinkedHashSet<>(supermarketIds)) {
+            supermarketIdsByShard.computeIfAbsent(shardRouter.shardOf(supermarketId), shard -> new ArrayList<>())
+                    .add(supermarketId);
+        }
+        Map<String, List<Purchase>> recent = new HashMap<>();
+        supermarketIdsByShard.forEach((shard, ids) -> {
+            List<Purchase> purchases = ShardRouting.onShard(shard,
+                    () -> purchaseRepository.findRecentBySupermarketIds(ids, perSupermarket));
+            for (Purchase purchase : purchases) {
+                recent.computeIfAbsent(purchase.getSupermarketId(), id -> new ArrayList<>()).add(purchase);
+            }
+        });
+        return recent;
     }
 
     @Override
-    public void delete(Long id) {
-        if (!purchaseRepository.existsById(id)) {
-            throw new ResourceNotFoundException("Purchase not found with id: " + id);
+    public Optional<Purchase> getById(String id) {
+        // The id does not say which shard holds the purchase
+        return shardRouter.scatterGather(() -> purchaseRepository.findById(id).map(List::of).orElse(List.of()))
+                .stream()
+                .findFirst();
+    }
+
+    @Override
+    public Purchase update(String id, Consumer<Purchase> changes) {
+        // Saved back on the shard the row was read from, whatever the changes did to the purchase
+        Map.Entry<String, Purchase> found = shardRouter.scatterGather(() -> purchaseRepository.findById(id)
+                        .map(purchase -> List.of(Map.entry(ShardRouting.currentShard(), purchase)))
+                        .orElse(List.of()))
+                .stream()
+                .findFirst()
+                .orElseThrow(() -> new PurchaseNotFoundException(id));
+        Purchase purchase = found.getValue();
+        String supermarketId = purchase.getSupermarketId();
+        changes.accept(purchase);
+        // The supermarket decides the shard (and priced the basket), so a purchase cannot move to another one
+        if (!Objects.equals(supermarketId, purchase.getSupermarketId())) {
+            throw new InvalidDataException("The supermarket of a purchase can not be changed!");
+        }
+        Purchase updated = ShardRouting.onShard(found.getKey(), () -> purchaseRepository.save(purchase));
+        AccessLog.recordMutation(AUDIT_ENTITY, updated.getId(), ChangeOperation.UPSERT.name());
+        return updated;
+    }
+
+    @Override
+    public void delete(String id) {
+        // The id does not say which shard holds the purchase, so every shard deletes it if it has it instead of
+        // looking it up first. Ids are unique across shards, so at most one row goes.
+        int deleted = 0;
+        for (int count : shardRouter.scatterGather(() -> List.of(purchaseRepository.deletePurchaseById(id)))) {
+            deleted += count;
+        }
+        if (deleted == 0) {
+            throw new PurchaseNotFoundException(id);
+        }
+        AccessLog.recordMutation(AUDIT_ENTITY, id, ChangeOperation.DELETE.name());
+    }
+
+    private String toJson(PurchaseEventDTO event) {
+        try {
+            return objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize purchase " + event.getId(), e);
         }
-        purchaseRepository.deleteById(id);  // Delete the purchase from the database
     }
 }
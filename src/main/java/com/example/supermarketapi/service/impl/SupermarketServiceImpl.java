@@ -1,125 +1,260 @@
 package com.example.supermarketapi.service.impl;
 
 import com.example.supermarketapi.dto.AddItemsToSupermarketResponseDTO;
+import com.example.supermarketapi.dto.BatchResultDTO;
+import com.example.supermarketapi.dto.ItemResponseDTO;
 import com.example.supermarketapi.dto.SupermarketInfoDTO;
+import com.example.supermarketapi.dto.SupermarketResponseDTO;
+import com.example.supermarketapi.event.SupermarketChangedEvent;
+import com.example.supermarketapi.event.SupermarketItemsChangedEvent;
 import com.example.supermarketapi.exception.DuplicateSupermarketNameException;
 import com.example.supermarketapi.exception.InvalidDataException;
+import com.example.supermarketapi.exception.ResourceNotFoundException;
 import com.example.supermarketapi.exception.SupermarketNotFoundException;
+import com.example.supermarketapi.mapper.CatalogueMapper;
 import com.example.supermarketapi.model.Item;
 import com.example.supermarketapi.model.Supermarket;
+import com.example.supermarketapi.model.SupermarketItem;
+import com.example.supermarketapi.model.enums.ItemType;
+import com.example.supermarketapi.model.money.Money;
+import com.example.supermarketapi.profiling.RestockEvent;
 import com.example.supermarketapi.repository.ItemRepository;
+import com.example.supermarketapi.repository.SupermarketItemRepository;
+import com.example.supermarketapi.repository.SupermarketItemSpecifications;
 import com.example.supermarketapi.repository.SupermarketRepository;
 import com.example.supermarketapi.service.SupermarketService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Optional;
-import java.util.Set;
+import java.util.*;
 
 @Service
 public class SupermarketServiceImpl implements SupermarketService {
 
+    // Listings read per query when building the supermarket info
+    private static final int INFO_PAGE_SIZE = 1000;
+
+    // Ids per findAllById of a batch get
+    private static final int ID_CHUNK_SIZE = 500;
+
     private final SupermarketRepository supermarketRepository;
     private final ItemRepository itemRepository;
+    private final SupermarketItemRepository supermarketItemRepository;
+    private final CatalogueMapper catalogueMapper;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Autowired
-    public SupermarketServiceImpl(SupermarketRepository supermarketRepository, ItemRepository itemRepository) {
+    public SupermarketServiceImpl(SupermarketRepository supermarketRepository, ItemRepository itemRepository,
+                                  SupermarketItemRepository supermarketItemRepository,
+                                  CatalogueMapper catalogueMapper, ApplicationEventPublisher eventPublisher) {
         this.supermarketRepository = supermarketRepository;
         this.itemRepository = itemRepository;
+        this.supermarketItemRepository = supermarketItemRepository;
+        this.catalogueMapper = catalogueMapper;
+        this.eventPublisher = eventPublisher;
     }
 
     @Override
+    @Transactional
     public Supermarket createSupermarket(Supermarket supermarket) {
         if (supermarketRepository.findSupermarketByName(supermarket.getName()).isPresent()) {
             throw new DuplicateSupermarketNameException("a supermarket with this name already exists!");
         }
-        return supermarketRepository.save(supermarket);
+        Supermarket savedSupermarket = supermarketRepository.save(supermarket);
+        eventPublisher.publishEvent(new SupermarketChangedEvent(savedSupermarket.getId(), savedSupermarket));
+        return savedSupermarket;
     }
 
     @Override
+    @Transactional
     public AddItemsToSupermarketResponseDTO addItems(String supermarketId, List<String> itemIDs) {
-        Supermarket supermarket = supermarketRepository.findById(supermarketId).orElseThrow(
-                () -> new SupermarketNotFoundException(supermarketId)
-        );
+        RestockEvent event = new RestockEvent(supermarketId, itemIDs.size());
+        event.start();
+        try {
+            return restock(supermarketId, itemIDs);
+        } finally {
+            event.finish();
+        }
+    }
+
+    private AddItemsToSupermarketResponseDTO restock(String supermarketId, List<String> itemIDs) {
+        if (!supermarketRepository.existsById(supermarketId)) {
+            throw new SupermarketNotFoundException(supermarketId);
+        }
+        // One query for the items and one for the supermarket's listings of them, new listings go in one batch
+        Set<String> requestedIds = new LinkedHashSet<>(itemIDs);
+        Map<String, Item> items = new HashMap<>();
+        for (Item item : itemRepository.findAllById(requestedIds)) {
+            items.put(item.getId(), item);
+        }
+        Map<String, SupermarketItem> listings = new HashMap<>();
+        for (SupermarketItem listing : supermarketItemRepository.findListings(supermarketId, items.keySet())) {
+            listings.put(listing.getItemId(), listing);
+        }
+
         List<String> addedItemsNames = new ArrayList<>();
-        Set<Item> supermarketItems = supermarket.getItems();
-        for (String itemId : itemIDs) {
-            Optional<Item> itemOptional = itemRepository.findById(itemId);
-            if (itemOptional.isPresent()) {
-                Item item = itemOptional.get();
-                supermarketItems.add(item);
-                addedItemsNames.add(item.getName());
+        List<SupermarketItem> newListings = new ArrayList<>();
+        List<SupermarketItem> changedListings = new ArrayList<>();
+        for (String itemId : requestedIds) {
+            Item item = items.get(itemId);
+            if (item == null) {
+                continue;
             }
+            SupermarketItem listing = listings.get(itemId);
+            if (listing == null) {
+                listing = new SupermarketItem(supermarketId, item);
+                newListings.add(listing);
+                changedListings.add(listing);
+            } else if (!listing.isActive()) {
+                listing.setActive(true);
+                changedListings.add(listing);
+            }
+            addedItemsNames.add(item.getName());
+        }
+        supermarketItemRepository.saveAll(newListings);
+        if (!changedListings.isEmpty()) {
+            eventPublisher.publishEvent(new SupermarketItemsChangedEvent(supermarketId, changedListings));
+        }
+        return new AddItemsToSupermarketResponseDTO(supermarketId, addedItemsNames);
+    }
+
+    @Override
+    @Transactional
+    public SupermarketItem updateSupermarketItem(String supermarketId, String itemId, Long price, Boolean active) {
+        SupermarketItem listing = supermarketItemRepository.findListings(supermarketId, List.of(itemId)).stream()
+                .findFirst()
+                .orElseThrow(() -> new ResourceNotFoundException(
+                        "Item " + itemId + " is not listed in supermarket " + supermarketId));
+        if (price != null) {
+            listing.setPrice(price);
+            listing.setOwnPrice(true);
+        }
+        if (active != null) {
+            listing.setActive(active);
+        }
+        eventPublisher.publishEvent(new SupermarketItemsChangedEvent(supermarketId, List.of(listing)));
+        return listing;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<SupermarketItem> getSupermarketItems(String supermarketId, ItemType type, Long minPrice,
+                                                     Long maxPrice, Pageable pageable) {
+        if (!supermarketRepository.existsById(supermarketId)) {
+            throw new SupermarketNotFoundException(supermarketId);
+        }
+        return supermarketItemRepository.findAll(
+                SupermarketItemSpecifications.filter(supermarketId, type, minPrice, maxPrice), pageable);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Map<String, List<ItemResponseDTO>> getSupermarketItems(Collection<String> supermarketIds, ItemType type,
+                                                                  Long minPrice, Long maxPrice, int perSupermarket) {
+        List<String> distinctIds = new ArrayList<>(new LinkedHashSet<>(supermarketIds));
+        List<SupermarketItem> listings = supermarketItemRepository.findCheapestActive(distinctIds,
+                type == null ? null : type.ordinal(),
+                minPrice == null ? null : Money.toDecimal(minPrice),
+                maxPrice == null ? null : Money.toDecimal(maxPrice), perSupermarket);
+
+        // The native query leaves the items as proxies, load them in one go so mapping does not hit them one by one
+        Set<String> itemIds = new HashSet<>();
+        for (SupermarketItem listing : listings) {
+            itemIds.add(listing.getItemId());
         }
-        System.out.println(addedItemsNames);
-        supermarketRepository.save(supermarket);
-        return new AddItemsToSupermarketResponseDTO(supermarket.getId(), addedItemsNames);
+        itemRepository.findAllById(itemIds);
+
+        Map<String, List<ItemResponseDTO>> items = new HashMap<>();
+        for (SupermarketItem listing : listings) {
+            items.computeIfAbsent(listing.getSupermarketId(), id -> new ArrayList<>())
+                    .add(catalogueMapper.toListingResponse(listing));
+        }
+        return items;
     }
 
     @Override
+    @Transactional(readOnly = true)
     public SupermarketInfoDTO getSupermarketInfo(String id) {
         Optional<Supermarket> optional = supermarketRepository.findById(id);
         if (optional.isEmpty()) {
             throw new SupermarketNotFoundException(id);
         }
-        Supermarket supermarket = optional.get();
-        SupermarketInfoDTO supermarketInfoDTO = new SupermarketInfoDTO();
-        supermarketInfoDTO.setAddress(supermarket.getAddress());
-        supermarketInfoDTO.setName(supermarket.getName());
-        supermarketInfoDTO.setPhoneNumber(supermarket.getPhoneNumber());
-        supermarketInfoDTO.setWorkHours(supermarket.getWorkHours());
-        supermarketInfoDTO.setItems(new ArrayList<>(supermarket.getItems()));
-        return supermarketInfoDTO;
+        // Walk the assortment in keyset pages along the primary key rather than loading it in one go
+        List<ItemResponseDTO> items = new ArrayList<>();
+        String afterItemId = "";
+        List<SupermarketItem> page;
+        do {
+            page = supermarketItemRepository.findActivePage(id, afterItemId, PageRequest.of(0, INFO_PAGE_SIZE));
+            for (SupermarketItem listing : page) {
+                items.add(catalogueMapper.toListingResponse(listing));
+            }
+            if (!page.isEmpty()) {
+                afterItemId = page.get(page.size() - 1).getItemId();
+            }
+        } while (page.size() == INFO_PAGE_SIZE);
+        return catalogueMapper.toSupermarketInfo(optional.get(), items);
     }
 
     @Override
+    @Transactional
     public Supermarket updateSupermarket(String supermarketId, Supermarket supermarket) {
-        Supermarket existingSupermarket = supermarketRepository.findById(supermarketId).orElseThrow(
-                () -> new SupermarketNotFoundException(supermarketId)
-        );
-
         if (supermarket.getName() == null || supermarket.getAddress() == null || supermarket.getPhoneNumber() == null || supermarket.getWorkHours() == null) {
             throw new InvalidDataException("There is a missing field while updating the supermarket!");
         }
 
-        existingSupermarket.setName(supermarket.getName());
-        existingSupermarket.setAddress(supermarket.getAddress());
-        existingSupermarket.setPhoneNumber(supermarket.getPhoneNumber());
-        existingSupermarket.setWorkHours(supermarket.getWorkHours());
+        // One UPDATE: no lookup of the supermarket, and none of the name either, the unique key checks it
+        int updated;
+        try {
+            updated = supermarketRepository.updateSupermarket(supermarketId, supermarket.getName(),
+                    supermarket.getAddress(), supermarket.getPhoneNumber(), supermarket.getWorkHours());
+        } catch (DataIntegrityViolationException e) {
+            throw new DuplicateSupermarketNameException("a supermarket with this name already exists!");
+        }
+        if (updated == 0) {
+            throw new SupermarketNotFoundException(supermarketId);
+        }
 
-        return supermarketRepository.save(existingSupermarket);
+        supermarket.setId(supermarketId);
+        eventPublisher.publishEvent(new SupermarketChangedEvent(supermarketId, supermarket));
+        return supermarket;
     }
 
     @Override
+    @Transactional
     public Supermarket partialUpdateSupermarket(String supermarketId, Supermarket supermarket) {
         Supermarket existingSupermarket = supermarketRepository.findById(supermarketId).orElseThrow(
                 () -> new SupermarketNotFoundException(supermarketId)
         );
 
-        if (supermarket.getName() != null) {
-            existingSupermarket.setName(supermarket.getName());
-        }
-        if (supermarket.getAddress() != null) {
-            existingSupermarket.setAddress(supermarket.getAddress());
-        }
-        if (supermarket.getPhoneNumber() != null) {
-            existingSupermarket.setPhoneNumber(supermarket.getPhoneNumber());
-        }
-        if (supermarket.getWorkHours() != null) {
-            existingSupermarket.setWorkHours(supermarket.getWorkHours());
-        }
+        catalogueMapper.mergeSupermarket(supermarket, existingSupermarket);
 
-        return supermarketRepository.save(existingSupermarket);
+        // The entity is managed, flushing it is a plain UPDATE; flushed here so a taken name surfaces as such
+        Supermarket savedSupermarket;
+        try {
+            savedSupermarket = supermarketRepository.saveAndFlush(existingSupermarket);
+        } catch (DataIntegrityViolationException e) {
+            throw new DuplicateSupermarketNameException("a supermarket with this name already exists!");
+        }
+        eventPublisher.publishEvent(new SupermarketChangedEvent(supermarketId, savedSupermarket));
+        return savedSupermarket;
     }
 
     @Override
+    @Transactional
     public void deleteSupermarket(String supermarketId) {
-        Supermarket supermarket = supermarketRepository.findById(supermarketId).orElseThrow(
-                () -> new SupermarketNotFoundException(supermarketId)
-        );
-        supermarketRepository.delete(supermarket);
+        // Items are shared with other supermarkets, only this supermarket's listings go with it
+        supermarketItemRepository.deleteBySupermarket(supermarketId);
+        if (supermarketRepository.deleteSupermarketById(supermarketId) == 0) {
+            throw new SupermarketNotFoundException(supermarketId);
+        }
+        eventPublisher.publishEvent(new SupermarketChangedEvent(supermarketId, null));
     }
 
     @Override
@@ -127,6 +262,30 @@ public class SupermarketServiceImpl implements SupermarketService {
         return supermarketRepository.findAll();
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public List<BatchResultDTO<SupermarketResponseDTO>> getSupermarkets(List<String> supermarketIds) {
+        List<String> distinctIds = new ArrayList<>(new LinkedHashSet<>(supermarketIds));
+        distinctIds.remove(null);
+        Map<String, Supermarket> supermarkets = new HashMap<>();
+        for (int from = 0; from < distinctIds.size(); from += ID_CHUNK_SIZE) {
+            List<String> chunk = distinctIds.subList(from, Math.min(from + ID_CHUNK_SIZE, distinctIds.size()));
+            for (Supermarket supermarket : supermarketRepository.findAllById(chunk)) {
+                supermarkets.put(supermarket.getId(), supermarket);
+            }
+        }
+
+        List<BatchResultDTO<SupermarketResponseDTO>> results = new ArrayList<>(supermarketIds.size());
+        for (String supermarketId : supermarketIds) {
+            Supermarket supermarket = supermarkets.get(supermarketId);
+            results.add(supermarket == null
+                    ? BatchResultDTO.error(supermarketId, HttpStatus.NOT_FOUND,
+                            "Supermarket not found with ID: " + supermarketId)
+                    : BatchResultDTO.ok(supermarketId, catalogueMapper.toSupermarketResponse(supermarket)));
+        }
+        return results;
+    }
+
     // New method to get a supermarket by ID
     @Override
     public Supermarket getSupermarket(String supermarketId) {
@@ -0,0 +1,40 @@
+package com.example.supermarketapi.shard;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import javax.sql.DataSource;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// The pools of shard-1..shard-N, kept out of the DataSource beans so only the routing data source is injectable
+public class ShardDataSources implements AutoCloseable {
+
+    private final Map<String, HikariDataSource> pools = new LinkedHashMap<>();
+
+    public ShardDataSources(String[] urls, String username, String password, int maximumPoolSize) {
+        for (int i = 0; i < urls.length; i++) {
+            HikariDataSource pool = new HikariDataSource();
+            pool.setPoolName(shardName(i + 1));
+            pool.setRegisterMbeans(true);
+            pool.setJdbcUrl(urls[i].trim());
+            pool.setUsername(username);
+            pool.setPassword(password);
+            pool.setMaximumPoolSize(maximumPoolSize);
+            pools.put(pool.getPoolName(), pool);
+        }
+    }
+
+    static String shardName(int index) {
+        return "shard-" + index;
+    }
+
+    public Map<String, DataSource> getPools() {
+        return Collections.unmodifiableMap(pools);
+    }
+
+    @Override
+    public void close() {
+        pools.values().forEach(HikariDataSource::close);
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.supermarketapi.shard;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+// Supermarket id -> shard. Explicit entries (supermarkets pinned while they are moved, or placed by hand) win;
+// everything else goes through a consistent-hash ring with virtual nodes, so adding a shard only moves the
+// supermarkets that land on the new shard's ring segments.
+public final class ShardDirectory {
+
+    private final List<String> shards;
+    private final Map<String, String> pinned;
+    private final NavigableMap<Long, String> ring = new TreeMap<>();
+
+    public ShardDirectory(List<String> shards, int virtualNodes, Map<String, String> pinned) {
+        if (shards.isEmpty()) {
+            throw new IllegalArgumentException("At least one shard is required");
+        }
+        for (Map.Entry<String, String> entry : pinned.entrySet()) {
+            if (!shards.contains(entry.getValue())) {
+                throw new IllegalArgumentException("Supermarket " + entry.getKey() + " is pinned to unknown shard "
+                        + entry.getValue());
+            }
+        }
+        this.shards = List.copyOf(shards);
+        this.pinned = Map.copyOf(pinned);
+        for (String shard : shards) {
+            for (int i = 0; i < virtualNodes; i++) {
+                ring.put(hash(shard + "#" + i), shard);
+            }
+        }
+    }
+
+    public List<String> getShards() {
+        return shards;
+    }
+
+    public String shardFor(String supermarketId) {
+        String shard = pinned.get(supermarketId);
+        if (shard != null) {
+            return shard;
+        }
+        Map.Entry<Long, String> node = ring.ceilingEntry(hash(supermarketId));
+        return node != null ? node.getValue() : ring.firstEntry().getValue();
+    }
+
+    // 64-bit FNV-1a with a final avalanche, stable across JVMs unlike a seeded hash
+    static long hash(String key) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b;
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.supermarketapi.shard;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+// Runs work on the shard of a supermarket, or on every shard for cross-store reads. With sharding off there is
+// only the catalogue shard and everything runs on spring.datasource as before.
+@Component
+public class ShardRouter {
+
+    public static final String CATALOGUE_SHARD = "shard-0";
+
+    private final ShardDirectory directory;
+    private final ExecutorService scatterExecutor;
+
+    @Autowired
+    public ShardRouter(Environment environment,
+                       @Value("${app.sharding.enabled:false}") boolean enabled,
+                       @Value("${app.sharding.urls:}") String[] urls,
+                       @Value("${app.sharding.virtual-nodes:160}") int virtualNodes,
+                       @Value("${app.sharding.scatter-threads:8}") int scatterThreads) {
+        List<String> shards = new ArrayList<>();
+        shards.add(CATALOGUE_SHARD);
+        if (enabled) {
+            for (int i = 0; i < urls.length; i++) {
+                shards.add(ShardDataSources.shardName(i + 1));
+            }
+        }
+        Map<String, String> pinned = Binder.get(environment)
+                .bind("app.sharding.directory", Bindable.mapOf(String.class, String.class))
+                .orElse(Collections.emptyMap());
+        this.directory = new ShardDirectory(shards, virtualNodes, pinned);
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.scatterExecutor = Executors.newFixedThreadPool(Math.max(1, Math.min(scatterThreads, shards.size())),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "shard-scatter-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    public List<String> getShards() {
+        return directory.getShards();
+    }
+
+    public String shardOf(String supermarketId) {
+        // Rows without a supermarket predate sharding and stayed on the catalogue shard
+        return supermarketId == null ? CATALOGUE_SHARD : directory.shardFor(supermarketId);
+    }
+
+    public <T> T onSupermarketShard(String supermarketId, Supplier<T> action) {
+        return ShardRouting.onShard(shardOf(supermarketId), action);
+    }
+
+    public void runOnSupermarketShard(String supermarketId, Runnable action) {
+        ShardRouting.runOnShard(shardOf(supermarketId), action);
+    }
+
+    // Runs the query on every shard in parallel (each in its own transaction) and concatenates the results in
+    // shard order. Fails if any shard fails, a partial cross-store answer would look complete.
+    public <T> List<T> scatterGather(Supplier<? extends Collection<T>> query) {
+        List<String> shards = getShards();
+        if (shards.size() == 1) {
+            return new ArrayList<>(ShardRouting.onShard(shards.get(0), query));
+        }
+        List<Future<? extends Collection<T>>> results = new ArrayList<>(shards.size());
+        for (String shard : shards) {
+            results.add(scatterExecutor.submit(() -> ShardRouting.onShard(shard, query)));
+        }
+        List<T> gathered = new ArrayList<>();
+        try {
+            for (Future<? extends Collection<T>> result : results) {
+                gathered.addAll(result.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            results.forEach(result -> result.cancel(true));
+            throw new IllegalStateException("Interrupted while querying the shards", e);
+        } catch (ExecutionException e) {
+            results.forEach(result -> result.cancel(true));
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException("Shard query failed", e.getCause());
+        }
+        return gathered;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scatterExecutor.shutdownNow();
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.supermarketapi.shard;
+
+import java.util.function.Supplier;
+
+// Per-thread shard for ShardRoutingDataSource. Must be entered before a transaction starts: a transaction keeps
+// the connection of the shard it began on. Without a shard, statements go to the catalogue shard.
+public final class ShardRouting {
+
+    private static final ThreadLocal<String> CURRENT_SHARD = new ThreadLocal<>();
+
+    private ShardRouting() {
+    }
+
+    public static String currentShard() {
+        return CURRENT_SHARD.get();
+    }
+
+    public static <T> T onShard(String shard, Supplier<T> action) {
+        String previous = CURRENT_SHARD.get();
+        CURRENT_SHARD.set(shard);
+        try {
+            return action.get();
+        } finally {
+            restore(previous);
+        }
+    }
+
+    public static void runOnShard(String shard, Runnable action) {
+        String previous = CURRENT_SHARD.get();
+        CURRENT_SHARD.set(shard);
+        try {
+            action.run();
+        } finally {
+            restore(previous);
+        }
+    }
+
+    private static void restore(String previous) {
+        if (previous == null) {
+            CURRENT_SHARD.remove();
+        } else {
+            CURRENT_SHARD.set(previous);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.supermarketapi.shard;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.Map;
+
+// Picks the pool of the thread's current shard, the catalogue shard when none is set. Must sit behind a
+// LazyConnectionDataSourceProxy so the connection is only taken at the first statement.
+public class ShardRoutingDataSource extends AbstractRoutingDataSource {
+
+    public ShardRoutingDataSource(DataSource catalogueShard, Map<String, DataSource> shards) {
+        Map<Object, Object> targets = new HashMap<>(shards);
+        targets.put(ShardRouter.CATALOGUE_SHARD, catalogueShard);
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(catalogueShard);
+        // An unknown shard is a routing bug, not something to paper over with the default
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return ShardRouting.currentShard();
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.supermarketapi.shard;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.flywaydb.core.Flyway;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import javax.sql.DataSource;
+
+// Replaces the auto-configured pool with one pool per shard behind a shard routing data source. spring.datasource
+// is shard-0, which also holds the catalogue; app.sharding.urls are shard-1..N and only carry purchases and their
+// outbox. Off unless app.sharding.enabled=true, and not combinable with app.datasource.replicas.
+@Configuration
+@ConditionalOnProperty(name = "app.sharding.enabled", havingValue = "true")
+public class ShardingConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource catalogueShardDataSource(DataSourceProperties properties) {
+        HikariDataSource catalogueShard = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        catalogueShard.setPoolName(ShardRouter.CATALOGUE_SHARD);
+        catalogueShard.setRegisterMbeans(true);
+        return catalogueShard;
+    }
+
+    @Bean
+    public ShardDataSources shardDataSources(
+            ResourceLoader resourceLoader,
+            @Value("${app.sharding.urls}") String[] urls,
+            @Value("${app.sharding.username:${spring.datasource.username:}}") String username,
+            @Value("${app.sharding.password:${spring.datasource.password:}}") String password,
+            @Value("${app.sharding.maximum-pool-size:10}") int maximumPoolSize,
+            @Value("${app.sharding.schema-script:}") String schemaScript,
+            @Value("${spring.flyway.enabled:true}") boolean flywayEnabled,
+            @Value("${spring.flyway.locations:classpath:db/migration}") String[] flywayLocations) {
+        ShardDataSources shards = new ShardDataSources(urls, username, password, maximumPoolSize);
+        // Flyway only migrates the primary data source, which routes to shard-0
+        for (DataSource shard : shards.getPools().values()) {
+            if (!schemaScript.isEmpty()) {
+                // Embedded databases for local runs and tests
+                new ResourceDatabasePopulator(resourceLoader.getResource(schemaScript)).execute(shard);
+            } else if (flywayEnabled) {
+                Flyway.configure().dataSource(shard).locations(flywayLocations).load().migrate();
+            }
+        }
+        return shards;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource catalogueShardDataSource, ShardDataSources shardDataSources) {
+        return new LazyConnectionDataSourceProxy(
+                new ShardRoutingDataSource(catalogueShardDataSource, shardDataSources.getPools()));
+    }
+}
@@ -0,0 +1,4 @@
+-- Consumer-facing identity of outbox messages (see OutboxMessage.messageId); rows still waiting get one here
+ALTER TABLE outbox_message ADD COLUMN message_id VARCHAR(36);
+UPDATE outbox_message SET message_id = UUID() WHERE message_id IS NULL;
+ALTER TABLE outbox_message MODIFY message_id VARCHAR(36) NOT NULL;
@@ -0,0 +1,38 @@
+CREATE TABLE supermarket (
+    id           VARCHAR(255) NOT NULL,
+    name         VARCHAR(64)  NOT NULL,
+    address      VARCHAR(255) NOT NULL,
+    phone_number VARCHAR(255),
+    work_hours   VARCHAR(255),
+    PRIMARY KEY (id),
+    CONSTRAINT uk_supermarket_name UNIQUE (name)
+) ENGINE = InnoDB;
+
+CREATE TABLE item (
+    id             VARCHAR(255)  NOT NULL,
+    name           VARCHAR(64)   NOT NULL,
+    price          DECIMAL(6, 2) NOT NULL,
+    type           INTEGER       NOT NULL,
+    supermarket_id VARCHAR(255),
+    PRIMARY KEY (id),
+    CONSTRAINT fk_item_supermarket FOREIGN KEY (supermarket_id) REFERENCES supermarket (id)
+) ENGINE = InnoDB;
+
+CREATE INDEX idx_item_supermarket_type_price ON item (supermarket_id, type, price);
+
+CREATE TABLE purchase (
+    id              VARCHAR(255)   NOT NULL,
+    price           DECIMAL(12, 2) NOT NULL,
+    change_amount   DECIMAL(12, 2) NOT NULL,
+    time_of_payment DATE           NOT NULL,
+    supermarket_id  VARCHAR(255),
+    payment_type    VARCHAR(255),
+    cash_amount     DECIMAL(12, 2),
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE purchase_itemids (
+    purchase_id VARCHAR(255) NOT NULL,
+    itemids     VARCHAR(255),
+    CONSTRAINT fk_purchase_itemids_purchase FOREIGN KEY (purchase_id) REFERENCES purchase (id)
+) ENGINE = InnoDB;
@@ -0,0 +1,7 @@
+-- Schemas created by Hibernate ddl-auto before V1 are baselined at version 1 and still hold money as DOUBLE
+ALTER TABLE item MODIFY price DECIMAL(6, 2) NOT NULL;
+
+ALTER TABLE purchase
+    MODIFY price DECIMAL(12, 2) NOT NULL,
+    MODIFY change_amount DECIMAL(12, 2) NOT NULL,
+    MODIFY cash_amount DECIMAL(12, 2);
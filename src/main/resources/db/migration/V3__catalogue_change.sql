@@ -0,0 +1,10 @@
+CREATE TABLE catalogue_change (
+    seq         BIGINT       NOT NULL AUTO_INCREMENT,
+    entity_type VARCHAR(16)  NOT NULL,
+    entity_id   VARCHAR(255) NOT NULL,
+    operation   VARCHAR(16)  NOT NULL,
+    changed_at  DATETIME(6)  NOT NULL,
+    PRIMARY KEY (seq)
+) ENGINE = InnoDB;
+
+CREATE INDEX idx_catalogue_change_type_seq ON catalogue_change (entity_type, seq);
@@ -0,0 +1 @@
+ALTER TABLE catalogue_change ADD COLUMN supermarket_id VARCHAR(255);
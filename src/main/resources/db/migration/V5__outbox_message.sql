@@ -0,0 +1,9 @@
+CREATE TABLE outbox_message (
+    id             BIGINT       NOT NULL AUTO_INCREMENT,
+    aggregate_type VARCHAR(64)  NOT NULL,
+    aggregate_id   VARCHAR(255) NOT NULL,
+    event_type     VARCHAR(64)  NOT NULL,
+    payload        LONGTEXT     NOT NULL,
+    created_at     DATETIME(6)  NOT NULL,
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
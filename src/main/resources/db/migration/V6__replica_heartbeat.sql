@@ -0,0 +1,8 @@
+-- Stamped on the primary by ReplicaLagMonitor and read back on each replica to measure replication lag
+CREATE TABLE replica_heartbeat (
+    id      INT         NOT NULL,
+    beat_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+INSERT INTO replica_heartbeat (id, beat_at) VALUES (1, CURRENT_TIMESTAMP(6));
@@ -0,0 +1,34 @@
+-- Item ids move inline into purchase, so a purchase is a single row and the table can be partitioned
+-- (partitioned InnoDB tables can neither have nor be referenced by foreign keys)
+SET SESSION group_concat_max_len = 1048576;
+
+ALTER TABLE purchase ADD COLUMN item_ids TEXT;
+
+UPDATE purchase p
+SET p.item_ids = (SELECT GROUP_CONCAT(i.itemids SEPARATOR ',') FROM purchase_itemids i WHERE i.purchase_id = p.id);
+
+DROP TABLE purchase_itemids;
+
+-- Every unique key of a partitioned table must contain the partitioning column
+ALTER TABLE purchase DROP PRIMARY KEY, ADD PRIMARY KEY (id, time_of_payment);
+
+CREATE INDEX idx_purchase_supermarket_time ON purchase (supermarket_id, time_of_payment);
+
+-- One partition per month; PurchasePartitionMaintenance keeps months ahead split off p_future and
+-- archives and drops closed ones (see PurchaseArchive)
+ALTER TABLE purchase PARTITION BY RANGE COLUMNS (time_of_payment) (
+    PARTITION p_history VALUES LESS THAN ('2026-01-01'),
+    PARTITION p202601 VALUES LESS THAN ('2026-02-01'),
+    PARTITION p202602 VALUES LESS THAN ('2026-03-01'),
+    PARTITION p202603 VALUES LESS THAN ('2026-04-01'),
+    PARTITION p202604 VALUES LESS THAN ('2026-05-01'),
+    PARTITION p202605 VALUES LESS THAN ('2026-06-01'),
+    PARTITION p202606 VALUES LESS THAN ('2026-07-01'),
+    PARTITION p202607 VALUES LESS THAN ('2026-08-01'),
+    PARTITION p202608 VALUES LESS THAN ('2026-09-01'),
+    PARTITION p202609 VALUES LESS THAN ('2026-10-01'),
+    PARTITION p202610 VALUES LESS THAN ('2026-11-01'),
+    PARTITION p202611 VALUES LESS THAN ('2026-12-01'),
+    PARTITION p202612 VALUES LESS THAN ('2027-01-01'),
+    PARTITION p_future VALUES LESS THAN (MAXVALUE)
+);
@@ -0,0 +1,28 @@
+-- Assortment as a many-to-many between supermarket and item: an item is stored once and listed by any number
+-- of supermarkets, each listing with its own shelf price and active flag
+CREATE TABLE supermarket_item (
+    supermarket_id VARCHAR(255)  NOT NULL,
+    item_id        VARCHAR(255)  NOT NULL,
+    price          DECIMAL(6, 2) NOT NULL,
+    own_price      BIT           NOT NULL,
+    active         BIT           NOT NULL,
+    PRIMARY KEY (supermarket_id, item_id),
+    CONSTRAINT fk_supermarket_item_supermarket FOREIGN KEY (supermarket_id) REFERENCES supermarket (id),
+    CONSTRAINT fk_supermarket_item_item FOREIGN KEY (item_id) REFERENCES item (id)
+) ENGINE = InnoDB;
+
+-- Assortment pages and price filters of a store are served from this index alone
+CREATE INDEX idx_supermarket_item_store_price ON supermarket_item (supermarket_id, active, price, item_id);
+CREATE INDEX idx_supermarket_item_item ON supermarket_item (item_id, supermarket_id);
+
+-- Existing memberships become listings at the item's price. Copies of the same product in different stores
+-- stay separate items, merging them needs a product key the schema does not have.
+INSERT INTO supermarket_item (supermarket_id, item_id, price, own_price, active)
+SELECT supermarket_id, id, price, 0, 1
+FROM item
+WHERE supermarket_id IS NOT NULL;
+
+ALTER TABLE item DROP FOREIGN KEY fk_item_supermarket;
+DROP INDEX idx_item_supermarket_type_price ON item;
+ALTER TABLE item DROP COLUMN supermarket_id;
+CREATE INDEX idx_item_type_price ON item (type, price);
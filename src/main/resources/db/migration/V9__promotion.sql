@@ -0,0 +1,20 @@
+-- Promotions applied at checkout; which columns are used depends on the type (see Promotion)
+CREATE TABLE promotion (
+    id               VARCHAR(255)   NOT NULL,
+    name             VARCHAR(128)   NOT NULL,
+    type             VARCHAR(32)    NOT NULL,
+    supermarket_id   VARCHAR(255),
+    item_id          VARCHAR(255),
+    item_type        VARCHAR(32),
+    buy_quantity     INT,
+    pay_quantity     INT,
+    percent_off      INT,
+    threshold_amount DECIMAL(12, 2),
+    discount_amount  DECIMAL(12, 2),
+    starts_at        DATETIME(6),
+    ends_at          DATETIME(6),
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+-- Purchases keep what promotions took off; price stays the amount paid
+ALTER TABLE purchase ADD COLUMN discount_amount DECIMAL(12, 2) NOT NULL DEFAULT 0;
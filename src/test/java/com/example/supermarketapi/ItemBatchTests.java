@@ -0,0 +1,135 @@
+package com.example.supermarketapi;
+
+import com.example.supermarketapi.dto.BatchResultDTO;
+import com.example.supermarketapi.dto.ItemResponseDTO;
+import com.example.supermarketapi.exception.ItemNotFoundException;
+import com.example.supermarketapi.model.Item;
+import com.example.supermarketapi.model.Supermarket;
+import com.example.supermarketapi.model.enums.ItemType;
+import com.example.supermarketapi.service.ItemService;
+import com.example.supermarketapi.service.SupermarketService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Batch item writes: one result per entry in request order, failing entries do not stop the others
+@SpringBootTest
+@ActiveProfiles("h2")
+class ItemBatchTests {
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private SupermarketService supermarketService;
+
+    @Test
+    void partialUpdateReportsEachEntryInRequestOrder() {
+        String breadId = createItem("Batch Bread").getId();
+        String milkId = createItem("Batch Milk").getId();
+
+        List<BatchResultDTO<ItemResponseDTO>> results = itemService.partialUpdateItems(List.of(
+                change(milkId, null, 250L),
+                change("missing", "Missing", null),
+                change(breadId, " ", null),
+                change(null, "No Id", null),
+                change(breadId, "Batch Rye", null),
+                // Invalid wins over missing
+                change("missing", null, 0L)));
+
+        assertEquals(Arrays.asList(milkId, "missing", breadId, null, breadId, "missing"), ids(results));
+        assertEquals(List.of(200, 404, 400, 400, 200, 400), statuses(results));
+        assertEquals(250L, results.get(0).getData().getPrice());
+        assertNull(results.get(1).getData());
+        assertTrue(results.get(3).getError().contains("id"));
+        assertEquals("Batch Rye", results.get(4).getData().getName());
+
+        // The valid entries were applied, the invalid one for the same item was not
+        assertEquals(250L, itemService.getItemById(milkId).getPrice());
+        assertEquals("Batch Rye", itemService.getItemById(breadId).getName());
+        assertEquals(199L, itemService.getItemById(breadId).getPrice());
+    }
+
+    @Test
+    void partialUpdateAppliesARepeatedIdInOrder() {
+        String itemId = createItem("Batch Repeated").getId();
+
+        List<BatchResultDTO<ItemResponseDTO>> results = itemService.partialUpdateItems(List.of(
+                change(itemId, "Batch Repeated v1", 300L),
+                change(itemId, "Batch Repeated v2", null)));
+
+        assertEquals(List.of(200, 200), statuses(results));
+        // Each entry reports the item as it was after that entry
+        assertEquals("Batch Repeated v1", results.get(0).getData().getName());
+        assertEquals("Batch Repeated v2", results.get(1).getData().getName());
+        assertEquals(300L, results.get(1).getData().getPrice());
+
+        Item item = itemService.getItemById(itemId);
+        assertEquals("Batch Repeated v2", item.getName());
+        assertEquals(300L, item.getPrice());
+    }
+
+    @Test
+    void deleteReportsEachEntryInRequestOrder() {
+        String breadId = createItem("Batch Deleted Bread").getId();
+        String milkId = createItem("Batch Deleted Milk").getId();
+        String keptId = createItem("Batch Kept Cheese").getId();
+        String supermarketId = createSupermarket("Batch Delete Market").getId();
+        supermarketService.addItems(supermarketId, List.of(breadId, keptId));
+
+        List<BatchResultDTO<Void>> results = itemService.deleteItems(List.of(breadId, "missing", milkId, breadId));
+
+        assertEquals(List.of(breadId, "missing", milkId, breadId), ids(results));
+        // A repeated id is deleted by its first occurrence only
+        assertEquals(List.of(204, 404, 204, 404), statuses(results));
+
+        assertThrows(ItemNotFoundException.class, () -> itemService.getItemById(breadId));
+        assertThrows(ItemNotFoundException.class, () -> itemService.getItemById(milkId));
+        // Delisted from the supermarket as well
+        assertEquals(List.of(keptId), supermarketService.getSupermarketInfo(supermarketId).getItems().stream()
+                .map(ItemResponseDTO::getId).collect(Collectors.toList()));
+    }
+
+    private static Item change(String id, String name, Long price) {
+        Item change = new Item();
+        change.setId(id);
+        change.setName(name);
+        change.setPrice(price);
+        return change;
+    }
+
+    private static List<String> ids(List<? extends BatchResultDTO<?>> results) {
+        return results.stream().map(BatchResultDTO::getId).collect(Collectors.toList());
+    }
+
+    private static List<Integer> statuses(List<? extends BatchResultDTO<?>> results) {
+        return results.stream().map(BatchResultDTO::getStatus).collect(Collectors.toList());
+    }
+
+    private Item createItem(String name) {
+        Item item = new Item();
+        item.setName(name);
+        item.setPrice(199L);
+        item.setType(ItemType.FOOD);
+        return itemService.createItem(item);
+    }
+
+    private Supermarket createSupermarket(String name) {
+        Supermarket supermarket = new Supermarket();
+        supermarket.setName(name);
+        supermarket.setAddress("1 Batch Street");
+        supermarket.setPhoneNumber("0881234567");
+        supermarket.setWorkHours("08:00-22:00");
+        return supermarketService.createSupermarket(supermarket);
+    }
+}
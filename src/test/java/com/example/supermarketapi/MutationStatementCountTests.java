@@ -0,0 +1,127 @@
+package com.example.supermarketapi;
+
+import com.example.supermarketapi.model.Item;
+import com.example.supermarketapi.model.Purchase;
+import com.example.supermarketapi.model.Supermarket;
+import com.example.supermarketapi.model.enums.ItemType;
+import com.example.supermarketapi.model.enums.PaymentType;
+import com.example.supermarketapi.profiling.SqlStatementCounter;
+import com.example.supermarketapi.repository.PurchaseRepository;
+import com.example.supermarketapi.service.ItemService;
+import com.example.supermarketapi.service.SupermarketService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultMatcher;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Statements per write endpoint, counted on the MockMvc (request) thread. Every successful catalogue write also
+// records one catalogue_change row.
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:statement_count_db;MODE=MySQL;DB_CLOSE_DELAY=-1")
+@AutoConfigureMockMvc
+@ActiveProfiles("h2")
+class MutationStatementCountTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private SupermarketService supermarketService;
+
+    @Autowired
+    private PurchaseRepository purchaseRepository;
+
+    @Test
+    void deleteItem() throws Exception {
+        String itemId = createItem("Delete Me").getId();
+
+        // Listings (for the change event), the delete, the change record
+        assertStatements(3, delete("/items/{itemId}", itemId), status().isNoContent());
+        assertStatements(2, delete("/items/{itemId}", itemId), status().isNotFound());
+    }
+
+    @Test
+    void updateItem() throws Exception {
+        String itemId = createItem("Update Me").getId();
+        String body = "{\"name\": \"Updated\", \"price\": 2.50, \"type\": \"FOOD\"}";
+
+        // The update, listings following the list price, reading them back for the event, the change record
+        assertStatements(4, put("/items/{itemId}", itemId).contentType(MediaType.APPLICATION_JSON).content(body),
+                status().isOk());
+        assertEquals(250L, itemService.getItemById(itemId).getPrice());
+        assertStatements(1, put("/items/{itemId}", "missing").contentType(MediaType.APPLICATION_JSON).content(body),
+                status().isNotFound());
+    }
+
+    @Test
+    void deletePurchase() throws Exception {
+        Purchase purchase = new Purchase();
+        purchase.setPrice(100L);
+        purchase.setChangeAmount(0L);
+        purchase.setTimeOfPayment(LocalDate.now());
+        purchase.setPaymentType(PaymentType.CARD);
+        purchase.setItemIDs(List.of());
+        String purchaseId = purchaseRepository.save(purchase).getId();
+
+        assertStatements(1, delete("/purchases/{id}", purchaseId), status().isNoContent());
+        assertStatements(1, delete("/purchases/{id}", purchaseId), status().isNotFound());
+    }
+
+    @Test
+    void updateSupermarket() throws Exception {
+        String supermarketId = createSupermarket("Update Market").getId();
+        String body = "{\"name\": \"Updated Market\", \"address\": \"2 Count Street\", \"phoneNumber\": \"0887654321\","
+                + " \"workHours\": \"09:00-21:00\"}";
+
+        // The update, the change record
+        assertStatements(2, put("/supermarkets/{supermarketId}", supermarketId)
+                .contentType(MediaType.APPLICATION_JSON).content(body), status().isOk());
+        assertEquals("Updated Market", supermarketService.getSupermarket(supermarketId).getName());
+    }
+
+    @Test
+    void deleteSupermarket() throws Exception {
+        String supermarketId = createSupermarket("Delete Market").getId();
+
+        // Its listings, the supermarket, the change record
+        assertStatements(3, delete("/supermarkets/{supermarketId}", supermarketId), status().isNoContent());
+    }
+
+    private void assertStatements(int expected, RequestBuilder request, ResultMatcher status) throws Exception {
+        long before = SqlStatementCounter.count();
+        mockMvc.perform(request).andExpect(status);
+        assertEquals(expected, SqlStatementCounter.count() - before);
+    }
+
+    private Item createItem(String name) {
+        Item item = new Item();
+        item.setName(name);
+        item.setPrice(199L);
+        item.setType(ItemType.FOOD);
+        return itemService.createItem(item);
+    }
+
+    private Supermarket createSupermarket(String name) {
+        Supermarket supermarket = new Supermarket();
+        supermarket.setName(name);
+        supermarket.setAddress("1 Count Street");
+        supermarket.setPhoneNumber("0881234567");
+        supermarket.setWorkHours("08:00-22:00");
+        return supermarketService.createSupermarket(supermarket);
+    }
+}
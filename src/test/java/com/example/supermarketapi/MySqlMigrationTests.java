@@ -0,0 +1,104 @@
+package com.example.supermarketapi;
+
+import com.example.supermarketapi.model.Item;
+import com.example.supermarketapi.model.Purchase;
+import com.example.supermarketapi.model.Supermarket;
+import com.example.supermarketapi.model.enums.ItemType;
+import com.example.supermarketapi.model.enums.PaymentType;
+import com.example.supermarketapi.service.CatalogueChangeService;
+import com.example.supermarketapi.service.ItemService;
+import com.example.supermarketapi.service.PurchaseService;
+import com.example.supermarketapi.service.SupermarketService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// The h2 profile builds its schema from the entities, so only this test runs the Flyway migrations (V1 onwards,
+// including the MySQL-only partitioning) and then the application against the schema they produce.
+@SpringBootTest(properties = "app.catalogue-changes.settle-window=0s")
+@Testcontainers(disabledWithoutDocker = true)
+class MySqlMigrationTests {
+
+    @Container
+    private static final MySQLContainer<?> MYSQL = new MySQLContainer<>("mysql:8.0.24");
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", MYSQL::getJdbcUrl);
+        registry.add("spring.datasource.username", MYSQL::getUsername);
+        registry.add("spring.datasource.password", MYSQL::getPassword);
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private SupermarketService supermarketService;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private PurchaseService purchaseService;
+
+    @Autowired
+    private CatalogueChangeService catalogueChangeService;
+
+    @Test
+    void everyMigrationIsApplied() {
+        List<String> versions = jdbcTemplate.queryForList("SELECT version FROM flyway_schema_history"
+                + " WHERE success = 1 AND version IS NOT NULL ORDER BY installed_rank", String.class);
+        assertEquals(List.of("1", "2", "3", "4", "5", "6", "7", "8", "9", "10"), versions);
+
+        Integer partitions = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM information_schema.PARTITIONS"
+                + " WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'purchase' AND PARTITION_NAME IS NOT NULL",
+                Integer.class);
+        assertTrue(partitions > 1);
+    }
+
+    @Test
+    void applicationRunsAgainstTheMigratedSchema() {
+        Supermarket supermarket = new Supermarket();
+        supermarket.setName("Migrated Market");
+        supermarket.setAddress("1 Schema Street");
+        supermarket.setPhoneNumber("0881234567");
+        supermarket.setWorkHours("08:00-22:00");
+        String supermarketId = supermarketService.createSupermarket(supermarket).getId();
+
+        Item item = new Item();
+        item.setName("Migrated Bread");
+        item.setPrice(199L);
+        item.setType(ItemType.FOOD);
+        String itemId = itemService.createItem(item).getId();
+        supermarketService.addItems(supermarketId, List.of(itemId));
+        supermarketService.updateSupermarketItem(supermarketId, itemId, 149L, null);
+        assertEquals(1, supermarketService.getSupermarketInfo(supermarketId).getItems().size());
+
+        Purchase purchase = purchaseService.makePurchase(supermarketId, List.of(itemId, itemId), PaymentType.CASH,
+                500L);
+        assertEquals(298L, purchase.getPrice());
+        assertEquals(202L, purchase.getChangeAmount());
+
+        // Read back from its monthly partition
+        LocalDate today = LocalDate.now();
+        List<Purchase> history = purchaseService.getHistory(today, today, supermarketId, null, 10);
+        assertEquals(1, history.size());
+        assertEquals(List.of(itemId, itemId), history.get(0).getItemIDs());
+        assertEquals(0L, history.get(0).getDiscountAmount());
+
+        assertTrue(catalogueChangeService.getItemChanges(0, 100).getChanges().stream()
+                .anyMatch(change -> change.getId().equals(itemId)));
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.supermarketapi;
+
+import com.example.supermarketapi.outbox.InMemoryOutboxSink;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// End-to-end checkout against H2; also the smoke test run for the native build (mvn -Dnative test)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("h2")
+class SupermarketApiSmokeTests {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private InMemoryOutboxSink outboxSink;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void createSupermarketAddItemAndBuyIt() throws InterruptedException {
+        ResponseEntity<Map> supermarket = restTemplate.postForEntity("/supermarkets", Map.of(
+                "name", "Smoke Market",
+                "address", "1 Test Street",
+                "phoneNumber", "0881234567",
+                "workHours", "08:00-22:00"), Map.class);
+        assertEquals(HttpStatus.CREATED, supermarket.getStatusCode());
+        String supermarketId = (String) supermarket.getBody().get("id");
+
+        ResponseEntity<Map> item = restTemplate.postForEntity("/items", Map.of(
+                "name", "Sparkling Water",
+                "price", 1.99,
+                "type", "DRINKS"), Map.class);
+        assertEquals(HttpStatus.CREATED, item.getStatusCode());
+        String itemId = (String) item.getBody().get("id");
+
+        ResponseEntity<Map> added = restTemplate.postForEntity(
+                "/supermarkets/addItems?supermarketId={supermarketId}&itemsIDs={itemId}", null, Map.class,
+                supermarketId, itemId);
+        assertEquals(HttpStatus.OK, added.getStatusCode());
+        assertEquals(List.of("Sparkling Water"), added.getBody().get("addedItemsNames"));
+
+        ResponseEntity<Map> info = restTemplate.getForEntity("/supermarkets/{supermarketId}", Map.class, supermarketId);
+        assertEquals(HttpStatus.OK, info.getStatusCode());
+        assertEquals(1, ((List<?>) info.getBody().get("items")).size());
+
+        ResponseEntity<Map> purchase = restTemplate.postForEntity("/purchases", Map.of(
+                "supermarketId", supermarketId,
+                "itemIDs", List.of(itemId, itemId),
+                "type", "CASH",
+                "cashAmount", 5.00), Map.class);
+        assertEquals(HttpStatus.CREATED, purchase.getStatusCode());
+        assertEquals(3.98, ((Number) purchase.getBody().get("price")).doubleValue());
+        assertEquals(1.02, ((Number) purchase.getBody().get("change")).doubleValue());
+
+        // The purchase reaches the outbox sink once the relay runs
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (outboxSink.getDelivered().stream().noneMatch(envelope -> "PurchaseCompleted".equals(envelope.getEventType()))) {
+            assertTrue(System.currentTimeMillis() < deadline, "purchase was not relayed from the outbox");
+            Thread.sleep(50);
+        }
+        assertTrue(outboxSink.getDelivered().stream().allMatch(envelope -> envelope.getMessageId() != null));
+    }
+}
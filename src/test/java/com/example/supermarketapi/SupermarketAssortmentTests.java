@@ -0,0 +1,154 @@
+package com.example.supermarketapi;
+
+import com.example.supermarketapi.dto.AddItemsToSupermarketResponseDTO;
+import com.example.supermarketapi.dto.ItemResponseDTO;
+import com.example.supermarketapi.exception.ResourceNotFoundException;
+import com.example.supermarketapi.model.Item;
+import com.example.supermarketapi.model.Supermarket;
+import com.example.supermarketapi.model.enums.ItemType;
+import com.example.supermarketapi.repository.ItemRepository;
+import com.example.supermarketapi.service.ItemService;
+import com.example.supermarketapi.service.SupermarketService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Supermarket assortments as supermarket_item listings: adding, repricing and (de)activating them, and reading
+// the assortment back in keyset pages
+@SpringBootTest
+@ActiveProfiles("h2")
+class SupermarketAssortmentTests {
+
+    // One more than a page of SupermarketServiceImpl.getSupermarketInfo
+    private static final int LARGE_ASSORTMENT = 1001;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private SupermarketService supermarketService;
+
+    @Test
+    void addItemsListsEachItemOnceAndSkipsUnknownIds() {
+        String supermarketId = createSupermarket("Assortment Add Market").getId();
+        String breadId = createItem("Assortment Bread").getId();
+        String milkId = createItem("Assortment Milk").getId();
+
+        AddItemsToSupermarketResponseDTO added = supermarketService.addItems(supermarketId,
+                List.of(breadId, "missing", milkId, breadId));
+        assertEquals(List.of("Assortment Bread", "Assortment Milk"), added.getAddedItemsNames());
+        assertEquals(2, supermarketService.getSupermarketInfo(supermarketId).getItems().size());
+
+        // Adding again keeps the single listing
+        supermarketService.addItems(supermarketId, List.of(breadId));
+        assertEquals(2, supermarketService.getSupermarketInfo(supermarketId).getItems().size());
+    }
+
+    @Test
+    void addItemsReactivatesADeactivatedListing() {
+        String supermarketId = createSupermarket("Assortment Reactivate Market").getId();
+        String itemId = createItem("Assortment Reactivated Bread").getId();
+        supermarketService.addItems(supermarketId, List.of(itemId));
+
+        supermarketService.updateSupermarketItem(supermarketId, itemId, null, false);
+        assertTrue(supermarketService.getSupermarketInfo(supermarketId).getItems().isEmpty());
+
+        supermarketService.addItems(supermarketId, List.of(itemId));
+        assertEquals(List.of(itemId), itemIds(supermarketService.getSupermarketInfo(supermarketId).getItems()));
+    }
+
+    @Test
+    void updateSupermarketItemRequiresAListing() {
+        String supermarketId = createSupermarket("Assortment Unlisted Market").getId();
+        String itemId = createItem("Assortment Unlisted Bread").getId();
+
+        assertThrows(ResourceNotFoundException.class,
+                () -> supermarketService.updateSupermarketItem(supermarketId, itemId, 149L, null));
+    }
+
+    @Test
+    void ownPriceIsKeptWhenTheListPriceChanges() {
+        String ownPriceId = createSupermarket("Assortment Own Price Market").getId();
+        String followingId = createSupermarket("Assortment List Price Market").getId();
+        String itemId = createItem("Assortment Repriced Bread").getId();
+        supermarketService.addItems(ownPriceId, List.of(itemId));
+        supermarketService.addItems(followingId, List.of(itemId));
+
+        supermarketService.updateSupermarketItem(ownPriceId, itemId, 149L, null);
+        Item listPrice = new Item();
+        listPrice.setName("Assortment Repriced Bread");
+        listPrice.setPrice(250L);
+        listPrice.setType(ItemType.FOOD);
+        itemService.updateItem(itemId, listPrice);
+
+        assertEquals(149L, supermarketService.getSupermarketInfo(ownPriceId).getItems().get(0).getPrice());
+        assertEquals(250L, supermarketService.getSupermarketInfo(followingId).getItems().get(0).getPrice());
+
+        // Through the partial update path as well
+        Item partial = new Item();
+        partial.setId(itemId);
+        partial.setPrice(300L);
+        itemService.partialUpdateItems(List.of(partial));
+
+        assertEquals(149L, supermarketService.getSupermarketInfo(ownPriceId).getItems().get(0).getPrice());
+        assertEquals(300L, supermarketService.getSupermarketInfo(followingId).getItems().get(0).getPrice());
+    }
+
+    @Test
+    void supermarketInfoPagesThroughTheWholeAssortment() {
+        String supermarketId = createSupermarket("Assortment Large Market").getId();
+        List<Item> items = new ArrayList<>();
+        for (int i = 0; i < LARGE_ASSORTMENT; i++) {
+            Item item = new Item();
+            item.setName("Assortment item " + i);
+            item.setPrice(199L);
+            item.setType(ItemType.FOOD);
+            items.add(item);
+        }
+        List<String> ids = itemRepository.saveAll(items).stream().map(Item::getId).sorted()
+                .collect(Collectors.toList());
+        supermarketService.addItems(supermarketId, ids);
+
+        // Every listing once, in item id order, across the page boundary
+        assertEquals(ids, itemIds(supermarketService.getSupermarketInfo(supermarketId).getItems()));
+
+        // Exactly one full page, followed by an empty one
+        supermarketService.updateSupermarketItem(supermarketId, ids.get(500), null, false);
+        List<String> active = new ArrayList<>(ids);
+        active.remove(500);
+        assertEquals(active, itemIds(supermarketService.getSupermarketInfo(supermarketId).getItems()));
+    }
+
+    private static List<String> itemIds(List<ItemResponseDTO> items) {
+        return items.stream().map(ItemResponseDTO::getId).collect(Collectors.toList());
+    }
+
+    private Item createItem(String name) {
+        Item item = new Item();
+        item.setName(name);
+        item.setPrice(199L);
+        item.setType(ItemType.FOOD);
+        return itemService.createItem(item);
+    }
+
+    private Supermarket createSupermarket(String name) {
+        Supermarket supermarket = new Supermarket();
+        supermarket.setName(name);
+        supermarket.setAddress("1 Assortment Street");
+        supermarket.setPhoneNumber("0881234567");
+        supermarket.setWorkHours("08:00-22:00");
+        return supermarketService.createSupermarket(supermarket);
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.supermarketapi.accesslog;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class AccessLogTest {
+
+    @Test
+    void dropsInsteadOfBlockingWhenFullAndDrainsOnStop() throws Exception {
+        AccessLog accessLog = new AccessLog(4);
+        for (int i = 0; i < 4; i++) {
+            AccessLogEntry entry = accessLog.claim();
+            assertNotNull(entry);
+            entry.method = "GET";
+            entry.route = "/items/{itemId}";
+            entry.status = 200;
+            accessLog.publish(entry);
+        }
+        assertNull(accessLog.claim(), "the writer has not started, so the ring is full");
+        assertEquals(1, accessLog.getDropped());
+
+        accessLog.start();
+        accessLog.stop();
+        assertEquals(4, accessLog.getWritten());
+        assertNotNull(accessLog.claim(), "written slots are reused");
+    }
+
+    @Test
+    void auditCollectsMutationsOnlyWhileActive() {
+        RequestAudit.record("ITEM", "ignored", "UPSERT");
+        RequestAudit audit = RequestAudit.begin();
+        AccessLog.recordMutation("ITEM", "item-1", "DELETE");
+        AccessLogEntry entry = new AccessLogEntry();
+        audit.copyTo(entry);
+        audit.end();
+
+        assertEquals(1, entry.mutationCount);
+        assertEquals("item-1", entry.mutationIds[0]);
+        assertEquals("DELETE", entry.mutationOperations[0]);
+    }
+}
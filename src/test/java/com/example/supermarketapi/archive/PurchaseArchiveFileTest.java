@@ -0,0 +1,191 @@
+package com.example.supermarketapi.archive;
+
+import com.example.supermarketapi.model.Purchase;
+import com.example.supermarketapi.model.PurchaseHistoryCursor;
+import com.example.supermarketapi.model.enums.PaymentType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PurchaseArchiveFileTest {
+
+    private static final LocalDate MARCH = LocalDate.of(2025, 3, 1);
+    private static final LocalDate APRIL = LocalDate.of(2025, 4, 1);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void roundTripsEveryColumn() throws IOException {
+        Path file = directory.resolve("p202503.purchases.gz");
+        List<Purchase> written = new ArrayList<>();
+        // More than one row group
+        for (int i = 0; i < 10_000; i++) {
+            written.add(purchase(String.format("id-%05d", i), i % 3 == 0 ? null : "store-" + i % 7,
+                    MARCH.plusDays(i % 31), 100L + i, i % 5 == 0 ? null : PaymentType.values()[i % 2]));
+        }
+        written.get(1).setCashAmount(5000L);
+        written.get(2).setDiscountAmount(25L);
+        written.get(3).setItemIDs(null);
+        try (PurchaseArchiveFile.Writer writer = new PurchaseArchiveFile.Writer(file, MARCH, APRIL)) {
+            for (Purchase purchase : written) {
+                writer.add(purchase);
+            }
+            writer.finish();
+            assertEquals(10_000, writer.getRows());
+        }
+
+        List<Purchase> read = new ArrayList<>();
+        PurchaseArchiveFile.read(file, read::add);
+
+        assertEquals(written.size(), read.size());
+        for (int i = 0; i < written.size(); i++) {
+            Purchase expected = written.get(i);
+            Purchase actual = read.get(i);
+            assertEquals(expected.getId(), actual.getId());
+            assertEquals(expected.getSupermarketId(), actual.getSupermarketId());
+            assertEquals(expected.getTimeOfPayment(), actual.getTimeOfPayment());
+            assertEquals(expected.getPrice(), actual.getPrice());
+            assertEquals(expected.getDiscountAmount(), actual.getDiscountAmount());
+            assertEquals(expected.getChangeAmount(), actual.getChangeAmount());
+            assertEquals(expected.getCashAmount(), actual.getCashAmount());
+            assertEquals(expected.getPaymentType(), actual.getPaymentType());
+            assertEquals(expected.getItemIDs() == null ? List.of() : expected.getItemIDs(), actual.getItemIDs());
+        }
+    }
+
+    @Test
+    void readsFilesWrittenBeforeTheDiscountColumn() throws IOException {
+        Path file = directory.resolve("p202503.purchases.gz");
+        try (DataOutputStream out = new DataOutputStream(new GZIPOutputStream(Files.newOutputStream(file)))) {
+            out.writeInt(0x53504131);
+            out.writeLong(MARCH.toEpochDay());
+            out.writeLong(APRIL.toEpochDay());
+            out.writeInt(1);
+            out.writeUTF("old-1");
+            out.writeInt(1);
+            out.writeUTF("store-1");
+            out.writeInt(0);
+            out.writeInt((int) MARCH.plusDays(4).toEpochDay());
+            out.writeLong(398L);
+            out.writeLong(102L);
+            out.writeLong(500L);
+            out.writeByte(PaymentType.CASH.ordinal());
+            out.writeInt(1);
+            out.writeUTF("item-1");
+            out.writeInt(2);
+            out.writeInt(0);
+            out.writeInt(0);
+            out.writeInt(0);
+        }
+
+        assertTrue(PurchaseArchiveFile.readHeader(file).overlaps(MARCH.plusDays(10), MARCH.plusDays(10)));
+        List<Purchase> read = new ArrayList<>();
+        PurchaseArchiveFile.read(file, read::add);
+
+        assertEquals(1, read.size());
+        Purchase purchase = read.get(0);
+        assertEquals("old-1", purchase.getId());
+        assertEquals("store-1", purchase.getSupermarketId());
+        assertEquals(MARCH.plusDays(4), purchase.getTimeOfPayment());
+        assertEquals(398L, purchase.getPrice());
+        assertEquals(0L, purchase.getDiscountAmount());
+        assertEquals(102L, purchase.getChangeAmount());
+        assertEquals(500L, purchase.getCashAmount());
+        assertEquals(PaymentType.CASH, purchase.getPaymentType());
+        assertEquals(List.of("item-1", "item-1"), purchase.getItemIDs());
+    }
+
+    @Test
+    void headerCoversFromInclusiveToExclusive() throws IOException {
+        Path file = directory.resolve("p202503.purchases.gz");
+        try (PurchaseArchiveFile.Writer writer = new PurchaseArchiveFile.Writer(file, MARCH, APRIL)) {
+            writer.finish();
+        }
+        PurchaseArchiveFile.Header header = PurchaseArchiveFile.readHeader(file);
+
+        assertTrue(header.overlaps(MARCH.minusDays(5), MARCH));
+        assertTrue(header.overlaps(APRIL.minusDays(1), APRIL.plusDays(5)));
+        assertFalse(header.overlaps(MARCH.minusDays(5), MARCH.minusDays(1)));
+        assertFalse(header.overlaps(APRIL, APRIL.plusDays(5)));
+    }
+
+    @Test
+    void archiveFindsTheRangeOfOneSupermarketAPageAtATime() throws IOException {
+        PurchaseArchive archive = new PurchaseArchive(directory.toString());
+        LocalDate may = LocalDate.of(2025, 5, 1);
+        archive.write("shard0-p202503", MARCH, APRIL, sink -> {
+            sink.accept(purchase("c", "store-1", MARCH.plusDays(2), 100L, PaymentType.CARD));
+            sink.accept(purchase("a", "store-1", MARCH.plusDays(2), 100L, PaymentType.CARD));
+            sink.accept(purchase("b", "store-2", MARCH.plusDays(2), 100L, PaymentType.CARD));
+            sink.accept(purchase("d", "store-1", MARCH.plusDays(20), 100L, PaymentType.CARD));
+        });
+        archive.write("shard0-p202504", APRIL, may, sink -> {
+            sink.accept(purchase("e", "store-1", APRIL.plusDays(1), 100L, PaymentType.CASH));
+            sink.accept(purchase("f", "store-1", APRIL.plusDays(15), 100L, PaymentType.CASH));
+        });
+        PurchaseHistoryCursor start = PurchaseHistoryCursor.startOf(MARCH);
+
+        assertEquals(List.of("a", "c", "d", "e"),
+                ids(archive.find(MARCH, APRIL.plusDays(1), "store-1", start, 10)));
+        assertEquals(List.of("a", "b", "c"), ids(archive.find(MARCH, MARCH.plusDays(2), null, start, 10)));
+        assertEquals(List.of("e", "f"), ids(archive.find(APRIL, may, null, PurchaseHistoryCursor.startOf(APRIL), 10)));
+
+        List<Purchase> first = archive.find(MARCH, may, "store-1", start, 2);
+        assertEquals(List.of("a", "c"), ids(first));
+        List<Purchase> second = archive.find(MARCH, may, "store-1", PurchaseHistoryCursor.after(first.get(1)), 2);
+        assertEquals(List.of("d", "e"), ids(second));
+        List<Purchase> last = archive.find(MARCH, may, "store-1", PurchaseHistoryCursor.after(second.get(1)), 2);
+        assertEquals(List.of("f"), ids(last));
+    }
+
+    @Test
+    void monthPartitionsStartOnTheFirstOfTheirMonth() {
+        // The lower bound of the first partition left once the ones before it were dropped
+        assertEquals(LocalDate.of(2026, 1, 1), PurchasePartitionMaintenance.monthStart("p202601"));
+        assertEquals(LocalDate.of(2025, 12, 1), PurchasePartitionMaintenance.monthStart("p202512"));
+        assertNull(PurchasePartitionMaintenance.monthStart("p_history"));
+        assertNull(PurchasePartitionMaintenance.monthStart("p_future"));
+    }
+
+    @Test
+    void cursorsSurviveTheirStringForm() {
+        PurchaseHistoryCursor cursor = PurchaseHistoryCursor.parse("2025-03-04,abc");
+
+        assertEquals(LocalDate.of(2025, 3, 4), cursor.getTimeOfPayment());
+        assertEquals("abc", cursor.getId());
+        assertEquals("2025-03-04,abc", cursor.toString());
+        assertNull(PurchaseHistoryCursor.parse("2025-03-04"));
+        assertNull(PurchaseHistoryCursor.parse("yesterday,abc"));
+    }
+
+    private static Purchase purchase(String id, String supermarketId, LocalDate paidOn, long price, PaymentType type) {
+        Purchase purchase = new Purchase();
+        purchase.setId(id);
+        purchase.setSupermarketId(supermarketId);
+        purchase.setTimeOfPayment(paidOn);
+        purchase.setPrice(price);
+        purchase.setChangeAmount(0L);
+        purchase.setPaymentType(type);
+        purchase.setItemIDs(List.of("item-" + price % 3, "item-" + price % 5));
+        return purchase;
+    }
+
+    private static List<String> ids(List<Purchase> purchases) {
+        return purchases.stream().map(Purchase::getId).collect(Collectors.toList());
+    }
+}
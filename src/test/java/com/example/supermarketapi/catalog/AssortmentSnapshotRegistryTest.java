@@ -0,0 +1,68 @@
+package com.example.supermarketapi.catalog;
+
+import com.example.supermarketapi.exception.SupermarketNotFoundException;
+import com.example.supermarketapi.model.enums.ItemType;
+import com.example.supermarketapi.repository.SupermarketItemRepository;
+import com.example.supermarketapi.repository.SupermarketRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AssortmentSnapshotRegistryTest {
+
+    private static final String STORE = "store-1";
+
+    private final SupermarketRepository supermarketRepository = mock(SupermarketRepository.class);
+    private final SupermarketItemRepository supermarketItemRepository = mock(SupermarketItemRepository.class);
+    private final AssortmentSnapshotRegistry registry =
+            new AssortmentSnapshotRegistry(supermarketRepository, supermarketItemRepository);
+
+    @BeforeEach
+    void oneListing() {
+        when(supermarketRepository.existsById(STORE)).thenReturn(true);
+        when(supermarketItemRepository.findActive(STORE))
+                .thenReturn(List.of(AssortmentSnapshotTest.listing("a", 100L, ItemType.FOOD)));
+    }
+
+    @Test
+    void snapshotsAreLoadedOnceAndReloadedAfterInvalidation() {
+        AssortmentSnapshot first = registry.get(STORE);
+        assertSame(first, registry.get(STORE));
+        verify(supermarketItemRepository, times(1)).findActive(STORE);
+
+        registry.invalidate(STORE);
+        registry.get(STORE);
+        verify(supermarketItemRepository, times(2)).findActive(STORE);
+    }
+
+    @Test
+    void snapshotLoadedAcrossAChangeIsServedButNotCached() {
+        // The change lands while the rows are being read: the loaded snapshot may predate it
+        when(supermarketItemRepository.findActive(STORE)).thenAnswer(invocation -> {
+            registry.invalidateItem("a");
+            return List.of(AssortmentSnapshotTest.listing("a", 100L, ItemType.FOOD));
+        }).thenReturn(List.of(AssortmentSnapshotTest.listing("a", 150L, ItemType.FOOD)));
+
+        AssortmentSnapshot stale = registry.get(STORE);
+        assertEquals(100L, stale.priceCents(stale.indexOf("a")));
+
+        AssortmentSnapshot fresh = registry.get(STORE);
+        assertEquals(150L, fresh.priceCents(fresh.indexOf("a")));
+        assertSame(fresh, registry.get(STORE));
+        verify(supermarketItemRepository, times(2)).findActive(STORE);
+    }
+
+    @Test
+    void unknownSupermarketsAreRejected() {
+        assertThrows(SupermarketNotFoundException.class, () -> registry.get("missing"));
+    }
+}
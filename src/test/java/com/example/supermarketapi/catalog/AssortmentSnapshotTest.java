@@ -0,0 +1,70 @@
+package com.example.supermarketapi.catalog;
+
+import com.example.supermarketapi.model.Item;
+import com.example.supermarketapi.model.SupermarketItem;
+import com.example.supermarketapi.model.enums.ItemType;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AssortmentSnapshotTest {
+
+    private static final String STORE = "store-1";
+
+    @Test
+    void looksUpListingsByItemIdWhateverTheirOrder() {
+        AssortmentSnapshot snapshot = AssortmentSnapshot.of(STORE, List.of(
+                listing("c", 300L, ItemType.FOOD), listing("a", 100L, ItemType.DRINKS), listing("b", 200L, null)));
+
+        assertEquals(3, snapshot.size());
+        for (String itemId : List.of("a", "b", "c")) {
+            int index = snapshot.indexOf(itemId);
+            assertTrue(index >= 0);
+            assertEquals(itemId, snapshot.itemId(index));
+        }
+        assertEquals(100L, snapshot.priceCents(snapshot.indexOf("a")));
+        assertEquals(300L, snapshot.priceCents(snapshot.indexOf("c")));
+        assertEquals(ItemType.DRINKS, snapshot.type(snapshot.indexOf("a")));
+        assertNull(snapshot.type(snapshot.indexOf("b")));
+    }
+
+    @Test
+    void unknownItemsAreNotContained() {
+        AssortmentSnapshot snapshot = AssortmentSnapshot.of(STORE, List.of(listing("a", 100L, ItemType.FOOD)));
+
+        assertTrue(snapshot.contains("a"));
+        assertFalse(snapshot.contains("z"));
+        assertTrue(snapshot.indexOf("z") < 0);
+        assertFalse(AssortmentSnapshot.of(STORE, List.of()).contains("a"));
+    }
+
+    @Test
+    void withListingCopiesAndLeavesTheOriginalUntouched() {
+        AssortmentSnapshot snapshot = AssortmentSnapshot.of(STORE, List.of(
+                listing("a", 100L, ItemType.FOOD), listing("b", 200L, ItemType.FOOD)));
+
+        AssortmentSnapshot repriced = snapshot.withListing(listing("b", 250L, ItemType.HOUSEHOLD));
+
+        assertEquals(200L, snapshot.priceCents(snapshot.indexOf("b")));
+        assertEquals(250L, repriced.priceCents(repriced.indexOf("b")));
+        assertEquals(ItemType.HOUSEHOLD, repriced.type(repriced.indexOf("b")));
+        assertEquals(100L, repriced.priceCents(repriced.indexOf("a")));
+        // A listing the snapshot does not hold changes nothing
+        assertSame(snapshot, snapshot.withListing(listing("z", 1L, ItemType.FOOD)));
+    }
+
+    static SupermarketItem listing(String itemId, Long price, ItemType type) {
+        Item item = new Item();
+        item.setId(itemId);
+        item.setName(itemId);
+        item.setPrice(price);
+        item.setType(type);
+        return new SupermarketItem(STORE, item);
+    }
+}
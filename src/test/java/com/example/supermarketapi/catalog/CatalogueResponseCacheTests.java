@@ -0,0 +1,152 @@
+package com.example.supermarketapi.catalog;
+
+import com.example.supermarketapi.model.Item;
+import com.example.supermarketapi.model.Supermarket;
+import com.example.supermarketapi.model.enums.ItemType;
+import com.example.supermarketapi.service.ItemService;
+import com.example.supermarketapi.service.SupermarketService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// GET /supermarkets/{id} is served from the pre-serialized body (gzipped once when large enough); writes must evict
+// it once they commit
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("h2")
+class CatalogueResponseCacheTests {
+
+    private static final int LARGE_ITEM_COUNT = 50;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private SupermarketService supermarketService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void priceChangeReplacesTheCachedBody() throws Exception {
+        String supermarketId = createSupermarket("Cache Market").getId();
+        String itemId = createItem("Cached Bread").getId();
+        supermarketService.addItems(supermarketId, List.of(itemId));
+
+        // The second read is a cache hit
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(get("/supermarkets/{supermarketId}", supermarketId))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.items[0].price").value(1.99));
+        }
+
+        mockMvc.perform(put("/items/{itemId}", itemId).contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\": \"Cached Bread\", \"price\": 2.50, \"type\": \"FOOD\"}"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/supermarkets/{supermarketId}", supermarketId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].price").value(2.5));
+    }
+
+    @Test
+    void largeBodyIsServedPreCompressedWhenGzipIsAccepted() throws Exception {
+        String supermarketId = createLargeSupermarket();
+
+        byte[] gzipped = mockMvc.perform(get("/supermarkets/{supermarketId}", supermarketId)
+                .header(HttpHeaders.ACCEPT_ENCODING, "br, gzip;q=0.8"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        JsonNode info = objectMapper.readTree(gunzip(gzipped));
+        assertEquals(LARGE_ITEM_COUNT, info.get("items").size());
+        assertTrue(gzipped.length < objectMapper.writeValueAsBytes(info).length);
+    }
+
+    @Test
+    void largeBodyIsServedPlainWhenGzipIsRefused() throws Exception {
+        String supermarketId = createLargeSupermarket();
+
+        for (String acceptEncoding : List.of("gzip;q=0", "br, gzip; q=0.0", "identity")) {
+            mockMvc.perform(get("/supermarkets/{supermarketId}", supermarketId)
+                    .header(HttpHeaders.ACCEPT_ENCODING, acceptEncoding))
+                    .andExpect(status().isOk())
+                    .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                    .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING))
+                    .andExpect(jsonPath("$.items.length()").value(LARGE_ITEM_COUNT));
+        }
+    }
+
+    @Test
+    void bodyBelowTheThresholdIsNeverCompressed() throws Exception {
+        String supermarketId = createSupermarket("Small Market").getId();
+        supermarketService.addItems(supermarketId, List.of(createItem("Small Bread").getId()));
+
+        mockMvc.perform(get("/supermarkets/{supermarketId}", supermarketId)
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING))
+                .andExpect(jsonPath("$.items[0].name").value("Small Bread"));
+    }
+
+    // Well above the 2KB compression threshold once serialized
+    private String createLargeSupermarket() {
+        String supermarketId = createSupermarket("Large Market").getId();
+        List<String> itemIds = new ArrayList<>();
+        for (int i = 0; i < LARGE_ITEM_COUNT; i++) {
+            itemIds.add(createItem("Pre-compressed item number " + i).getId());
+        }
+        supermarketService.addItems(supermarketId, itemIds);
+        return supermarketId;
+    }
+
+    private static byte[] gunzip(byte[] gzipped) throws IOException {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(gzipped))) {
+            return in.readAllBytes();
+        }
+    }
+
+    private Item createItem(String name) {
+        Item item = new Item();
+        item.setName(name);
+        item.setPrice(199L);
+        item.setType(ItemType.FOOD);
+        return itemService.createItem(item);
+    }
+
+    private Supermarket createSupermarket(String name) {
+        Supermarket supermarket = new Supermarket();
+        supermarket.setName(name);
+        supermarket.setAddress("1 Cache Street");
+        supermarket.setPhoneNumber("0881234567");
+        supermarket.setWorkHours("08:00-22:00");
+        return supermarketService.createSupermarket(supermarket);
+    }
+}
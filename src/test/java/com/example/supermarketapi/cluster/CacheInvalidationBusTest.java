@@ -0,0 +1,72 @@
+package com.example.supermarketapi.cluster;
+
+import com.example.supermarketapi.catalog.AssortmentSnapshotRegistry;
+import com.example.supermarketapi.catalog.CatalogueResponseCache;
+import com.example.supermarketapi.model.enums.CatalogueEntityType;
+import com.example.supermarketapi.model.enums.ChangeOperation;
+import com.example.supermarketapi.search.ItemSearchIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+// Version checks on invalidations from peers, which may arrive out of order (multicast) or late (polled rows)
+class CacheInvalidationBusTest {
+
+    private CatalogueResponseCache catalogueResponseCache;
+    private AssortmentSnapshotRegistry assortmentSnapshotRegistry;
+    private ItemSearchIndex itemSearchIndex;
+    private CacheInvalidationBus bus;
+
+    @BeforeEach
+    void setUp() {
+        catalogueResponseCache = mock(CatalogueResponseCache.class);
+        assortmentSnapshotRegistry = mock(AssortmentSnapshotRegistry.class);
+        itemSearchIndex = mock(ItemSearchIndex.class);
+        bus = new CacheInvalidationBus(mock(InvalidationTransport.class), catalogueResponseCache,
+                assortmentSnapshotRegistry, itemSearchIndex, 100);
+    }
+
+    @Test
+    void olderOrRepeatedChangesOfAnItemAreDropped() {
+        bus.onRemoteInvalidation(itemChange(5, null));
+        verify(catalogueResponseCache).invalidateItem("item-1");
+        clearInvocations(catalogueResponseCache, assortmentSnapshotRegistry, itemSearchIndex);
+
+        bus.onRemoteInvalidation(itemChange(5, null));
+        bus.onRemoteInvalidation(itemChange(4, null));
+        verifyNoInteractions(catalogueResponseCache, assortmentSnapshotRegistry, itemSearchIndex);
+    }
+
+    @Test
+    void listingChangeArrivingAfterANewerItemChangeStillEvictsItsSupermarket() {
+        bus.onRemoteInvalidation(itemChange(5, null));
+        verify(catalogueResponseCache, never()).invalidate("store-1");
+
+        // Seq 3 was a listing change in store-1, delivered late
+        bus.onRemoteInvalidation(itemChange(3, "store-1"));
+        verify(catalogueResponseCache).invalidate("store-1");
+        verify(assortmentSnapshotRegistry).invalidate("store-1");
+        clearInvocations(catalogueResponseCache, assortmentSnapshotRegistry, itemSearchIndex);
+
+        // A duplicate of it is still dropped
+        bus.onRemoteInvalidation(itemChange(3, "store-1"));
+        verifyNoInteractions(catalogueResponseCache, assortmentSnapshotRegistry, itemSearchIndex);
+    }
+
+    @Test
+    void ownChangesEchoedBackAreIgnored() {
+        bus.onRemoteInvalidation(new CacheInvalidation(bus.getNodeId(), 7, CatalogueEntityType.ITEM, "item-1",
+                "store-1", ChangeOperation.UPSERT));
+        verifyNoInteractions(catalogueResponseCache, assortmentSnapshotRegistry, itemSearchIndex);
+    }
+
+    private static CacheInvalidation itemChange(long version, String supermarketId) {
+        return new CacheInvalidation("peer", version, CatalogueEntityType.ITEM, "item-1", supermarketId,
+                ChangeOperation.UPSERT);
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.supermarketapi.cluster;
+
+import com.example.supermarketapi.SupermarketApiApplication;
+import com.example.supermarketapi.catalog.AssortmentSnapshot;
+import com.example.supermarketapi.catalog.AssortmentSnapshotRegistry;
+import com.example.supermarketapi.catalog.CatalogueResponseCache;
+import com.example.supermarketapi.model.Item;
+import com.example.supermarketapi.model.Supermarket;
+import com.example.supermarketapi.model.enums.ItemType;
+import com.example.supermarketapi.service.ItemService;
+import com.example.supermarketapi.service.SupermarketService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Two API nodes on localhost sharing one H2 database, kept coherent by the db-polling transport
+class CacheInvalidationBusTests {
+
+    private ConfigurableApplicationContext nodeA;
+    private ConfigurableApplicationContext nodeB;
+
+    @BeforeEach
+    void startNodes() {
+        nodeA = startNode();
+        nodeB = startNode();
+    }
+
+    @AfterEach
+    void stopNodes() {
+        nodeB.close();
+        nodeA.close();
+    }
+
+    @Test
+    void priceChangeOnOneNodeEvictsTheOtherNodesCaches() throws InterruptedException {
+        Supermarket supermarket = new Supermarket();
+        supermarket.setName("Bus Market");
+        supermarket.setAddress("2 Test Street");
+        String supermarketId = nodeA.getBean(SupermarketService.class).createSupermarket(supermarket).getId();
+
+        Item item = new Item();
+        item.setName("Orange Juice");
+        item.setPrice(199L);
+        item.setType(ItemType.DRINKS);
+        String itemId = nodeA.getBean(ItemService.class).createItem(item).getId();
+        nodeA.getBean(SupermarketService.class).addItems(supermarketId, List.of(itemId));
+
+        // Warm node B's caches
+        assertTrue(cachedInfoOnB(supermarketId).contains("1.99"));
+        AssortmentSnapshot snapshot = nodeB.getBean(AssortmentSnapshotRegistry.class).get(supermarketId);
+        assertEquals(199L, snapshot.priceCents(snapshot.indexOf(itemId)));
+
+        Item change = new Item();
+        change.setPrice(249L);
+        nodeA.getBean(ItemService.class).partialUpdateItem(itemId, change);
+
+        awaitTrue(() -> cachedInfoOnB(supermarketId).contains("2.49"));
+        AssortmentSnapshot refreshed = nodeB.getBean(AssortmentSnapshotRegistry.class).get(supermarketId);
+        assertEquals(249L, refreshed.priceCents(refreshed.indexOf(itemId)));
+    }
+
+    private String cachedInfoOnB(String supermarketId) {
+        SupermarketService service = nodeB.getBean(SupermarketService.class);
+        byte[] body = nodeB.getBean(CatalogueResponseCache.class)
+                .getSupermarketInfo(supermarketId, () -> service.getSupermarketInfo(supermarketId))
+                .getBody();
+        return new String(body, StandardCharsets.UTF_8);
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "peer node was not invalidated in time");
+            Thread.sleep(50);
+        }
+    }
+
+    private static ConfigurableApplicationContext startNode() {
+        return new SpringApplicationBuilder(SupermarketApiApplication.class)
+                .profiles("h2")
+                .properties("server.port=0",
+                        "spring.datasource.url=jdbc:h2:mem:cache_bus;MODE=MySQL;DB_CLOSE_DELAY=-1",
+                        "spring.jpa.hibernate.ddl-auto=update",
+                        "app.cache-bus.transport=db",
+                        "app.cache-bus.poll-interval=50ms",
+                        "app.catalogue-changes.settle-window=0s")
+                .run();
+    }
+}
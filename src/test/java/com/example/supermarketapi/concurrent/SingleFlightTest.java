@@ -0,0 +1,101 @@
+package com.example.supermarketapi.concurrent;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SingleFlightTest {
+
+    private static final int CALLERS = 16;
+
+    private final ExecutorService callers = Executors.newFixedThreadPool(CALLERS);
+
+    @AfterEach
+    void stopCallers() {
+        callers.shutdownNow();
+    }
+
+    @Test
+    void burstOfReadsForOneKeyRunsOneQuery() throws Exception {
+        SingleFlight<String, Object> flight = new SingleFlight<>("test");
+        AtomicInteger queries = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        Object row = new Object();
+
+        List<Future<Object>> results = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            results.add(callers.submit(() -> flight.load("item-1", () -> {
+                queries.incrementAndGet();
+                await(release);
+                return row;
+            })));
+        }
+        // Hold the query until every other caller has joined it
+        waitUntil(() -> flight.getCoalesced() == CALLERS - 1);
+        release.countDown();
+
+        for (Future<Object> result : results) {
+            assertSame(row, result.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, queries.get());
+        assertEquals(1, flight.getLoads());
+        assertEquals(CALLERS - 1, flight.getCoalesced());
+        assertEquals(0, flight.getInFlight());
+    }
+
+    @Test
+    void failureReachesEveryWaiterAndIsNotRemembered() throws Exception {
+        SingleFlight<String, Object> flight = new SingleFlight<>("test");
+        CountDownLatch release = new CountDownLatch(1);
+
+        Future<Object> leader = callers.submit(() -> flight.load("item-1", () -> {
+            await(release);
+            throw new IllegalStateException("database down");
+        }));
+        waitUntil(() -> flight.getInFlight() == 1);
+        Future<Object> waiter = callers.submit(() -> flight.load("item-1", Object::new));
+        waitUntil(() -> flight.getCoalesced() == 1);
+        release.countDown();
+
+        for (Future<Object> result : List.of(leader, waiter)) {
+            ExecutionException e = assertThrows(ExecutionException.class,
+                    () -> result.get(5, TimeUnit.SECONDS));
+            assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+        // The next read queries again
+        Object row = new Object();
+        assertSame(row, flight.load("item-1", () -> row));
+        assertEquals(2, flight.getLoads());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "timed out");
+            Thread.sleep(1);
+        }
+    }
+}
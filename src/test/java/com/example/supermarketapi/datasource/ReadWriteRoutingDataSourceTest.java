@@ -0,0 +1,60 @@
+package com.example.supermarketapi.datasource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+
+class ReadWriteRoutingDataSourceTest {
+
+    private final DataSource primary = mock(DataSource.class);
+    private final Map<String, DataSource> replicas = new LinkedHashMap<>();
+
+    @AfterEach
+    void clearTransactionState() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+    }
+
+    @Test
+    void readOnlyTransactionsRoundRobinOverReplicas() {
+        ReadWriteRoutingDataSource routing = routing(false);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertEquals("replica-1", routing.determineCurrentLookupKey());
+        assertEquals("replica-2", routing.determineCurrentLookupKey());
+        assertEquals("replica-1", routing.determineCurrentLookupKey());
+    }
+
+    @Test
+    void writesAndPinnedReadsUseThePrimary() {
+        ReadWriteRoutingDataSource routing = routing(false);
+        assertEquals(ReadWriteRoutingDataSource.PRIMARY, routing.determineCurrentLookupKey());
+
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        assertEquals(ReadWriteRoutingDataSource.PRIMARY,
+                DataSourceRouting.onPrimary(routing::determineCurrentLookupKey));
+    }
+
+    @Test
+    void readsFallBackToThePrimaryWhileEveryReplicaLags() {
+        // Lag checks on but never run: no replica has proven it is current yet
+        ReadWriteRoutingDataSource routing = routing(true);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertEquals(ReadWriteRoutingDataSource.PRIMARY, routing.determineCurrentLookupKey());
+    }
+
+    private ReadWriteRoutingDataSource routing(boolean lagChecks) {
+        replicas.put("replica-1", mock(DataSource.class));
+        replicas.put("replica-2", mock(DataSource.class));
+        ReplicaLagMonitor monitor = new ReplicaLagMonitor(primary, replicas, Duration.ofSeconds(3), lagChecks);
+        return new ReadWriteRoutingDataSource(primary, replicas, monitor);
+    }
+}
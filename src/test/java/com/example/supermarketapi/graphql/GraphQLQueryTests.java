@@ -0,0 +1,106 @@
+package com.example.supermarketapi.graphql;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("h2")
+class GraphQLQueryTests {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void supermarketsWithFilteredItemsAndRecentPurchases() {
+        String north = createSupermarket("GraphQL North", "0881111111");
+        String south = createSupermarket("GraphQL South", "0882222222");
+        String water = createItem("Still Water", 0.99, "DRINKS");
+        String bread = createItem("Rye Bread", 2.49, "FOOD");
+        addItems(north, water, bread);
+        addItems(south, water);
+        buy(north, water, bread);
+        buy(south, water);
+
+        Map<String, Object> body = query("query($ids: [ID!]!) { supermarkets(ids: $ids) { name"
+                + " items(type: DRINKS) { name price supermarketId }"
+                + " recentPurchases(first: 5) { price items { name } } } }", Map.of("ids", List.of(north, south)));
+
+        assertNull(body.get("errors"));
+        List<Map<String, Object>> supermarkets =
+                (List<Map<String, Object>>) ((Map<String, Object>) body.get("data")).get("supermarkets");
+        assertEquals(List.of("GraphQL North", "GraphQL South"), List.of(supermarkets.get(0).get("name"),
+                supermarkets.get(1).get("name")));
+
+        List<Map<String, Object>> northItems = (List<Map<String, Object>>) supermarkets.get(0).get("items");
+        assertEquals(1, northItems.size());
+        assertEquals("Still Water", northItems.get(0).get("name"));
+        assertEquals(north, northItems.get(0).get("supermarketId"));
+
+        List<Map<String, Object>> northPurchases =
+                (List<Map<String, Object>>) supermarkets.get(0).get("recentPurchases");
+        assertEquals(1, northPurchases.size());
+        assertEquals(3.48, ((Number) northPurchases.get(0).get("price")).doubleValue());
+        assertEquals(2, ((List<?>) northPurchases.get(0).get("items")).size());
+        assertEquals(1, ((List<?>) supermarkets.get(1).get("recentPurchases")).size());
+    }
+
+    @Test
+    void queriesOverTheComplexityLimitAreRejected() {
+        // 100 x 100 x 100 purchases' items is far above the limit
+        Map<String, Object> body = query("query($ids: [ID!]!) { supermarkets(ids: $ids) {"
+                + " recentPurchases(first: 100) { items { name } }"
+                + " items(first: 100) { name } } }", Map.of("ids", Collections.nCopies(100, "missing")));
+
+        assertNull(body.get("data"));
+        assertTrue(body.get("errors").toString().contains("complexity"));
+    }
+
+    private Map<String, Object> query(String query, Map<String, Object> variables) {
+        ResponseEntity<Map> response = restTemplate.postForEntity("/graphql",
+                Map.of("query", query, "variables", variables), Map.class);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        return response.getBody();
+    }
+
+    private String createSupermarket(String name, String phoneNumber) {
+        return (String) restTemplate.postForEntity("/supermarkets", Map.of(
+                "name", name,
+                "address", "1 Query Street",
+                "phoneNumber", phoneNumber,
+                "workHours", "08:00-22:00"), Map.class).getBody().get("id");
+    }
+
+    private String createItem(String name, double price, String type) {
+        return (String) restTemplate.postForEntity("/items", Map.of(
+                "name", name,
+                "price", price,
+                "type", type), Map.class).getBody().get("id");
+    }
+
+    private void addItems(String supermarketId, String... itemIds) {
+        restTemplate.postForEntity("/supermarkets/addItems?supermarketId={supermarketId}&itemsIDs={itemIds}", null,
+                Map.class, supermarketId, String.join(",", itemIds));
+    }
+
+    private void buy(String supermarketId, String... itemIds) {
+        ResponseEntity<Map> purchase = restTemplate.postForEntity("/purchases", Map.of(
+                "supermarketId", supermarketId,
+                "itemIDs", List.of(itemIds),
+                "type", "CARD"), Map.class);
+        assertEquals(HttpStatus.CREATED, purchase.getStatusCode());
+    }
+}
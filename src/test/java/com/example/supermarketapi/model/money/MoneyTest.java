@@ -0,0 +1,63 @@
+package com.example.supermarketapi.model.money;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class MoneyTest {
+
+    private static final int RUNS = 2_000;
+
+    // Property: for random baskets, the long cents total equals the BigDecimal reference total
+    @Test
+    void basketTotalsMatchBigDecimalReference() {
+        Random random = new Random(20240601L);
+        for (int run = 0; run < RUNS; run++) {
+            int lines = 1 + random.nextInt(500);
+            long[] cents = new long[lines];
+            BigDecimal reference = BigDecimal.ZERO;
+            for (int i = 0; i < lines; i++) {
+                BigDecimal price = BigDecimal.valueOf(1 + random.nextInt(999_999), 2);
+                cents[i] = Money.toCents(price);
+                reference = reference.add(price);
+            }
+            assertEquals(reference, Money.toDecimal(Money.sum(cents)));
+        }
+    }
+
+    @Test
+    void changeMatchesBigDecimalReference() {
+        Random random = new Random(42L);
+        for (int run = 0; run < RUNS; run++) {
+            BigDecimal cash = BigDecimal.valueOf(random.nextInt(100_000_000), 2);
+            BigDecimal price = BigDecimal.valueOf(random.nextInt(100_000_000), 2);
+            long change = Money.subtract(Money.toCents(cash), Money.toCents(price));
+            assertEquals(cash.subtract(price), Money.toDecimal(change));
+        }
+    }
+
+    @Test
+    void converterRoundTripsEveryAmount() {
+        MoneyAttributeConverter converter = new MoneyAttributeConverter();
+        Random random = new Random(7L);
+        for (int run = 0; run < RUNS; run++) {
+            long cents = random.nextLong() / 1000;
+            assertEquals(cents, converter.convertToEntityAttribute(converter.convertToDatabaseColumn(cents)));
+        }
+    }
+
+    @Test
+    void roundsHalfUpToCents() {
+        assertEquals(1000L, Money.toCents(new BigDecimal("9.995")));
+        assertEquals(999L, Money.toCents(new BigDecimal("9.994")));
+    }
+
+    @Test
+    void overflowFailsInsteadOfWrapping() {
+        assertThrows(ArithmeticException.class, () -> Money.sum(new long[]{Long.MAX_VALUE, 1}));
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.supermarketapi.profiling;
+
+import com.example.supermarketapi.dto.ProfileSummaryDTO;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FlightRecorderServiceTest {
+
+    @TempDir
+    Path directory;
+
+    private FlightRecorderService service;
+
+    @AfterEach
+    void close() {
+        service.close();
+    }
+
+    @Test
+    void recordsApplicationEventsAndSummarizes() throws Exception {
+        service = new FlightRecorderService(directory.toString(), Duration.ofMinutes(1));
+        assertTrue(service.start(null));
+        assertFalse(service.start(null), "only one recording at a time");
+
+        CheckoutEvent event = new CheckoutEvent("supermarket-1", 3);
+        event.start();
+        event.finish();
+
+        assertTrue(service.stop());
+        assertFalse(service.status().isRunning());
+        Path file = service.lastRecording().orElseThrow();
+
+        List<RecordedEvent> checkouts = RecordingFile.readAllEvents(file).stream()
+                .filter(recorded -> recorded.getEventType().getName().equals("com.example.supermarketapi.Checkout"))
+                .collect(Collectors.toList());
+        assertEquals(1, checkouts.size());
+        assertEquals("supermarket-1", checkouts.get(0).getString("supermarketId"));
+        assertEquals(3, checkouts.get(0).getInt("itemCount"));
+        assertEquals(0, checkouts.get(0).getLong("sqlCount"));
+
+        ProfileSummaryDTO summary = service.summarize(10).orElseThrow();
+        assertTrue(summary.getHotMethods().size() <= 10);
+        assertTrue(summary.getExecutionSamples() >= 0);
+    }
+
+    @Test
+    void nothingToDownloadBeforeTheFirstRecording() {
+        service = new FlightRecorderService(directory.toString(), Duration.ofMinutes(1));
+        assertTrue(service.lastRecording().isEmpty());
+        assertFalse(service.stop());
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.supermarketapi.promotion;
+
+import com.example.supermarketapi.catalog.AssortmentSnapshot;
+import com.example.supermarketapi.model.Item;
+import com.example.supermarketapi.model.Promotion;
+import com.example.supermarketapi.model.SupermarketItem;
+import com.example.supermarketapi.model.enums.ItemType;
+import com.example.supermarketapi.model.enums.PromotionType;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class PromotionIndexTest {
+
+    private static final String STORE = "store-1";
+
+    private final AssortmentSnapshot assortment = AssortmentSnapshot.of(STORE, List.of(
+            listing("bread", 100, ItemType.FOOD),
+            listing("cola", 250, ItemType.DRINKS),
+            listing("lamp", 2000, ItemType.HOUSEHOLD)));
+
+    @Test
+    void multiBuyDiscountsEveryCompleteSet() {
+        PromotionIndex index = PromotionIndex.compile(List.of(multiBuy("bread", 3, 2, null)), 0L);
+
+        assertEquals(0, evaluate(index, "bread", "bread"));
+        assertEquals(100, evaluate(index, "bread", "bread", "bread"));
+        assertEquals(100, evaluate(index, "bread", "cola", "bread", "bread", "bread", "bread"));
+        assertEquals(200, evaluate(index, "bread", "bread", "bread", "bread", "bread", "bread"));
+    }
+
+    @Test
+    void betterOfMultiBuyAndPercentOffAppliesPerItem() {
+        PromotionIndex index = PromotionIndex.compile(List.of(
+                multiBuy("bread", 2, 1, null),
+                percentOff(ItemType.FOOD, 10, null),
+                percentOff(ItemType.DRINKS, 20, STORE),
+                percentOff(ItemType.DRINKS, 50, "store-2")), 0L);
+
+        // Two breads: multi-buy 100 beats 10% of 200; one cola: this store's 20%
+        assertEquals(150, evaluate(index, "bread", "cola", "bread"));
+        // A single bread is only worth the percent-off
+        assertEquals(10, evaluate(index, "bread"));
+    }
+
+    @Test
+    void basketThresholdAppliesToWhatIsLeftAfterItemDiscounts() {
+        PromotionIndex index = PromotionIndex.compile(List.of(
+                percentOff(ItemType.HOUSEHOLD, 10, null),
+                threshold(2000, 300, STORE),
+                threshold(1500, 100, STORE),
+                threshold(5000, 1000, null)), 0L);
+
+        // 2000 - 200 = 1800 left, only the 1500 threshold is reached
+        assertEquals(300, evaluate(index, "lamp"));
+        // 4000 - 400 = 3600, the best reached is 300
+        assertEquals(700, evaluate(index, "lamp", "lamp"));
+    }
+
+    @Test
+    void promotionsOnlyApplyWithinTheirWindow() {
+        Instant start = Instant.ofEpochMilli(1_000);
+        Promotion later = percentOff(ItemType.FOOD, 50, null);
+        later.setStartsAt(start);
+        later.setEndsAt(start.plusMillis(1_000));
+
+        PromotionIndex before = PromotionIndex.compile(List.of(later), 0L);
+        assertEquals(0, evaluate(before, "bread"));
+        assertEquals(start.toEpochMilli(), before.getValidUntilMillis());
+
+        PromotionIndex during = before.recompile(start.toEpochMilli());
+        assertEquals(50, evaluate(during, "bread"));
+        assertEquals(0, evaluate(during.recompile(2_000), "bread"));
+    }
+
+    private long evaluate(PromotionIndex index, String... itemIds) {
+        int[] slots = new int[itemIds.length];
+        for (int i = 0; i < itemIds.length; i++) {
+            slots[i] = assortment.indexOf(itemIds[i]);
+        }
+        return index.evaluate(STORE, assortment, slots, slots.length);
+    }
+
+    private static SupermarketItem listing(String itemId, long price, ItemType type) {
+        Item item = new Item();
+        item.setId(itemId);
+        item.setName(itemId);
+        item.setPrice(price);
+        item.setType(type);
+        return new SupermarketItem(STORE, item);
+    }
+
+    private static Promotion multiBuy(String itemId, int buy, int pay, String supermarketId) {
+        Promotion promotion = promotion(PromotionType.MULTI_BUY, supermarketId);
+        promotion.setItemId(itemId);
+        promotion.setBuyQuantity(buy);
+        promotion.setPayQuantity(pay);
+        return promotion;
+    }
+
+    private static Promotion percentOff(ItemType type, int percent, String supermarketId) {
+        Promotion promotion = promotion(PromotionType.PERCENT_OFF_TYPE, supermarketId);
+        promotion.setItemType(type);
+        promotion.setPercentOff(percent);
+        return promotion;
+    }
+
+    private static Promotion threshold(long thresholdAmount, long discountAmount, String supermarketId) {
+        Promotion promotion = promotion(PromotionType.BASKET_THRESHOLD, supermarketId);
+        promotion.setThresholdAmount(thresholdAmount);
+        promotion.setDiscountAmount(discountAmount);
+        return promotion;
+    }
+
+    private static Promotion promotion(PromotionType type, String supermarketId) {
+        Promotion promotion = new Promotion();
+        promotion.setName(type.name());
+        promotion.setType(type);
+        promotion.setSupermarketId(supermarketId);
+        return promotion;
+    }
+}
@@ -0,0 +1,213 @@
+package com.example.supermarketapi.push;
+
+import com.example.supermarketapi.dto.ItemResponseDTO;
+import com.example.supermarketapi.event.ItemChangedEvent;
+import com.example.supermarketapi.event.SupermarketChangedEvent;
+import com.example.supermarketapi.mapper.CatalogueMapper;
+import com.example.supermarketapi.model.Item;
+import com.example.supermarketapi.model.SupermarketItem;
+import com.example.supermarketapi.model.enums.ItemType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ScheduledExecutorService;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AssortmentChangeBroadcasterTest {
+
+    // Drain tasks queued by the broadcaster, run by the test on its own thread
+    private final Queue<Runnable> drains = new ArrayDeque<>();
+
+    private ScheduledExecutorService pushExecutor;
+    private CatalogueMapper catalogueMapper;
+
+    @BeforeEach
+    void setUp() {
+        pushExecutor = mock(ScheduledExecutorService.class);
+        doAnswer(invocation -> drains.add(invocation.getArgument(0))).when(pushExecutor).execute(any());
+        catalogueMapper = mock(CatalogueMapper.class);
+        when(catalogueMapper.toItemResponse(any(Item.class), any(SupermarketItem.class))).thenAnswer(invocation -> {
+            Item item = invocation.getArgument(0);
+            SupermarketItem listing = invocation.getArgument(1);
+            return new ItemResponseDTO(item.getId(), item.getName(), listing.getPrice(), item.getType(),
+                    listing.getSupermarketId());
+        });
+    }
+
+    @Test
+    void rapidUpdatesToOneItemCollapseIntoTheLatest() {
+        AssortmentChangeBroadcaster broadcaster = broadcaster(10, 16);
+        RecordingEmitter emitter = (RecordingEmitter) broadcaster.subscribe("store-1");
+
+        broadcaster.onItemChanged(itemChanged("store-1", "a", "Apples v1"));
+        broadcaster.onItemChanged(itemChanged("store-1", "b", "Bread"));
+        broadcaster.onItemChanged(itemChanged("store-1", "a", "Apples v2"));
+        // One drain per subscriber, however many changes are waiting
+        assertEquals(1, drains.size());
+        runDrains();
+
+        assertEquals(List.of("change", "change"), emitter.names());
+        assertTrue(emitter.events.get(0).contains("Apples v2"));
+        assertTrue(emitter.events.get(1).contains("Bread"));
+
+        broadcaster.onItemChanged(itemChanged("store-1", "a", "Apples v3"));
+        runDrains();
+        assertEquals(3, emitter.events.size());
+        assertTrue(emitter.events.get(2).contains("Apples v3"));
+    }
+
+    @Test
+    void changesOnlyReachSubscribersOfTheirSupermarket() {
+        AssortmentChangeBroadcaster broadcaster = broadcaster(10, 16);
+        RecordingEmitter subscribed = (RecordingEmitter) broadcaster.subscribe("store-1");
+        RecordingEmitter other = (RecordingEmitter) broadcaster.subscribe("store-2");
+
+        broadcaster.onItemChanged(itemChanged("store-1", "a", "Apples"));
+        runDrains();
+
+        assertEquals(List.of("change"), subscribed.names());
+        assertTrue(other.events.isEmpty());
+    }
+
+    @Test
+    void overflowingTheBufferSendsASingleResync() {
+        AssortmentChangeBroadcaster broadcaster = broadcaster(10, 2);
+        RecordingEmitter emitter = (RecordingEmitter) broadcaster.subscribe("store-1");
+
+        broadcaster.onItemChanged(itemChanged("store-1", "a", "Apples"));
+        broadcaster.onItemChanged(itemChanged("store-1", "b", "Bread"));
+        // A buffered item still fits, a new one overflows
+        broadcaster.onItemChanged(itemChanged("store-1", "a", "Apples v2"));
+        broadcaster.onItemChanged(itemChanged("store-1", "c", "Cheese"));
+        // Dropped until the resync is out
+        broadcaster.onItemChanged(itemChanged("store-1", "d", "Dates"));
+        runDrains();
+
+        assertEquals(List.of("resync"), emitter.names());
+
+        broadcaster.onItemChanged(itemChanged("store-1", "e", "Eggs"));
+        runDrains();
+        assertEquals(List.of("resync", "change"), emitter.names());
+        assertTrue(emitter.events.get(1).contains("Eggs"));
+    }
+
+    @Test
+    void subscribeReturnsNullOnceTheCapIsReached() {
+        AssortmentChangeBroadcaster broadcaster = broadcaster(2, 16);
+
+        assertNotNull(broadcaster.subscribe("store-1"));
+        assertNotNull(broadcaster.subscribe("store-2"));
+        // The controller answers 503 with Retry-After
+        assertNull(broadcaster.subscribe("store-1"));
+        assertEquals(2, broadcaster.getSubscriberCount());
+
+        // A closed stream frees its slot
+        broadcaster.onSupermarketChanged(new SupermarketChangedEvent("store-2", null));
+        runDrains();
+        assertEquals(1, broadcaster.getSubscriberCount());
+        assertNotNull(broadcaster.subscribe("store-1"));
+    }
+
+    @Test
+    void deletingTheSupermarketClosesItsStreams() {
+        AssortmentChangeBroadcaster broadcaster = broadcaster(10, 16);
+        RecordingEmitter deleted = (RecordingEmitter) broadcaster.subscribe("store-1");
+        RecordingEmitter other = (RecordingEmitter) broadcaster.subscribe("store-2");
+
+        broadcaster.onItemChanged(itemChanged("store-1", "a", "Apples"));
+        broadcaster.onSupermarketChanged(new SupermarketChangedEvent("store-1", null));
+        runDrains();
+
+        // Pending changes go out before the stream is closed
+        assertEquals(List.of("change", "deleted"), deleted.names());
+        assertTrue(deleted.completed);
+        assertFalse(other.completed);
+        assertEquals(1, broadcaster.getSubscriberCount());
+
+        broadcaster.onItemChanged(itemChanged("store-1", "b", "Bread"));
+        runDrains();
+        assertEquals(2, deleted.events.size());
+    }
+
+    @Test
+    void heartbeatPingsOnlyIdleSubscribers() {
+        AssortmentChangeBroadcaster broadcaster = broadcaster(10, 16);
+        RecordingEmitter idle = (RecordingEmitter) broadcaster.subscribe("store-1");
+        RecordingEmitter busy = (RecordingEmitter) broadcaster.subscribe("store-2");
+
+        broadcaster.onItemChanged(itemChanged("store-2", "a", "Apples"));
+        broadcaster.heartbeat();
+        runDrains();
+
+        assertEquals(List.of("ping"), idle.names());
+        assertEquals(List.of("change"), busy.names());
+    }
+
+    private AssortmentChangeBroadcaster broadcaster(int maxSubscribers, int bufferSize) {
+        return new AssortmentChangeBroadcaster(new ObjectMapper(), catalogueMapper, maxSubscribers, bufferSize,
+                Duration.ofMinutes(30), pushExecutor, RecordingEmitter::new);
+    }
+
+    private void runDrains() {
+        while (!drains.isEmpty()) {
+            drains.poll().run();
+        }
+    }
+
+    private static ItemChangedEvent itemChanged(String supermarketId, String itemId, String name) {
+        Item item = new Item();
+        item.setId(itemId);
+        item.setName(name);
+        item.setPrice(199L);
+        item.setType(ItemType.FOOD);
+        return new ItemChangedEvent(itemId, List.of(new SupermarketItem(supermarketId, item)), item);
+    }
+
+    // Keeps the text of each event instead of writing it to a response
+    private static final class RecordingEmitter extends SseEmitter {
+
+        private final List<String> events = new ArrayList<>();
+        private boolean completed;
+
+        private RecordingEmitter(long timeout) {
+            super(timeout);
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            StringBuilder event = new StringBuilder();
+            builder.build().forEach(data -> event.append(data.getData()));
+            events.add(event.toString());
+        }
+
+        @Override
+        public synchronized void complete() {
+            completed = true;
+        }
+
+        private List<String> names() {
+            List<String> names = new ArrayList<>();
+            for (String event : events) {
+                names.add(event.startsWith(":") ? event.substring(1).trim()
+                        : event.substring("event:".length(), event.indexOf('\n')));
+            }
+            return names;
+        }
+    }
+}
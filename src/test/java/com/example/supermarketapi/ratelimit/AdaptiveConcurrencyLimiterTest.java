@@ -0,0 +1,65 @@
+package com.example.supermarketapi.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    private static final long MS = 1_000_000L;
+    private static final long WINDOW = 100 * MS;
+
+    @Test
+    void rejectsRequestsOverTheLimitAndAdmitsAgainOnRelease() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(2, 1, 10, 1.5, 0);
+
+        assertTrue(limiter.tryAcquire());
+        assertTrue(limiter.tryAcquire());
+        assertFalse(limiter.tryAcquire());
+        assertEquals(2, limiter.getInFlight());
+
+        limiter.release(MS, MS);
+        assertTrue(limiter.tryAcquire());
+    }
+
+    @Test
+    void growsWhileLatencyStaysAtItsBaseline() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(20, 10, 100, 1.5, 0);
+
+        long now = 0;
+        for (int window = 0; window < 20; window++) {
+            now += WINDOW;
+            runWindow(limiter, 10 * MS, now);
+        }
+        assertTrue(limiter.getLimit() > 20, "limit " + limiter.getLimit());
+    }
+
+    @Test
+    void shrinksWhenLatencyRisesButNotBelowTheMinimum() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(100, 10, 1000, 1.0, 0);
+        long now = WINDOW;
+        runWindow(limiter, 10 * MS, now);
+        int baseline = limiter.getLimit();
+
+        // Requests now take ten times as long: they are queueing
+        for (int window = 0; window < 5; window++) {
+            now += WINDOW;
+            runWindow(limiter, 100 * MS, now);
+        }
+        assertTrue(limiter.getLimit() < baseline, limiter.getLimit() + " >= " + baseline);
+
+        for (int window = 0; window < 200; window++) {
+            now += WINDOW;
+            runWindow(limiter, 100 * MS, now);
+        }
+        assertTrue(limiter.getLimit() >= 10);
+    }
+
+    // Closes the window ending at now after one request of the given round trip
+    private static void runWindow(AdaptiveConcurrencyLimiter limiter, long rtt, long now) {
+        assertTrue(limiter.tryAcquire());
+        limiter.release(rtt, now);
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.supermarketapi.ratelimit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+class RateLimitFilterTest {
+
+    @Test
+    void classifiesRoutes() {
+        assertEquals(RouteClass.CHECKOUT, RateLimitFilter.classify(request("POST", "/purchases")));
+        assertEquals(RouteClass.EXPORT, RateLimitFilter.classify(request("GET", "/items")));
+        assertEquals(RouteClass.EXPORT, RateLimitFilter.classify(request("HEAD", "/purchases")));
+        assertEquals(RouteClass.EXPORT, RateLimitFilter.classify(request("GET", "/supermarkets")));
+        assertEquals(RouteClass.EXPORT, RateLimitFilter.classify(request("POST", "/graphql")));
+        assertEquals(RouteClass.READ, RateLimitFilter.classify(request("GET", "/items/abc")));
+        assertEquals(RouteClass.READ, RateLimitFilter.classify(request("POST", "/items/batch-get")));
+        assertEquals(RouteClass.READ, RateLimitFilter.classify(request("POST", "/supermarkets/batch-get")));
+        assertEquals(RouteClass.WRITE, RateLimitFilter.classify(request("POST", "/items")));
+        assertEquals(RouteClass.WRITE, RateLimitFilter.classify(request("PATCH", "/purchases/abc")));
+        assertEquals(RouteClass.WRITE, RateLimitFilter.classify(request("DELETE", "/supermarkets/abc")));
+    }
+
+    @Test
+    void onlyConfiguredApiKeysIdentifyAClient() {
+        RateLimitFilter filter = filter(List.of("partner-1"), 10);
+
+        assertEquals("key:partner-1", filter.clientKey(request("GET", "/items/abc", "10.0.0.1", "partner-1")));
+        assertEquals("ip:10.0.0.1", filter.clientKey(request("GET", "/items/abc", "10.0.0.1", "made-up")));
+        assertEquals("ip:10.0.0.1", filter.clientKey(request("GET", "/items/abc", "10.0.0.1", null)));
+    }
+
+    @Test
+    void rotatingUnknownKeysSharesTheCallersBudget() throws Exception {
+        RateLimitFilter filter = filter(List.of(), 3);
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(200, perform(filter, request("GET", "/items/abc", "10.0.0.1", "key-" + i)).getStatus());
+        }
+        MockHttpServletResponse limited = perform(filter, request("GET", "/items/abc", "10.0.0.1", "key-3"));
+        assertEquals(429, limited.getStatus());
+        assertNotNull(limited.getHeader("Retry-After"));
+
+        // Another caller has its own budget, and checkout is never limited
+        assertEquals(200, perform(filter, request("GET", "/items/abc", "10.0.0.2", null)).getStatus());
+        assertEquals(200, perform(filter, request("POST", "/purchases", "10.0.0.1", null)).getStatus());
+    }
+
+    private static RateLimitFilter filter(List<String> apiKeys, int readBurst) {
+        return new RateLimitFilter(true, apiKeys, 1000, 0.001, readBurst, 0.001, 1, 0.001, 1, 100, 10, 1000, 1.5);
+    }
+
+    private static MockHttpServletResponse perform(RateLimitFilter filter, MockHttpServletRequest request)
+            throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+
+    private static MockHttpServletRequest request(String method, String path) {
+        return new MockHttpServletRequest(method, path);
+    }
+
+    private static MockHttpServletRequest request(String method, String path, String remoteAddress, String apiKey) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, path);
+        request.setRemoteAddr(remoteAddress);
+        if (apiKey != null) {
+            request.addHeader("X-API-Key", apiKey);
+        }
+        return request;
+    }
+}
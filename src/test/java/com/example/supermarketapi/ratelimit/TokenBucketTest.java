@@ -0,0 +1,58 @@
+package com.example.supermarketapi.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TokenBucketTest {
+
+    private static final long SECOND = 1_000_000_000L;
+
+    @Test
+    void allowsABurstThenRefillsOnePermitPerEmissionInterval() {
+        // 10 per second: one permit every 100ms, up to 5 at once
+        TokenBucket bucket = new TokenBucket(10, 5, 0);
+
+        for (int i = 0; i < 5; i++) {
+            assertTrue(bucket.tryAcquire(0));
+        }
+        assertFalse(bucket.tryAcquire(0));
+        assertEquals(SECOND / 10, bucket.nanosUntilAvailable(0));
+
+        assertFalse(bucket.tryAcquire(SECOND / 10 - 1));
+        assertTrue(bucket.tryAcquire(SECOND / 10));
+        assertFalse(bucket.tryAcquire(SECOND / 10));
+    }
+
+    @Test
+    void idleTimeRefillsUpToTheBurstOnly() {
+        TokenBucket bucket = new TokenBucket(10, 3, 0);
+        for (int i = 0; i < 3; i++) {
+            assertTrue(bucket.tryAcquire(0));
+        }
+        assertFalse(bucket.isFull(0));
+
+        // A minute idle still only buys the burst
+        long later = 60 * SECOND;
+        assertTrue(bucket.isFull(later));
+        for (int i = 0; i < 3; i++) {
+            assertTrue(bucket.tryAcquire(later));
+        }
+        assertFalse(bucket.tryAcquire(later));
+    }
+
+    @Test
+    void sustainedRateMatchesPermitsPerSecond() {
+        TokenBucket bucket = new TokenBucket(10, 1, 0);
+        int granted = 0;
+        // A request every 10ms for ten seconds
+        for (long now = 0; now < 10 * SECOND; now += SECOND / 100) {
+            if (bucket.tryAcquire(now)) {
+                granted++;
+            }
+        }
+        assertEquals(100, granted);
+    }
+}
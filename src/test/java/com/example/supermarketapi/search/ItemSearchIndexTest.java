@@ -0,0 +1,144 @@
+package com.example.supermarketapi.search;
+
+import com.example.supermarketapi.event.ItemChangedEvent;
+import com.example.supermarketapi.event.SupermarketChangedEvent;
+import com.example.supermarketapi.event.SupermarketItemsChangedEvent;
+import com.example.supermarketapi.model.Item;
+import com.example.supermarketapi.model.SupermarketItem;
+import com.example.supermarketapi.model.enums.ItemType;
+import com.example.supermarketapi.repository.ItemRepository;
+import com.example.supermarketapi.repository.SupermarketItemRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+class ItemSearchIndexTest {
+
+    private ItemSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new ItemSearchIndex(mock(ItemRepository.class), mock(SupermarketItemRepository.class));
+        put(item("1", "Whole Milk 1L", 150L, ItemType.DRINKS), "store-1");
+        put(item("2", "Skimmed Milk", 140L, ItemType.DRINKS), "store-1", "store-2");
+        put(item("3", "Milk Chocolate", 250L, ItemType.FOOD), "store-2");
+        put(item("4", "Whole-grain Bread", 220L, ItemType.FOOD));
+    }
+
+    @Test
+    void tokenizeLowercasesAndSplitsOnNonAlphanumerics() {
+        assertEquals(List.of("whole", "grain", "bread"), ItemSearchIndex.tokenize("Whole-grain  BREAD"));
+        assertEquals(List.of("milk", "1l"), ItemSearchIndex.tokenize(" milk, 1L!"));
+        assertTrue(ItemSearchIndex.tokenize("--").isEmpty());
+        assertTrue(ItemSearchIndex.tokenize(null).isEmpty());
+    }
+
+    @Test
+    void lastTokenMatchesAsPrefix() {
+        assertEquals(Set.of("1", "2", "3"), ids(index.search("mil", null, null, null, null, 10)));
+        assertEquals(Set.of("1", "4"), ids(index.search("WHO", null, null, null, null, 10)));
+        assertEquals(Set.of(), ids(index.search("cheese", null, null, null, null, 10)));
+    }
+
+    @Test
+    void earlierTokensMustMatchExactlyAndAllTokensAreIntersected() {
+        assertEquals(Set.of("1"), ids(index.search("whole mi", null, null, null, null, 10)));
+        assertEquals(Set.of("3"), ids(index.search("milk choc", null, null, null, null, 10)));
+        // "mil" is only a prefix, so as a non-final token it matches nothing
+        assertEquals(Set.of(), ids(index.search("mil chocolate", null, null, null, null, 10)));
+    }
+
+    @Test
+    void filtersNarrowTheMatches() {
+        assertEquals(Set.of("1", "2"), ids(index.search("milk", ItemType.DRINKS, null, null, null, 10)));
+        assertEquals(Set.of("1", "3"), ids(index.search("milk", null, 150L, null, null, 10)));
+        assertEquals(Set.of("1", "2"), ids(index.search("milk", null, null, 150L, null, 10)));
+        assertEquals(Set.of("2", "3"), ids(index.search("milk", null, null, null, "store-2", 10)));
+    }
+
+    @Test
+    void priceRangeUsesTheShelfPriceWithinASupermarket() {
+        SupermarketItem discounted = new SupermarketItem("store-2", item("3", "Milk Chocolate", 250L, ItemType.FOOD));
+        discounted.setPrice(120L);
+        discounted.setOwnPrice(true);
+        index.onSupermarketItemsChanged(new SupermarketItemsChangedEvent("store-2", List.of(discounted)));
+
+        assertEquals(Set.of("2", "3"), ids(index.search("milk", null, null, 140L, "store-2", 10)));
+        // The list price still applies without a supermarket
+        assertEquals(Set.of("1", "2"), ids(index.search("milk", null, null, 150L, null, 10)));
+        assertEquals(Set.of("3"), ids(index.search("milk", null, 200L, null, null, 10)));
+        assertEquals(Set.of(), ids(index.search("milk", null, 200L, null, "store-2", 10)));
+    }
+
+    @Test
+    void filterOnlyQueriesAreNotAnsweredByTheIndex() {
+        assertTrue(ItemSearchIndex.isFilterOnly(null));
+        assertTrue(ItemSearchIndex.isFilterOnly(" -- "));
+        assertFalse(ItemSearchIndex.isFilterOnly("milk"));
+        assertThrows(IllegalArgumentException.class, () -> index.search("", ItemType.FOOD, null, null, null, 10));
+    }
+
+    @Test
+    void limitCapsTheResults() {
+        assertEquals(2, index.search("milk", null, null, null, null, 2).size());
+        assertEquals(1, index.search("whole milk", null, null, null, null, 1).size());
+        assertTrue(index.search("milk", null, null, null, null, 0).isEmpty());
+    }
+
+    @Test
+    void changesReplaceAndRemoveDocuments() {
+        Item renamed = item("1", "Oat Drink", 150L, ItemType.DRINKS);
+        index.onItemChanged(new ItemChangedEvent("1", List.of(new SupermarketItem("store-1", renamed)), renamed));
+        assertEquals(Set.of("2", "3"), ids(index.search("milk", null, null, null, null, 10)));
+        assertEquals(Set.of("1"), ids(index.search("oat", null, null, null, "store-1", 10)));
+
+        index.onItemChanged(new ItemChangedEvent("3", List.of(), null));
+        assertEquals(Set.of("2"), ids(index.search("milk", null, null, null, null, 10)));
+        assertEquals(3, index.size());
+    }
+
+    @Test
+    void listingChangesMoveItemsBetweenSupermarkets() {
+        SupermarketItem delisted = new SupermarketItem("store-2", item("2", "Skimmed Milk", 140L, ItemType.DRINKS));
+        delisted.setActive(false);
+        SupermarketItem listed = new SupermarketItem("store-2", item("4", "Whole-grain Bread", 220L, ItemType.FOOD));
+        index.onSupermarketItemsChanged(new SupermarketItemsChangedEvent("store-2", List.of(delisted, listed)));
+        assertEquals(Set.of("3"), ids(index.search("milk", null, null, null, "store-2", 10)));
+        assertEquals(Set.of("4"), ids(index.search("bread", null, null, null, "store-2", 10)));
+
+        index.onSupermarketChanged(new SupermarketChangedEvent("store-2", null));
+        assertEquals(Set.of(), ids(index.search("milk", null, null, null, "store-2", 10)));
+        assertEquals(Set.of(), ids(index.search("bread", null, null, null, "store-2", 10)));
+        // The items themselves stay searchable
+        assertEquals(4, index.size());
+    }
+
+    private void put(Item item, String... supermarketIds) {
+        List<SupermarketItem> listings = List.of(supermarketIds).stream()
+                .map(supermarketId -> new SupermarketItem(supermarketId, item))
+                .collect(Collectors.toList());
+        index.onItemChanged(new ItemChangedEvent(item.getId(), listings, item));
+    }
+
+    private static Item item(String id, String name, Long price, ItemType type) {
+        Item item = new Item();
+        item.setId(id);
+        item.setName(name);
+        item.setPrice(price);
+        item.setType(type);
+        return item;
+    }
+
+    private static Set<String> ids(List<Item> items) {
+        return items.stream().map(Item::getId).collect(Collectors.toSet());
+    }
+}
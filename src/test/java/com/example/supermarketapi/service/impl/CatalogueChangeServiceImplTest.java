@@ -0,0 +1,181 @@
+package com.example.supermarketapi.service.impl;
+
+import com.example.supermarketapi.dto.ChangeDTO;
+import com.example.supermarketapi.dto.ChangeFeedDTO;
+import com.example.supermarketapi.dto.ItemResponseDTO;
+import com.example.supermarketapi.mapper.CatalogueMapper;
+import com.example.supermarketapi.model.CatalogueChange;
+import com.example.supermarketapi.model.Item;
+import com.example.supermarketapi.model.enums.CatalogueEntityType;
+import com.example.supermarketapi.model.enums.ChangeOperation;
+import com.example.supermarketapi.model.enums.ItemType;
+import com.example.supermarketapi.repository.CatalogueChangeRepository;
+import com.example.supermarketapi.repository.ItemRepository;
+import com.example.supermarketapi.repository.SupermarketRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class CatalogueChangeServiceImplTest {
+
+    private static final Instant SETTLED = Instant.now().minus(Duration.ofMinutes(1));
+
+    private final List<CatalogueChange> log = new ArrayList<>();
+    private final Map<String, Item> items = new HashMap<>();
+
+    private CatalogueChangeRepository changeRepository;
+    private ItemRepository itemRepository;
+    private CatalogueMapper catalogueMapper;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        changeRepository = mock(CatalogueChangeRepository.class);
+        when(changeRepository.findByEntityTypeAndSeqGreaterThanOrderBySeq(eq(CatalogueEntityType.ITEM), anyLong(),
+                any(Pageable.class))).thenAnswer(invocation -> {
+                    long since = invocation.getArgument(1);
+                    Pageable pageable = invocation.getArgument(2);
+                    return log.stream().filter(change -> change.getSeq() > since)
+                            .limit(pageable.getPageSize()).collect(Collectors.toList());
+                });
+        itemRepository = mock(ItemRepository.class);
+        when(itemRepository.findAllById(any())).thenAnswer(invocation -> {
+            List<Item> found = new ArrayList<>();
+            for (String id : (Iterable<String>) invocation.getArgument(0)) {
+                if (items.containsKey(id)) {
+                    found.add(items.get(id));
+                }
+            }
+            return found;
+        });
+        catalogueMapper = mock(CatalogueMapper.class);
+        when(catalogueMapper.toItemResponse(any(Item.class))).thenAnswer(invocation -> {
+            Item item = invocation.getArgument(0);
+            return new ItemResponseDTO(item.getId(), item.getName(), item.getPrice(), item.getType(), null);
+        });
+    }
+
+    @Test
+    void compactsToTheLatestChangePerItemWithItsCurrentState() {
+        item("a", "Apples v2");
+        item("b", "Bread");
+        append("a", ChangeOperation.UPSERT, SETTLED);
+        append("b", ChangeOperation.UPSERT, SETTLED);
+        append("a", ChangeOperation.UPSERT, SETTLED);
+
+        ChangeFeedDTO<ItemResponseDTO> feed = service(Duration.ZERO).getItemChanges(0, 10);
+
+        // One entry per item, ordered by its latest seq
+        assertEquals(List.of(2L, 3L), seqs(feed));
+        assertEquals(List.of("b", "a"), feed.getChanges().stream().map(ChangeDTO::getId).collect(Collectors.toList()));
+        assertEquals("Apples v2", feed.getChanges().get(1).getData().getName());
+        assertEquals(3L, feed.getNextSince());
+        assertFalse(feed.isHasMore());
+    }
+
+    @Test
+    void deletedItemsComeBackAsTombstones() {
+        item("b", "Bread");
+        append("a", ChangeOperation.UPSERT, SETTLED);
+        append("a", ChangeOperation.DELETE, SETTLED);
+        append("b", ChangeOperation.UPSERT, SETTLED);
+        // Upserted in the log but deleted since
+        append("c", ChangeOperation.UPSERT, SETTLED);
+
+        List<ChangeDTO<ItemResponseDTO>> changes = service(Duration.ZERO).getItemChanges(0, 10).getChanges();
+
+        assertEquals(3, changes.size());
+        assertEquals(ChangeOperation.DELETE, changes.get(0).getOperation());
+        assertNull(changes.get(0).getData());
+        assertEquals(ChangeOperation.UPSERT, changes.get(1).getOperation());
+        assertEquals("c", changes.get(2).getId());
+        assertEquals(ChangeOperation.DELETE, changes.get(2).getOperation());
+        assertNull(changes.get(2).getData());
+    }
+
+    @Test
+    void holdsBackChangesYoungerThanTheSettleWindow() {
+        item("a", "Apples");
+        item("b", "Bread");
+        item("c", "Cheese");
+        append("a", ChangeOperation.UPSERT, SETTLED);
+        append("b", ChangeOperation.UPSERT, Instant.now());
+        // Settled, but behind one that is not, so it waits too
+        append("c", ChangeOperation.UPSERT, SETTLED);
+
+        ChangeFeedDTO<ItemResponseDTO> feed = service(Duration.ofSeconds(30)).getItemChanges(0, 10);
+
+        assertEquals(List.of(1L), seqs(feed));
+        assertEquals(1L, feed.getNextSince());
+        assertFalse(feed.isHasMore());
+
+        ChangeFeedDTO<ItemResponseDTO> again = service(Duration.ofSeconds(30)).getItemChanges(1, 10);
+        assertTrue(again.getChanges().isEmpty());
+        // Nothing returned, the cursor stays put
+        assertEquals(1L, again.getNextSince());
+    }
+
+    @Test
+    void pagesFollowNextSince() {
+        for (String id : List.of("a", "b", "c", "d", "e")) {
+            item(id, id);
+            append(id, ChangeOperation.UPSERT, SETTLED);
+        }
+        CatalogueChangeServiceImpl service = service(Duration.ZERO);
+
+        ChangeFeedDTO<ItemResponseDTO> first = service.getItemChanges(0, 2);
+        assertEquals(List.of(1L, 2L), seqs(first));
+        assertTrue(first.isHasMore());
+
+        ChangeFeedDTO<ItemResponseDTO> second = service.getItemChanges(first.getNextSince(), 2);
+        assertEquals(List.of(3L, 4L), seqs(second));
+        assertTrue(second.isHasMore());
+
+        ChangeFeedDTO<ItemResponseDTO> last = service.getItemChanges(second.getNextSince(), 2);
+        assertEquals(List.of(5L), seqs(last));
+        assertFalse(last.isHasMore());
+        assertEquals(5L, last.getNextSince());
+    }
+
+    private CatalogueChangeServiceImpl service(Duration settleWindow) {
+        return new CatalogueChangeServiceImpl(changeRepository, itemRepository, mock(SupermarketRepository.class),
+                catalogueMapper, mock(ApplicationEventPublisher.class), settleWindow);
+    }
+
+    private void item(String id, String name) {
+        Item item = new Item();
+        item.setId(id);
+        item.setName(name);
+        item.setPrice(100L);
+        item.setType(ItemType.FOOD);
+        items.put(id, item);
+    }
+
+    private void append(String itemId, ChangeOperation operation, Instant changedAt) {
+        CatalogueChange change = new CatalogueChange(CatalogueEntityType.ITEM, itemId, null, operation);
+        ReflectionTestUtils.setField(change, "seq", (long) log.size() + 1);
+        ReflectionTestUtils.setField(change, "changedAt", changedAt);
+        log.add(change);
+    }
+
+    private static List<Long> seqs(ChangeFeedDTO<ItemResponseDTO> feed) {
+        return feed.getChanges().stream().map(ChangeDTO::getSeq).collect(Collectors.toList());
+    }
+}
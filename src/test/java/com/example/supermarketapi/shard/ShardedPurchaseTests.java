@@ -0,0 +1,146 @@
+package com.example.supermarketapi.shard;
+
+import com.example.supermarketapi.model.Item;
+import com.example.supermarketapi.model.Purchase;
+import com.example.supermarketapi.model.Supermarket;
+import com.example.supermarketapi.model.enums.ItemType;
+import com.example.supermarketapi.model.enums.PaymentType;
+import com.example.supermarketapi.service.ItemService;
+import com.example.supermarketapi.service.PurchaseService;
+import com.example.supermarketapi.service.SupermarketService;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import javax.sql.DataSource;
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Three embedded H2 databases as shard-0 (catalogue) and two purchase shards
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:shard_0;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "app.sharding.enabled=true",
+        "app.sharding.urls=jdbc:h2:mem:shard_1;MODE=MySQL;DB_CLOSE_DELAY=-1,jdbc:h2:mem:shard_2;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "app.sharding.schema-script=classpath:shard-schema.sql"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("h2")
+class ShardedPurchaseTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private SupermarketService supermarketService;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private PurchaseService purchaseService;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private HikariDataSource catalogueShardDataSource;
+
+    @Autowired
+    private ShardDataSources shardDataSources;
+
+    @Test
+    void purchasesGoToTheirSupermarketsShardAndAreGatheredAcrossShards() {
+        Item item = new Item();
+        item.setName("Rye Bread");
+        item.setPrice(150L);
+        item.setType(ItemType.FOOD);
+        String itemId = itemService.createItem(item).getId();
+
+        Map<String, String> shardOfPurchase = new HashMap<>();
+        for (int i = 0; i < 12; i++) {
+            Supermarket supermarket = new Supermarket();
+            supermarket.setName("Shard Market " + i);
+            supermarket.setAddress(i + " Shard Street");
+            String supermarketId = supermarketService.createSupermarket(supermarket).getId();
+            supermarketService.addItems(supermarketId, List.of(itemId));
+
+            Purchase purchase = purchaseService.makePurchase(supermarketId, List.of(itemId), PaymentType.CARD, null);
+            shardOfPurchase.put(purchase.getId(), shardRouter.shardOf(supermarketId));
+        }
+
+        for (Map.Entry<String, String> purchase : shardOfPurchase.entrySet()) {
+            assertEquals(Map.of(purchase.getValue(), 1), rowsByShard(purchase.getKey()),
+                    "purchase " + purchase.getKey());
+        }
+        // Twelve supermarkets on one shard out of three would mean the ring is broken
+        assertTrue(new HashSet<>(shardOfPurchase.values()).size() > 1);
+
+        Set<String> gathered = purchaseService.getAll().stream().map(Purchase::getId).collect(Collectors.toSet());
+        assertEquals(shardOfPurchase.keySet(), gathered);
+    }
+
+    @Test
+    void updatesStayOnThePurchasesShard() throws Exception {
+        Item item = new Item();
+        item.setName("Moving Bread");
+        item.setPrice(150L);
+        item.setType(ItemType.FOOD);
+        String itemId = itemService.createItem(item).getId();
+
+        // Two supermarkets on different shards
+        Map<String, String> supermarketByShard = new HashMap<>();
+        for (int i = 0; supermarketByShard.size() < 2; i++) {
+            Supermarket supermarket = new Supermarket();
+            supermarket.setName("Moving Market " + i);
+            supermarket.setAddress(i + " Moving Street");
+            String supermarketId = supermarketService.createSupermarket(supermarket).getId();
+            supermarketByShard.putIfAbsent(shardRouter.shardOf(supermarketId), supermarketId);
+        }
+        Iterator<String> supermarketIds = supermarketByShard.values().iterator();
+        String supermarketId = supermarketIds.next();
+        String otherSupermarketId = supermarketIds.next();
+        supermarketService.addItems(supermarketId, List.of(itemId));
+        String purchaseId = purchaseService.makePurchase(supermarketId, List.of(itemId), PaymentType.CARD, null)
+                .getId();
+        Map<String, Integer> stored = Map.of(shardRouter.shardOf(supermarketId), 1);
+
+        mockMvc.perform(patch("/purchases/{id}", purchaseId).contentType(MediaType.APPLICATION_JSON)
+                .content("{\"supermarketId\": \"" + otherSupermarketId + "\"}"))
+                .andExpect(status().isBadRequest());
+        assertEquals(stored, rowsByShard(purchaseId));
+
+        mockMvc.perform(patch("/purchases/{id}", purchaseId).contentType(MediaType.APPLICATION_JSON)
+                .content("{\"supermarketId\": \"" + supermarketId + "\", \"type\": \"CASH\", \"cashAmount\": 5.00}"))
+                .andExpect(status().isOk());
+        assertEquals(stored, rowsByShard(purchaseId));
+        Purchase updated = purchaseService.getById(purchaseId).orElseThrow();
+        assertEquals(supermarketId, updated.getSupermarketId());
+        assertEquals(PaymentType.CASH, updated.getPaymentType());
+    }
+
+    // Shards holding a row of the purchase, with the number of rows each holds
+    private Map<String, Integer> rowsByShard(String purchaseId) {
+        Map<String, DataSource> shards = new LinkedHashMap<>(shardDataSources.getPools());
+        shards.put(ShardRouter.CATALOGUE_SHARD, catalogueShardDataSource);
+        Map<String, Integer> rows = new HashMap<>();
+        shards.forEach((shard, dataSource) -> {
+            Integer count = new JdbcTemplate(dataSource)
+                    .queryForObject("SELECT COUNT(*) FROM purchase WHERE id = ?", Integer.class, purchaseId);
+            if (count != null && count > 0) {
+                rows.put(shard, count);
+            }
+        });
+        return rows;
+    }
+}
@@ -0,0 +1,24 @@
+-- Purchase tables of the extra shards in ShardedPurchaseTests; shard-0 gets its schema from Hibernate
+CREATE TABLE purchase (
+    id              VARCHAR(255)   NOT NULL,
+    price           DECIMAL(12, 2) NOT NULL,
+    change_amount   DECIMAL(12, 2) NOT NULL,
+    time_of_payment DATE           NOT NULL,
+    supermarket_id  VARCHAR(255),
+    item_ids        VARCHAR(65535),
+    payment_type    VARCHAR(255),
+    cash_amount     DECIMAL(12, 2),
+    discount_amount DECIMAL(12, 2) NOT NULL DEFAULT 0,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE outbox_message (
+    id             BIGINT       NOT NULL AUTO_INCREMENT,
+    message_id     VARCHAR(36)  NOT NULL,
+    aggregate_type VARCHAR(64)  NOT NULL,
+    aggregate_id   VARCHAR(255) NOT NULL,
+    event_type     VARCHAR(64)  NOT NULL,
+    payload        CLOB         NOT NULL,
+    created_at     TIMESTAMP    NOT NULL,
+    PRIMARY KEY (id)
+);